@@ -0,0 +1,74 @@
+package fr.ua.iutlens.sae.reseau.benchmark;
+
+import fr.ua.iutlens.sae.reseau.GenerateurReseau;
+import fr.ua.iutlens.sae.reseau.ReseauRoutier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * La classe {@code CartesSynthetiques} fabrique les cartes utilisées par les bancs d'essai.
+ * <p></p>
+ * Une carte synthétique est une grille de {@code cote x cote} points produite par {@link GenerateurReseau}, chaque
+ * point étant relié à ses quatre voisins dans les deux sens. Le point de la ligne {@code l} et de la colonne
+ * {@code c} a l'identifiant {@code l * cote + c}. Les cartes sont reproductibles : la graine est fixée.
+ */
+final class CartesSynthetiques {
+
+    /**
+     * Graine des générateurs aléatoires utilisés par les bancs d'essai
+     */
+    private static final long GRAINE = 20240917L;
+
+    private CartesSynthetiques() {
+    }
+
+    /**
+     * Écrit une grille de {@code cote x cote} points dans un fichier temporaire au format de
+     * {@link ReseauRoutier#lireCarte(String)}.
+     *
+     * @param cote nombre de points par ligne et par colonne
+     * @return chemin du fichier, supprimé à l'arrêt de la machine virtuelle
+     */
+    static Path grille(int cote) {
+        try {
+            Path fichier = Files.createTempFile("grille-" + cote + "-", ".txt");
+            fichier.toFile().deleteOnExit();
+            new GenerateurReseau(GenerateurReseau.Modele.GRILLE, cote * cote, GRAINE).ecrireCarte(fichier);
+            return fichier;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Charge une grille de {@code cote x cote} points.
+     *
+     * @param cote nombre de points par ligne et par colonne
+     * @return le réseau routier
+     */
+    static ReseauRoutier reseau(int cote) {
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(grille(cote).toString());
+        return reseau;
+    }
+
+    /**
+     * Tire {@code nb} couples d'identifiants de points d'une grille de {@code cote x cote} points.
+     *
+     * @param cote nombre de points par ligne et par colonne
+     * @param nb nombre de couples
+     * @return un tableau de taille {@code 2 * nb} : départ et arrivée du i-ème couple aux positions {@code 2i} et
+     * {@code 2i+1}
+     */
+    static int[] couples(int cote, int nb) {
+        Random aleatoire = new Random(GRAINE);
+        int[] couples = new int[2 * nb];
+        for (int i = 0; i < couples.length; i++)
+            couples[i] = aleatoire.nextInt(cote * cote);
+        return couples;
+    }
+}
@@ -0,0 +1,57 @@
+package fr.ua.iutlens.sae.reseau.benchmark;
+
+import fr.ua.iutlens.sae.reseau.Arete;
+import fr.ua.iutlens.sae.reseau.Point;
+import fr.ua.iutlens.sae.reseau.ReseauRoutier;
+import fr.ua.iutlens.sae.reseau.graph.VueJGraphT;
+import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleDirectedWeightedGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compare la construction d'un graphe JGraphT : recopie des points et des routes dans un
+ * {@code SimpleDirectedWeightedGraph}, comme le faisait {@code DessineGraph}, et création de la vue
+ * {@link VueJGraphT} suivie d'un parcours complet de ses arêtes sortantes.
+ */
+@State(Scope.Benchmark)
+public class GrapheJGraphTBenchmark {
+
+    /**
+     * Nombre de points par ligne et par colonne de la grille
+     */
+    @Param({"100", "300"})
+    public int cote;
+
+    private ReseauRoutier reseau;
+
+    @Setup
+    public void preparer() {
+        reseau = CartesSynthetiques.reseau(cote);
+    }
+
+    @Benchmark
+    public Graph<Point, DefaultWeightedEdge> recopie() {
+        Graph<Point, DefaultWeightedEdge> g = new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        for (Point p : reseau.getPoints())
+            g.addVertex(p);
+        for (Arete a : reseau.getRoutes())
+            Graphs.addEdge(g, reseau.getPointById(a.getIdP1()), reseau.getPointById(a.getIdP2()), a.getPoids());
+        return g;
+    }
+
+    @Benchmark
+    public double vue() {
+        Graph<Point, Integer> g = new VueJGraphT(reseau);
+        double somme = 0;
+        for (Point p : g.vertexSet())
+            for (Integer e : g.outgoingEdgesOf(p))
+                somme += g.getEdgeWeight(e);
+        return somme;
+    }
+}
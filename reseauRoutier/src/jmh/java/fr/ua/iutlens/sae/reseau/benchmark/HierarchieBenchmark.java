@@ -0,0 +1,57 @@
+package fr.ua.iutlens.sae.reseau.benchmark;
+
+import fr.ua.iutlens.sae.reseau.GrapheCSR;
+import fr.ua.iutlens.sae.reseau.HierarchieContractee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Mesure les requêtes de distance dans la hiérarchie de contraction, sur les mêmes couples de points que
+ * {@link PlusCourtCheminBenchmark}. Le prétraitement, long sur les grilles, est fait une fois par essai et limité
+ * aux petites tailles.
+ */
+@State(Scope.Thread)
+public class HierarchieBenchmark {
+
+    /**
+     * Nombre de couples de points tirés
+     */
+    private static final int NB_COUPLES = 1024;
+
+    /**
+     * Nombre de points par ligne et par colonne de la grille
+     */
+    @Param({"50", "100"})
+    public int cote;
+
+    private HierarchieContractee.Requete requete;
+
+    /**
+     * Indices des points de départ et d'arrivée, alternés
+     */
+    private int[] couples;
+
+    /**
+     * Numéro du prochain couple
+     */
+    private int suivant;
+
+    @Setup
+    public void preparer() {
+        GrapheCSR graphe = (GrapheCSR) CartesSynthetiques.reseau(cote).getGraphe();
+        requete = HierarchieContractee.construire(graphe).nouvelleRequete();
+        couples = CartesSynthetiques.couples(cote, NB_COUPLES);
+        for (int i = 0; i < couples.length; i++)
+            couples[i] = graphe.indexDe(couples[i]);
+    }
+
+    @Benchmark
+    public double distance() {
+        int i = 2 * suivant;
+        suivant = (suivant + 1) % NB_COUPLES;
+        return requete.distance(couples[i], couples[i + 1]);
+    }
+}
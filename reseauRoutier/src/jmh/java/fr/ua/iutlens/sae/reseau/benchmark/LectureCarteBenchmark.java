@@ -0,0 +1,62 @@
+package fr.ua.iutlens.sae.reseau.benchmark;
+
+import fr.ua.iutlens.sae.reseau.ReseauRoutier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Mesure le chargement d'un réseau : analyse d'une carte texte par {@link ReseauRoutier#lireCarte(String)} et
+ * relecture d'un instantané binaire par {@link ReseauRoutier#lireInstantane(String)}.
+ */
+@State(Scope.Benchmark)
+public class LectureCarteBenchmark {
+
+    /**
+     * Nombre de points par ligne et par colonne de la grille
+     */
+    @Param({"100", "300", "1000"})
+    public int cote;
+
+    /**
+     * Chemin de la carte texte
+     */
+    private String carte;
+
+    /**
+     * Chemin de l'instantané binaire de la même carte
+     */
+    private String instantane;
+
+    @Setup
+    public void preparer() throws IOException {
+        Path fichier = CartesSynthetiques.grille(cote);
+        carte = fichier.toString();
+        Path binaire = Files.createTempFile("grille-" + cote + "-", ".bin");
+        binaire.toFile().deleteOnExit();
+        instantane = binaire.toString();
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte);
+        reseau.ecrireInstantane(instantane);
+    }
+
+    @Benchmark
+    public ReseauRoutier lireCarte() {
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte);
+        return reseau;
+    }
+
+    @Benchmark
+    public ReseauRoutier lireInstantane() {
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireInstantane(instantane);
+        return reseau;
+    }
+}
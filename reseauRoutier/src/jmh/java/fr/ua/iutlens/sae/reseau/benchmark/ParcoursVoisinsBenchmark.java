@@ -0,0 +1,66 @@
+package fr.ua.iutlens.sae.reseau.benchmark;
+
+import fr.ua.iutlens.sae.reseau.Arete;
+import fr.ua.iutlens.sae.reseau.GrapheCSR;
+import fr.ua.iutlens.sae.reseau.Point;
+import fr.ua.iutlens.sae.reseau.ReseauRoutier;
+import fr.ua.iutlens.sae.reseau.graph.VueJGraphT;
+import org.jgrapht.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Mesure le parcours des voisins de tous les points du réseau : directement sur les tableaux du {@link GrapheCSR},
+ * à travers la vue {@link VueJGraphT} et sur la liste d'arêtes renvoyée par {@link ReseauRoutier#getRoutes()}.
+ */
+@State(Scope.Benchmark)
+public class ParcoursVoisinsBenchmark {
+
+    /**
+     * Nombre de points par ligne et par colonne de la grille
+     */
+    @Param({"100", "300", "1000"})
+    public int cote;
+
+    private ReseauRoutier reseau;
+
+    private GrapheCSR graphe;
+
+    private Graph<Point, Integer> vue;
+
+    @Setup
+    public void preparer() {
+        reseau = CartesSynthetiques.reseau(cote);
+        graphe = (GrapheCSR) reseau.getGraphe();
+        vue = new VueJGraphT(reseau);
+    }
+
+    @Benchmark
+    public double csr() {
+        double somme = 0;
+        for (int u = 0; u < graphe.getNbSommets(); u++)
+            for (int k = graphe.getDebut(u); k < graphe.getFin(u); k++)
+                somme += graphe.getPoids(k) + graphe.getCible(k);
+        return somme;
+    }
+
+    @Benchmark
+    public double vueJGraphT() {
+        double somme = 0;
+        for (Point p : vue.vertexSet())
+            for (Integer e : vue.outgoingEdgesOf(p))
+                somme += vue.getEdgeWeight(e) + vue.getEdgeTarget(e).getId();
+        return somme;
+    }
+
+    @Benchmark
+    public double routes() {
+        double somme = 0;
+        for (Arete a : reseau.getRoutes())
+            somme += a.getPoids() + a.getIdP2();
+        return somme;
+    }
+}
@@ -0,0 +1,103 @@
+package fr.ua.iutlens.sae.reseau.benchmark;
+
+import fr.ua.iutlens.sae.reseau.GrapheCSR;
+import fr.ua.iutlens.sae.reseau.RechercheChemin;
+import fr.ua.iutlens.sae.reseau.Reperes;
+import fr.ua.iutlens.sae.reseau.ReseauRoutier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Mesure les requêtes de plus court chemin entre des couples de points tirés au hasard : Dijkstra, A*, ALT et
+ * Dijkstra bidirectionnel sur le graphe complet, avec un espace de travail par fil d'exécution comme dans
+ * {@link ReseauRoutier}, puis reconstitution du chemin par {@link ReseauRoutier#plusCourtChemin(int, int)}.
+ */
+@State(Scope.Thread)
+public class PlusCourtCheminBenchmark {
+
+    /**
+     * Nombre de couples de points tirés
+     */
+    private static final int NB_COUPLES = 1024;
+
+    /**
+     * Nombre de points par ligne et par colonne de la grille
+     */
+    @Param({"100", "300", "1000"})
+    public int cote;
+
+    private ReseauRoutier reseau;
+
+    private RechercheChemin recherche;
+
+    /**
+     * Seize repères choisis par la méthode <i>avoid</i>
+     */
+    private Reperes reperes;
+
+    /**
+     * Indices des points de départ et d'arrivée, alternés
+     */
+    private int[] couples;
+
+    /**
+     * Identifiants des points de départ et d'arrivée, alternés
+     */
+    private int[] ids;
+
+    /**
+     * Numéro du prochain couple
+     */
+    private int suivant;
+
+    @Setup
+    public void preparer() {
+        reseau = CartesSynthetiques.reseau(cote);
+        GrapheCSR graphe = (GrapheCSR) reseau.getGraphe();
+        recherche = new RechercheChemin(graphe);
+        reperes = Reperes.construire(graphe, 16, Reperes.Selection.EVITEMENT);
+        ids = CartesSynthetiques.couples(cote, NB_COUPLES);
+        couples = new int[ids.length];
+        for (int i = 0; i < ids.length; i++)
+            couples[i] = graphe.indexDe(ids[i]);
+    }
+
+    private int couple() {
+        int i = suivant;
+        suivant = (suivant + 1) % NB_COUPLES;
+        return 2 * i;
+    }
+
+    @Benchmark
+    public double dijkstra() {
+        int i = couple();
+        return recherche.dijkstra(couples[i], couples[i + 1]);
+    }
+
+    @Benchmark
+    public double aEtoile() {
+        int i = couple();
+        return recherche.aEtoile(couples[i], couples[i + 1]);
+    }
+
+    @Benchmark
+    public double bidirectionnelle() {
+        int i = couple();
+        return recherche.bidirectionnelle(couples[i], couples[i + 1]);
+    }
+
+    @Benchmark
+    public double alt() {
+        int i = couple();
+        return recherche.alt(couples[i], couples[i + 1], reperes);
+    }
+
+    @Benchmark
+    public Object cheminDijkstra() {
+        int i = couple();
+        return reseau.plusCourtChemin(ids[i], ids[i + 1]);
+    }
+}
@@ -0,0 +1,173 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code AffectationDepots} associe à chaque sommet d'un {@link Graphe} le dépôt le plus proche par le
+ * réseau, et la distance de ce dépôt au sommet.
+ * <p></p>
+ * Toutes les distances sont obtenues par une seule recherche de Dijkstra partant de tous les dépôts à la fois, au
+ * lieu d'une recherche par dépôt. Les résultats sont rangés dans des tableaux de types primitifs, indexés par les
+ * indices des sommets du graphe. Lorsque plusieurs dépôts sont à la même distance d'un sommet, celui de plus petite
+ * position dans la liste des dépôts est retenu (si les pondérations sont strictement positives).
+ */
+public final class AffectationDepots {
+
+    /**
+     * Graphe dont les sommets sont affectés
+     */
+    private final Graphe graphe;
+
+    /**
+     * Indices des dépôts
+     */
+    private final int[] depots;
+
+    /**
+     * Position dans {@code depots} du dépôt le plus proche de chaque sommet, {@code -1} si aucun ne l'atteint
+     */
+    private final int[] plusProche;
+
+    /**
+     * Distance du dépôt le plus proche à chaque sommet, {@link Double#POSITIVE_INFINITY} si aucun ne l'atteint
+     */
+    private final double[] distances;
+
+    AffectationDepots(Graphe graphe, int[] depots, int[] plusProche, double[] distances) {
+        this.graphe = graphe;
+        this.depots = depots;
+        this.plusProche = plusProche;
+        this.distances = distances;
+    }
+
+    /**
+     * Affecte chaque sommet du graphe au dépôt le plus proche par une recherche de Dijkstra partant de tous les
+     * dépôts. Les pondérations doivent être positives ou nulles : sinon, le parcours se termine mais les distances
+     * obtenues ne sont pas les plus courtes.
+     *
+     * @param graphe graphe à parcourir
+     * @param depots indices des dépôts
+     * @return l'affectation des sommets
+     */
+    public static AffectationDepots calculer(Graphe graphe, int[] depots) {
+        int n = graphe.getNbSommets();
+        int[] plusProche = new int[n];
+        double[] distances = new double[n];
+        Arrays.fill(plusProche, -1);
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        TasIndexe tas = new TasIndexe(n);
+        for (int i = 0; i < depots.length; i++) {
+            int d = depots[i];
+            // Un même sommet donné deux fois reste affecté à sa première position.
+            if (plusProche[d] < 0) {
+                plusProche[d] = i;
+                distances[d] = 0.0;
+                tas.insererOuDiminuer(d, 0.0);
+            }
+        }
+        while (!tas.estVide()) {
+            int u = tas.extraireMinimum();
+            double du = distances[u];
+            int depot = plusProche[u];
+            for (int k = graphe.getDebut(u); k < graphe.getFin(u); k++) {
+                int v = graphe.getCible(k);
+                double dv = du + graphe.getPoids(k);
+                // Un sommet déjà fixé n'est jamais remis dans le tas : avec des pondérations négatives, la recherche
+                // ne se terminerait pas.
+                if (dv < distances[v] && (plusProche[v] < 0 || tas.contient(v))) {
+                    distances[v] = dv;
+                    plusProche[v] = depot;
+                    tas.insererOuDiminuer(v, dv);
+                } else if (dv == distances[v] && depot < plusProche[v] && tas.contient(v)) {
+                    // Égalité de distance avec un sommet pas encore fixé : le dépôt de plus petite position l'emporte.
+                    plusProche[v] = depot;
+                }
+            }
+        }
+        return new AffectationDepots(graphe, depots.clone(), plusProche, distances);
+    }
+
+    /**
+     * Renvoie le graphe dont les sommets sont affectés.
+     *
+     * @return le graphe
+     */
+    public Graphe getGraphe() {
+        return graphe;
+    }
+
+    /**
+     * Renvoie le nombre de dépôts.
+     *
+     * @return nombre de dépôts
+     */
+    public int getNbDepots() {
+        return depots.length;
+    }
+
+    /**
+     * Renvoie l'indice du i-ème dépôt.
+     *
+     * @param i position du dépôt
+     * @return indice du dépôt dans le graphe
+     */
+    public int getDepot(int i) {
+        return depots[i];
+    }
+
+    /**
+     * Renvoie la position du dépôt le plus proche du sommet.
+     *
+     * @param sommet indice du sommet
+     * @return position du dépôt, ou {@code -1} si aucun dépôt n'atteint le sommet
+     */
+    public int getPlusProche(int sommet) {
+        return plusProche[sommet];
+    }
+
+    /**
+     * Renvoie l'identifiant du dépôt le plus proche du point d'identifiant {@code id}.
+     *
+     * @param id identifiant du point
+     * @return identifiant du dépôt
+     * @throws IllegalArgumentException si l'identifiant est inconnu
+     * @throws IllegalStateException si aucun dépôt n'atteint le point
+     */
+    public int getIdDepotPlusProche(int id) {
+        int sommet = graphe.indexDe(id);
+        if (sommet < 0)
+            throw new IllegalArgumentException("Identifiant d'un point inconnu");
+        int i = plusProche[sommet];
+        if (i < 0)
+            throw new IllegalStateException("Aucun dépôt n'atteint le point " + id);
+        return graphe.getId(depots[i]);
+    }
+
+    /**
+     * Renvoie la distance du dépôt le plus proche au sommet.
+     *
+     * @param sommet indice du sommet
+     * @return la distance, ou {@link Double#POSITIVE_INFINITY} si aucun dépôt n'atteint le sommet
+     */
+    public double getDistance(int sommet) {
+        return distances[sommet];
+    }
+
+    /**
+     * Renvoie une copie des positions des dépôts les plus proches, indexées par les indices des sommets.
+     *
+     * @return position du dépôt le plus proche de chaque sommet, {@code -1} si aucun ne l'atteint
+     */
+    public int[] getPlusProches() {
+        return plusProche.clone();
+    }
+
+    /**
+     * Renvoie une copie des distances aux dépôts les plus proches, indexées par les indices des sommets.
+     *
+     * @return distance du dépôt le plus proche à chaque sommet
+     */
+    public double[] getDistances() {
+        return distances.clone();
+    }
+}
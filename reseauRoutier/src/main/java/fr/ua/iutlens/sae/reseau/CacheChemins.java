@@ -0,0 +1,351 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * La classe {@code CacheChemins} conserve les résultats des requêtes de plus court chemin les plus récentes d'un
+ * {@code ReseauRoutier}, pour répondre sans aucune recherche aux couples (départ, arrivée) déjà demandés.
+ * <p></p>
+ * Le cache est borné : lorsqu'il est plein, le couple utilisé le moins récemment est oublié (LRU). Il est découpé
+ * en segments verrouillés séparément, ce qui permet à plusieurs threads de l'utiliser en même temps. Chaque entrée
+ * contient la distance et, si le cache a été créé avec {@code avecChemins}, le chemin codé de façon compacte
+ * (écarts entre identifiants successifs, en entiers de longueur variable).
+ * <p></p>
+ * Le cache écoute les modifications de pondérations du réseau ({@link ReseauRoutier#modifierPoids(MiseAJourPoids)})
+ * et n'oublie que les entrées qu'elles peuvent changer :
+ * <ul>
+ *     <li>une route dont la pondération augmente n'invalide que les chemins qui l'empruntent (tous les chemins si
+ *     le cache ne conserve que les distances) ;</li>
+ *     <li>une route {@code u -> v} dont la pondération diminue n'invalide un chemin de {@code s} à {@code t} que si
+ *     le minorant {@code d(s,u) + poids(u,v) + d(v,t)}, calculé à vol d'oiseau, est plus petit que sa longueur.</li>
+ * </ul>
+ * Chaque entrée porte la version du réseau ({@link ReseauRoutier#getVersion()}) pour laquelle elle a été calculée :
+ * après toute autre modification du réseau (nouvelle carte), les entrées ne sont plus utilisées.
+ */
+public final class CacheChemins implements EcouteurPoids {
+
+    /**
+     * Nombre maximal de segments (puissance de 2)
+     */
+    private static final int NB_SEGMENTS = 16;
+
+    /**
+     * Réseau dont les requêtes sont mises en cache
+     */
+    private final ReseauRoutier reseau;
+
+    /**
+     * Indique si les chemins sont conservés en plus des distances
+     */
+    private final boolean avecChemins;
+
+    private final Segment[] segments;
+
+    /**
+     * Statistiques d'utilisation
+     */
+    private final LongAdder succes = new LongAdder();
+    private final LongAdder echecs = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Crée un cache de requêtes pour le réseau {@code reseau} et l'inscrit comme écouteur de ses modifications.
+     * <p></p>
+     * Un petit cache a moins de segments, pour que chacun conserve au moins une entrée : la capacité est répartie
+     * exactement entre les segments, et le cache ne conserve jamais plus de {@code capacite} couples.
+     *
+     * @param reseau réseau routier
+     * @param capacite nombre maximal de couples conservés
+     * @param avecChemins {@code true} pour conserver les chemins, {@code false} pour ne conserver que les distances
+     */
+    public CacheChemins(ReseauRoutier reseau, int capacite, boolean avecChemins) {
+        if (capacite < 1)
+            throw new IllegalArgumentException("Capacité du cache invalide : " + capacite);
+        this.reseau = reseau;
+        this.avecChemins = avecChemins;
+        segments = new Segment[Integer.highestOneBit(Math.min(capacite, NB_SEGMENTS))];
+        for (int i = 0; i < segments.length; i++)
+            segments[i] = new Segment(capacite / segments.length + (i < capacite % segments.length ? 1 : 0));
+        reseau.ajouterEcouteur(this);
+    }
+
+    /**
+     * Renvoie la longueur du plus court chemin entre deux points du réseau.
+     *
+     * @param idSource identifiant du point de départ
+     * @param idCible identifiant du point d'arrivée
+     * @return la distance, ou {@link Double#POSITIVE_INFINITY} si le point d'arrivée n'est pas atteignable
+     * @throws IllegalArgumentException si l'un des identifiants est inconnu
+     */
+    public double distance(int idSource, int idCible) {
+        return rechercher(idSource, idCible).distance;
+    }
+
+    /**
+     * Renvoie un plus court chemin entre deux points du réseau.
+     *
+     * @param idSource identifiant du point de départ
+     * @param idCible identifiant du point d'arrivée
+     * @return le chemin {@code Chemin} ou {@code null} si le point d'arrivée n'est pas atteignable
+     * @throws IllegalArgumentException si l'un des identifiants est inconnu
+     * @throws IllegalStateException si le cache ne conserve que les distances
+     */
+    public Chemin chemin(int idSource, int idCible) {
+        if (!avecChemins)
+            throw new IllegalStateException("Le cache ne conserve que les distances");
+        Entree e = rechercher(idSource, idCible);
+        return e.chemin == null ? null : new Chemin(decoder(e.chemin), e.distance);
+    }
+
+    private Entree rechercher(int idSource, int idCible) {
+        long cle = cle(idSource, idCible);
+        Segment segment = segment(cle);
+        // La version est lue avant la recherche : si le réseau change pendant celle-ci, l'entrée sera périmée.
+        long version = reseau.getVersion();
+        Entree e;
+        synchronized (segment) {
+            e = segment.get(cle);
+        }
+        if (e != null && e.version == version) {
+            succes.increment();
+            return e;
+        }
+        echecs.increment();
+        Chemin c = reseau.plusCourtCheminBidirectionnel(idSource, idCible);
+        e = new Entree(c == null ? Double.POSITIVE_INFINITY : c.getLongueur(),
+                avecChemins && c != null ? coder(c) : null, version);
+        synchronized (segment) {
+            segment.put(cle, e);
+        }
+        return e;
+    }
+
+    /**
+     * Renvoie le nombre de requêtes servies par le cache.
+     *
+     * @return nombre de succès
+     */
+    public long getNbSucces() {
+        return succes.sum();
+    }
+
+    /**
+     * Renvoie le nombre de requêtes qui ont nécessité une recherche dans le réseau.
+     *
+     * @return nombre d'échecs
+     */
+    public long getNbEchecs() {
+        return echecs.sum();
+    }
+
+    /**
+     * Renvoie le nombre d'entrées oubliées à cause d'une modification du réseau.
+     *
+     * @return nombre d'invalidations
+     */
+    public long getNbInvalidations() {
+        return invalidations.sum();
+    }
+
+    /**
+     * Renvoie le nombre de couples actuellement conservés.
+     *
+     * @return taille du cache
+     */
+    public int getTaille() {
+        int taille = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                taille += segment.size();
+            }
+        }
+        return taille;
+    }
+
+    /**
+     * Oublie toutes les entrées.
+     */
+    public void vider() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Désinscrit le cache des écouteurs du réseau ; le cache peut ensuite être abandonné.
+     */
+    public void fermer() {
+        reseau.retirerEcouteur(this);
+        vider();
+    }
+
+    @Override
+    public void poidsModifies(GrapheCSR ancien, GrapheCSR nouveau, int[] arcs) {
+        // Routes dont la pondération a augmenté, par couple d'identifiants
+        Set<Long> augmentees = new HashSet<>();
+        int nbDiminuees = 0;
+        int[] diminuees = new int[arcs.length];
+        for (int arc : arcs) {
+            double avant = ancien.getPoids(arc);
+            double apres = nouveau.getPoids(arc);
+            if (apres > avant)
+                augmentees.add(cle(nouveau.getId(nouveau.getSource(arc)), nouveau.getId(nouveau.getCible(arc))));
+            else if (!(apres >= avant))
+                diminuees[nbDiminuees++] = arc;
+        }
+        // Le réseau augmente sa version d'une unité par lot, avant de prévenir ses écouteurs.
+        long nouvelle = reseau.getVersion();
+        long precedente = nouvelle - 1;
+        double ratio = nouveau.getRatioPoidsDistance();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                for (Iterator<Map.Entry<Long, Entree>> it = segment.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<Long, Entree> entree = it.next();
+                    Entree e = entree.getValue();
+                    if (e.version == nouvelle)
+                        continue;
+                    if (e.version != precedente
+                            || touchee(e, entree.getKey(), augmentees, diminuees, nbDiminuees, nouveau, ratio)) {
+                        it.remove();
+                        invalidations.increment();
+                    } else {
+                        e.version = nouvelle;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Indique si l'entrée {@code e} du couple {@code cle} peut être changée par les modifications.
+     */
+    private boolean touchee(Entree e, long cle, Set<Long> augmentees, int[] diminuees, int nbDiminuees,
+                            GrapheCSR g, double ratio) {
+        if (!augmentees.isEmpty() && e.distance < Double.POSITIVE_INFINITY) {
+            if (e.chemin == null)
+                return true;
+            int[] ids = decoder(e.chemin);
+            for (int i = 0; i + 1 < ids.length; i++)
+                if (augmentees.contains(cle(ids[i], ids[i + 1])))
+                    return true;
+        }
+        if (nbDiminuees == 0)
+            return false;
+        int s = g.indexDe((int) (cle >> 32));
+        int t = g.indexDe((int) cle);
+        for (int i = 0; i < nbDiminuees; i++) {
+            int arc = diminuees[i];
+            double minorant = g.getPoids(arc)
+                    + ratio * (g.distanceEuclidienne(s, g.getSource(arc)) + g.distanceEuclidienne(g.getCible(arc), t));
+            if (!(minorant >= e.distance))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Renvoie la clé du couple (départ, arrivée) : les deux identifiants dans un seul {@code long}.
+     */
+    private static long cle(int idSource, int idCible) {
+        return ((long) idSource << 32) | (idCible & 0xFFFFFFFFL);
+    }
+
+    private Segment segment(long cle) {
+        long h = cle * 0x9E3779B97F4A7C15L;
+        return segments[(int) (h >>> 60) & (segments.length - 1)];
+    }
+
+    /**
+     * Code les identifiants du chemin : le premier, puis chaque écart au précédent, en zigzag et sur un nombre
+     * variable d'octets (7 bits par octet).
+     */
+    private static byte[] coder(Chemin chemin) {
+        byte[] octets = new byte[5 * chemin.getNbPoints()];
+        int p = 0;
+        long precedent = 0;
+        for (int i = 0; i < chemin.getNbPoints(); i++) {
+            long ecart = chemin.getIdPoint(i) - precedent;
+            precedent = chemin.getIdPoint(i);
+            long z = (ecart << 1) ^ (ecart >> 63);
+            while ((z & ~0x7FL) != 0) {
+                octets[p++] = (byte) ((z & 0x7F) | 0x80);
+                z >>>= 7;
+            }
+            octets[p++] = (byte) z;
+        }
+        byte[] resultat = new byte[p];
+        System.arraycopy(octets, 0, resultat, 0, p);
+        return resultat;
+    }
+
+    private static int[] decoder(byte[] octets) {
+        int nb = 0;
+        for (byte b : octets)
+            if (b >= 0)
+                nb++;
+        int[] ids = new int[nb];
+        int p = 0;
+        long precedent = 0;
+        for (int i = 0; i < nb; i++) {
+            long z = 0;
+            int decalage = 0;
+            byte b;
+            do {
+                b = octets[p++];
+                z |= (long) (b & 0x7F) << decalage;
+                decalage += 7;
+            } while (b < 0);
+            precedent += (z >>> 1) ^ -(z & 1);
+            ids[i] = (int) precedent;
+        }
+        return ids;
+    }
+
+    /**
+     * Résultat conservé pour un couple de points
+     */
+    private static final class Entree {
+        private final double distance;
+
+        /**
+         * Chemin codé, {@code null} si le cache ne conserve que les distances ou si l'arrivée n'est pas atteignable
+         */
+        private final byte[] chemin;
+
+        /**
+         * Version du réseau pour laquelle l'entrée est valable
+         */
+        private volatile long version;
+
+        Entree(double distance, byte[] chemin, long version) {
+            this.distance = distance;
+            this.chemin = chemin;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Segment du cache : dictionnaire dans l'ordre des accès, limité à {@code capacite} entrées
+     */
+    @SuppressWarnings("serial")
+    private static final class Segment extends LinkedHashMap<Long, Entree> {
+        private final int capacite;
+
+        Segment(int capacite) {
+            super(16, 0.75f, true);
+            this.capacite = capacite;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entree> plusAncienne) {
+            return size() > capacite;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code Chemin} représente un itinéraire dans le réseau routier : la suite des identifiants des points
+ * traversés, du point de départ au point d'arrivée, et la somme des pondérations des arêtes empruntées.
+ */
+public class Chemin {
+
+    /**
+     * Identifiants des points traversés
+     */
+    private final int[] ids;
+
+    /**
+     * Somme des pondérations des arêtes du chemin
+     */
+    private final double longueur;
+
+    /**
+     * Constructeur de la classe {@code Chemin}.
+     *
+     * @param ids identifiants des points traversés, le tableau n'est pas copié
+     * @param longueur somme des pondérations des arêtes du chemin
+     */
+    public Chemin(int[] ids, double longueur) {
+        this.ids = ids;
+        this.longueur = longueur;
+    }
+
+    /**
+     * Renvoie la somme des pondérations des arêtes du chemin.
+     *
+     * @return longueur du chemin
+     */
+    public double getLongueur() {
+        return longueur;
+    }
+
+    /**
+     * Renvoie le nombre de points traversés, départ et arrivée compris.
+     *
+     * @return nombre de points
+     */
+    public int getNbPoints() {
+        return ids.length;
+    }
+
+    /**
+     * Renvoie l'identifiant du i-ème point du chemin.
+     *
+     * @param i position du point dans le chemin
+     * @return identifiant du point
+     */
+    public int getIdPoint(int i) {
+        return ids[i];
+    }
+
+    /**
+     * Renvoie une copie des identifiants des points traversés.
+     *
+     * @return identifiants des points
+     */
+    public int[] getIds() {
+        return ids.clone();
+    }
+
+    /**
+     * (non-javadoc)
+     *
+     * @see  Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "Chemin{" +
+                "ids=" + Arrays.toString(ids) +
+                ", longueur=" + longueur +
+                '}';
+    }
+}
@@ -0,0 +1,278 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code Composantes} décrit les composantes fortement et faiblement connexes d'un {@link Graphe}.
+ * <p></p>
+ * Deux sommets sont dans la même composante fortement connexe si chacun peut atteindre l'autre, dans la même
+ * composante faiblement connexe s'ils sont reliés en ignorant le sens des arcs. Les composantes fortement connexes
+ * sont calculées par l'algorithme de Tarjan, écrit avec une pile explicite pour ne pas dépasser la pile d'appels sur
+ * des millions de sommets ; les composantes faiblement connexes par une structure union-find. Les deux calculs sont
+ * en temps linéaire.
+ * <p></p>
+ * L'algorithme de Tarjan termine une composante après toutes celles qu'elle peut atteindre : un arc d'une composante
+ * forte {@code a} vers une autre composante {@code b} implique {@code b < a}. Avec les composantes faibles, cela
+ * permet d'écarter en temps constant la plupart des couples de sommets sans chemin ({@link #estInatteignable(int,
+ * int)}), sans parcourir le graphe.
+ */
+public final class Composantes {
+
+    /**
+     * Numéro de la composante fortement connexe de chaque sommet
+     */
+    private final int[] fortes;
+
+    /**
+     * Nombre de sommets de chaque composante fortement connexe
+     */
+    private final int[] tailles;
+
+    /**
+     * Numéro de la composante faiblement connexe de chaque sommet
+     */
+    private final int[] faibles;
+
+    /**
+     * Nombre de composantes faiblement connexes
+     */
+    private final int nbFaibles;
+
+    private Composantes(int[] fortes, int[] tailles, int[] faibles, int nbFaibles) {
+        this.fortes = fortes;
+        this.tailles = tailles;
+        this.faibles = faibles;
+        this.nbFaibles = nbFaibles;
+    }
+
+    /**
+     * Calcule les composantes du graphe.
+     *
+     * @param graphe graphe à analyser
+     * @return les composantes du graphe
+     */
+    public static Composantes calculer(Graphe graphe) {
+        int n = graphe.getNbSommets();
+        int[] fortes = new int[n];
+        int nbFortes = tarjan(graphe, fortes);
+        int[] tailles = new int[nbFortes];
+        for (int c : fortes)
+            tailles[c]++;
+        int[] faibles = new int[n];
+        int nbFaibles = unionFind(graphe, faibles);
+        return new Composantes(fortes, tailles, faibles, nbFaibles);
+    }
+
+    /**
+     * Numérote les composantes fortement connexes par l'algorithme de Tarjan, sans récursion.
+     *
+     * @return le nombre de composantes
+     */
+    private static int tarjan(Graphe graphe, int[] composante) {
+        int n = graphe.getNbSommets();
+        // Ordre de découverte de chaque sommet (-1 si pas encore découvert) et plus petit ordre qu'il atteint
+        int[] ordre = new int[n];
+        int[] bas = new int[n];
+        // Sommets découverts dont la composante n'est pas encore terminée
+        int[] pile = new int[n];
+        int sommetPile = 0;
+        // Pile d'appels explicite : sommet en cours d'exploration et prochain arc à examiner
+        int[] appels = new int[n];
+        int[] arcs = new int[n];
+        Arrays.fill(ordre, -1);
+        Arrays.fill(composante, -1);
+        int nbDecouverts = 0;
+        int nbComposantes = 0;
+        for (int s = 0; s < n; s++) {
+            if (ordre[s] >= 0)
+                continue;
+            int profondeur = 0;
+            ordre[s] = bas[s] = nbDecouverts++;
+            pile[sommetPile++] = s;
+            appels[profondeur] = s;
+            arcs[profondeur++] = graphe.getDebut(s);
+            while (profondeur > 0) {
+                int u = appels[profondeur - 1];
+                int k = arcs[profondeur - 1];
+                if (k < graphe.getFin(u)) {
+                    arcs[profondeur - 1] = k + 1;
+                    int v = graphe.getCible(k);
+                    if (ordre[v] < 0) {
+                        ordre[v] = bas[v] = nbDecouverts++;
+                        pile[sommetPile++] = v;
+                        appels[profondeur] = v;
+                        arcs[profondeur++] = graphe.getDebut(v);
+                    } else if (composante[v] < 0) {
+                        bas[u] = Math.min(bas[u], ordre[v]);
+                    }
+                    continue;
+                }
+                profondeur--;
+                if (bas[u] == ordre[u]) {
+                    int v;
+                    do {
+                        v = pile[--sommetPile];
+                        composante[v] = nbComposantes;
+                    } while (v != u);
+                    nbComposantes++;
+                }
+                if (profondeur > 0) {
+                    int parent = appels[profondeur - 1];
+                    bas[parent] = Math.min(bas[parent], bas[u]);
+                }
+            }
+        }
+        return nbComposantes;
+    }
+
+    /**
+     * Numérote les composantes faiblement connexes, dans l'ordre de leur plus petit sommet.
+     *
+     * @return le nombre de composantes
+     */
+    private static int unionFind(Graphe graphe, int[] composante) {
+        int n = graphe.getNbSommets();
+        int[] parent = composante;
+        for (int u = 0; u < n; u++)
+            parent[u] = u;
+        for (int u = 0; u < n; u++) {
+            for (int k = graphe.getDebut(u); k < graphe.getFin(u); k++) {
+                int a = racine(parent, u);
+                int b = racine(parent, graphe.getCible(k));
+                // La plus petite racine l'emporte : la racine d'un ensemble est son plus petit sommet.
+                if (a < b)
+                    parent[b] = a;
+                else if (b < a)
+                    parent[a] = b;
+            }
+        }
+        for (int u = 0; u < n; u++)
+            parent[u] = racine(parent, u);
+        int nb = 0;
+        for (int u = 0; u < n; u++) {
+            // Une racine est numérotée avant les autres sommets de son ensemble, qui reprennent ensuite son numéro.
+            if (parent[u] == u)
+                parent[u] = nb++;
+            else
+                parent[u] = parent[parent[u]];
+        }
+        return nb;
+    }
+
+    private static int racine(int[] parent, int u) {
+        while (parent[u] != u) {
+            parent[u] = parent[parent[u]];
+            u = parent[u];
+        }
+        return u;
+    }
+
+    /**
+     * Renvoie le nombre de composantes fortement connexes.
+     *
+     * @return nombre de composantes fortement connexes
+     */
+    public int getNbComposantesFortes() {
+        return tailles.length;
+    }
+
+    /**
+     * Renvoie le numéro de la composante fortement connexe du sommet.
+     *
+     * @param sommet indice du sommet
+     * @return numéro de la composante, de {@code 0} à {@code getNbComposantesFortes()-1}
+     */
+    public int getComposanteForte(int sommet) {
+        return fortes[sommet];
+    }
+
+    /**
+     * Renvoie le nombre de sommets d'une composante fortement connexe.
+     *
+     * @param composante numéro de la composante
+     * @return nombre de sommets
+     */
+    public int getTaille(int composante) {
+        return tailles[composante];
+    }
+
+    /**
+     * Renvoie le numéro de la plus grande composante fortement connexe.
+     *
+     * @return numéro de la composante, ou {@code -1} si le graphe n'a aucun sommet
+     */
+    public int getPlusGrandeComposante() {
+        int resultat = -1;
+        for (int c = 0; c < tailles.length; c++)
+            if (resultat < 0 || tailles[c] > tailles[resultat])
+                resultat = c;
+        return resultat;
+    }
+
+    /**
+     * Renvoie le nombre de composantes faiblement connexes.
+     *
+     * @return nombre de composantes faiblement connexes
+     */
+    public int getNbComposantesFaibles() {
+        return nbFaibles;
+    }
+
+    /**
+     * Renvoie le numéro de la composante faiblement connexe du sommet.
+     *
+     * @param sommet indice du sommet
+     * @return numéro de la composante, de {@code 0} à {@code getNbComposantesFaibles()-1}
+     */
+    public int getComposanteFaible(int sommet) {
+        return faibles[sommet];
+    }
+
+    /**
+     * Indique si le graphe est fortement connexe : chaque sommet peut atteindre tous les autres.
+     *
+     * @return {@code true} si le graphe a au plus une composante fortement connexe
+     */
+    public boolean estFortementConnexe() {
+        return tailles.length <= 1;
+    }
+
+    /**
+     * Indique, en temps constant, si le sommet {@code cible} est certainement inatteignable depuis {@code source}.
+     * <p></p>
+     * La réponse {@code false} ne garantit pas l'existence d'un chemin, sauf si les deux sommets sont dans la même
+     * composante fortement connexe.
+     *
+     * @param source indice du sommet de départ
+     * @param cible indice du sommet d'arrivée
+     * @return {@code true} si aucun chemin ne mène de {@code source} à {@code cible}
+     */
+    public boolean estInatteignable(int source, int cible) {
+        return faibles[source] != faibles[cible] || fortes[cible] > fortes[source];
+    }
+
+    /**
+     * Renvoie une copie des numéros de composantes fortement connexes, indexés par les indices des sommets.
+     *
+     * @return numéro de la composante fortement connexe de chaque sommet
+     */
+    public int[] getComposantesFortes() {
+        return fortes.clone();
+    }
+
+    /**
+     * Renvoie une copie des numéros de composantes faiblement connexes, indexés par les indices des sommets.
+     *
+     * @return numéro de la composante faiblement connexe de chaque sommet
+     */
+    public int[] getComposantesFaibles() {
+        return faibles.clone();
+    }
+
+    @Override
+    public String toString() {
+        int plusGrande = getPlusGrandeComposante();
+        return "Composantes{fortes=" + tailles.length + ", faibles=" + nbFaibles + ", plus grande="
+                + (plusGrande < 0 ? 0 : tailles[plusGrande]) + "/" + fortes.length + "}";
+    }
+}
@@ -0,0 +1,335 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * La classe {@code DeltaStepping} calcule les distances d'une ou plusieurs sources à tous les sommets d'un
+ * {@link Graphe} en parallèle, par l'algorithme <i>delta-stepping</i> (Meyer et Sanders).
+ * <p></p>
+ * Les sommets sont rangés dans des seaux de largeur {@code delta} selon leur distance provisoire. Les seaux sont
+ * traités dans l'ordre croissant : les arcs légers (pondération au plus {@code delta}) des sommets du seau courant
+ * sont relâchés en parallèle jusqu'à ce que le seau ne change plus, puis leurs arcs lourds une seule fois. Un petit
+ * {@code delta} se rapproche de l'algorithme de Dijkstra (peu de travail inutile, peu de parallélisme), un grand
+ * {@code delta} de celui de Bellman-Ford.
+ * <p></p>
+ * Les relâchements d'un seau sont découpés en tâches réparties par vol de travail sur un {@link ForkJoinPool}. Les
+ * distances obtenues sont exactement celles de l'algorithme de Dijkstra : chaque distance est la même somme de
+ * pondérations, seul l'ordre des calculs change. Les pondérations doivent être positives ou nulles : sinon, le
+ * parcours se termine mais les distances obtenues ne sont pas les plus courtes.
+ */
+public final class DeltaStepping {
+
+    /**
+     * Nombre de sommets en dessous duquel une tâche de relâchement n'est plus découpée
+     */
+    private static final int GRAIN = 128;
+
+    /**
+     * Nombre de verrous (puissance de 2) protégeant les distances et dépôts des sommets
+     */
+    private static final int NB_VERROUS = 1024;
+
+    /**
+     * Graphe parcouru
+     */
+    private final Graphe graphe;
+
+    /**
+     * Largeur des seaux
+     */
+    private final double delta;
+
+    /**
+     * Ensemble de threads qui exécute les relâchements
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructeur d'un parcours parallèle du graphe {@code graphe}.
+     *
+     * @param graphe graphe à parcourir
+     * @param delta largeur des seaux, strictement positive
+     * @param pool ensemble de threads qui exécute les relâchements
+     */
+    public DeltaStepping(Graphe graphe, double delta, ForkJoinPool pool) {
+        if (!(delta > 0.0) || delta == Double.POSITIVE_INFINITY)
+            throw new IllegalArgumentException("Largeur des seaux invalide : " + delta);
+        this.graphe = graphe;
+        this.delta = delta;
+        this.pool = pool;
+    }
+
+    /**
+     * Constructeur d'un parcours parallèle du graphe {@code graphe}, avec la largeur de seaux
+     * {@link #largeurParDefaut(Graphe)} et le {@link ForkJoinPool} commun.
+     *
+     * @param graphe graphe à parcourir
+     */
+    public DeltaStepping(Graphe graphe) {
+        this(graphe, largeurParDefaut(graphe), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Renvoie une largeur de seaux adaptée au graphe : la pondération moyenne de ses arcs. Un sommet et ses voisins
+     * proches tombent alors souvent dans le même seau, ce qui donne assez de travail à chaque étape.
+     *
+     * @param graphe graphe à parcourir
+     * @return la largeur des seaux
+     */
+    public static double largeurParDefaut(Graphe graphe) {
+        double somme = 0.0;
+        int nb = 0;
+        for (int k = 0; k < graphe.getNbArcs(); k++) {
+            double p = graphe.getPoids(k);
+            if (p >= 0.0 && p < Double.POSITIVE_INFINITY) {
+                somme += p;
+                nb++;
+            }
+        }
+        return nb > 0 && somme > 0.0 ? somme / nb : 1.0;
+    }
+
+    /**
+     * Renvoie la largeur des seaux.
+     *
+     * @return la largeur des seaux
+     */
+    public double getDelta() {
+        return delta;
+    }
+
+    /**
+     * Calcule la distance du sommet {@code source} à chaque sommet du graphe.
+     *
+     * @param source indice du sommet de départ
+     * @return la distance de chaque sommet, indexée par indice, {@link Double#POSITIVE_INFINITY} si le sommet n'est
+     * pas atteignable
+     */
+    public double[] distances(int source) {
+        return new Parcours(new int[]{source}).executer().getDistances();
+    }
+
+    /**
+     * Affecte chaque sommet du graphe au dépôt le plus proche. Le résultat est le même qu'avec
+     * {@link AffectationDepots#calculer(Graphe, int[])}, y compris en cas d'égalité de distance.
+     *
+     * @param depots indices des dépôts
+     * @return l'affectation des sommets
+     */
+    public AffectationDepots affecter(int[] depots) {
+        return new Parcours(depots.clone()).executer();
+    }
+
+    /**
+     * État d'un parcours : distances et dépôts provisoires, seaux non traités.
+     */
+    private final class Parcours {
+        private final int[] depots;
+
+        /**
+         * Distance provisoire de chaque sommet, codée par {@link Double#doubleToRawLongBits(double)}
+         */
+        private final AtomicLongArray distance;
+
+        /**
+         * Position du dépôt de la distance provisoire de chaque sommet, {@code -1} si le sommet n'est pas atteint
+         */
+        private final int[] depot;
+
+        /**
+         * Verrous des sommets : la distance et le dépôt d'un sommet sont modifiés ensemble sous le verrou
+         * {@code verrous[sommet & (NB_VERROUS - 1)]}
+         */
+        private final Object[] verrous = new Object[NB_VERROUS];
+
+        /**
+         * Sommets rangés dans chaque seau non traité ; un sommet peut y figurer plusieurs fois ou ne plus
+         * appartenir au seau, il est filtré au moment du traitement
+         */
+        private final TreeMap<Long, Tampon> seaux = new TreeMap<>();
+
+        /**
+         * Numéro de la dernière frontière contenant chaque sommet et numéro du dernier seau où il a été fixé
+         */
+        private final int[] marque;
+        private final int[] fixe;
+        private int numeroFrontiere;
+        private int numeroSeau;
+
+        Parcours(int[] depots) {
+            this.depots = depots;
+            int n = graphe.getNbSommets();
+            distance = new AtomicLongArray(n);
+            long infini = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+            for (int v = 0; v < n; v++)
+                distance.set(v, infini);
+            depot = new int[n];
+            Arrays.fill(depot, -1);
+            marque = new int[n];
+            fixe = new int[n];
+            for (int i = 0; i < NB_VERROUS; i++)
+                verrous[i] = new Object();
+        }
+
+        private double distance(int sommet) {
+            return Double.longBitsToDouble(distance.get(sommet));
+        }
+
+        private long seau(int sommet) {
+            return (long) Math.floor(distance(sommet) / delta);
+        }
+
+        private void ajouter(long seau, int sommet) {
+            seaux.computeIfAbsent(seau, s -> new Tampon()).ajouter(sommet);
+        }
+
+        AffectationDepots executer() {
+            for (int i = 0; i < depots.length; i++) {
+                int d = depots[i];
+                if (depot[d] < 0) {
+                    depot[d] = i;
+                    distance.set(d, Double.doubleToRawLongBits(0.0));
+                    ajouter(0, d);
+                }
+            }
+            while (!seaux.isEmpty()) {
+                Map.Entry<Long, Tampon> entree = seaux.pollFirstEntry();
+                long b = entree.getKey();
+                Tampon candidats = entree.getValue();
+                Tampon frontiere = new Tampon();
+                numeroFrontiere++;
+                for (int i = 0; i < candidats.taille; i++)
+                    ajouterFrontiere(frontiere, candidats.sommets[i], b);
+                // Sommets fixés dans ce seau, dont les arcs lourds seront relâchés à la fin
+                Tampon fixes = new Tampon();
+                numeroSeau++;
+                while (frontiere.taille > 0) {
+                    for (int i = 0; i < frontiere.taille; i++) {
+                        int v = frontiere.sommets[i];
+                        if (fixe[v] != numeroSeau) {
+                            fixe[v] = numeroSeau;
+                            fixes.ajouter(v);
+                        }
+                    }
+                    Tampon ameliores = pool.invoke(new Relachement(frontiere.sommets, 0, frontiere.taille, true));
+                    frontiere = new Tampon();
+                    numeroFrontiere++;
+                    for (int i = 0; i < ameliores.taille; i++) {
+                        int v = ameliores.sommets[i];
+                        long s = seau(v);
+                        if (s == b)
+                            ajouterFrontiere(frontiere, v, b);
+                        else
+                            ajouter(s, v);
+                    }
+                }
+                Tampon ameliores = pool.invoke(new Relachement(fixes.sommets, 0, fixes.taille, false));
+                for (int i = 0; i < ameliores.taille; i++) {
+                    int v = ameliores.sommets[i];
+                    ajouter(seau(v), v);
+                }
+            }
+            double[] distances = new double[depot.length];
+            for (int v = 0; v < distances.length; v++)
+                distances[v] = distance(v);
+            return new AffectationDepots(graphe, depots, depot, distances);
+        }
+
+        private void ajouterFrontiere(Tampon frontiere, int sommet, long b) {
+            if (marque[sommet] != numeroFrontiere && seau(sommet) == b) {
+                marque[sommet] = numeroFrontiere;
+                frontiere.ajouter(sommet);
+            }
+        }
+
+        /**
+         * Relâchement en parallèle des arcs légers ou lourds d'une partie des sommets d'un seau ; renvoie les
+         * sommets dont la distance ou le dépôt a été amélioré.
+         */
+        @SuppressWarnings("serial")
+        private final class Relachement extends RecursiveTask<Tampon> {
+            private final int[] sommets;
+            private final int debut;
+            private final int fin;
+            private final boolean legers;
+
+            Relachement(int[] sommets, int debut, int fin, boolean legers) {
+                this.sommets = sommets;
+                this.debut = debut;
+                this.fin = fin;
+                this.legers = legers;
+            }
+
+            @Override
+            protected Tampon compute() {
+                if (fin - debut > GRAIN) {
+                    int milieu = (debut + fin) >>> 1;
+                    Relachement droite = new Relachement(sommets, milieu, fin, legers);
+                    droite.fork();
+                    Tampon resultat = new Relachement(sommets, debut, milieu, legers).compute();
+                    resultat.ajouterTout(droite.join());
+                    return resultat;
+                }
+                Tampon ameliores = new Tampon();
+                for (int i = debut; i < fin; i++) {
+                    int u = sommets[i];
+                    double du;
+                    int dep;
+                    synchronized (verrous[u & (NB_VERROUS - 1)]) {
+                        du = distance(u);
+                        dep = depot[u];
+                    }
+                    for (int k = graphe.getDebut(u); k < graphe.getFin(u); k++) {
+                        double w = graphe.getPoids(k);
+                        if ((w <= delta) != legers)
+                            continue;
+                        int v = graphe.getCible(k);
+                        // Un sommet fixé dans un seau précédent n'est jamais rouvert : avec des pondérations
+                        // négatives, le parcours ne se terminerait pas.
+                        if (fixe[v] != 0 && fixe[v] != numeroSeau)
+                            continue;
+                        double dv = du + w;
+                        // Les distances ne font que diminuer : une lecture sans verrou suffit à écarter l'arc.
+                        if (dv > distance(v))
+                            continue;
+                        synchronized (verrous[v & (NB_VERROUS - 1)]) {
+                            double actuelle = distance(v);
+                            if (dv < actuelle || (dv == actuelle && dep < depot[v])) {
+                                distance.set(v, Double.doubleToRawLongBits(dv));
+                                depot[v] = dep;
+                                ameliores.ajouter(v);
+                            }
+                        }
+                    }
+                }
+                return ameliores;
+            }
+        }
+    }
+
+    /**
+     * Tableau d'indices de sommets qui s'agrandit au besoin
+     */
+    private static final class Tampon {
+        private int[] sommets = new int[8];
+        private int taille;
+
+        void ajouter(int sommet) {
+            if (taille == sommets.length)
+                sommets = Arrays.copyOf(sommets, taille * 2);
+            sommets[taille++] = sommet;
+        }
+
+        void ajouterTout(Tampon autre) {
+            if (taille + autre.taille > sommets.length)
+                sommets = Arrays.copyOf(sommets, Math.max(taille + autre.taille, taille * 2));
+            System.arraycopy(autre.sommets, 0, sommets, taille, autre.taille);
+            taille += autre.taille;
+        }
+    }
+}
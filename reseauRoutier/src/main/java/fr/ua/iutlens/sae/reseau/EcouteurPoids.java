@@ -0,0 +1,23 @@
+package fr.ua.iutlens.sae.reseau;
+
+/**
+ * L'interface {@code EcouteurPoids} est implémentée par les structures qui dépendent des pondérations du réseau
+ * (caches de chemins...) et qui doivent être prévenues de leurs modifications.
+ *
+ * @see ReseauRoutier#ajouterEcouteur(EcouteurPoids)
+ */
+@FunctionalInterface
+public interface EcouteurPoids {
+
+    /**
+     * Appelée après chaque application d'un lot de modifications par
+     * {@link ReseauRoutier#modifierPoids(MiseAJourPoids)}. Les deux graphes ont la même topologie : l'ancienne et
+     * la nouvelle pondération de l'arc {@code arcs[i]} sont {@code ancien.getPoids(arcs[i])} et
+     * {@code nouveau.getPoids(arcs[i])}.
+     *
+     * @param ancien graphe avant les modifications
+     * @param nouveau graphe après les modifications
+     * @param arcs positions des arcs modifiés, triées et sans doublon
+     */
+    void poidsModifies(GrapheCSR ancien, GrapheCSR nouveau, int[] arcs);
+}
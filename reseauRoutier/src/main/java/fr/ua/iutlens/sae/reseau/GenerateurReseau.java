@@ -0,0 +1,413 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * La classe {@code GenerateurReseau} produit des réseaux routiers synthétiques de grande taille, pour les bancs
+ * d'essai et les tests de charge.
+ * <p></p>
+ * Un réseau est entièrement déterminé par son modèle, son nombre de points et une graine : la position d'un point
+ * et ses routes sont calculées à la demande à partir de son numéro, par hachage. Rien n'est conservé en mémoire,
+ * ce qui permet d'écrire des réseaux de 10⁸ routes au format texte ({@link ReseauRoutier#lireCarte(String)}) ou
+ * binaire ({@link ReseauRoutier#lireInstantane(String)}). Les identifiants des points vont de {@code 0} à
+ * {@code nbSommets-1}, les routes sont à double sens et leur pondération est leur longueur multipliée par un
+ * facteur compris entre 1 et 1,5, arrondie au dixième.
+ * <p></p>
+ * Utilisation en ligne de commande :
+ * <pre>
+ * <code>
+ *     java fr.ua.iutlens.sae.reseau.GenerateurReseau GRILLE|PLANAIRE|GEOMETRIQUE nbSommets graine fichier [--binaire]
+ * </code>
+ * </pre>
+ */
+public final class GenerateurReseau {
+
+    /**
+     * Modèles de réseau
+     */
+    public enum Modele {
+        /**
+         * Grille régulière : chaque point est relié à ses quatre voisins
+         */
+        GRILLE,
+        /**
+         * Grille déformée dont chaque case est coupée par une diagonale, puis privée d'une route sur dix :
+         * le réseau reste planaire
+         */
+        PLANAIRE,
+        /**
+         * Points tirés au hasard, chacun relié aux points situés à moins de {@code RAYON}
+         */
+        GEOMETRIQUE
+    }
+
+    /**
+     * Distance entre deux points voisins de la grille, et côté d'une case du modèle géométrique
+     */
+    private static final int ESPACEMENT = 100;
+
+    /**
+     * Déplacement maximal d'un point par rapport à la grille dans le modèle planaire
+     */
+    private static final int DEFORMATION = ESPACEMENT / 4;
+
+    /**
+     * Proportion des routes supprimées dans le modèle planaire
+     */
+    private static final double PROPORTION_SUPPRIMEES = 0.1;
+
+    /**
+     * Nombre de points par case dans le modèle géométrique
+     */
+    private static final int POINTS_PAR_CASE = 4;
+
+    /**
+     * Distance maximale entre deux points reliés dans le modèle géométrique (6 voisins en moyenne)
+     */
+    private static final double RAYON = 0.7 * ESPACEMENT;
+
+    /**
+     * Sels distinguant les tirages aléatoires d'un même point ou d'une même route
+     */
+    private static final int SEL_X = 1;
+    private static final int SEL_Y = 2;
+    private static final int SEL_POIDS = 3;
+    private static final int SEL_SUPPRESSION = 4;
+    private static final int SEL_DIAGONALE = 5;
+
+    /**
+     * Modèle du réseau
+     */
+    private final Modele modele;
+
+    /**
+     * Nombre de points du réseau
+     */
+    private final int nbSommets;
+
+    /**
+     * Graine des tirages aléatoires
+     */
+    private final long graine;
+
+    /**
+     * Nombre de colonnes de la grille (ou de cases pour le modèle géométrique)
+     */
+    private final int largeur;
+
+    /**
+     * Nombre d'arcs et plus petit rapport pondération / distance, calculés au premier besoin
+     */
+    private int nbArcs = -1;
+    private double ratioPoidsDistance;
+
+    /**
+     * Construit le générateur d'un réseau.
+     *
+     * @param modele modèle de réseau
+     * @param nbSommets nombre de points
+     * @param graine graine des tirages aléatoires
+     */
+    public GenerateurReseau(Modele modele, int nbSommets, long graine) {
+        if (nbSommets < 0)
+            throw new IllegalArgumentException("Nombre de points négatif : " + nbSommets);
+        this.modele = modele;
+        this.nbSommets = nbSommets;
+        this.graine = graine;
+        int cases = modele == Modele.GEOMETRIQUE ? (nbSommets + POINTS_PAR_CASE - 1) / POINTS_PAR_CASE : nbSommets;
+        this.largeur = Math.max(1, (int) Math.ceil(Math.sqrt(cases)));
+    }
+
+    /**
+     * Renvoie le nombre de points du réseau.
+     *
+     * @return nombre de points
+     */
+    public int getNbSommets() {
+        return nbSommets;
+    }
+
+    /**
+     * Renvoie le nombre de routes (dans un seul sens) du réseau. Le premier appel parcourt tout le réseau.
+     *
+     * @return nombre d'arcs
+     * @throws IllegalStateException si le réseau a plus de {@code Integer.MAX_VALUE} arcs
+     */
+    public int getNbArcs() {
+        if (nbArcs < 0)
+            compter();
+        return nbArcs;
+    }
+
+    /**
+     * Renvoie l'abscisse du point {@code i}.
+     *
+     * @param i numéro (et identifiant) du point
+     * @return abscisse du point
+     */
+    public int getX(int i) {
+        switch (modele) {
+            case GRILLE:
+                return (i % largeur) * ESPACEMENT;
+            case PLANAIRE:
+                return (i % largeur) * ESPACEMENT + deformation(i, SEL_X);
+            default:
+                return (i / POINTS_PAR_CASE % largeur) * ESPACEMENT
+                        + (int) (uniforme(i, 0, SEL_X) * ESPACEMENT);
+        }
+    }
+
+    /**
+     * Renvoie l'ordonnée du point {@code i}.
+     *
+     * @param i numéro (et identifiant) du point
+     * @return ordonnée du point
+     */
+    public int getY(int i) {
+        switch (modele) {
+            case GRILLE:
+                return (i / largeur) * ESPACEMENT;
+            case PLANAIRE:
+                return (i / largeur) * ESPACEMENT + deformation(i, SEL_Y);
+            default:
+                return (i / POINTS_PAR_CASE / largeur) * ESPACEMENT
+                        + (int) (uniforme(i, 0, SEL_Y) * ESPACEMENT);
+        }
+    }
+
+    /**
+     * Parcourt les routes partant du point {@code i}, toujours dans le même ordre.
+     *
+     * @param i numéro du point
+     * @param arcs destinataire des routes
+     * @throws IOException si le destinataire échoue
+     */
+    void parcourirArcs(int i, InstantaneReseau.Arcs arcs) throws IOException {
+        if (modele == Modele.GEOMETRIQUE) {
+            parcourirVoisinsGeometriques(i, arcs);
+            return;
+        }
+        int c = i % largeur;
+        int l = i / largeur;
+        relier(i, c - 1, l, arcs);
+        relier(i, c + 1, l, arcs);
+        relier(i, c, l - 1, arcs);
+        relier(i, c, l + 1, arcs);
+        if (modele == Modele.PLANAIRE) {
+            // Case (c', l') coupée par la diagonale (c', l') - (c'+1, l'+1) si diagonale(c', l'),
+            // par la diagonale (c'+1, l') - (c', l'+1) sinon.
+            if (diagonale(c - 1, l - 1))
+                relier(i, c - 1, l - 1, arcs);
+            if (diagonale(c, l))
+                relier(i, c + 1, l + 1, arcs);
+            if (!diagonale(c, l - 1))
+                relier(i, c + 1, l - 1, arcs);
+            if (!diagonale(c - 1, l))
+                relier(i, c - 1, l + 1, arcs);
+        }
+    }
+
+    /**
+     * Ajoute la route de {@code i} vers le point de la colonne {@code c} et de la ligne {@code l}, s'il existe et
+     * si la route n'est pas supprimée.
+     */
+    private void relier(int i, int c, int l, InstantaneReseau.Arcs arcs) throws IOException {
+        if (c < 0 || c >= largeur || l < 0)
+            return;
+        long j = (long) l * largeur + c;
+        if (j >= nbSommets)
+            return;
+        if (modele == Modele.PLANAIRE
+                && uniforme(Math.min(i, j), Math.max(i, j), SEL_SUPPRESSION) < PROPORTION_SUPPRIMEES)
+            return;
+        arcs.arc((int) j, poids(i, (int) j));
+    }
+
+    /**
+     * Indique laquelle des deux diagonales coupe la case de coin inférieur gauche {@code (c, l)}.
+     */
+    private boolean diagonale(int c, int l) {
+        return uniforme(c, l, SEL_DIAGONALE) < 0.5;
+    }
+
+    /**
+     * Parcourt les points des neuf cases autour de celle du point {@code i} et ajoute les routes vers ceux situés
+     * à moins de {@code RAYON}.
+     */
+    private void parcourirVoisinsGeometriques(int i, InstantaneReseau.Arcs arcs) throws IOException {
+        int casePoint = i / POINTS_PAR_CASE;
+        int c = casePoint % largeur;
+        int l = casePoint / largeur;
+        int x = getX(i);
+        int y = getY(i);
+        for (int dl = -1; dl <= 1; dl++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                if (c + dc < 0 || c + dc >= largeur || l + dl < 0)
+                    continue;
+                long premier = ((long) (l + dl) * largeur + c + dc) * POINTS_PAR_CASE;
+                for (long j = premier; j < premier + POINTS_PAR_CASE && j < nbSommets; j++) {
+                    if (j == i)
+                        continue;
+                    double dx = getX((int) j) - x;
+                    double dy = getY((int) j) - y;
+                    if (dx * dx + dy * dy <= RAYON * RAYON)
+                        arcs.arc((int) j, poids(i, (int) j));
+                }
+            }
+        }
+    }
+
+    /**
+     * Renvoie la pondération de la route entre {@code i} et {@code j}, la même dans les deux sens.
+     */
+    private double poids(int i, int j) {
+        double dx = getX(i) - getX(j);
+        double dy = getY(i) - getY(j);
+        double facteur = 1.0 + 0.5 * uniforme(Math.min(i, j), Math.max(i, j), SEL_POIDS);
+        long dixiemes = Math.max(1L, Math.round(Math.sqrt(dx * dx + dy * dy) * facteur * 10));
+        return dixiemes / 10.0;
+    }
+
+    private int deformation(int i, int sel) {
+        return (int) (uniforme(i, 0, sel) * (2 * DEFORMATION + 1)) - DEFORMATION;
+    }
+
+    /**
+     * Renvoie un réel de {@code [0 ; 1[} déterminé par la graine, {@code a}, {@code b} et {@code sel}.
+     */
+    private double uniforme(long a, long b, int sel) {
+        long h = melanger(graine + melanger(a * 0x9E3779B97F4A7C15L ^ b) * 31 + sel);
+        return (h >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Fonction de mélange de SplitMix64
+     */
+    private static long melanger(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Parcourt tout le réseau pour compter les arcs et calculer le rapport pondération / distance.
+     */
+    private void compter() {
+        long[] nb = new long[1];
+        double[] ratio = {Double.POSITIVE_INFINITY};
+        try {
+            for (int i = 0; i < nbSommets; i++) {
+                int x = getX(i);
+                int y = getY(i);
+                parcourirArcs(i, (cible, poids) -> {
+                    nb[0]++;
+                    double dx = (double) x - getX(cible);
+                    double dy = (double) y - getY(cible);
+                    double d = Math.sqrt(dx * dx + dy * dy);
+                    if (d > 0.0)
+                        ratio[0] = Math.min(ratio[0], poids / d);
+                });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (nb[0] > Integer.MAX_VALUE)
+            throw new IllegalStateException("Trop d'arcs : " + nb[0]);
+        ratioPoidsDistance = GrapheCSR.minorerRatio(ratio[0]);
+        nbArcs = (int) nb[0];
+    }
+
+    /**
+     * Écrit le réseau au format texte lu par {@link ReseauRoutier#lireCarte(String)}.
+     *
+     * @param fichier chemin du fichier, remplacé s'il existe
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void ecrireCarte(Path fichier) throws IOException {
+        try (BufferedWriter sortie = Files.newBufferedWriter(fichier, StandardCharsets.US_ASCII)) {
+            StringBuilder ligne = new StringBuilder(64);
+            for (int i = 0; i < nbSommets; i++) {
+                ligne.setLength(0);
+                ligne.append("v ").append(i).append(' ').append(getX(i)).append(' ').append(getY(i)).append('\n');
+                sortie.append(ligne);
+            }
+            for (int i = 0; i < nbSommets; i++) {
+                int source = i;
+                parcourirArcs(i, (cible, poids) -> {
+                    long dixiemes = Math.round(poids * 10);
+                    ligne.setLength(0);
+                    ligne.append("e ").append(source).append(' ').append(cible).append(' ')
+                            .append(dixiemes / 10).append('.').append(dixiemes % 10).append('\n');
+                    sortie.append(ligne);
+                });
+            }
+        }
+    }
+
+    /**
+     * Écrit le réseau au format binaire lu par {@link ReseauRoutier#lireInstantane(String)}. Le réseau est
+     * parcouru plusieurs fois.
+     *
+     * @param fichier chemin du fichier, remplacé s'il existe
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void ecrireInstantane(Path fichier) throws IOException {
+        getNbArcs();
+        InstantaneReseau.ecrire(new InstantaneReseau.Source() {
+            @Override
+            public int getNbSommets() {
+                return nbSommets;
+            }
+
+            @Override
+            public int getNbArcs() {
+                return nbArcs;
+            }
+
+            @Override
+            public double getRatioPoidsDistance() {
+                return ratioPoidsDistance;
+            }
+
+            @Override
+            public int getId(int sommet) {
+                return sommet;
+            }
+
+            @Override
+            public int getX(int sommet) {
+                return GenerateurReseau.this.getX(sommet);
+            }
+
+            @Override
+            public int getY(int sommet) {
+                return GenerateurReseau.this.getY(sommet);
+            }
+
+            @Override
+            public void parcourirArcs(int sommet, InstantaneReseau.Arcs arcs) throws IOException {
+                GenerateurReseau.this.parcourirArcs(sommet, arcs);
+            }
+        }, fichier);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage : GenerateurReseau GRILLE|PLANAIRE|GEOMETRIQUE nbSommets graine fichier [--binaire]");
+            System.exit(1);
+        }
+        GenerateurReseau generateur = new GenerateurReseau(Modele.valueOf(args[0].toUpperCase()),
+                Integer.parseInt(args[1]), Long.parseLong(args[2]));
+        Path fichier = Paths.get(args[3]);
+        if (args.length > 4 && args[4].equals("--binaire"))
+            generateur.ecrireInstantane(fichier);
+        else
+            generateur.ecrireCarte(fichier);
+    }
+}
@@ -0,0 +1,120 @@
+package fr.ua.iutlens.sae.reseau;
+
+/**
+ * L'interface {@code Graphe} décrit le parcours d'un réseau routier dont les sommets sont numérotés par des indices
+ * denses {@code 0..n-1} et les arcs par des positions {@code 0..m-1} : les arcs sortants du sommet {@code u} occupent
+ * les positions {@code getDebut(u)} (incluse) à {@code getFin(u)} (exclue).
+ * <p></p>
+ * Elle est implémentée par {@link GrapheCSR}, où chaque valeur est stockée dans un tableau, et par
+ * {@link GrapheCompresse}, qui occupe bien moins de mémoire ; un algorithme écrit pour cette interface fonctionne
+ * avec les deux :
+ * <pre>
+ * <code>
+ *     for (int k = g.getDebut(u); k &lt; g.getFin(u); k++) {
+ *         int v = g.getCible(k);
+ *         double w = g.getPoids(k);
+ *     }
+ * </code>
+ * </pre>
+ */
+public interface Graphe {
+
+    /**
+     * Renvoie le nombre de sommets du graphe.
+     *
+     * @return nombre de sommets
+     */
+    int getNbSommets();
+
+    /**
+     * Renvoie le nombre d'arcs du graphe.
+     *
+     * @return nombre d'arcs
+     */
+    int getNbArcs();
+
+    /**
+     * Renvoie l'indice du sommet à partir de l'identifiant du point.
+     *
+     * @param id identifiant du point
+     * @return indice du sommet ou {@code -1} si l'identifiant n'est pas trouvé
+     */
+    int indexDe(int id);
+
+    /**
+     * Renvoie l'identifiant du point d'indice {@code index}.
+     *
+     * @param index indice du sommet
+     * @return identifiant du point
+     */
+    int getId(int index);
+
+    /**
+     * Renvoie l'abscisse du sommet d'indice {@code index}.
+     *
+     * @param index indice du sommet
+     * @return abscisse du point
+     */
+    int getX(int index);
+
+    /**
+     * Renvoie l'ordonnée du sommet d'indice {@code index}.
+     *
+     * @param index indice du sommet
+     * @return ordonnée du point
+     */
+    int getY(int index);
+
+    /**
+     * Renvoie la position du premier arc sortant du sommet d'indice {@code index}.
+     *
+     * @param index indice du sommet
+     * @return position du premier arc sortant
+     */
+    int getDebut(int index);
+
+    /**
+     * Renvoie la position qui suit le dernier arc sortant du sommet d'indice {@code index}.
+     *
+     * @param index indice du sommet
+     * @return position qui suit le dernier arc sortant
+     */
+    int getFin(int index);
+
+    /**
+     * Renvoie l'indice du sommet d'arrivée de l'arc {@code arc}.
+     *
+     * @param arc position de l'arc
+     * @return indice du sommet d'arrivée
+     */
+    int getCible(int arc);
+
+    /**
+     * Renvoie la pondération de l'arc {@code arc}.
+     *
+     * @param arc position de l'arc
+     * @return pondération de l'arc
+     */
+    double getPoids(int arc);
+
+    /**
+     * Renvoie le plus petit rapport entre la pondération d'un arc et la distance euclidienne entre ses extrémités,
+     * utilisé pour minorer la longueur d'un chemin.
+     *
+     * @return rapport pondération / distance minimal
+     */
+    double getRatioPoidsDistance();
+
+    /**
+     * Renvoie la distance euclidienne entre deux sommets.
+     *
+     * @param u indice du premier sommet
+     * @param v indice du second sommet
+     * @return distance à vol d'oiseau entre les deux points
+     */
+    default double distanceEuclidienne(int u, int v) {
+        double dx = (double) getX(u) - getX(v);
+        double dy = (double) getY(u) - getY(v);
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
@@ -0,0 +1,769 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code GrapheCSR} est une représentation compacte et immuable du réseau routier ({@link Graphe}).
+ * <p></p>
+ * Les sommets sont numérotés par des indices denses {@code 0..n-1} et les arcs sont stockés au format
+ * <i>Compressed Sparse Row</i> : les arcs sortants du sommet d'indice {@code u} occupent les positions
+ * {@code getDebut(u)} (incluse) à {@code getFin(u)} (exclue) des tableaux {@code cibles} et {@code poids}.
+ * <p></p>
+ * Aucun objet n'est créé par arc ou par sommet : un parcours des voisins se fait ainsi
+ * <pre>
+ * <code>
+ *     for (int k = g.getDebut(u); k &lt; g.getFin(u); k++) {
+ *         int v = g.getCible(k);
+ *         double w = g.getPoids(k);
+ *     }
+ * </code>
+ * </pre>
+ */
+public final class GrapheCSR implements Graphe {
+
+    /**
+     * Nombre de bits par coordonnée de la courbe de Hilbert
+     */
+    private static final int BITS_HILBERT = 15;
+
+    /**
+     * Identifiant de chaque sommet. Les identifiants sont triés par ordre croissant, l'indice d'un sommet étant alors
+     * son rang, sauf si le graphe a été renuméroté ({@link #renumeroterHilbert()}).
+     */
+    private final int[] ids;
+
+    /**
+     * Index des identifiants, qui donne l'indice du sommet de chaque identifiant
+     */
+    private final IndexIdentifiants identifiants;
+
+    /**
+     * Abscisse de chaque sommet
+     */
+    private final int[] abscisses;
+
+    /**
+     * Ordonnée de chaque sommet
+     */
+    private final int[] ordonnees;
+
+    /**
+     * Position du premier arc sortant de chaque sommet (tableau de taille {@code n+1}).
+     */
+    private final int[] debut;
+
+    /**
+     * Indice du sommet d'arrivée de chaque arc
+     */
+    private final int[] cibles;
+
+    /**
+     * Pondération de chaque arc
+     */
+    private final double[] poids;
+
+    /**
+     * Plus petit rapport entre la pondération d'un arc et la distance euclidienne entre ses extrémités.
+     * <p></p>
+     * Pour tout chemin, la somme des pondérations est au moins ce rapport multiplié par la distance à vol d'oiseau
+     * entre le départ et l'arrivée : c'est l'estimation utilisée par l'algorithme A*.
+     */
+    private final double ratioPoidsDistance;
+
+    /**
+     * Arcs entrants de chaque sommet, calculés à la première utilisation
+     */
+    private volatile Entrants entrants;
+
+    /**
+     * Empreinte du graphe, calculée à la première utilisation ({@code 0} tant qu'elle ne l'a pas été)
+     */
+    private volatile long empreinte;
+
+    /**
+     * Constructeur du graphe à partir de ses tableaux, qui ne sont pas copiés.
+     */
+    GrapheCSR(int[] ids, int[] abscisses, int[] ordonnees, int[] debut, int[] cibles, double[] poids) {
+        this.ids = ids;
+        this.abscisses = abscisses;
+        this.ordonnees = ordonnees;
+        this.debut = debut;
+        this.cibles = cibles;
+        this.poids = poids;
+        this.ratioPoidsDistance = calculerRatioPoidsDistance();
+        this.identifiants = new IndexIdentifiants(ids);
+    }
+
+    /**
+     * Constructeur du graphe à partir de ses tableaux et d'un rapport pondération / distance déjà calculé.
+     */
+    GrapheCSR(int[] ids, int[] abscisses, int[] ordonnees, int[] debut, int[] cibles, double[] poids,
+              double ratioPoidsDistance) {
+        this.ids = ids;
+        this.abscisses = abscisses;
+        this.ordonnees = ordonnees;
+        this.debut = debut;
+        this.cibles = cibles;
+        this.poids = poids;
+        this.ratioPoidsDistance = ratioPoidsDistance;
+        this.identifiants = new IndexIdentifiants(ids);
+    }
+
+    /**
+     * Renvoie un graphe de même topologie dont les arcs {@code arcs[i]} ont la pondération {@code nouveauxPoids[i]}.
+     * <p></p>
+     * Seul le tableau des pondérations est copié : les sommets, les arcs et l'index des arcs entrants sont partagés
+     * avec ce graphe, qui n'est pas modifié. Si un arc apparaît plusieurs fois, la dernière pondération l'emporte.
+     * Le rapport pondération / distance n'est recalculé que sur les arcs modifiés : il reste un minorant valable,
+     * éventuellement un peu moins précis qu'un calcul complet.
+     *
+     * @param arcs positions des arcs modifiés
+     * @param nouveauxPoids nouvelles pondérations
+     * @return le nouveau graphe
+     */
+    GrapheCSR avecPoids(int[] arcs, double[] nouveauxPoids) {
+        double[] p = poids.clone();
+        for (int i = 0; i < arcs.length; i++)
+            p[arcs[i]] = nouveauxPoids[i];
+        double ratio = ratioPoidsDistance;
+        for (int arc : arcs) {
+            if (!(p[arc] >= 0.0)) {
+                ratio = 0.0;
+                break;
+            }
+            double d = distanceEuclidienne(getSource(arc), cibles[arc]);
+            if (d > 0.0)
+                ratio = Math.min(ratio, minorerRatio(p[arc] / d));
+        }
+        GrapheCSR g = new GrapheCSR(ids, abscisses, ordonnees, debut, cibles, p, ratio, identifiants);
+        g.entrants = entrants;
+        return g;
+    }
+
+    private GrapheCSR(int[] ids, int[] abscisses, int[] ordonnees, int[] debut, int[] cibles, double[] poids,
+                      double ratioPoidsDistance, IndexIdentifiants identifiants) {
+        this.ids = ids;
+        this.abscisses = abscisses;
+        this.ordonnees = ordonnees;
+        this.debut = debut;
+        this.cibles = cibles;
+        this.poids = poids;
+        this.ratioPoidsDistance = ratioPoidsDistance;
+        this.identifiants = identifiants;
+    }
+
+    /**
+     * Renvoie le même graphe dont les sommets sont renumérotés dans l'ordre d'une courbe de Hilbert parcourant leurs
+     * coordonnées.
+     * <p></p>
+     * Deux points proches sur la carte reçoivent ainsi le plus souvent des indices proches : les données des voisins
+     * d'un sommet sont voisines en mémoire, ce qui limite les défauts de cache de tous les parcours. Les arcs sortants
+     * de chaque sommet restent dans le même ordre. {@link #indexDe(int)} et {@link #getId(int)} font la
+     * correspondance entre les identifiants des points et leurs nouveaux indices.
+     *
+     * @return le graphe renuméroté
+     */
+    public GrapheCSR renumeroterHilbert() {
+        int n = ids.length;
+        long minX = Long.MAX_VALUE, minY = Long.MAX_VALUE, maxX = Long.MIN_VALUE, maxY = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, abscisses[i]);
+            minY = Math.min(minY, ordonnees[i]);
+            maxX = Math.max(maxX, abscisses[i]);
+            maxY = Math.max(maxY, ordonnees[i]);
+        }
+        // Clé de Hilbert dans les bits de poids fort, ancien indice dans les bits de poids faible.
+        long[] cles = new long[n];
+        for (int i = 0; i < n; i++) {
+            int x = normaliser(abscisses[i], minX, maxX);
+            int y = normaliser(ordonnees[i], minY, maxY);
+            cles[i] = (cleHilbert(x, y) << 32) | i;
+        }
+        Arrays.sort(cles);
+        int[] rang = new int[n];
+        for (int i = 0; i < n; i++)
+            rang[(int) cles[i]] = i;
+
+        int[] nouveauxIds = new int[n];
+        int[] nouvellesAbscisses = new int[n];
+        int[] nouvellesOrdonnees = new int[n];
+        int[] nouveauDebut = new int[n + 1];
+        int[] nouvellesCibles = new int[cibles.length];
+        double[] nouveauxPoids = new double[poids.length];
+        int p = 0;
+        for (int i = 0; i < n; i++) {
+            int u = (int) cles[i];
+            nouveauxIds[i] = ids[u];
+            nouvellesAbscisses[i] = abscisses[u];
+            nouvellesOrdonnees[i] = ordonnees[u];
+            for (int k = debut[u]; k < debut[u + 1]; k++) {
+                nouvellesCibles[p] = rang[cibles[k]];
+                nouveauxPoids[p++] = poids[k];
+            }
+            nouveauDebut[i + 1] = p;
+        }
+        return new GrapheCSR(nouveauxIds, nouvellesAbscisses, nouvellesOrdonnees, nouveauDebut, nouvellesCibles,
+                nouveauxPoids, ratioPoidsDistance);
+    }
+
+    /**
+     * Ramène une coordonnée comprise entre {@code min} et {@code max} dans {@code 0..2^BITS_HILBERT-1}.
+     */
+    private static int normaliser(int valeur, long min, long max) {
+        long etendue = max - min;
+        if (etendue == 0)
+            return 0;
+        return (int) ((valeur - min) * ((1L << BITS_HILBERT) - 1) / etendue);
+    }
+
+    /**
+     * Renvoie la position du point {@code (x,y)} le long de la courbe de Hilbert qui parcourt la grille
+     * {@code 2^BITS_HILBERT x 2^BITS_HILBERT}.
+     */
+    static long cleHilbert(int x, int y) {
+        int cote = 1 << BITS_HILBERT;
+        long d = 0;
+        for (int s = cote >> 1; s > 0; s >>= 1) {
+            int rx = (x & s) != 0 ? 1 : 0;
+            int ry = (y & s) != 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            // Rotation du quadrant pour que la courbe s'y parcoure dans le bon sens.
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = cote - 1 - x;
+                    y = cote - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Indique si le graphe {@code autre} a les mêmes sommets et les mêmes arcs que ce graphe, c'est-à-dire s'il en
+     * a été obtenu par {@link #avecPoids(int[], double[])}.
+     *
+     * @param autre graphe à comparer
+     * @return {@code true} si les deux graphes partagent leur topologie
+     */
+    boolean memeTopologie(GrapheCSR autre) {
+        return autre.ids == ids && autre.cibles == cibles;
+    }
+
+    /**
+     * Indique si les graphes {@code a} et {@code b} ont les mêmes sommets et les mêmes arcs : le même graphe, ou deux
+     * {@code GrapheCSR} de même topologie ({@link #memeTopologie(GrapheCSR)}).
+     *
+     * @param a premier graphe
+     * @param b second graphe
+     * @return {@code true} si les deux graphes partagent leur topologie
+     */
+    static boolean memeTopologie(Graphe a, Graphe b) {
+        return a == b
+                || a instanceof GrapheCSR && b instanceof GrapheCSR && ((GrapheCSR) a).memeTopologie((GrapheCSR) b);
+    }
+
+    /**
+     * Renvoie une empreinte de 64 bits des identifiants dans l'ordre des indices, des arcs et de leurs pondérations.
+     * <p></p>
+     * Les structures enregistrées à partir du graphe (hiérarchie de contraction, repères) conservent cette empreinte
+     * pour refuser d'être relues sur un autre graphe : un autre réseau de même taille, le même réseau avec d'autres
+     * pondérations ou dont les sommets sont numérotés dans un autre ordre ({@link #renumeroterHilbert()}).
+     *
+     * @return l'empreinte, jamais {@code 0}
+     */
+    long getEmpreinte() {
+        long resultat = empreinte;
+        if (resultat == 0) {
+            long h = melanger(ids.length, cibles.length);
+            for (int id : ids)
+                h = melanger(h, id);
+            for (int d : debut)
+                h = melanger(h, d);
+            for (int c : cibles)
+                h = melanger(h, c);
+            for (double p : poids)
+                h = melanger(h, Double.doubleToLongBits(p));
+            // Finalisation de MurmurHash3, pour que tous les bits dépendent de toutes les valeurs
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            resultat = h == 0 ? 1 : h;
+            empreinte = resultat;
+        }
+        return resultat;
+    }
+
+    private static long melanger(long h, long valeur) {
+        return (h ^ valeur) * 0x9E3779B97F4A7C15L + (h >>> 29);
+    }
+
+    /**
+     * Renvoie un graphe sans sommet ni arc.
+     *
+     * @return un graphe vide
+     */
+    public static GrapheCSR vide() {
+        return new GrapheCSR(new int[0], new int[0], new int[0], new int[1], new int[0], new double[0]);
+    }
+
+    /**
+     * Renvoie le nombre de sommets du graphe.
+     *
+     * @return nombre de sommets
+     */
+    @Override
+    public int getNbSommets() {
+        return ids.length;
+    }
+
+    /**
+     * Renvoie le nombre d'arcs du graphe.
+     *
+     * @return nombre d'arcs
+     */
+    @Override
+    public int getNbArcs() {
+        return cibles.length;
+    }
+
+    /**
+     * Renvoie l'indice du sommet à partir de l'identifiant du point, en temps constant ({@link IndexIdentifiants}).
+     *
+     * @param id identifiant du point
+     * @return indice du sommet ou {@code -1} si l'identifiant n'est pas trouvé
+     */
+    @Override
+    public int indexDe(int id) {
+        return identifiants.indexDe(id);
+    }
+
+    /**
+     * Renvoie l'identifiant du point d'indice {@code index}.
+     *
+     * @param index indice du sommet
+     * @return identifiant du point
+     */
+    @Override
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Renvoie l'abscisse du sommet d'indice {@code index}.
+     *
+     * @param index indice du sommet
+     * @return abscisse du point
+     */
+    @Override
+    public int getX(int index) {
+        return abscisses[index];
+    }
+
+    /**
+     * Renvoie l'ordonnée du sommet d'indice {@code index}.
+     *
+     * @param index indice du sommet
+     * @return ordonnée du point
+     */
+    @Override
+    public int getY(int index) {
+        return ordonnees[index];
+    }
+
+    /**
+     * Renvoie la position du premier arc sortant du sommet d'indice {@code index}.
+     *
+     * @param index indice du sommet
+     * @return position du premier arc sortant
+     */
+    @Override
+    public int getDebut(int index) {
+        return debut[index];
+    }
+
+    /**
+     * Renvoie la position qui suit le dernier arc sortant du sommet d'indice {@code index}.
+     *
+     * @param index indice du sommet
+     * @return position qui suit le dernier arc sortant
+     */
+    @Override
+    public int getFin(int index) {
+        return debut[index + 1];
+    }
+
+    /**
+     * Renvoie l'indice du sommet d'arrivée de l'arc {@code arc}.
+     *
+     * @param arc position de l'arc
+     * @return indice du sommet d'arrivée
+     */
+    @Override
+    public int getCible(int arc) {
+        return cibles[arc];
+    }
+
+    /**
+     * Renvoie la pondération de l'arc {@code arc}.
+     *
+     * @param arc position de l'arc
+     * @return pondération de l'arc
+     */
+    @Override
+    public double getPoids(int arc) {
+        return poids[arc];
+    }
+
+    /**
+     * Renvoie l'indice du sommet de départ de l'arc {@code arc}.
+     *
+     * @param arc position de l'arc
+     * @return indice du sommet de départ
+     */
+    public int getSource(int arc) {
+        // Le sommet cherché est le dernier dont le premier arc est avant ou à la position de l'arc.
+        int bas = 0;
+        int haut = ids.length - 1;
+        while (bas < haut) {
+            int milieu = (bas + haut + 1) >>> 1;
+            if (debut[milieu] <= arc)
+                bas = milieu;
+            else
+                haut = milieu - 1;
+        }
+        return bas;
+    }
+
+    /**
+     * Renvoie la position du premier arc entrant du sommet d'indice {@code index}.
+     * <p></p>
+     * Les arcs entrants sont indexés au premier appel d'une méthode qui les concerne.
+     *
+     * @param index indice du sommet
+     * @return position du premier arc entrant
+     */
+    public int getDebutEntrants(int index) {
+        return getEntrants().debut[index];
+    }
+
+    /**
+     * Renvoie la position qui suit le dernier arc entrant du sommet d'indice {@code index}.
+     *
+     * @param index indice du sommet
+     * @return position qui suit le dernier arc entrant
+     */
+    public int getFinEntrants(int index) {
+        return getEntrants().debut[index + 1];
+    }
+
+    /**
+     * Renvoie la position, parmi les arcs sortants, de l'arc entrant {@code entrant}.
+     *
+     * @param entrant position de l'arc parmi les arcs entrants
+     * @return position de l'arc, utilisable avec {@link #getPoids(int)} et {@link #getCible(int)}
+     */
+    public int getArcEntrant(int entrant) {
+        return getEntrants().arcs[entrant];
+    }
+
+    /**
+     * Renvoie l'indice du sommet de départ de l'arc entrant {@code entrant}.
+     *
+     * @param entrant position de l'arc parmi les arcs entrants
+     * @return indice du sommet de départ
+     */
+    public int getSourceEntrant(int entrant) {
+        return getEntrants().sources[entrant];
+    }
+
+    private Entrants getEntrants() {
+        Entrants e = entrants;
+        if (e == null) {
+            synchronized (this) {
+                e = entrants;
+                if (e == null) {
+                    e = new Entrants(this);
+                    entrants = e;
+                }
+            }
+        }
+        return e;
+    }
+
+    /**
+     * Index des arcs entrants : le graphe transposé, au format CSR lui aussi
+     */
+    private static final class Entrants {
+
+        /**
+         * Position du premier arc entrant de chaque sommet (tableau de taille {@code n+1})
+         */
+        private final int[] debut;
+
+        /**
+         * Position de chaque arc entrant parmi les arcs sortants
+         */
+        private final int[] arcs;
+
+        /**
+         * Sommet de départ de chaque arc entrant
+         */
+        private final int[] sources;
+
+        Entrants(GrapheCSR g) {
+            int n = g.getNbSommets();
+            int m = g.getNbArcs();
+            debut = new int[n + 1];
+            for (int k = 0; k < m; k++)
+                debut[g.cibles[k] + 1]++;
+            for (int v = 0; v < n; v++)
+                debut[v + 1] += debut[v];
+            int[] position = Arrays.copyOf(debut, n);
+            arcs = new int[m];
+            sources = new int[m];
+            for (int u = 0; u < n; u++) {
+                for (int k = g.debut[u]; k < g.debut[u + 1]; k++) {
+                    int p = position[g.cibles[k]]++;
+                    arcs[p] = k;
+                    sources[p] = u;
+                }
+            }
+        }
+    }
+
+    /**
+     * Renvoie le plus petit rapport entre la pondération d'un arc et la distance euclidienne entre ses extrémités.
+     * <p></p>
+     * Le rapport vaut {@code 0} si le graphe n'a aucun arc entre deux points distincts ou si une pondération est négative.
+     *
+     * @return rapport pondération / distance minimal
+     */
+    @Override
+    public double getRatioPoidsDistance() {
+        return ratioPoidsDistance;
+    }
+
+    /**
+     * Renvoie la distance euclidienne entre deux sommets.
+     *
+     * @param u indice du premier sommet
+     * @param v indice du second sommet
+     * @return distance à vol d'oiseau entre les deux points
+     */
+    @Override
+    public double distanceEuclidienne(int u, int v) {
+        double dx = (double) abscisses[u] - abscisses[v];
+        double dy = (double) ordonnees[u] - ordonnees[v];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private double calculerRatioPoidsDistance() {
+        double ratio = Double.POSITIVE_INFINITY;
+        for (int u = 0; u < ids.length; u++) {
+            for (int k = debut[u]; k < debut[u + 1]; k++) {
+                double d = distanceEuclidienne(u, cibles[k]);
+                if (!(poids[k] >= 0.0))
+                    return 0.0;
+                if (d > 0.0)
+                    ratio = Math.min(ratio, poids[k] / d);
+            }
+        }
+        return minorerRatio(ratio);
+    }
+
+    /**
+     * Convertit le plus petit rapport pondération / distance observé sur les arcs en la valeur renvoyée par
+     * {@link #getRatioPoidsDistance()}.
+     *
+     * @param ratio plus petit rapport observé, infini si aucun arc ne relie deux points distincts
+     * @return rapport à utiliser pour minorer les distances
+     */
+    static double minorerRatio(double ratio) {
+        // Légère minoration pour que les erreurs d'arrondi ne rendent pas l'estimation trop optimiste.
+        return ratio == Double.POSITIVE_INFINITY ? 0.0 : ratio * (1.0 - 1e-9);
+    }
+
+    /**
+     * La classe {@code Constructeur} accumule les points et les arêtes lus avant de produire un {@code GrapheCSR}.
+     * <p></p>
+     * Les points et les arêtes sont stockés dans des tableaux de types primitifs qui grandissent au besoin.
+     * Si deux points ont le même identifiant, seul le dernier ajouté est conservé.
+     */
+    public static final class Constructeur {
+
+        /**
+         * Nombre de points ajoutés, doublons compris
+         */
+        private int nbSommets;
+
+        /**
+         * Identifiants et coordonnées des points dans leur ordre d'ajout
+         */
+        private int[] idsSommets = new int[16];
+        private int[] xs = new int[16];
+        private int[] ys = new int[16];
+
+        /**
+         * Nombre d'arêtes ajoutées
+         */
+        private int nbArcs;
+
+        /**
+         * Extrémités (identifiants) et pondérations des arêtes dans leur ordre d'ajout
+         */
+        private int[] idsDepart = new int[16];
+        private int[] idsArrivee = new int[16];
+        private double[] poidsArcs = new double[16];
+
+        /**
+         * Constructeur d'un constructeur vide.
+         */
+        public Constructeur() {
+        }
+
+        /**
+         * Constructeur qui reprend les points et les arêtes d'un graphe existant.
+         *
+         * @param graphe graphe dont le contenu est recopié
+         */
+        public Constructeur(Graphe graphe) {
+            for (int u = 0; u < graphe.getNbSommets(); u++)
+                ajouterSommet(graphe.getId(u), graphe.getX(u), graphe.getY(u));
+            for (int u = 0; u < graphe.getNbSommets(); u++)
+                for (int k = graphe.getDebut(u); k < graphe.getFin(u); k++)
+                    ajouterArc(graphe.getId(u), graphe.getId(graphe.getCible(k)), graphe.getPoids(k));
+        }
+
+        /**
+         * Ajoute un point.
+         *
+         * @param id identifiant du point
+         * @param x abscisse du point
+         * @param y ordonnée du point
+         */
+        public void ajouterSommet(int id, int x, int y) {
+            if (nbSommets == idsSommets.length) {
+                int taille = idsSommets.length * 2;
+                idsSommets = Arrays.copyOf(idsSommets, taille);
+                xs = Arrays.copyOf(xs, taille);
+                ys = Arrays.copyOf(ys, taille);
+            }
+            idsSommets[nbSommets] = id;
+            xs[nbSommets] = x;
+            ys[nbSommets] = y;
+            nbSommets++;
+        }
+
+        /**
+         * Ajoute une arête dirigée.
+         *
+         * @param id1 identifiant du point de départ
+         * @param id2 identifiant du point d'arrivée
+         * @param poids pondération de l'arête
+         */
+        public void ajouterArc(int id1, int id2, double poids) {
+            if (nbArcs == idsDepart.length) {
+                int taille = idsDepart.length * 2;
+                idsDepart = Arrays.copyOf(idsDepart, taille);
+                idsArrivee = Arrays.copyOf(idsArrivee, taille);
+                poidsArcs = Arrays.copyOf(poidsArcs, taille);
+            }
+            idsDepart[nbArcs] = id1;
+            idsArrivee[nbArcs] = id2;
+            poidsArcs[nbArcs] = poids;
+            nbArcs++;
+        }
+
+        /**
+         * Ajoute à la suite tous les points puis toutes les arêtes d'un autre constructeur.
+         *
+         * @param autre constructeur dont le contenu est recopié
+         */
+        public void ajouter(Constructeur autre) {
+            int taille = nbSommets + autre.nbSommets;
+            if (taille > idsSommets.length) {
+                taille = Math.max(taille, idsSommets.length * 2);
+                idsSommets = Arrays.copyOf(idsSommets, taille);
+                xs = Arrays.copyOf(xs, taille);
+                ys = Arrays.copyOf(ys, taille);
+            }
+            System.arraycopy(autre.idsSommets, 0, idsSommets, nbSommets, autre.nbSommets);
+            System.arraycopy(autre.xs, 0, xs, nbSommets, autre.nbSommets);
+            System.arraycopy(autre.ys, 0, ys, nbSommets, autre.nbSommets);
+            nbSommets += autre.nbSommets;
+
+            taille = nbArcs + autre.nbArcs;
+            if (taille > idsDepart.length) {
+                taille = Math.max(taille, idsDepart.length * 2);
+                idsDepart = Arrays.copyOf(idsDepart, taille);
+                idsArrivee = Arrays.copyOf(idsArrivee, taille);
+                poidsArcs = Arrays.copyOf(poidsArcs, taille);
+            }
+            System.arraycopy(autre.idsDepart, 0, idsDepart, nbArcs, autre.nbArcs);
+            System.arraycopy(autre.idsArrivee, 0, idsArrivee, nbArcs, autre.nbArcs);
+            System.arraycopy(autre.poidsArcs, 0, poidsArcs, nbArcs, autre.nbArcs);
+            nbArcs += autre.nbArcs;
+        }
+
+        /**
+         * Produit le graphe.
+         * <p></p>
+         * Les arcs sortants d'un même sommet sont rangés dans leur ordre d'ajout.
+         *
+         * @return le graphe construit
+         * @throws IllegalArgumentException si une arête fait référence à un point inconnu
+         */
+        public GrapheCSR construire() {
+            // Tri des points par identifiant puis par ordre d'ajout, pour ne garder que le dernier doublon.
+            long[] cles = new long[nbSommets];
+            for (int i = 0; i < nbSommets; i++)
+                cles[i] = ((long) idsSommets[i] << 32) | i;
+            Arrays.sort(cles);
+            int n = 0;
+            int[] ids = new int[nbSommets];
+            int[] abscisses = new int[nbSommets];
+            int[] ordonnees = new int[nbSommets];
+            for (int i = 0; i < nbSommets; i++) {
+                int id = (int) (cles[i] >> 32);
+                if (i + 1 < nbSommets && (int) (cles[i + 1] >> 32) == id)
+                    continue;
+                int position = (int) cles[i];
+                ids[n] = id;
+                abscisses[n] = xs[position];
+                ordonnees[n] = ys[position];
+                n++;
+            }
+            ids = Arrays.copyOf(ids, n);
+            abscisses = Arrays.copyOf(abscisses, n);
+            ordonnees = Arrays.copyOf(ordonnees, n);
+
+            // Comptage des degrés sortants puis placement des arcs.
+            int[] sources = new int[nbArcs];
+            int[] arrivees = new int[nbArcs];
+            int[] debut = new int[n + 1];
+            for (int k = 0; k < nbArcs; k++) {
+                int u = Arrays.binarySearch(ids, idsDepart[k]);
+                int v = Arrays.binarySearch(ids, idsArrivee[k]);
+                if (u < 0 || v < 0)
+                    throw new IllegalArgumentException("Identifiant d'un point inconnu");
+                sources[k] = u;
+                arrivees[k] = v;
+                debut[u + 1]++;
+            }
+            for (int u = 0; u < n; u++)
+                debut[u + 1] += debut[u];
+            int[] position = Arrays.copyOf(debut, n);
+            int[] cibles = new int[nbArcs];
+            double[] poids = new double[nbArcs];
+            for (int k = 0; k < nbArcs; k++) {
+                int p = position[sources[k]]++;
+                cibles[p] = arrivees[k];
+                poids[p] = poidsArcs[k];
+            }
+            return new GrapheCSR(ids, abscisses, ordonnees, debut, cibles, poids);
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * La classe {@code GrapheCompresse} est une représentation immuable du réseau routier qui occupe plusieurs fois moins
+ * de mémoire qu'un {@link GrapheCSR}, pour les réseaux à l'échelle d'un continent.
+ * <p></p>
+ * Les sommets et les arcs gardent la même numérotation et se parcourent de la même façon ({@link Graphe}), mais
+ * chaque tableau est un {@link TableauCompact} : par blocs de 64 valeurs, seuls les écarts au minimum du bloc sont
+ * stockés, sur le nombre de bits strictement nécessaire. Les cibles des arcs d'un réseau renuméroté
+ * ({@link GrapheCSR#renumeroterHilbert()}) sont proches les unes des autres et tiennent sur quelques bits.
+ * <p></p>
+ * Les pondérations sont arrondies au multiple le plus proche de {@code 2 * erreurMax} : chacune diffère de la
+ * pondération d'origine d'au plus {@code erreurMax}, et un chemin de {@code k} arcs d'au plus {@code k * erreurMax}.
+ * Avec {@code erreurMax = 0}, les pondérations sont conservées exactement, au prix d'une compression moindre.
+ * <p></p>
+ * L'accès à une valeur se fait en temps constant, mais coûte quelques opérations de plus qu'avec un {@code GrapheCSR}.
+ */
+public final class GrapheCompresse implements Graphe {
+
+    private final int nbSommets;
+    private final int nbArcs;
+
+    /**
+     * Identifiants, coordonnées et position du premier arc sortant de chaque sommet
+     */
+    private final TableauCompact ids;
+    private final TableauCompact abscisses;
+    private final TableauCompact ordonnees;
+    private final TableauCompact debut;
+
+    /**
+     * Identifiants triés et indice du sommet de chacun, {@code null} si {@code ids} est déjà trié
+     */
+    private final TableauCompact idsTries;
+    private final TableauCompact indicesTries;
+
+    /**
+     * Indice du sommet d'arrivée de chaque arc
+     */
+    private final TableauCompact cibles;
+
+    /**
+     * Pondération de chaque arc : nombre de pas de {@code 2 * erreurMax}, ou bits de la pondération exacte si
+     * {@code erreurMax = 0}
+     */
+    private final TableauCompact poids;
+
+    /**
+     * Écart maximal entre une pondération stockée et la pondération d'origine
+     */
+    private final double erreurMax;
+
+    /**
+     * Valeur d'un pas des pondérations, {@code 0} si elles sont exactes
+     */
+    private final double pas;
+
+    /**
+     * Rapport pondération / distance minimal, calculé sur les pondérations arrondies
+     */
+    private final double ratioPoidsDistance;
+
+    private GrapheCompresse(InstantaneReseau.Source source, double erreurMax) {
+        if (!(erreurMax >= 0.0) || erreurMax == Double.POSITIVE_INFINITY)
+            throw new IllegalArgumentException("Erreur maximale invalide : " + erreurMax);
+        this.erreurMax = erreurMax;
+        this.pas = 2.0 * erreurMax;
+        nbSommets = source.getNbSommets();
+        nbArcs = source.getNbArcs();
+        ids = new TableauCompact(nbSommets, source::getId);
+        abscisses = new TableauCompact(nbSommets, source::getX);
+        ordonnees = new TableauCompact(nbSommets, source::getY);
+
+        boolean tries = true;
+        for (int i = 1; i < nbSommets && tries; i++)
+            tries = ids.get(i - 1) < ids.get(i);
+        if (tries) {
+            idsTries = null;
+            indicesTries = null;
+        } else {
+            long[] cles = new long[nbSommets];
+            for (int i = 0; i < nbSommets; i++)
+                cles[i] = (ids.get(i) << 32) | i;
+            Arrays.sort(cles);
+            idsTries = new TableauCompact(nbSommets, i -> cles[i] >> 32);
+            indicesTries = new TableauCompact(nbSommets, i -> (int) cles[i]);
+        }
+
+        // Trois parcours des arcs : positions, cibles puis pondérations.
+        Parcours degres = new Parcours(source);
+        debut = new TableauCompact(nbSommets + 1, u -> u == 0 ? 0 : degres.finDe(u - 1));
+        if ((nbSommets == 0 ? 0 : getFin(nbSommets - 1)) != nbArcs)
+            throw new IllegalStateException("Nombre d'arcs annoncé incorrect : " + nbArcs);
+        Parcours arcs = new Parcours(source);
+        cibles = new TableauCompact(nbArcs, arcs::cible);
+        Parcours ponderations = new Parcours(source);
+        // Plus petit rapport pondération / distance des pondérations arrondies, NaN si l'une est négative
+        double[] ratio = {Double.POSITIVE_INFINITY};
+        int[] u = {0};
+        poids = new TableauCompact(nbArcs, k -> {
+            long code = coder(ponderations.poids(k));
+            double p = decoder(code);
+            while (getFin(u[0]) <= k)
+                u[0]++;
+            double d = distanceEuclidienne(u[0], getCible(k));
+            if (p < 0.0)
+                ratio[0] = Double.NaN;
+            else if (d > 0.0)
+                ratio[0] = Math.min(ratio[0], p / d);
+            return code;
+        });
+        ratioPoidsDistance = Double.isNaN(ratio[0]) ? 0.0 : GrapheCSR.minorerRatio(ratio[0]);
+    }
+
+    /**
+     * Compresse un graphe.
+     *
+     * @param graphe graphe à compresser
+     * @param erreurMax écart maximal entre une pondération compressée et la pondération d'origine, {@code 0} pour
+     *                  conserver les pondérations exactes
+     * @return le graphe compressé
+     * @throws IllegalArgumentException si {@code erreurMax} est négative, ou si une pondération n'est pas finie alors
+     *                                  que {@code erreurMax > 0}
+     */
+    public static GrapheCompresse compresser(Graphe graphe, double erreurMax) {
+        return new GrapheCompresse(new InstantaneReseau.Source() {
+            @Override
+            public int getNbSommets() {
+                return graphe.getNbSommets();
+            }
+
+            @Override
+            public int getNbArcs() {
+                return graphe.getNbArcs();
+            }
+
+            @Override
+            public double getRatioPoidsDistance() {
+                return graphe.getRatioPoidsDistance();
+            }
+
+            @Override
+            public int getId(int sommet) {
+                return graphe.getId(sommet);
+            }
+
+            @Override
+            public int getX(int sommet) {
+                return graphe.getX(sommet);
+            }
+
+            @Override
+            public int getY(int sommet) {
+                return graphe.getY(sommet);
+            }
+
+            @Override
+            public void parcourirArcs(int sommet, InstantaneReseau.Arcs arcs) throws IOException {
+                for (int k = graphe.getDebut(sommet); k < graphe.getFin(sommet); k++)
+                    arcs.arc(graphe.getCible(k), graphe.getPoids(k));
+            }
+        }, erreurMax);
+    }
+
+    /**
+     * Compresse un graphe décrit sommet par sommet, sans qu'il ait besoin d'être entièrement en mémoire : les arcs
+     * de chaque sommet sont parcourus trois fois.
+     *
+     * @param source description du graphe
+     * @param erreurMax écart maximal entre une pondération compressée et la pondération d'origine
+     * @return le graphe compressé
+     * @throws IOException si le parcours des arcs échoue
+     */
+    static GrapheCompresse compresser(InstantaneReseau.Source source, double erreurMax) throws IOException {
+        try {
+            return new GrapheCompresse(source, erreurMax);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Lit et compresse un graphe enregistré par {@link InstantaneReseau#ecrire(Graphe, Path)}, au fil du fichier :
+     * le graphe non compressé n'est jamais entièrement en mémoire.
+     *
+     * @param fichier chemin du fichier
+     * @param erreurMax écart maximal entre une pondération compressée et la pondération d'origine
+     * @return le graphe compressé
+     * @throws IOException en cas d'erreur de lecture ou si le fichier n'est pas au bon format
+     */
+    public static GrapheCompresse lire(Path fichier, double erreurMax) throws IOException {
+        return InstantaneReseau.lireCompresse(fichier, erreurMax);
+    }
+
+    /**
+     * Recopie le graphe dans un {@code GrapheCSR}, avec les pondérations arrondies.
+     *
+     * @return le graphe décompressé
+     */
+    public GrapheCSR decompresser() {
+        int[] idsCSR = new int[nbSommets];
+        int[] x = new int[nbSommets];
+        int[] y = new int[nbSommets];
+        int[] debutCSR = new int[nbSommets + 1];
+        for (int i = 0; i < nbSommets; i++) {
+            idsCSR[i] = getId(i);
+            x[i] = getX(i);
+            y[i] = getY(i);
+            debutCSR[i + 1] = getFin(i);
+        }
+        int[] ciblesCSR = new int[nbArcs];
+        double[] poidsCSR = new double[nbArcs];
+        for (int k = 0; k < nbArcs; k++) {
+            ciblesCSR[k] = getCible(k);
+            poidsCSR[k] = getPoids(k);
+        }
+        return new GrapheCSR(idsCSR, x, y, debutCSR, ciblesCSR, poidsCSR, ratioPoidsDistance);
+    }
+
+    private long coder(double w) {
+        if (pas == 0.0)
+            return Double.doubleToRawLongBits(w);
+        if (Math.abs(w) == Double.POSITIVE_INFINITY || Double.isNaN(w))
+            throw new IllegalArgumentException("Pondération non finie : " + w);
+        return Math.round(w / pas);
+    }
+
+    private double decoder(long code) {
+        return pas == 0.0 ? Double.longBitsToDouble(code) : code * pas;
+    }
+
+    /**
+     * Renvoie l'écart maximal entre une pondération stockée et la pondération d'origine.
+     *
+     * @return erreur maximale, {@code 0} si les pondérations sont exactes
+     */
+    public double getErreurMax() {
+        return erreurMax;
+    }
+
+    /**
+     * Renvoie la place occupée en mémoire par les tableaux du graphe.
+     *
+     * @return taille en octets
+     */
+    public long getTailleOctets() {
+        long taille = ids.getTailleOctets() + abscisses.getTailleOctets() + ordonnees.getTailleOctets()
+                + debut.getTailleOctets() + cibles.getTailleOctets() + poids.getTailleOctets();
+        if (idsTries != null)
+            taille += idsTries.getTailleOctets() + indicesTries.getTailleOctets();
+        return taille;
+    }
+
+    @Override
+    public int getNbSommets() {
+        return nbSommets;
+    }
+
+    @Override
+    public int getNbArcs() {
+        return nbArcs;
+    }
+
+    @Override
+    public int indexDe(int id) {
+        TableauCompact tries = idsTries == null ? ids : idsTries;
+        int bas = 0, haut = nbSommets - 1;
+        while (bas <= haut) {
+            int milieu = (bas + haut) >>> 1;
+            long m = tries.get(milieu);
+            if (m < id)
+                bas = milieu + 1;
+            else if (m > id)
+                haut = milieu - 1;
+            else
+                return idsTries == null ? milieu : (int) indicesTries.get(milieu);
+        }
+        return -1;
+    }
+
+    @Override
+    public int getId(int index) {
+        return (int) ids.get(index);
+    }
+
+    @Override
+    public int getX(int index) {
+        return (int) abscisses.get(index);
+    }
+
+    @Override
+    public int getY(int index) {
+        return (int) ordonnees.get(index);
+    }
+
+    @Override
+    public int getDebut(int index) {
+        return (int) debut.get(index);
+    }
+
+    @Override
+    public int getFin(int index) {
+        return (int) debut.get(index + 1);
+    }
+
+    @Override
+    public int getCible(int arc) {
+        return (int) cibles.get(arc);
+    }
+
+    @Override
+    public double getPoids(int arc) {
+        return decoder(poids.get(arc));
+    }
+
+    @Override
+    public double getRatioPoidsDistance() {
+        return ratioPoidsDistance;
+    }
+
+    /**
+     * Parcours des arcs d'une source dans l'ordre de leurs positions : les arcs de chaque sommet sont demandés à la
+     * source au moment où le parcours l'atteint.
+     */
+    private static final class Parcours implements InstantaneReseau.Arcs {
+        private final InstantaneReseau.Source source;
+
+        /**
+         * Sommet dont les arcs sont en mémoire, et position de son premier arc
+         */
+        private int sommet = -1;
+        private int premier;
+
+        /**
+         * Cibles et pondérations des arcs du sommet
+         */
+        private int nb;
+        private int[] cibles = new int[16];
+        private double[] poids = new double[16];
+
+        Parcours(InstantaneReseau.Source source) {
+            this.source = source;
+        }
+
+        /**
+         * Renvoie la position qui suit le dernier arc du sommet {@code u}, les sommets étant demandés dans l'ordre.
+         */
+        int finDe(int u) {
+            while (sommet < u)
+                suivant();
+            return premier + nb;
+        }
+
+        int cible(int arc) {
+            atteindre(arc);
+            return cibles[arc - premier];
+        }
+
+        double poids(int arc) {
+            atteindre(arc);
+            return poids[arc - premier];
+        }
+
+        private void atteindre(int arc) {
+            while (sommet < 0 || arc >= premier + nb)
+                suivant();
+        }
+
+        private void suivant() {
+            premier += nb;
+            nb = 0;
+            sommet++;
+            if (sommet >= source.getNbSommets())
+                throw new IllegalStateException("Nombre d'arcs annoncé incorrect : " + source.getNbArcs());
+            try {
+                source.parcourirArcs(sommet, this);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void arc(int cible, double p) {
+            if (nb == cibles.length) {
+                cibles = Arrays.copyOf(cibles, nb * 2);
+                poids = Arrays.copyOf(poids, nb * 2);
+            }
+            cibles[nb] = cible;
+            poids[nb++] = p;
+        }
+    }
+}
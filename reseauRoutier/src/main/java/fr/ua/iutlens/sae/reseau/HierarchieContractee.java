@@ -0,0 +1,777 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * La classe {@code HierarchieContractee} implémente les hiérarchies de contraction (<i>Contraction Hierarchies</i>)
+ * sur un {@code GrapheCSR}.
+ * <p></p>
+ * Un prétraitement contracte les sommets un par un, du moins important au plus important, en ajoutant des raccourcis
+ * qui préservent les plus courts chemins. Une requête est ensuite une recherche bidirectionnelle qui ne suit que des
+ * arcs « montants » (vers des sommets contractés plus tard) et ne fixe en pratique que quelques centaines de sommets.
+ * <p></p>
+ * Le prétraitement est coûteux mais ne dépend que du graphe : la hiérarchie peut être enregistrée par
+ * {@link #ecrire(Path)} et relue par {@link #lire(Path, GrapheCSR)}.
+ */
+public final class HierarchieContractee {
+
+    /**
+     * Signature au début de chaque fichier ("RRCH")
+     */
+    private static final int SIGNATURE = 0x52524348;
+
+    /**
+     * Version du format
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * Graphe à partir duquel la hiérarchie a été construite
+     */
+    private final GrapheCSR graphe;
+
+    /**
+     * Rang de contraction de chaque sommet
+     */
+    private final int[] rang;
+
+    /**
+     * Arcs montants {@code v -> w} (rang de {@code w} supérieur à celui de {@code v}), rangés par sommet {@code v}.
+     * Le milieu d'un raccourci est le sommet contracté qu'il remplace, {@code -1} pour un arc du graphe.
+     */
+    private final int[] debutMontee;
+    private final int[] cibleMontee;
+    private final int[] milieuMontee;
+    private final double[] poidsMontee;
+
+    /**
+     * Arcs descendants {@code u -> v} (rang de {@code u} supérieur à celui de {@code v}), rangés par sommet {@code v}.
+     */
+    private final int[] debutDescente;
+    private final int[] sourceDescente;
+    private final int[] milieuDescente;
+    private final double[] poidsDescente;
+
+    private HierarchieContractee(GrapheCSR graphe, int[] rang,
+                                 int[] debutMontee, int[] cibleMontee, int[] milieuMontee, double[] poidsMontee,
+                                 int[] debutDescente, int[] sourceDescente, int[] milieuDescente,
+                                 double[] poidsDescente) {
+        this.graphe = graphe;
+        this.rang = rang;
+        this.debutMontee = debutMontee;
+        this.cibleMontee = cibleMontee;
+        this.milieuMontee = milieuMontee;
+        this.poidsMontee = poidsMontee;
+        this.debutDescente = debutDescente;
+        this.sourceDescente = sourceDescente;
+        this.milieuDescente = milieuDescente;
+        this.poidsDescente = poidsDescente;
+    }
+
+    /**
+     * Construit la hiérarchie de contraction d'un graphe dont les pondérations sont positives.
+     *
+     * @param graphe graphe à prétraiter
+     * @return la hiérarchie
+     */
+    public static HierarchieContractee construire(GrapheCSR graphe) {
+        return new Contraction(graphe).contracter();
+    }
+
+    /**
+     * Renvoie le graphe à partir duquel la hiérarchie a été construite.
+     *
+     * @return le graphe
+     */
+    public GrapheCSR getGraphe() {
+        return graphe;
+    }
+
+    /**
+     * Renvoie le nombre d'arcs de la hiérarchie, raccourcis compris.
+     *
+     * @return nombre d'arcs montants et descendants
+     */
+    public int getNbArcs() {
+        return cibleMontee.length + sourceDescente.length;
+    }
+
+    /**
+     * Crée un espace de requête, à utiliser par un seul thread à la fois.
+     *
+     * @return un nouvel espace de requête
+     */
+    public Requete nouvelleRequete() {
+        return new Requete();
+    }
+
+    /**
+     * Enregistre la hiérarchie dans le fichier {@code fichier}, qui est remplacé s'il existe.
+     *
+     * @param fichier chemin du fichier
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void ecrire(Path fichier) throws IOException {
+        try (DataOutputStream sortie = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(fichier),
+                1 << 16))) {
+            sortie.writeInt(SIGNATURE);
+            sortie.writeInt(VERSION);
+            sortie.writeInt(graphe.getNbSommets());
+            sortie.writeInt(graphe.getNbArcs());
+            sortie.writeLong(graphe.getEmpreinte());
+            sortie.writeInt(cibleMontee.length);
+            sortie.writeInt(sourceDescente.length);
+            ecrireEntiers(sortie, rang);
+            ecrireEntiers(sortie, debutMontee);
+            ecrireEntiers(sortie, cibleMontee);
+            ecrireEntiers(sortie, milieuMontee);
+            ecrireReels(sortie, poidsMontee);
+            ecrireEntiers(sortie, debutDescente);
+            ecrireEntiers(sortie, sourceDescente);
+            ecrireEntiers(sortie, milieuDescente);
+            ecrireReels(sortie, poidsDescente);
+        }
+    }
+
+    /**
+     * Relit une hiérarchie enregistrée par {@link #ecrire(Path)} pour le graphe {@code graphe}.
+     *
+     * @param fichier chemin du fichier
+     * @param graphe graphe à partir duquel la hiérarchie a été construite
+     * @return la hiérarchie
+     * @throws IOException en cas d'erreur de lecture, si le fichier n'est pas au bon format
+     *                     ou s'il ne correspond pas au graphe (autres routes, autres pondérations ou sommets
+     *                     numérotés dans un autre ordre, voir {@link GrapheCSR#getEmpreinte()})
+     */
+    public static HierarchieContractee lire(Path fichier, GrapheCSR graphe) throws IOException {
+        try (DataInputStream entree = new DataInputStream(new BufferedInputStream(Files.newInputStream(fichier),
+                1 << 16))) {
+            if (entree.readInt() != SIGNATURE || entree.readInt() != VERSION)
+                throw new IOException("Format de fichier inconnu : " + fichier);
+            int n = entree.readInt();
+            int m = entree.readInt();
+            long empreinte = entree.readLong();
+            if (n != graphe.getNbSommets() || m != graphe.getNbArcs()
+                    || empreinte != graphe.getEmpreinte())
+                throw new IOException("La hiérarchie ne correspond pas au réseau : " + fichier);
+            int nbMontee = entree.readInt();
+            int nbDescente = entree.readInt();
+            int[] rang = lireEntiers(entree, n);
+            int[] debutMontee = lireEntiers(entree, n + 1);
+            int[] cibleMontee = lireEntiers(entree, nbMontee);
+            int[] milieuMontee = lireEntiers(entree, nbMontee);
+            double[] poidsMontee = lireReels(entree, nbMontee);
+            int[] debutDescente = lireEntiers(entree, n + 1);
+            int[] sourceDescente = lireEntiers(entree, nbDescente);
+            int[] milieuDescente = lireEntiers(entree, nbDescente);
+            double[] poidsDescente = lireReels(entree, nbDescente);
+            return new HierarchieContractee(graphe, rang, debutMontee, cibleMontee, milieuMontee, poidsMontee,
+                    debutDescente, sourceDescente, milieuDescente, poidsDescente);
+        }
+    }
+
+    private static void ecrireEntiers(DataOutputStream sortie, int[] tableau) throws IOException {
+        for (int valeur : tableau)
+            sortie.writeInt(valeur);
+    }
+
+    private static void ecrireReels(DataOutputStream sortie, double[] tableau) throws IOException {
+        for (double valeur : tableau)
+            sortie.writeDouble(valeur);
+    }
+
+    private static int[] lireEntiers(DataInputStream entree, int nb) throws IOException {
+        int[] tableau = new int[nb];
+        for (int i = 0; i < nb; i++)
+            tableau[i] = entree.readInt();
+        return tableau;
+    }
+
+    private static double[] lireReels(DataInputStream entree, int nb) throws IOException {
+        double[] tableau = new double[nb];
+        for (int i = 0; i < nb; i++)
+            tableau[i] = entree.readDouble();
+        return tableau;
+    }
+
+    /**
+     * La classe {@code Requete} est un espace de travail pour les requêtes de plus court chemin dans la hiérarchie.
+     */
+    public final class Requete {
+
+        private final double[] distanceAvant;
+        private final double[] distanceArriere;
+        private final int[] predAvant;
+        private final int[] predArriere;
+        private final int[] marqueAvant;
+        private final int[] marqueArriere;
+        private final TasIndexe tasAvant;
+        private final TasIndexe tasArriere;
+        private int numero;
+
+        /**
+         * Sommet de rencontre des deux recherches lors de la dernière requête, {@code -1} si aucun
+         */
+        private int rencontre = -1;
+
+        private int source;
+        private int nbSommetsFixes;
+
+        private Requete() {
+            int n = graphe.getNbSommets();
+            distanceAvant = new double[n];
+            distanceArriere = new double[n];
+            predAvant = new int[n];
+            predArriere = new int[n];
+            marqueAvant = new int[n];
+            marqueArriere = new int[n];
+            tasAvant = new TasIndexe(n);
+            tasArriere = new TasIndexe(n);
+        }
+
+        /**
+         * Calcule la distance du sommet {@code source} au sommet {@code cible}.
+         *
+         * @param source indice du sommet de départ
+         * @param cible indice du sommet d'arrivée
+         * @return la distance, ou {@link Double#POSITIVE_INFINITY} si la cible n'est pas atteignable
+         */
+        public double distance(int source, int cible) {
+            if (++numero == 0) {
+                Arrays.fill(marqueAvant, 0);
+                Arrays.fill(marqueArriere, 0);
+                numero = 1;
+            }
+            this.source = source;
+            nbSommetsFixes = 0;
+            rencontre = -1;
+            double meilleure = Double.POSITIVE_INFINITY;
+            marqueAvant[source] = numero;
+            distanceAvant[source] = 0.0;
+            predAvant[source] = -1;
+            tasAvant.insererOuDiminuer(source, 0.0);
+            marqueArriere[cible] = numero;
+            distanceArriere[cible] = 0.0;
+            predArriere[cible] = -1;
+            tasArriere.insererOuDiminuer(cible, 0.0);
+
+            while (!tasAvant.estVide() || !tasArriere.estVide()) {
+                double minAvant = tasAvant.estVide() ? Double.POSITIVE_INFINITY : tasAvant.cleMinimale();
+                double minArriere = tasArriere.estVide() ? Double.POSITIVE_INFINITY : tasArriere.cleMinimale();
+                if (Math.min(minAvant, minArriere) >= meilleure)
+                    break;
+                nbSommetsFixes++;
+                if (minAvant <= minArriere) {
+                    int u = tasAvant.extraireMinimum();
+                    double du = distanceAvant[u];
+                    if (marqueArriere[u] == numero && du + distanceArriere[u] < meilleure) {
+                        meilleure = du + distanceArriere[u];
+                        rencontre = u;
+                    }
+                    for (int k = debutMontee[u]; k < debutMontee[u + 1]; k++) {
+                        int w = cibleMontee[k];
+                        double dw = du + poidsMontee[k];
+                        if (marqueAvant[w] != numero || dw < distanceAvant[w]) {
+                            marqueAvant[w] = numero;
+                            distanceAvant[w] = dw;
+                            predAvant[w] = k;
+                            tasAvant.insererOuDiminuer(w, dw);
+                        }
+                    }
+                } else {
+                    int v = tasArriere.extraireMinimum();
+                    double dv = distanceArriere[v];
+                    if (marqueAvant[v] == numero && dv + distanceAvant[v] < meilleure) {
+                        meilleure = dv + distanceAvant[v];
+                        rencontre = v;
+                    }
+                    for (int k = debutDescente[v]; k < debutDescente[v + 1]; k++) {
+                        int u = sourceDescente[k];
+                        double du = dv + poidsDescente[k];
+                        if (marqueArriere[u] != numero || du < distanceArriere[u]) {
+                            marqueArriere[u] = numero;
+                            distanceArriere[u] = du;
+                            predArriere[u] = k;
+                            tasArriere.insererOuDiminuer(u, du);
+                        }
+                    }
+                }
+            }
+            tasAvant.vider();
+            tasArriere.vider();
+            return meilleure;
+        }
+
+        /**
+         * Reconstruit le chemin de la dernière requête en développant les raccourcis.
+         *
+         * @return le chemin, ou {@code null} si la cible n'était pas atteignable
+         */
+        public Chemin chemin() {
+            if (rencontre < 0)
+                return null;
+            IntListe sommets = new IntListe();
+            sommets.ajouter(source);
+            // Partie montante, de la source au sommet de rencontre.
+            IntListe arcs = new IntListe();
+            for (int v = rencontre; predAvant[v] >= 0; v = sourceMontee(predAvant[v]))
+                arcs.ajouter(predAvant[v]);
+            for (int i = arcs.taille() - 1; i >= 0; i--) {
+                int k = arcs.get(i);
+                developper(sommets, sourceMontee(k), cibleMontee[k], milieuMontee[k]);
+            }
+            // Partie descendante, du sommet de rencontre à la cible.
+            for (int u = rencontre; predArriere[u] >= 0; ) {
+                int k = predArriere[u];
+                int v = cibleDescente(k);
+                developper(sommets, u, v, milieuDescente[k]);
+                u = v;
+            }
+            int[] ids = new int[sommets.taille()];
+            for (int i = 0; i < ids.length; i++)
+                ids[i] = graphe.getId(sommets.get(i));
+            return new Chemin(ids, distanceAvant[rencontre] + distanceArriere[rencontre]);
+        }
+
+        /**
+         * Renvoie la hiérarchie dans laquelle se font les requêtes.
+         *
+         * @return la hiérarchie
+         */
+        public HierarchieContractee getHierarchie() {
+            return HierarchieContractee.this;
+        }
+
+        /**
+         * Renvoie le nombre de sommets fixés par les deux recherches lors de la dernière requête.
+         *
+         * @return nombre de sommets fixés
+         */
+        public int getNbSommetsFixes() {
+            return nbSommetsFixes;
+        }
+    }
+
+    /**
+     * Renvoie le sommet de départ de l'arc montant {@code k}.
+     */
+    private int sourceMontee(int k) {
+        int v = Arrays.binarySearch(debutMontee, k);
+        if (v < 0)
+            return -v - 2;
+        // Plusieurs sommets sans arc peuvent partager le même début : on prend le dernier.
+        while (debutMontee[v + 1] == k)
+            v++;
+        return v;
+    }
+
+    /**
+     * Renvoie le sommet d'arrivée de l'arc descendant {@code k}.
+     */
+    private int cibleDescente(int k) {
+        int v = Arrays.binarySearch(debutDescente, k);
+        if (v < 0)
+            return -v - 2;
+        while (debutDescente[v + 1] == k)
+            v++;
+        return v;
+    }
+
+    /**
+     * Ajoute à {@code sommets} les sommets du chemin d'origine représenté par l'arc {@code a -> b}, sauf {@code a}.
+     */
+    private void developper(IntListe sommets, int a, int b, int milieu) {
+        IntListe pile = new IntListe();
+        pile.ajouter(a);
+        pile.ajouter(b);
+        pile.ajouter(milieu);
+        while (pile.taille() > 0) {
+            int m = pile.retirer();
+            int y = pile.retirer();
+            int x = pile.retirer();
+            if (m < 0) {
+                sommets.ajouter(y);
+                continue;
+            }
+            // x -> m est un arc descendant rangé en m, m -> y un arc montant rangé en m.
+            pile.ajouter(m);
+            pile.ajouter(y);
+            pile.ajouter(milieuMontee[arcMontant(m, y)]);
+            pile.ajouter(x);
+            pile.ajouter(m);
+            pile.ajouter(milieuDescente[arcDescendant(x, m)]);
+        }
+    }
+
+    private int arcMontant(int v, int w) {
+        for (int k = debutMontee[v]; k < debutMontee[v + 1]; k++)
+            if (cibleMontee[k] == w)
+                return k;
+        throw new IllegalStateException("Raccourci incohérent");
+    }
+
+    private int arcDescendant(int u, int v) {
+        for (int k = debutDescente[v]; k < debutDescente[v + 1]; k++)
+            if (sourceDescente[k] == u)
+                return k;
+        throw new IllegalStateException("Raccourci incohérent");
+    }
+
+    /**
+     * Liste d'entiers de taille variable
+     */
+    private static final class IntListe {
+        private int[] valeurs = new int[16];
+        private int taille;
+
+        void ajouter(int valeur) {
+            if (taille == valeurs.length)
+                valeurs = Arrays.copyOf(valeurs, taille * 2);
+            valeurs[taille++] = valeur;
+        }
+
+        int retirer() {
+            return valeurs[--taille];
+        }
+
+        int get(int i) {
+            return valeurs[i];
+        }
+
+        int taille() {
+            return taille;
+        }
+    }
+
+    /**
+     * La classe {@code Contraction} réalise le prétraitement.
+     * <p></p>
+     * Le graphe restant est représenté par des listes d'arcs sortants et entrants par sommet, sans arc multiple.
+     * L'ordre de contraction est choisi par la différence d'arcs (raccourcis ajoutés moins arcs supprimés) plus le
+     * nombre de voisins déjà contractés, avec mise à jour paresseuse des priorités.
+     */
+    private static final class Contraction {
+
+        /**
+         * Nombre maximal de sommets fixés par une recherche de témoin lors du calcul d'une priorité
+         */
+        private static final int LIMITE_TEMOIN_SIMULATION = 50;
+
+        /**
+         * Nombre maximal de sommets fixés par une recherche de témoin lors d'une contraction
+         */
+        private static final int LIMITE_TEMOIN_CONTRACTION = 1000;
+
+        private final GrapheCSR graphe;
+        private final int n;
+
+        /**
+         * Arcs sortants restants de chaque sommet : cible, poids et milieu
+         */
+        private final ListeArcs[] sortants;
+
+        /**
+         * Arcs entrants restants de chaque sommet : source, poids et milieu
+         */
+        private final ListeArcs[] entrants;
+
+        private final int[] rang;
+        private final boolean[] contracte;
+        private final int[] voisinsContractes;
+
+        /**
+         * Profondeur de chaque sommet dans la hiérarchie en construction
+         */
+        private final int[] niveau;
+
+        /**
+         * Arcs de la hiérarchie, enregistrés à la contraction de leur extrémité de plus petit rang
+         */
+        private final ListeArcs[] montee;
+        private final ListeArcs[] descente;
+
+        /**
+         * Espace de travail des recherches de témoins
+         */
+        private final double[] distance;
+        private final int[] marque;
+        private final TasIndexe tas;
+        private int numero;
+
+        /**
+         * Cibles de la recherche de témoin en cours
+         */
+        private final int[] marqueCible;
+        private int numeroCible;
+
+        /**
+         * Raccourcis calculés par la dernière simulation : source, cible, poids
+         */
+        private final IntListe raccourcisSource = new IntListe();
+        private final IntListe raccourcisCible = new IntListe();
+        private double[] raccourcisPoids = new double[16];
+
+        Contraction(GrapheCSR graphe) {
+            this.graphe = graphe;
+            n = graphe.getNbSommets();
+            sortants = new ListeArcs[n];
+            entrants = new ListeArcs[n];
+            montee = new ListeArcs[n];
+            descente = new ListeArcs[n];
+            for (int v = 0; v < n; v++) {
+                sortants[v] = new ListeArcs();
+                entrants[v] = new ListeArcs();
+            }
+            for (int u = 0; u < n; u++) {
+                for (int k = graphe.getDebut(u); k < graphe.getFin(u); k++) {
+                    int v = graphe.getCible(k);
+                    if (u != v)
+                        ajouterArc(u, v, graphe.getPoids(k), -1);
+                }
+            }
+            rang = new int[n];
+            contracte = new boolean[n];
+            voisinsContractes = new int[n];
+            niveau = new int[n];
+            distance = new double[n];
+            marque = new int[n];
+            marqueCible = new int[n];
+            tas = new TasIndexe(n);
+        }
+
+        HierarchieContractee contracter() {
+            TasIndexe ordre = new TasIndexe(n);
+            for (int v = 0; v < n; v++)
+                ordre.insererOuDiminuer(v, priorite(v));
+            int prochainRang = 0;
+            while (!ordre.estVide()) {
+                int v = ordre.extraireMinimum();
+                double p = priorite(v);
+                if (!ordre.estVide() && p > ordre.cleMinimale()) {
+                    ordre.insererOuDiminuer(v, p);
+                    continue;
+                }
+                rang[v] = prochainRang++;
+                contracterSommet(v);
+                // Les voisins ont perdu des arcs et gagné des raccourcis : leur priorité est recalculée.
+                ListeArcs out = montee[v];
+                for (int i = 0; i < out.taille; i++)
+                    mettreAJour(ordre, out.sommet[i]);
+                ListeArcs in = descente[v];
+                for (int i = 0; i < in.taille; i++)
+                    mettreAJour(ordre, in.sommet[i]);
+            }
+            return assembler();
+        }
+
+        private void mettreAJour(TasIndexe ordre, int w) {
+            // Le tas ne sait que diminuer une clé : une augmentation sera constatée à l'extraction du sommet.
+            if (ordre.contient(w))
+                ordre.insererOuDiminuer(w, priorite(w));
+        }
+
+        private double priorite(int v) {
+            int nbRaccourcis = simuler(v, LIMITE_TEMOIN_SIMULATION);
+            return 2.0 * (nbRaccourcis - sortants[v].taille - entrants[v].taille) + voisinsContractes[v] + niveau[v];
+        }
+
+        /**
+         * Calcule les raccourcis nécessaires à la contraction de {@code v} et renvoie leur nombre.
+         * <p></p>
+         * Une recherche de témoin interrompue trop tôt ne fait qu'ajouter un raccourci inutile : le résultat des
+         * requêtes reste exact quelle que soit la limite {@code maxFixes}.
+         */
+        private int simuler(int v, int maxFixes) {
+            raccourcisSource.taille = 0;
+            raccourcisCible.taille = 0;
+            ListeArcs in = entrants[v];
+            ListeArcs out = sortants[v];
+            for (int i = 0; i < in.taille; i++) {
+                int u = in.sommet[i];
+                double poidsUV = in.poids[i];
+                double limite = 0.0;
+                int nbCibles = 0;
+                if (++numeroCible == 0) {
+                    Arrays.fill(marqueCible, 0);
+                    numeroCible = 1;
+                }
+                for (int j = 0; j < out.taille; j++) {
+                    int w = out.sommet[j];
+                    if (w != u && marqueCible[w] != numeroCible) {
+                        marqueCible[w] = numeroCible;
+                        nbCibles++;
+                        limite = Math.max(limite, poidsUV + out.poids[j]);
+                    }
+                }
+                if (nbCibles == 0)
+                    continue;
+                temoins(u, v, limite, nbCibles, maxFixes);
+                for (int j = 0; j < out.taille; j++) {
+                    int w = out.sommet[j];
+                    if (w == u)
+                        continue;
+                    double poidsRaccourci = poidsUV + out.poids[j];
+                    if (distanceTemoin(w) > poidsRaccourci) {
+                        if (raccourcisSource.taille == raccourcisPoids.length)
+                            raccourcisPoids = Arrays.copyOf(raccourcisPoids, raccourcisPoids.length * 2);
+                        raccourcisPoids[raccourcisSource.taille] = poidsRaccourci;
+                        raccourcisSource.ajouter(u);
+                        raccourcisCible.ajouter(w);
+                    }
+                }
+            }
+            return raccourcisSource.taille;
+        }
+
+        /**
+         * Recherche de Dijkstra limitée depuis {@code u} dans le graphe restant, sans passer par {@code exclu}.
+         * Elle s'arrête dès que les {@code nbCibles} sommets marqués dans {@code marqueCible} sont fixés.
+         */
+        private void temoins(int u, int exclu, double limite, int nbCibles, int maxFixes) {
+            if (++numero == 0) {
+                Arrays.fill(marque, 0);
+                numero = 1;
+            }
+            marque[u] = numero;
+            distance[u] = 0.0;
+            tas.insererOuDiminuer(u, 0.0);
+            int fixes = 0;
+            while (!tas.estVide() && fixes < maxFixes) {
+                if (tas.cleMinimale() > limite)
+                    break;
+                int x = tas.extraireMinimum();
+                fixes++;
+                if (marqueCible[x] == numeroCible && --nbCibles == 0)
+                    break;
+                ListeArcs out = sortants[x];
+                for (int i = 0; i < out.taille; i++) {
+                    int y = out.sommet[i];
+                    if (y == exclu)
+                        continue;
+                    double dy = distance[x] + out.poids[i];
+                    if (marque[y] != numero || dy < distance[y]) {
+                        marque[y] = numero;
+                        distance[y] = dy;
+                        tas.insererOuDiminuer(y, dy);
+                    }
+                }
+            }
+            tas.vider();
+        }
+
+        private double distanceTemoin(int w) {
+            return marque[w] == numero ? distance[w] : Double.POSITIVE_INFINITY;
+        }
+
+        private void contracterSommet(int v) {
+            simuler(v, LIMITE_TEMOIN_CONTRACTION);
+            contracte[v] = true;
+            montee[v] = sortants[v];
+            descente[v] = entrants[v];
+            sortants[v] = null;
+            entrants[v] = null;
+            ListeArcs out = montee[v];
+            for (int i = 0; i < out.taille; i++) {
+                int w = out.sommet[i];
+                entrants[w].retirer(v);
+                voisinsContractes[w]++;
+                niveau[w] = Math.max(niveau[w], niveau[v] + 1);
+            }
+            ListeArcs in = descente[v];
+            for (int i = 0; i < in.taille; i++) {
+                int u = in.sommet[i];
+                sortants[u].retirer(v);
+                voisinsContractes[u]++;
+                niveau[u] = Math.max(niveau[u], niveau[v] + 1);
+            }
+            for (int i = 0; i < raccourcisSource.taille; i++)
+                ajouterArc(raccourcisSource.get(i), raccourcisCible.get(i), raccourcisPoids[i], v);
+        }
+
+        private void ajouterArc(int u, int w, double poids, int milieu) {
+            if (sortants[u].mettreAJour(w, poids, milieu))
+                entrants[w].mettreAJour(u, poids, milieu);
+        }
+
+        private HierarchieContractee assembler() {
+            int[] debutMontee = new int[n + 1];
+            int[] debutDescente = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                debutMontee[v + 1] = debutMontee[v] + montee[v].taille;
+                debutDescente[v + 1] = debutDescente[v] + descente[v].taille;
+            }
+            int[] cibleMontee = new int[debutMontee[n]];
+            int[] milieuMontee = new int[debutMontee[n]];
+            double[] poidsMontee = new double[debutMontee[n]];
+            int[] sourceDescente = new int[debutDescente[n]];
+            int[] milieuDescente = new int[debutDescente[n]];
+            double[] poidsDescente = new double[debutDescente[n]];
+            for (int v = 0; v < n; v++) {
+                ListeArcs l = montee[v];
+                System.arraycopy(l.sommet, 0, cibleMontee, debutMontee[v], l.taille);
+                System.arraycopy(l.milieu, 0, milieuMontee, debutMontee[v], l.taille);
+                System.arraycopy(l.poids, 0, poidsMontee, debutMontee[v], l.taille);
+                l = descente[v];
+                System.arraycopy(l.sommet, 0, sourceDescente, debutDescente[v], l.taille);
+                System.arraycopy(l.milieu, 0, milieuDescente, debutDescente[v], l.taille);
+                System.arraycopy(l.poids, 0, poidsDescente, debutDescente[v], l.taille);
+            }
+            return new HierarchieContractee(graphe, rang, debutMontee, cibleMontee, milieuMontee, poidsMontee,
+                    debutDescente, sourceDescente, milieuDescente, poidsDescente);
+        }
+    }
+
+    /**
+     * Liste d'arcs d'un sommet vers des voisins distincts : voisin, poids et milieu du raccourci
+     */
+    private static final class ListeArcs {
+        private int[] sommet = new int[4];
+        private double[] poids = new double[4];
+        private int[] milieu = new int[4];
+        private int taille;
+
+        /**
+         * Ajoute l'arc vers {@code voisin} ou diminue son poids ; renvoie {@code true} si la liste a changé.
+         */
+        boolean mettreAJour(int voisin, double p, int m) {
+            for (int i = 0; i < taille; i++) {
+                if (sommet[i] == voisin) {
+                    if (p >= poids[i])
+                        return false;
+                    poids[i] = p;
+                    milieu[i] = m;
+                    return true;
+                }
+            }
+            if (taille == sommet.length) {
+                sommet = Arrays.copyOf(sommet, taille * 2);
+                poids = Arrays.copyOf(poids, taille * 2);
+                milieu = Arrays.copyOf(milieu, taille * 2);
+            }
+            sommet[taille] = voisin;
+            poids[taille] = p;
+            milieu[taille] = m;
+            taille++;
+            return true;
+        }
+
+        void retirer(int voisin) {
+            for (int i = 0; i < taille; i++) {
+                if (sommet[i] == voisin) {
+                    taille--;
+                    sommet[i] = sommet[taille];
+                    poids[i] = poids[taille];
+                    milieu[i] = milieu[taille];
+                    return;
+                }
+            }
+        }
+    }
+}
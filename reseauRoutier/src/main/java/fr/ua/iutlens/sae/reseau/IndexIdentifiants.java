@@ -0,0 +1,89 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code IndexIdentifiants} retrouve l'indice d'un sommet à partir de l'identifiant de son point, en temps
+ * constant et sans objet par sommet.
+ * <p></p>
+ * Si les identifiants se suivent ({@code ids[i] == ids[0] + i}), l'indice se calcule directement et aucune table
+ * n'est allouée. Sinon, les indices sont rangés dans une table à adressage ouvert, remplie au plus à moitié, où
+ * l'emplacement d'un identifiant est donné par hachage de Fibonacci puis par sondage linéaire. La table ne contient
+ * que les indices : l'identifiant d'un emplacement est relu dans le tableau des identifiants du graphe, ce qui coûte
+ * de {@code 8} à {@code 16} octets par sommet.
+ */
+final class IndexIdentifiants {
+
+    /**
+     * Emplacement libre de la table
+     */
+    private static final int LIBRE = -1;
+
+    /**
+     * Identifiant de chaque sommet, partagé avec le graphe
+     */
+    private final int[] ids;
+
+    /**
+     * Table des indices, de taille une puissance de deux, {@code null} si les identifiants se suivent
+     */
+    private final int[] table;
+
+    /**
+     * Décalage appliqué au hachage pour obtenir un emplacement de la table
+     */
+    private final int decalage;
+
+    /**
+     * Construit l'index des identifiants. Si un identifiant apparaît plusieurs fois, le premier sommet l'emporte.
+     *
+     * @param ids identifiant de chaque sommet, qui n'est pas copié
+     */
+    IndexIdentifiants(int[] ids) {
+        this.ids = ids;
+        boolean consecutifs = true;
+        for (int i = 1; i < ids.length && consecutifs; i++)
+            consecutifs = (long) ids[i] - ids[0] == i;
+        if (consecutifs) {
+            table = null;
+            decalage = 0;
+            return;
+        }
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, 2 * ids.length - 1));
+        table = new int[1 << bits];
+        decalage = 32 - bits;
+        Arrays.fill(table, LIBRE);
+        for (int i = 0; i < ids.length; i++) {
+            int e = emplacement(ids[i]);
+            while (table[e] != LIBRE && ids[table[e]] != ids[i])
+                e = (e + 1) & (table.length - 1);
+            if (table[e] == LIBRE)
+                table[e] = i;
+        }
+    }
+
+    private int emplacement(int id) {
+        return (id * 0x9E3779B9) >>> decalage;
+    }
+
+    /**
+     * Renvoie l'indice du sommet à partir de l'identifiant du point.
+     *
+     * @param id identifiant du point
+     * @return indice du sommet ou {@code -1} si l'identifiant n'est pas trouvé
+     */
+    int indexDe(int id) {
+        if (table == null) {
+            long i = (long) id - (ids.length == 0 ? 0 : ids[0]);
+            return i >= 0 && i < ids.length ? (int) i : -1;
+        }
+        int e = emplacement(id);
+        int i;
+        while ((i = table[e]) != LIBRE) {
+            if (ids[i] == id)
+                return i;
+            e = (e + 1) & (table.length - 1);
+        }
+        return -1;
+    }
+}
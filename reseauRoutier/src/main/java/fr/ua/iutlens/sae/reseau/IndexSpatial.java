@@ -0,0 +1,296 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * La classe {@code IndexSpatial} permet de retrouver rapidement les sommets d'un {@code Graphe} proches d'une
+ * position {@code (x,y)}.
+ * <p></p>
+ * Le rectangle englobant les points est découpé en une grille régulière de cellules carrées contenant chacune
+ * environ deux points. Les indices des sommets sont rangés cellule par cellule dans un seul tableau, au format CSR,
+ * et une recherche ne parcourt que les cellules voisines de la position, par couronnes successives.
+ */
+public final class IndexSpatial {
+
+    /**
+     * Nombre moyen de points par cellule visé
+     */
+    private static final int POINTS_PAR_CELLULE = 2;
+
+    /**
+     * Graphe dont les sommets sont indexés
+     */
+    private final Graphe graphe;
+
+    /**
+     * Coin inférieur gauche de la grille
+     */
+    private final long xMin;
+    private final long yMin;
+
+    /**
+     * Côté d'une cellule
+     */
+    private final long cote;
+
+    /**
+     * Nombre de colonnes et de lignes de la grille
+     */
+    private final int nbColonnes;
+    private final int nbLignes;
+
+    /**
+     * Position dans {@code sommets} du premier sommet de chaque cellule (tableau de taille {@code nbCellules+1})
+     */
+    private final int[] debut;
+
+    /**
+     * Indices des sommets rangés par cellule
+     */
+    private final int[] sommets;
+
+    /**
+     * Construit l'index spatial des sommets du graphe.
+     *
+     * @param graphe graphe dont les sommets sont indexés
+     */
+    public IndexSpatial(Graphe graphe) {
+        this.graphe = graphe;
+        int n = graphe.getNbSommets();
+        long minX = Long.MAX_VALUE, minY = Long.MAX_VALUE, maxX = Long.MIN_VALUE, maxY = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, graphe.getX(i));
+            minY = Math.min(minY, graphe.getY(i));
+            maxX = Math.max(maxX, graphe.getX(i));
+            maxY = Math.max(maxY, graphe.getY(i));
+        }
+        if (n == 0) {
+            minX = minY = maxX = maxY = 0;
+        }
+        xMin = minX;
+        yMin = minY;
+        double surface = (double) (maxX - minX + 1) * (maxY - minY + 1);
+        double nbCellulesVise = Math.max(1.0, (double) n / POINTS_PAR_CELLULE);
+        long c = Math.max(1L, (long) Math.ceil(Math.sqrt(surface / nbCellulesVise)));
+        // Pour des points presque alignés, les cellules carrées seraient trop nombreuses : on les agrandit.
+        while ((double) ((maxX - minX) / c + 1) * ((maxY - minY) / c + 1) > 4.0 * nbCellulesVise + 16)
+            c *= 2;
+        cote = c;
+        nbColonnes = (int) ((maxX - minX) / cote + 1);
+        nbLignes = (int) ((maxY - minY) / cote + 1);
+
+        int nbCellules = Math.multiplyExact(nbColonnes, nbLignes);
+        debut = new int[nbCellules + 1];
+        int[] cellule = new int[n];
+        for (int i = 0; i < n; i++) {
+            cellule[i] = colonne(graphe.getX(i)) + nbColonnes * ligne(graphe.getY(i));
+            debut[cellule[i] + 1]++;
+        }
+        for (int i = 0; i < nbCellules; i++)
+            debut[i + 1] += debut[i];
+        int[] position = Arrays.copyOf(debut, nbCellules);
+        sommets = new int[n];
+        for (int i = 0; i < n; i++)
+            sommets[position[cellule[i]]++] = i;
+    }
+
+    private IndexSpatial(IndexSpatial index, Graphe graphe) {
+        this.graphe = graphe;
+        xMin = index.xMin;
+        yMin = index.yMin;
+        cote = index.cote;
+        nbColonnes = index.nbColonnes;
+        nbLignes = index.nbLignes;
+        debut = index.debut;
+        sommets = index.sommets;
+    }
+
+    /**
+     * Renvoie le même index, rattaché au graphe {@code autre} qui a les mêmes sommets.
+     *
+     * @param autre graphe de même topologie
+     * @return l'index pour {@code autre}
+     */
+    IndexSpatial pour(Graphe autre) {
+        return new IndexSpatial(this, autre);
+    }
+
+    /**
+     * Renvoie le graphe dont les sommets sont indexés.
+     *
+     * @return le graphe
+     */
+    public Graphe getGraphe() {
+        return graphe;
+    }
+
+    private int colonne(long x) {
+        long c = (x - xMin) / cote;
+        return (int) Math.max(0, Math.min(nbColonnes - 1, c));
+    }
+
+    private int ligne(long y) {
+        long l = (y - yMin) / cote;
+        return (int) Math.max(0, Math.min(nbLignes - 1, l));
+    }
+
+    private double distanceCarree(int sommet, long x, long y) {
+        double dx = graphe.getX(sommet) - x;
+        double dy = graphe.getY(sommet) - y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Renvoie le sommet le plus proche de la position {@code (x,y)}.
+     *
+     * @param x abscisse de la position
+     * @param y ordonnée de la position
+     * @return indice du sommet le plus proche, ou {@code -1} si le graphe n'a aucun sommet
+     */
+    public int plusProche(int x, int y) {
+        int[] resultat = kPlusProches(x, y, 1);
+        return resultat.length == 0 ? -1 : resultat[0];
+    }
+
+    /**
+     * Renvoie les {@code k} sommets les plus proches de la position {@code (x,y)}, du plus proche au plus éloigné.
+     *
+     * @param x abscisse de la position
+     * @param y ordonnée de la position
+     * @param k nombre de sommets recherchés
+     * @return indices des sommets, au plus {@code k}
+     */
+    public int[] kPlusProches(int x, int y, int k) {
+        k = Math.min(k, graphe.getNbSommets());
+        // Tas maximal des k meilleurs candidats : le plus éloigné est en tête.
+        int[] candidats = new int[k];
+        double[] distances = new double[k];
+        int nb = 0;
+        int c0 = colonne(x);
+        int l0 = ligne(y);
+        int maxCouronne = Math.max(nbColonnes, nbLignes);
+        for (int r = 0; r <= maxCouronne && k > 0; r++) {
+            for (int l = l0 - r; l <= l0 + r; l++) {
+                if (l < 0 || l >= nbLignes)
+                    continue;
+                // Sur les lignes intérieures de la couronne, seules les deux colonnes extrêmes en font partie.
+                int pas = (l == l0 - r || l == l0 + r) ? 1 : Math.max(1, 2 * r);
+                for (int c = c0 - r; c <= c0 + r; c += pas) {
+                    if (c < 0 || c >= nbColonnes)
+                        continue;
+                    int cellule = c + nbColonnes * l;
+                    for (int p = debut[cellule]; p < debut[cellule + 1]; p++) {
+                        int s = sommets[p];
+                        double d = distanceCarree(s, x, y);
+                        if (nb < k) {
+                            candidats[nb] = s;
+                            distances[nb] = d;
+                            monter(candidats, distances, nb++);
+                        } else if (d < distances[0]) {
+                            candidats[0] = s;
+                            distances[0] = d;
+                            descendre(candidats, distances, nb);
+                        }
+                    }
+                }
+            }
+            // Les cellules de la couronne suivante sont à au moins r côtés de cellule de la position.
+            double borne = (double) r * cote;
+            if (nb == k && distances[0] <= borne * borne)
+                break;
+        }
+        // Tri du tas par distance croissante.
+        for (int fin = nb - 1; fin > 0; fin--) {
+            echanger(candidats, distances, 0, fin);
+            descendre(candidats, distances, fin);
+        }
+        return Arrays.copyOf(candidats, nb);
+    }
+
+    /**
+     * Calcule en parallèle les {@code k} sommets les plus proches de chacune des positions {@code (xs[i], ys[i])}.
+     *
+     * @param xs abscisses des positions
+     * @param ys ordonnées des positions
+     * @param k nombre de sommets recherchés par position
+     * @return un tableau de taille {@code xs.length * k} : les sommets de la i-ème position sont aux positions
+     * {@code i * k} à {@code i * k + k - 1}, complétées par {@code -1} si le graphe a moins de {@code k} sommets
+     */
+    public int[] kPlusProches(int[] xs, int[] ys, int k) {
+        int[] resultat = new int[xs.length * k];
+        Arrays.fill(resultat, -1);
+        IntStream.range(0, xs.length).parallel().forEach(i -> {
+            int[] proches = kPlusProches(xs[i], ys[i], k);
+            System.arraycopy(proches, 0, resultat, i * k, proches.length);
+        });
+        return resultat;
+    }
+
+    /**
+     * Renvoie les sommets situés à une distance inférieure ou égale à {@code rayon} de la position {@code (x,y)}.
+     *
+     * @param x abscisse de la position
+     * @param y ordonnée de la position
+     * @param rayon rayon de recherche
+     * @return indices des sommets, sans ordre particulier
+     */
+    public int[] dansRayon(int x, int y, double rayon) {
+        int[] resultat = new int[16];
+        int nb = 0;
+        if (graphe.getNbSommets() == 0 || rayon < 0)
+            return new int[0];
+        double rayonCarre = rayon * rayon;
+        long r = (long) Math.ceil(Math.min(rayon, 1L << 40));
+        int cMin = colonne(x - r), cMax = colonne(x + r);
+        int lMin = ligne(y - r), lMax = ligne(y + r);
+        for (int l = lMin; l <= lMax; l++) {
+            for (int c = cMin; c <= cMax; c++) {
+                int cellule = c + nbColonnes * l;
+                for (int p = debut[cellule]; p < debut[cellule + 1]; p++) {
+                    int s = sommets[p];
+                    if (distanceCarree(s, x, y) <= rayonCarre) {
+                        if (nb == resultat.length)
+                            resultat = Arrays.copyOf(resultat, nb * 2);
+                        resultat[nb++] = s;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(resultat, nb);
+    }
+
+    private static void monter(int[] candidats, double[] distances, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (distances[parent] >= distances[i])
+                break;
+            echanger(candidats, distances, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void descendre(int[] candidats, double[] distances, int taille) {
+        int i = 0;
+        while (true) {
+            int f = 2 * i + 1;
+            if (f >= taille)
+                break;
+            if (f + 1 < taille && distances[f + 1] > distances[f])
+                f++;
+            if (distances[i] >= distances[f])
+                break;
+            echanger(candidats, distances, i, f);
+            i = f;
+        }
+    }
+
+    private static void echanger(int[] candidats, double[] distances, int i, int j) {
+        int c = candidats[i];
+        candidats[i] = candidats[j];
+        candidats[j] = c;
+        double d = distances[i];
+        distances[i] = distances[j];
+        distances[j] = d;
+    }
+}
@@ -0,0 +1,481 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * La classe {@code InstantaneReseau} enregistre un {@code GrapheCSR} dans un fichier binaire et le relit.
+ * <p></p>
+ * Le fichier contient un en-tête suivi des tableaux du graphe, écrits tels quels en petit-boutiste :
+ * <pre>
+ * <code>
+ *     int    signature, version, n, m
+ *     double rapport pondération / distance (recalculé à la relecture)
+ *     int[n]   identifiants, dans l'ordre des indices
+ *     int[n]   abscisses
+ *     int[n]   ordonnées
+ *     int[n+1] début des arcs de chaque sommet
+ *     int[m]   cibles des arcs
+ *     (alignement sur 8 octets)
+ *     double[m] pondérations des arcs
+ * </code>
+ * </pre>
+ * La relecture projette le fichier en mémoire et recopie chaque tableau d'un bloc : les pages du fichier restent dans
+ * le cache du système et sont partagées par tous les processus qui le relisent. Un seul parcours des tableaux vérifie
+ * ensuite qu'ils décrivent bien un graphe (positions des arcs croissantes, cibles existantes, identifiants distincts)
+ * et recalcule le rapport pondération / distance, dont dépend l'exactitude de l'algorithme A* : un fichier corrompu
+ * ou modifié est refusé au lieu de donner des chemins faux.
+ * <p></p>
+ * L'écriture se fait dans un fichier temporaire du même dossier, renommé à la fin : un processus qui relit le fichier
+ * pendant son remplacement ({@link RechargementCarte}) voit l'ancien réseau ou le nouveau, jamais un fichier tronqué.
+ */
+public final class InstantaneReseau {
+
+    /**
+     * Signature au début de chaque fichier ("RRCS")
+     */
+    private static final int SIGNATURE = 0x52524353;
+
+    /**
+     * Version du format
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Taille de l'en-tête en octets
+     */
+    private static final int TAILLE_EN_TETE = 24;
+
+    /**
+     * Taille maximale d'une projection en mémoire lors de la relecture
+     */
+    private static final int TAILLE_MAX_PROJECTION = 1 << 30;
+
+    private InstantaneReseau() {
+    }
+
+    /**
+     * Enregistre le graphe dans le fichier {@code fichier}, qui est remplacé s'il existe.
+     *
+     * @param graphe graphe à enregistrer
+     * @param fichier chemin du fichier
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public static void ecrire(Graphe graphe, Path fichier) throws IOException {
+        ecrire(new Source() {
+            @Override
+            public int getNbSommets() {
+                return graphe.getNbSommets();
+            }
+
+            @Override
+            public int getNbArcs() {
+                return graphe.getNbArcs();
+            }
+
+            @Override
+            public double getRatioPoidsDistance() {
+                return graphe.getRatioPoidsDistance();
+            }
+
+            @Override
+            public int getId(int sommet) {
+                return graphe.getId(sommet);
+            }
+
+            @Override
+            public int getX(int sommet) {
+                return graphe.getX(sommet);
+            }
+
+            @Override
+            public int getY(int sommet) {
+                return graphe.getY(sommet);
+            }
+
+            @Override
+            public void parcourirArcs(int sommet, Arcs arcs) throws IOException {
+                for (int k = graphe.getDebut(sommet); k < graphe.getFin(sommet); k++)
+                    arcs.arc(graphe.getCible(k), graphe.getPoids(k));
+            }
+        }, fichier);
+    }
+
+    /**
+     * Enregistre dans le fichier {@code fichier}, qui est remplacé s'il existe, un graphe décrit sommet par sommet.
+     * Les arcs de chaque sommet sont parcourus trois fois (degrés, cibles puis pondérations) : le graphe n'a jamais
+     * besoin d'être entièrement en mémoire.
+     * <p></p>
+     * Le fichier n'est remplacé qu'une fois le nouveau contenu entièrement écrit sur le disque, par un renommage
+     * atomique ; en cas d'erreur, il n'est pas modifié.
+     *
+     * @param source description du graphe
+     * @param fichier chemin du fichier
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    static void ecrire(Source source, Path fichier) throws IOException {
+        Path dossier = fichier.toAbsolutePath().getParent();
+        Path temporaire = Files.createTempFile(dossier, fichier.getFileName().toString(), ".tmp");
+        boolean remplace = false;
+        try {
+            try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.WRITE)) {
+                ecrire(source, canal);
+                canal.force(true);
+            }
+            Files.move(temporaire, fichier, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            remplace = true;
+        } finally {
+            if (!remplace)
+                Files.deleteIfExists(temporaire);
+        }
+    }
+
+    private static void ecrire(Source source, FileChannel canal) throws IOException {
+        int n = source.getNbSommets();
+        int m = source.getNbArcs();
+        ByteBuffer tampon = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        tampon.putInt(SIGNATURE).putInt(VERSION).putInt(n).putInt(m);
+        tampon.putDouble(source.getRatioPoidsDistance());
+        for (int i = 0; i < n; i++)
+            putInt(canal, tampon, source.getId(i));
+        for (int i = 0; i < n; i++)
+            putInt(canal, tampon, source.getX(i));
+        for (int i = 0; i < n; i++)
+            putInt(canal, tampon, source.getY(i));
+        int[] nbArcs = new int[1];
+        Arcs compter = (cible, poids) -> nbArcs[0]++;
+        for (int i = 0; i < n; i++) {
+            putInt(canal, tampon, nbArcs[0]);
+            source.parcourirArcs(i, compter);
+        }
+        if (nbArcs[0] != m)
+            throw new IllegalStateException("Nombre d'arcs annoncé incorrect : " + m + " au lieu de " + nbArcs[0]);
+        putInt(canal, tampon, m);
+        Arcs cibles = (cible, poids) -> putInt(canal, tampon, cible);
+        for (int i = 0; i < n; i++)
+            source.parcourirArcs(i, cibles);
+        if (positionPoids(n, m) != positionCibles(n) + 4L * m)
+            putInt(canal, tampon, 0);
+        Arcs ponderations = (cible, poids) -> putDouble(canal, tampon, poids);
+        for (int i = 0; i < n; i++)
+            source.parcourirArcs(i, ponderations);
+        vider(canal, tampon);
+    }
+
+    /**
+     * Relit un graphe enregistré par {@link #ecrire(Graphe, Path)}.
+     *
+     * @param fichier chemin du fichier
+     * @return le graphe enregistré
+     * @throws IOException en cas d'erreur de lecture, si le fichier n'est pas au bon format ou si ses tableaux ne
+     * décrivent pas un graphe
+     */
+    public static GrapheCSR lire(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            if (canal.size() < TAILLE_EN_TETE)
+                throw new IOException("Fichier de réseau binaire tronqué : " + fichier);
+            ByteBuffer enTete = canal.map(FileChannel.MapMode.READ_ONLY, 0, TAILLE_EN_TETE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (enTete.getInt() != SIGNATURE || enTete.getInt() != VERSION)
+                throw new IOException("Format de fichier inconnu : " + fichier);
+            int n = enTete.getInt();
+            int m = enTete.getInt();
+            if (n < 0 || m < 0 || canal.size() != positionPoids(n, m) + 8L * m)
+                throw new IOException("Fichier de réseau binaire tronqué : " + fichier);
+
+            long position = TAILLE_EN_TETE;
+            int[] ids = lireEntiers(canal, position, n);
+            int[] abscisses = lireEntiers(canal, position += 4L * n, n);
+            int[] ordonnees = lireEntiers(canal, position += 4L * n, n);
+            int[] debut = lireEntiers(canal, position += 4L * n, n + 1);
+            int[] cibles = lireEntiers(canal, positionCibles(n), m);
+            double[] poids = lireReels(canal, positionPoids(n, m), m);
+            verifierArcs(fichier, n, m, i -> debut[i], k -> cibles[k]);
+            // Le rapport pondération / distance est recalculé par le constructeur.
+            GrapheCSR graphe = new GrapheCSR(ids, abscisses, ordonnees, debut, cibles, poids);
+            verifierIdentifiants(fichier, graphe);
+            return graphe;
+        }
+    }
+
+    /**
+     * Indique si le fichier commence par la signature d'un réseau enregistré par {@link #ecrire(Graphe, Path)}.
+     *
+     * @param fichier chemin du fichier
+     * @return {@code true} si le fichier est un réseau binaire
+     * @throws IOException en cas d'erreur de lecture
+     */
+    static boolean estInstantane(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            ByteBuffer signature = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (signature.hasRemaining())
+                if (canal.read(signature) < 0)
+                    return false;
+            return signature.getInt(0) == SIGNATURE;
+        }
+    }
+
+    /**
+     * Relit un graphe enregistré par {@link #ecrire(Graphe, Path)} et le compresse au fil du fichier, sans
+     * recopier ses tableaux en mémoire.
+     *
+     * @param fichier chemin du fichier
+     * @param erreurMax écart maximal entre une pondération compressée et la pondération enregistrée
+     * @return le graphe compressé
+     * @throws IOException en cas d'erreur de lecture, si le fichier n'est pas au bon format ou si ses tableaux ne
+     * décrivent pas un graphe
+     * @see GrapheCompresse#lire(Path, double)
+     */
+    static GrapheCompresse lireCompresse(Path fichier, double erreurMax) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            if (canal.size() < TAILLE_EN_TETE)
+                throw new IOException("Fichier de réseau binaire tronqué : " + fichier);
+            ByteBuffer enTete = canal.map(FileChannel.MapMode.READ_ONLY, 0, TAILLE_EN_TETE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (enTete.getInt() != SIGNATURE || enTete.getInt() != VERSION)
+                throw new IOException("Format de fichier inconnu : " + fichier);
+            int n = enTete.getInt();
+            int m = enTete.getInt();
+            // Le rapport enregistré n'est pas utilisé : il est recalculé sur les pondérations compressées.
+            double ratio = enTete.getDouble();
+            if (n < 0 || m < 0 || canal.size() != positionPoids(n, m) + 8L * m)
+                throw new IOException("Fichier de réseau binaire tronqué : " + fichier);
+            verifierArcs(fichier, n, m, new Fenetre(canal, TAILLE_EN_TETE + 12L * n, Integer.BYTES)::getInt,
+                    new Fenetre(canal, positionCibles(n), Integer.BYTES)::getInt);
+
+            Fenetre ids = new Fenetre(canal, TAILLE_EN_TETE, Integer.BYTES);
+            Fenetre abscisses = new Fenetre(canal, TAILLE_EN_TETE + 4L * n, Integer.BYTES);
+            Fenetre ordonnees = new Fenetre(canal, TAILLE_EN_TETE + 8L * n, Integer.BYTES);
+            Fenetre debut = new Fenetre(canal, TAILLE_EN_TETE + 12L * n, Integer.BYTES);
+            Fenetre cibles = new Fenetre(canal, positionCibles(n), Integer.BYTES);
+            Fenetre poids = new Fenetre(canal, positionPoids(n, m), Double.BYTES);
+            GrapheCompresse graphe = GrapheCompresse.compresser(new Source() {
+                @Override
+                public int getNbSommets() {
+                    return n;
+                }
+
+                @Override
+                public int getNbArcs() {
+                    return m;
+                }
+
+                @Override
+                public double getRatioPoidsDistance() {
+                    return ratio;
+                }
+
+                @Override
+                public int getId(int sommet) {
+                    return ids.getInt(sommet);
+                }
+
+                @Override
+                public int getX(int sommet) {
+                    return abscisses.getInt(sommet);
+                }
+
+                @Override
+                public int getY(int sommet) {
+                    return ordonnees.getInt(sommet);
+                }
+
+                @Override
+                public void parcourirArcs(int sommet, Arcs arcs) throws IOException {
+                    int fin = debut.getInt(sommet + 1);
+                    for (int k = debut.getInt(sommet); k < fin; k++)
+                        arcs.arc(cibles.getInt(k), poids.getDouble(k));
+                }
+            }, erreurMax);
+            verifierIdentifiants(fichier, graphe);
+            return graphe;
+        }
+    }
+
+    /**
+     * Vérifie en un seul parcours que les positions des arcs de chaque sommet sont croissantes, de {@code 0} à
+     * {@code m}, et que les cibles des arcs sont des sommets du graphe.
+     *
+     * @param debut position du premier arc de chaque sommet, de {@code 0} à {@code n}
+     * @param cibles cible de chaque arc, de {@code 0} à {@code m-1}
+     * @throws IOException si l'une des conditions n'est pas respectée
+     */
+    private static void verifierArcs(Path fichier, int n, int m, IntUnaryOperator debut, IntUnaryOperator cibles)
+            throws IOException {
+        int precedent = 0;
+        for (int u = 0; u <= n; u++) {
+            int position = debut.applyAsInt(u);
+            if (u == 0 ? position != 0 : position < precedent)
+                throw new IOException("Positions des arcs invalides : " + fichier);
+            precedent = position;
+        }
+        if (precedent != m)
+            throw new IOException("Positions des arcs invalides : " + fichier);
+        for (int k = 0; k < m; k++) {
+            int cible = cibles.applyAsInt(k);
+            if (cible < 0 || cible >= n)
+                throw new IOException("Cible d'arc invalide : " + fichier);
+        }
+    }
+
+    /**
+     * Vérifie que les identifiants des points sont distincts : chacun doit désigner son propre sommet.
+     *
+     * @throws IOException si deux sommets ont le même identifiant
+     */
+    private static void verifierIdentifiants(Path fichier, Graphe graphe) throws IOException {
+        for (int i = 0; i < graphe.getNbSommets(); i++)
+            if (graphe.indexDe(graphe.getId(i)) != i)
+                throw new IOException("Identifiant de point en double (" + graphe.getId(i) + ") : " + fichier);
+    }
+
+    /**
+     * Description d'un graphe parcourue sommet par sommet lors de l'écriture. Les sommets sont désignés par leur
+     * indice, de {@code 0} à {@code getNbSommets()-1}.
+     */
+    interface Source {
+        int getNbSommets();
+
+        int getNbArcs();
+
+        /**
+         * Voir {@link GrapheCSR#getRatioPoidsDistance()}
+         */
+        double getRatioPoidsDistance();
+
+        int getId(int sommet);
+
+        int getX(int sommet);
+
+        int getY(int sommet);
+
+        /**
+         * Parcourt les arcs sortant du sommet {@code sommet}, toujours dans le même ordre.
+         */
+        void parcourirArcs(int sommet, Arcs arcs) throws IOException;
+    }
+
+    /**
+     * Reçoit les arcs sortant d'un sommet
+     */
+    interface Arcs {
+        void arc(int cible, double poids) throws IOException;
+    }
+
+    private static long positionCibles(int n) {
+        return TAILLE_EN_TETE + 4L * (4L * n + 1);
+    }
+
+    private static long positionPoids(int n, int m) {
+        long fin = positionCibles(n) + 4L * m;
+        return (fin + 7) & ~7L;
+    }
+
+    private static void putInt(FileChannel canal, ByteBuffer tampon, int valeur) throws IOException {
+        if (tampon.remaining() < Integer.BYTES)
+            vider(canal, tampon);
+        tampon.putInt(valeur);
+    }
+
+    private static void putDouble(FileChannel canal, ByteBuffer tampon, double valeur) throws IOException {
+        if (tampon.remaining() < Double.BYTES)
+            vider(canal, tampon);
+        tampon.putDouble(valeur);
+    }
+
+    private static void vider(FileChannel canal, ByteBuffer tampon) throws IOException {
+        tampon.flip();
+        while (tampon.hasRemaining())
+            canal.write(tampon);
+        tampon.clear();
+    }
+
+    /**
+     * Recopie {@code nb} entiers à partir de la position {@code position}, par projections successives.
+     */
+    private static int[] lireEntiers(FileChannel canal, long position, int nb) throws IOException {
+        int[] tableau = new int[nb];
+        int parProjection = TAILLE_MAX_PROJECTION / Integer.BYTES;
+        for (int debut = 0; debut < nb; debut += parProjection) {
+            int taille = Math.min(parProjection, nb - debut);
+            MappedByteBuffer projection = canal.map(FileChannel.MapMode.READ_ONLY,
+                    position + 4L * debut, 4L * taille);
+            projection.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(tableau, debut, taille);
+        }
+        return tableau;
+    }
+
+    /**
+     * Recopie {@code nb} réels à partir de la position {@code position}, par projections successives.
+     */
+    private static double[] lireReels(FileChannel canal, long position, int nb) throws IOException {
+        double[] tableau = new double[nb];
+        int parProjection = TAILLE_MAX_PROJECTION / Double.BYTES;
+        for (int debut = 0; debut < nb; debut += parProjection) {
+            int taille = Math.min(parProjection, nb - debut);
+            MappedByteBuffer projection = canal.map(FileChannel.MapMode.READ_ONLY,
+                    position + 8L * debut, 8L * taille);
+            projection.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(tableau, debut, taille);
+        }
+        return tableau;
+    }
+
+    /**
+     * Lecture d'un tableau du fichier par projections successives d'au plus {@link #TAILLE_MAX_PROJECTION} octets :
+     * seule la projection qui contient l'élément demandé est conservée, les lectures se font donc dans l'ordre.
+     */
+    private static final class Fenetre {
+        private final FileChannel canal;
+
+        /**
+         * Position du tableau dans le fichier et taille d'un élément en octets
+         */
+        private final long position;
+        private final int tailleElement;
+
+        /**
+         * Projection courante et indice de son premier élément
+         */
+        private ByteBuffer projection;
+        private long premier;
+
+        Fenetre(FileChannel canal, long position, int tailleElement) {
+            this.canal = canal;
+            this.position = position;
+            this.tailleElement = tailleElement;
+        }
+
+        int getInt(int i) {
+            return projection(i).getInt((int) ((i - premier) * tailleElement));
+        }
+
+        double getDouble(int i) {
+            return projection(i).getDouble((int) ((i - premier) * tailleElement));
+        }
+
+        private ByteBuffer projection(int i) {
+            if (projection == null || i < premier || (i - premier + 1) * tailleElement > projection.capacity()) {
+                long depart = position + (long) i * tailleElement;
+                try {
+                    long taille = Math.min((long) TAILLE_MAX_PROJECTION / tailleElement * tailleElement,
+                            canal.size() - depart);
+                    projection = canal.map(FileChannel.MapMode.READ_ONLY, depart, taille)
+                            .order(ByteOrder.LITTLE_ENDIAN);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                premier = i;
+            }
+            return projection;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code Isochrone} représente l'ensemble des points du réseau routier atteignables depuis un point de
+ * départ pour un budget donné : leurs identifiants et leurs distances au départ, du plus proche au plus éloigné.
+ */
+public class Isochrone {
+
+    /**
+     * Identifiant du point de départ
+     */
+    private final int idDepart;
+
+    /**
+     * Budget de la recherche : distance maximale des points atteints
+     */
+    private final double budget;
+
+    /**
+     * Identifiants des points atteints, par distance croissante
+     */
+    private final int[] ids;
+
+    /**
+     * Distance au départ de chaque point atteint
+     */
+    private final double[] distances;
+
+    /**
+     * Positions dans {@code ids} triées par identifiant, calculées à la première recherche d'un point
+     */
+    private volatile int[] parId;
+
+    /**
+     * Constructeur de la classe {@code Isochrone}.
+     *
+     * @param idDepart identifiant du point de départ
+     * @param budget distance maximale des points atteints
+     * @param ids identifiants des points atteints par distance croissante, le tableau n'est pas copié
+     * @param distances distance de chaque point atteint, le tableau n'est pas copié
+     */
+    public Isochrone(int idDepart, double budget, int[] ids, double[] distances) {
+        if (ids.length != distances.length)
+            throw new IllegalArgumentException("Autant de distances que de points sont attendues");
+        this.idDepart = idDepart;
+        this.budget = budget;
+        this.ids = ids;
+        this.distances = distances;
+    }
+
+    /**
+     * Renvoie l'identifiant du point de départ.
+     *
+     * @return identifiant du point de départ
+     */
+    public int getIdDepart() {
+        return idDepart;
+    }
+
+    /**
+     * Renvoie le budget de la recherche.
+     *
+     * @return distance maximale des points atteints
+     */
+    public double getBudget() {
+        return budget;
+    }
+
+    /**
+     * Renvoie le nombre de points atteints, départ compris.
+     *
+     * @return nombre de points
+     */
+    public int getNbPoints() {
+        return ids.length;
+    }
+
+    /**
+     * Renvoie l'identifiant du i-ème point atteint, par distance croissante.
+     *
+     * @param i position du point
+     * @return identifiant du point
+     */
+    public int getIdPoint(int i) {
+        return ids[i];
+    }
+
+    /**
+     * Renvoie la distance au départ du i-ème point atteint.
+     *
+     * @param i position du point
+     * @return distance du point
+     */
+    public double getDistance(int i) {
+        return distances[i];
+    }
+
+    /**
+     * Renvoie une copie des identifiants des points atteints, par distance croissante.
+     *
+     * @return identifiants des points
+     */
+    public int[] getIds() {
+        return ids.clone();
+    }
+
+    /**
+     * Renvoie une copie des distances des points atteints, dans l'ordre de {@link #getIds()}.
+     *
+     * @return distances des points
+     */
+    public double[] getDistances() {
+        return distances.clone();
+    }
+
+    /**
+     * Indique si le point d'identifiant {@code id} est atteignable dans le budget.
+     *
+     * @param id identifiant du point
+     * @return {@code true} si le point fait partie de l'isochrone
+     */
+    public boolean contient(int id) {
+        return position(id) >= 0;
+    }
+
+    /**
+     * Renvoie la distance au départ du point d'identifiant {@code id}.
+     *
+     * @param id identifiant du point
+     * @return la distance, ou {@link Double#POSITIVE_INFINITY} si le point ne fait pas partie de l'isochrone
+     */
+    public double getDistanceVers(int id) {
+        int p = position(id);
+        return p >= 0 ? distances[p] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Renvoie la position dans {@code ids} du point d'identifiant {@code id}, ou {@code -1}.
+     */
+    private int position(int id) {
+        int[] ordre = parId;
+        if (ordre == null) {
+            // Tri des positions par identifiant : les identifiants triés sont rangés dans les bits de poids fort.
+            long[] cles = new long[ids.length];
+            for (int i = 0; i < ids.length; i++)
+                cles[i] = ((long) ids[i] << 32) | i;
+            Arrays.sort(cles);
+            ordre = new int[ids.length];
+            for (int i = 0; i < ids.length; i++)
+                ordre[i] = (int) cles[i];
+            parId = ordre;
+        }
+        int bas = 0, haut = ordre.length - 1;
+        while (bas <= haut) {
+            int milieu = (bas + haut) >>> 1;
+            int m = ids[ordre[milieu]];
+            if (m < id)
+                bas = milieu + 1;
+            else if (m > id)
+                haut = milieu - 1;
+            else
+                return ordre[milieu];
+        }
+        return -1;
+    }
+
+    /**
+     * (non-javadoc)
+     *
+     * @see  Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "Isochrone{" +
+                "idDepart=" + idDepart +
+                ", budget=" + budget +
+                ", nbPoints=" + ids.length +
+                '}';
+    }
+}
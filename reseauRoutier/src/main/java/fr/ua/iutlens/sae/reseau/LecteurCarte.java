@@ -0,0 +1,298 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * La classe {@code LecteurCarte} lit un fichier de description de réseau routier (lignes {@code v} et {@code e}).
+ * <p></p>
+ * Le fichier est projeté en mémoire et découpé en morceaux qui commencent tous au début d'une ligne. Les morceaux
+ * sont analysés en parallèle, octet par octet, sans créer d'objet par ligne, puis fusionnés dans l'ordre du fichier :
+ * si deux points ont le même identifiant, c'est donc toujours le dernier du fichier qui est conservé.
+ * <p></p>
+ * Les lignes qui ne commencent ni par {@code v} ni par {@code e} sont ignorées.
+ */
+final class LecteurCarte {
+
+    /**
+     * Taille minimale d'un morceau, en octets
+     */
+    private static final long TAILLE_MIN_MORCEAU = 1L << 20;
+
+    /**
+     * Taille maximale d'un morceau, en octets (une projection en mémoire est limitée à 2 Go)
+     */
+    private static final long TAILLE_MAX_MORCEAU = 1L << 28;
+
+    /**
+     * Plus grand entier représentable exactement par un {@code double}
+     */
+    private static final long MANTISSE_MAX = 1L << 53;
+
+    /**
+     * Puissances de 10 représentables exactement par un {@code double}
+     */
+    private static final double[] PUISSANCES_DE_10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private LecteurCarte() {
+    }
+
+    /**
+     * Lit le fichier {@code fichier} et renvoie un constructeur contenant ses points et ses arêtes.
+     *
+     * @param fichier chemin du fichier à lire
+     * @return un constructeur de graphe alimenté par le contenu du fichier
+     * @throws IOException en cas d'erreur de lecture
+     * @throws NumberFormatException si une valeur numérique est mal formée
+     */
+    static GrapheCSR.Constructeur lire(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long[] bornes = decouper(canal);
+            List<GrapheCSR.Constructeur> morceaux;
+            try {
+                morceaux = IntStream.range(0, bornes.length - 1)
+                        .parallel()
+                        .mapToObj(i -> lireMorceau(canal, bornes[i], bornes[i + 1]))
+                        .collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            GrapheCSR.Constructeur resultat = morceaux.get(0);
+            for (int i = 1; i < morceaux.size(); i++)
+                resultat.ajouter(morceaux.get(i));
+            return resultat;
+        }
+    }
+
+    /**
+     * Calcule les bornes des morceaux : chaque borne, sauf la dernière, est le début d'une ligne.
+     */
+    private static long[] decouper(FileChannel canal) throws IOException {
+        long taille = canal.size();
+        int nbThreads = Runtime.getRuntime().availableProcessors();
+        long tailleMorceau = Math.max(TAILLE_MIN_MORCEAU, Math.min(TAILLE_MAX_MORCEAU, taille / (4L * nbThreads)));
+        long[] bornes = new long[(int) (taille / tailleMorceau) + 2];
+        int nb = 1;
+        ByteBuffer tampon = ByteBuffer.allocate(4096);
+        long borne = tailleMorceau;
+        while (borne < taille) {
+            // On avance jusqu'au caractère qui suit la prochaine fin de ligne.
+            long position = debutLigneSuivante(canal, borne - 1, tampon);
+            if (position >= taille)
+                break;
+            bornes[nb++] = position;
+            borne = Math.max(position, borne) + tailleMorceau;
+        }
+        bornes[nb++] = taille;
+        return Arrays.copyOf(bornes, nb);
+    }
+
+    private static long debutLigneSuivante(FileChannel canal, long position, ByteBuffer tampon) throws IOException {
+        while (true) {
+            tampon.clear();
+            int lus = canal.read(tampon, position);
+            if (lus <= 0)
+                return canal.size();
+            for (int i = 0; i < lus; i++) {
+                if (tampon.get(i) == '\n')
+                    return position + i + 1;
+            }
+            position += lus;
+        }
+    }
+
+    /**
+     * Analyse les lignes comprises entre les positions {@code debut} et {@code fin} du fichier.
+     */
+    private static GrapheCSR.Constructeur lireMorceau(FileChannel canal, long debut, long fin) {
+        MappedByteBuffer tampon;
+        try {
+            tampon = canal.map(FileChannel.MapMode.READ_ONLY, debut, fin - debut);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Analyseur(tampon).analyser();
+    }
+
+    /**
+     * Analyse d'un morceau du fichier, position par position.
+     */
+    private static final class Analyseur {
+
+        /**
+         * Contenu du morceau
+         */
+        private final ByteBuffer tampon;
+
+        /**
+         * Nombre d'octets du morceau
+         */
+        private final int limite;
+
+        /**
+         * Position courante dans le morceau
+         */
+        private int pos;
+
+        private final GrapheCSR.Constructeur constructeur = new GrapheCSR.Constructeur();
+
+        Analyseur(ByteBuffer tampon) {
+            this.tampon = tampon;
+            this.limite = tampon.limit();
+        }
+
+        GrapheCSR.Constructeur analyser() {
+            while (pos < limite) {
+                sauterBlancs();
+                if (pos >= limite)
+                    break;
+                byte type = tampon.get(pos);
+                if ((type == 'v' || type == 'e') && estSeparateur(pos + 1)) {
+                    pos++;
+                    if (type == 'v') {
+                        int id = lireEntier();
+                        int x = lireEntier();
+                        int y = lireEntier();
+                        constructeur.ajouterSommet(id, x, y);
+                    } else {
+                        int id1 = lireEntier();
+                        int id2 = lireEntier();
+                        double poids = lireReel();
+                        constructeur.ajouterArc(id1, id2, poids);
+                    }
+                }
+                sauterLigne();
+            }
+            return constructeur;
+        }
+
+        private boolean estSeparateur(int p) {
+            return p >= limite || estBlanc(tampon.get(p));
+        }
+
+        private static boolean estBlanc(byte b) {
+            return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+        }
+
+        /**
+         * Avance jusqu'au prochain caractère qui n'est pas un blanc.
+         */
+        private void sauterBlancs() {
+            while (pos < limite && estBlanc(tampon.get(pos)))
+                pos++;
+        }
+
+        /**
+         * Avance jusqu'au début de la ligne suivante.
+         */
+        private void sauterLigne() {
+            while (pos < limite && tampon.get(pos) != '\n')
+                pos++;
+            pos++;
+        }
+
+        /**
+         * Avance jusqu'au prochain jeton de la ligne courante et renvoie sa position de début.
+         */
+        private int debutJeton() {
+            while (pos < limite) {
+                byte b = tampon.get(pos);
+                if (b == '\n')
+                    break;
+                if (!estBlanc(b))
+                    return pos;
+                pos++;
+            }
+            throw new NumberFormatException("Valeur manquante");
+        }
+
+        private int lireEntier() {
+            int debut = debutJeton();
+            boolean negatif = false;
+            byte b = tampon.get(pos);
+            if (b == '-' || b == '+') {
+                negatif = b == '-';
+                pos++;
+            }
+            long valeur = 0;
+            int chiffres = 0;
+            while (pos < limite && !estBlanc(b = tampon.get(pos))) {
+                if (b < '0' || b > '9' || chiffres > 10)
+                    throw new NumberFormatException(jeton(debut));
+                valeur = valeur * 10 + (b - '0');
+                chiffres++;
+                pos++;
+            }
+            if (negatif)
+                valeur = -valeur;
+            if (chiffres == 0 || valeur < Integer.MIN_VALUE || valeur > Integer.MAX_VALUE)
+                throw new NumberFormatException(jeton(debut));
+            return (int) valeur;
+        }
+
+        /**
+         * Lit un réel : les écritures décimales simples sont converties directement, avec le même arrondi que
+         * {@link Double#parseDouble(String)}, les autres (exposant, trop de chiffres...) lui sont confiées.
+         */
+        private double lireReel() {
+            int debut = debutJeton();
+            boolean negatif = false;
+            byte b = tampon.get(pos);
+            if (b == '-' || b == '+') {
+                negatif = b == '-';
+                pos++;
+            }
+            long mantisse = 0;
+            int chiffres = 0;
+            int decimales = -1;
+            boolean simple = true;
+            while (pos < limite && !estBlanc(b = tampon.get(pos))) {
+                if (b >= '0' && b <= '9') {
+                    if (mantisse < MANTISSE_MAX) {
+                        mantisse = mantisse * 10 + (b - '0');
+                        if (decimales >= 0)
+                            decimales++;
+                    } else {
+                        simple = false;
+                    }
+                    chiffres++;
+                } else if (b == '.' && decimales < 0) {
+                    decimales = 0;
+                } else {
+                    simple = false;
+                }
+                pos++;
+            }
+            if (decimales < 0)
+                decimales = 0;
+            if (simple && chiffres > 0 && mantisse <= MANTISSE_MAX && decimales < PUISSANCES_DE_10.length) {
+                // Deux valeurs exactes et une seule division : le résultat est correctement arrondi.
+                double valeur = mantisse / PUISSANCES_DE_10[decimales];
+                return negatif ? -valeur : valeur;
+            }
+            return Double.parseDouble(jeton(debut));
+        }
+
+        private String jeton(int debut) {
+            int fin = debut;
+            while (fin < limite && !estBlanc(tampon.get(fin)))
+                fin++;
+            byte[] octets = new byte[fin - debut];
+            tampon.get(debut, octets);
+            return new String(octets, StandardCharsets.US_ASCII);
+        }
+    }
+}
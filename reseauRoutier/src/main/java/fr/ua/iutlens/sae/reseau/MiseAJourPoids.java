@@ -0,0 +1,89 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code MiseAJourPoids} regroupe des modifications de pondérations de routes, appliquées ensemble et
+ * de façon atomique par {@link ReseauRoutier#modifierPoids(MiseAJourPoids)}.
+ * <p></p>
+ * Exemple, pour un flux de trafic :
+ * <pre>
+ * <code>
+ *     MiseAJourPoids lot = new MiseAJourPoids();
+ *     lot.modifier(12, 13, 42.5).modifier(13, 12, 40.0);
+ *     reseau.modifierPoids(lot);
+ * </code>
+ * </pre>
+ */
+public final class MiseAJourPoids {
+
+    /**
+     * Identifiants des points de départ et d'arrivée des routes modifiées
+     */
+    private int[] idsDepart = new int[16];
+    private int[] idsArrivee = new int[16];
+
+    /**
+     * Nouvelles pondérations des routes modifiées
+     */
+    private double[] poids = new double[16];
+
+    /**
+     * Nombre de modifications
+     */
+    private int nb;
+
+    /**
+     * Ajoute au lot la modification de la pondération de la route {@code idP1 -> idP2}. S'il existe plusieurs routes
+     * entre ces deux points, elles sont toutes modifiées ; si la même route est modifiée plusieurs fois dans le lot,
+     * la dernière pondération l'emporte.
+     *
+     * @param idP1 identifiant du point de départ
+     * @param idP2 identifiant du point d'arrivée
+     * @param poids nouvelle pondération
+     * @return ce lot
+     */
+    public MiseAJourPoids modifier(int idP1, int idP2, double poids) {
+        if (nb == this.poids.length) {
+            idsDepart = Arrays.copyOf(idsDepart, nb * 2);
+            idsArrivee = Arrays.copyOf(idsArrivee, nb * 2);
+            this.poids = Arrays.copyOf(this.poids, nb * 2);
+        }
+        idsDepart[nb] = idP1;
+        idsArrivee[nb] = idP2;
+        this.poids[nb] = poids;
+        nb++;
+        return this;
+    }
+
+    /**
+     * Ajoute au lot la pondération actuelle de l'arête {@code arete}, par exemple après {@link Arete#setPoids(double)}.
+     *
+     * @param arete arête dont la pondération a changé
+     * @return ce lot
+     */
+    public MiseAJourPoids modifier(Arete arete) {
+        return modifier(arete.getIdP1(), arete.getIdP2(), arete.getPoids());
+    }
+
+    /**
+     * Renvoie le nombre de modifications du lot.
+     *
+     * @return nombre de modifications
+     */
+    public int getNbModifications() {
+        return nb;
+    }
+
+    int getIdDepart(int i) {
+        return idsDepart[i];
+    }
+
+    int getIdArrivee(int i) {
+        return idsArrivee[i];
+    }
+
+    double getPoids(int i) {
+        return poids[i];
+    }
+}
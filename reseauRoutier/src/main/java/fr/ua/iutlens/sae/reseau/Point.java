@@ -1,8 +1,5 @@
 package fr.ua.iutlens.sae.reseau;
 
-import java.util.Objects;
-
-
 /**
  * La classe Point permet de localiser un client, un entrepôt, un lieu dans le réseau routier.
  * <p></p>
@@ -109,7 +106,7 @@ public class Point {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Integer.hashCode(id);
     }
 
     /**
@@ -0,0 +1,299 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * La classe {@code RechargementCarte} tient à jour un {@link ReseauRoutier} à partir d'un fichier de carte, sans
+ * interrompre les requêtes.
+ * <p></p>
+ * Le dossier du fichier est surveillé par un {@link WatchService} : lorsque le fichier est modifié ou remplacé, un
+ * nouveau graphe est construit et préparé en arrière-plan, puis il remplace d'un seul coup celui du réseau. Le réseau
+ * renvoyé par {@link #getReseau()} est toujours le même objet : les caches ({@link CacheChemins}) et les écouteurs
+ * qui y sont inscrits restent en place, et ses entrées mises en cache sont périmées par le changement de version
+ * ({@link ReseauRoutier#getVersion()}). Les requêtes déjà en cours se terminent sur l'ancien graphe. Les pondérations
+ * modifiées par {@link ReseauRoutier#modifierPoids(MiseAJourPoids)} sont remplacées par celles du fichier relu.
+ * <p></p>
+ * Si la construction échoue (fichier incomplet, format invalide, manque de mémoire...), l'ancien graphe reste en
+ * place, l'échec est compté ({@link #getNbEchecs()}) et l'erreur est conservée pour {@link #getDerniereErreur()}.
+ * <p></p>
+ * Le fichier peut être une carte texte ({@link ReseauRoutier#lireCarte(String)}) ou un réseau binaire
+ * ({@link ReseauRoutier#lireInstantane(String)}), reconnu à sa signature. Pour ne pas lire un fichier en cours
+ * d'écriture, la construction attend qu'il ne change plus pendant {@link #DELAI_STABILITE_MS} millisecondes ; il est
+ * préférable d'écrire la nouvelle carte à côté puis de la renommer, comme le fait
+ * {@link ReseauRoutier#ecrireInstantane(String)}.
+ * <pre>
+ * <code>
+ *     RechargementCarte carte = new RechargementCarte("france.bin", false, ReseauRoutier::preparerHierarchie);
+ *     ...
+ *     Chemin c = carte.getReseau().plusCourtCheminHierarchique(id1, id2);
+ *     ...
+ *     carte.fermer();
+ * </code>
+ * </pre>
+ */
+public final class RechargementCarte {
+
+    /**
+     * Durée sans modification du fichier avant de le relire, en millisecondes
+     */
+    public static final long DELAI_STABILITE_MS = 500;
+
+    /**
+     * Chemin du fichier de carte
+     */
+    private final Path fichier;
+
+    /**
+     * Indique si les sommets des réseaux construits sont renumérotés ({@link ReseauRoutier#setOrdreSpatial(boolean)})
+     */
+    private final boolean ordreSpatial;
+
+    /**
+     * Traitement appliqué à chaque réseau construit avant sa publication
+     */
+    private final Consumer<ReseauRoutier> preparation;
+
+    /**
+     * Réseau tenu à jour, dont le graphe est remplacé à chaque rechargement
+     */
+    private final ReseauRoutier reseau = new ReseauRoutier();
+
+    /**
+     * Version publiée et statistiques de sa construction
+     */
+    private final AtomicReference<Etat> etat = new AtomicReference<>();
+
+    /**
+     * Nombre de constructions qui ont échoué et dernière erreur rencontrée
+     */
+    private volatile long nbEchecs;
+    private volatile Throwable derniereErreur;
+
+    /**
+     * Surveillance du dossier du fichier
+     */
+    private final WatchService surveillance;
+
+    /**
+     * Lit la carte {@code filename} puis surveille le fichier. La préparation est appliquée à chaque réseau construit,
+     * avant que son graphe ne soit repris par le réseau publié : elle peut par exemple préparer la hiérarchie de
+     * contraction ({@link ReseauRoutier#preparerHierarchie()}) pour que les requêtes n'aient pas à l'attendre.
+     *
+     * @param filename chemin du fichier de carte, texte ou binaire
+     * @param ordreSpatial {@code true} pour renuméroter les sommets le long d'une courbe de Hilbert
+     * @param preparation traitement appliqué à chaque réseau construit
+     * @throws RuntimeException si la première lecture échoue
+     */
+    public RechargementCarte(String filename, boolean ordreSpatial, Consumer<ReseauRoutier> preparation) {
+        this.fichier = Paths.get(filename).toAbsolutePath();
+        this.ordreSpatial = ordreSpatial;
+        this.preparation = preparation;
+        reseau.setOrdreSpatial(ordreSpatial);
+        etat.set(construire(1));
+        try {
+            surveillance = fichier.getFileSystem().newWatchService();
+            fichier.getParent().register(surveillance, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        Thread thread = new Thread(this::surveiller, "rechargement-" + fichier.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Lit la carte {@code filename} puis surveille le fichier, sans renumérotation ni préparation.
+     *
+     * @param filename chemin du fichier de carte, texte ou binaire
+     * @throws RuntimeException si la première lecture échoue
+     */
+    public RechargementCarte(String filename) {
+        this(filename, false, reseau -> {
+        });
+    }
+
+    /**
+     * Renvoie le réseau tenu à jour. C'est toujours le même objet : un rechargement ne remplace que son graphe.
+     *
+     * @return le réseau routier
+     */
+    public ReseauRoutier getReseau() {
+        return reseau;
+    }
+
+    /**
+     * Renvoie le numéro du dernier graphe publié : {@code 1} pour celui lu à la création, augmenté de {@code 1} à
+     * chaque rechargement réussi.
+     *
+     * @return numéro de version
+     */
+    public long getVersion() {
+        return etat.get().version;
+    }
+
+    /**
+     * Renvoie la durée de construction du dernier graphe publié, lecture et préparation comprises.
+     *
+     * @return durée de construction
+     */
+    public Duration getDureeDerniereConstruction() {
+        return etat.get().duree;
+    }
+
+    /**
+     * Renvoie la date de publication du dernier graphe.
+     *
+     * @return date de publication
+     */
+    public Instant getDateDerniereConstruction() {
+        return etat.get().date;
+    }
+
+    /**
+     * Renvoie le nombre de rechargements qui ont échoué.
+     *
+     * @return nombre d'échecs
+     */
+    public long getNbEchecs() {
+        return nbEchecs;
+    }
+
+    /**
+     * Renvoie l'erreur du dernier rechargement qui a échoué.
+     *
+     * @return l'erreur, ou {@code null} si aucun rechargement n'a échoué
+     */
+    public Throwable getDerniereErreur() {
+        return derniereErreur;
+    }
+
+    /**
+     * Reconstruit le graphe à partir du fichier et le publie, sans attendre de modification du fichier. Les requêtes
+     * continuent sur l'ancien graphe pendant la construction.
+     *
+     * @return {@code true} si le nouveau graphe a été publié, {@code false} si la construction a échoué
+     * @throws Error si la construction a échoué sur une erreur grave ({@code OutOfMemoryError}...), après l'avoir
+     * comptée
+     */
+    public synchronized boolean recharger() {
+        try {
+            etat.set(construire(etat.get().version + 1));
+            return true;
+        } catch (RuntimeException e) {
+            echec(e);
+            return false;
+        } catch (Error e) {
+            echec(e);
+            throw e;
+        }
+    }
+
+    private void echec(Throwable e) {
+        derniereErreur = e;
+        nbEchecs++;
+    }
+
+    /**
+     * Arrête la surveillance du fichier. Le dernier réseau publié reste disponible.
+     */
+    public void fermer() {
+        try {
+            surveillance.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Lit et prépare le nouveau graphe dans un réseau à part, puis le fait reprendre par le réseau publié.
+     */
+    private Etat construire(long version) {
+        long debut = System.nanoTime();
+        ReseauRoutier nouveau = new ReseauRoutier();
+        nouveau.setOrdreSpatial(ordreSpatial);
+        try {
+            if (InstantaneReseau.estInstantane(fichier))
+                nouveau.lireInstantane(fichier.toString());
+            else
+                nouveau.lireCarte(fichier.toString());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        preparation.accept(nouveau);
+        reseau.reprendre(nouveau);
+        return new Etat(version, Duration.ofNanos(System.nanoTime() - debut), Instant.now());
+    }
+
+    /**
+     * Boucle du thread de surveillance, jusqu'à {@link #fermer()}.
+     */
+    private void surveiller() {
+        try {
+            while (true) {
+                boolean modifie = concerne(surveillance.take());
+                // Le fichier est relu une fois qu'aucun événement n'est survenu pendant le délai de stabilité.
+                WatchKey suivante;
+                while (modifie && (suivante = surveillance.poll(DELAI_STABILITE_MS, TimeUnit.MILLISECONDS)) != null)
+                    concerne(suivante);
+                if (modifie && Files.exists(fichier))
+                    rechargerSansInterruption();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Fin de la surveillance
+        }
+    }
+
+    /**
+     * Recharge le graphe depuis le thread de surveillance, qui doit continuer même après une erreur grave : celle-ci
+     * a déjà été comptée par {@link #recharger()}.
+     */
+    private void rechargerSansInterruption() {
+        try {
+            recharger();
+        } catch (Throwable e) {
+            // Échec déjà enregistré
+        }
+    }
+
+    /**
+     * Indique si les événements de la clé concernent le fichier surveillé, et réarme la clé.
+     */
+    private boolean concerne(WatchKey cle) {
+        boolean resultat = false;
+        for (WatchEvent<?> evenement : cle.pollEvents()) {
+            resultat |= evenement.kind() == StandardWatchEventKinds.OVERFLOW
+                    || fichier.getFileName().equals(evenement.context());
+        }
+        cle.reset();
+        return resultat;
+    }
+
+    /**
+     * Version publiée et statistiques de sa construction, remplacées ensemble
+     */
+    private static final class Etat {
+        private final long version;
+        private final Duration duree;
+        private final Instant date;
+
+        Etat(long version, Duration duree, Instant date) {
+            this.version = version;
+            this.duree = duree;
+            this.date = date;
+        }
+    }
+}
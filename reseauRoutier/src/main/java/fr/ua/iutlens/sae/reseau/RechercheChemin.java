@@ -0,0 +1,811 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * La classe {@code RechercheChemin} calcule des plus courts chemins dans un {@link Graphe}. Les recherches qui
+ * remontent les arcs entrants (bidirectionnelle, chemins alternatifs) demandent un {@link GrapheCSR}.
+ * <p></p>
+ * Une instance est un espace de travail réutilisable : les tableaux de distances et de prédécesseurs sont alloués
+ * une seule fois, puis invalidés d'une recherche à l'autre par un numéro de recherche, sans être réinitialisés.
+ * Une instance ne doit pas être utilisée par plusieurs threads à la fois.
+ */
+public final class RechercheChemin {
+
+    /**
+     * Graphe dans lequel se font les recherches
+     */
+    private Graphe graphe;
+
+    /**
+     * Distance provisoire de chaque sommet depuis la source
+     */
+    private final double[] distance;
+
+    /**
+     * Prédécesseur de chaque sommet sur le meilleur chemin connu, {@code -1} pour la source
+     */
+    private final int[] predecesseur;
+
+    /**
+     * Estimation de la distance restante de chaque sommet à la cible (recherche A*)
+     */
+    private final double[] estimation;
+
+    /**
+     * Numéro de la dernière recherche qui a atteint chaque sommet
+     */
+    private final int[] marque;
+
+    /**
+     * Numéro de la dernière recherche pour laquelle chaque sommet est une cible (recherche vers plusieurs cibles)
+     */
+    private final int[] marqueCible;
+
+    /**
+     * File de priorité des sommets à traiter
+     */
+    private final TasIndexe tas;
+
+    /**
+     * Distance provisoire de chaque sommet jusqu'à la cible, successeur sur le meilleur chemin connu, numéro de la
+     * dernière recherche qui l'a atteint et file de priorité de la recherche arrière (recherche bidirectionnelle).
+     * Ces tableaux ne sont alloués qu'à la première recherche bidirectionnelle.
+     */
+    private double[] distanceArriere;
+    private int[] successeur;
+    private int[] marqueArriere;
+    private TasIndexe tasArriere;
+
+    /**
+     * Numéro de la dernière recherche pour laquelle chaque sommet est interdit (recherche de chemins alternatifs).
+     * Ce tableau n'est alloué qu'à la première recherche de chemins alternatifs.
+     */
+    private int[] interdit;
+
+    /**
+     * Sommet où se rejoignent les deux recherches sur le meilleur chemin trouvé par la dernière recherche
+     * bidirectionnelle, {@code -1} sinon
+     */
+    private int rencontre = -1;
+
+    /**
+     * Cible et longueur du meilleur chemin de la dernière recherche bidirectionnelle
+     */
+    private int cibleRencontre;
+    private double meilleure;
+
+    /**
+     * Rapport pondération / distance de l'estimation A*, {@code 0} pour l'algorithme de Dijkstra
+     */
+    private double ratio;
+
+    /**
+     * Repères de l'estimation ALT, {@code null} pour les autres recherches
+     */
+    private Reperes reperes;
+
+    /**
+     * Cible de la recherche A* en cours
+     */
+    private int cibleEstimation;
+
+    /**
+     * Numéro de la recherche courante
+     */
+    private int numero;
+
+    /**
+     * Nombre de sommets fixés (sortis de la file) lors de la dernière recherche
+     */
+    private int nbSommetsFixes;
+
+    /**
+     * Constructeur d'un espace de recherche sur le graphe {@code graphe}.
+     *
+     * @param graphe graphe dans lequel se font les recherches
+     */
+    public RechercheChemin(Graphe graphe) {
+        this.graphe = graphe;
+        int n = graphe.getNbSommets();
+        distance = new double[n];
+        predecesseur = new int[n];
+        estimation = new double[n];
+        marque = new int[n];
+        marqueCible = new int[n];
+        tas = new TasIndexe(n);
+    }
+
+    /**
+     * Renvoie le graphe dans lequel se font les recherches.
+     *
+     * @return le graphe
+     */
+    public Graphe getGraphe() {
+        return graphe;
+    }
+
+    /**
+     * Rattache cet espace de recherche au graphe {@code autre}, de même topologie, sans réallouer ses tableaux.
+     *
+     * @param autre graphe obtenu par une modification des pondérations
+     * @throws IllegalArgumentException si les deux graphes n'ont pas la même topologie
+     */
+    void setGraphe(Graphe autre) {
+        if (!GrapheCSR.memeTopologie(graphe, autre))
+            throw new IllegalArgumentException("Les deux graphes n'ont pas la même topologie");
+        graphe = autre;
+    }
+
+    /**
+     * Renvoie le graphe des recherches qui remontent les arcs entrants, que seul un {@code GrapheCSR} range.
+     */
+    private GrapheCSR grapheCSR() {
+        if (!(graphe instanceof GrapheCSR))
+            throw new UnsupportedOperationException("La recherche arrière demande un GrapheCSR");
+        return (GrapheCSR) graphe;
+    }
+
+    /**
+     * Calcule la distance du sommet {@code source} au sommet {@code cible} par l'algorithme de Dijkstra.
+     * <p></p>
+     * La recherche s'arrête dès que la cible est fixée ; le chemin peut ensuite être obtenu par {@link #chemin(int)}.
+     *
+     * @param source indice du sommet de départ
+     * @param cible indice du sommet d'arrivée
+     * @return la distance, ou {@link Double#POSITIVE_INFINITY} si la cible n'est pas atteignable
+     */
+    public double dijkstra(int source, int cible) {
+        ratio = 0.0;
+        reperes = null;
+        return rechercher(source, cible);
+    }
+
+    /**
+     * Calcule la distance du sommet {@code source} au sommet {@code cible} par l'algorithme A*.
+     * <p></p>
+     * La distance restante est estimée par la distance euclidienne à la cible multipliée par
+     * {@link Graphe#getRatioPoidsDistance()} : l'estimation ne dépasse jamais la distance réelle,
+     * le résultat est donc le même qu'avec {@link #dijkstra(int, int)} mais moins de sommets sont fixés.
+     *
+     * @param source indice du sommet de départ
+     * @param cible indice du sommet d'arrivée
+     * @return la distance, ou {@link Double#POSITIVE_INFINITY} si la cible n'est pas atteignable
+     */
+    public double aEtoile(int source, int cible) {
+        ratio = graphe.getRatioPoidsDistance();
+        reperes = null;
+        cibleEstimation = cible;
+        return rechercher(source, cible);
+    }
+
+    /**
+     * Calcule la distance du sommet {@code source} au sommet {@code cible} par l'algorithme ALT : une recherche A*
+     * dont la distance restante est estimée par les repères {@code reperes} (inégalité triangulaire), et par la
+     * distance euclidienne si elle donne une meilleure estimation.
+     * <p></p>
+     * Le résultat est le même qu'avec {@link #dijkstra(int, int)} ; les repères restent efficaces lorsque les
+     * pondérations ne suivent pas les distances entre les coordonnées. Les sommets dont les tables montrent qu'ils
+     * ne mènent pas à la cible ne sont pas explorés.
+     *
+     * @param source indice du sommet de départ
+     * @param cible indice du sommet d'arrivée
+     * @param reperes repères calculés pour le graphe de cet espace de recherche
+     * @return la distance, ou {@link Double#POSITIVE_INFINITY} si la cible n'est pas atteignable
+     * @throws IllegalArgumentException si les repères ont été calculés pour un autre graphe
+     */
+    public double alt(int source, int cible, Reperes reperes) {
+        if (reperes.getGraphe() != graphe)
+            throw new IllegalArgumentException("Les repères ont été calculés pour un autre graphe");
+        ratio = graphe.getRatioPoidsDistance();
+        this.reperes = reperes;
+        cibleEstimation = cible;
+        return rechercher(source, cible);
+    }
+
+    /**
+     * Calcule la distance du sommet {@code source} au sommet {@code cible} par l'algorithme de Dijkstra
+     * bidirectionnel.
+     * <p></p>
+     * Une recherche avance depuis la source sur les arcs sortants, l'autre recule depuis la cible sur les arcs
+     * entrants ; la file dont le sommet minimal est le plus proche est traitée en premier. La recherche s'arrête dès
+     * que la somme des deux distances minimales des files dépasse la longueur du meilleur chemin déjà trouvé par la
+     * rencontre des deux recherches : sur un réseau routier, environ deux fois moins de sommets sont fixés qu'avec
+     * {@link #dijkstra(int, int)}. Les pondérations doivent être positives ou nulles.
+     * <p></p>
+     * Le chemin peut ensuite être obtenu par {@link #chemin(int)} ; {@link #distance(int)} ne renvoie que les
+     * distances calculées par la recherche depuis la source.
+     *
+     * @param source indice du sommet de départ
+     * @param cible indice du sommet d'arrivée
+     * @return la distance, ou {@link Double#POSITIVE_INFINITY} si la cible n'est pas atteignable
+     * @throws UnsupportedOperationException si le graphe n'est pas un {@code GrapheCSR}
+     */
+    public double bidirectionnelle(int source, int cible) {
+        GrapheCSR g = grapheCSR();
+        allouerArriere();
+        ratio = 0.0;
+        reperes = null;
+        commencer(source);
+        marqueArriere[cible] = numero;
+        distanceArriere[cible] = 0.0;
+        successeur[cible] = -1;
+        tasArriere.insererOuDiminuer(cible, 0.0);
+        meilleure = source == cible ? 0.0 : Double.POSITIVE_INFINITY;
+        int meilleurSommet = source == cible ? source : -1;
+        while (!tas.estVide() && !tasArriere.estVide()
+                && tas.cleMinimale() + tasArriere.cleMinimale() < meilleure) {
+            nbSommetsFixes++;
+            int r;
+            if (tas.cleMinimale() <= tasArriere.cleMinimale())
+                r = relacherAvant(tas.extraireMinimum());
+            else
+                r = relacherArriere(g, tasArriere.extraireMinimum());
+            if (r >= 0)
+                meilleurSommet = r;
+        }
+        tas.vider();
+        tasArriere.vider();
+        rencontre = meilleurSommet;
+        cibleRencontre = cible;
+        return meilleure;
+    }
+
+    /**
+     * Relâche les arcs sortants du sommet {@code u} pour la recherche avant d'une recherche bidirectionnelle.
+     *
+     * @return le sommet de rencontre si un meilleur chemin a été trouvé, {@code -1} sinon
+     */
+    private int relacherAvant(int u) {
+        int r = -1;
+        double du = distance[u];
+        for (int k = graphe.getDebut(u); k < graphe.getFin(u); k++) {
+            int v = graphe.getCible(k);
+            double dv = du + graphe.getPoids(k);
+            if (marque[v] != numero || (dv < distance[v] && tas.contient(v))) {
+                marque[v] = numero;
+                distance[v] = dv;
+                predecesseur[v] = u;
+                tas.insererOuDiminuer(v, dv);
+                if (marqueArriere[v] == numero && dv + distanceArriere[v] < meilleure) {
+                    meilleure = dv + distanceArriere[v];
+                    r = v;
+                }
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Relâche les arcs entrants du sommet {@code v} pour la recherche arrière d'une recherche bidirectionnelle.
+     *
+     * @return le sommet de rencontre si un meilleur chemin a été trouvé, {@code -1} sinon
+     */
+    private int relacherArriere(GrapheCSR g, int v) {
+        int r = -1;
+        double dv = distanceArriere[v];
+        for (int j = g.getDebutEntrants(v); j < g.getFinEntrants(v); j++) {
+            int u = g.getSourceEntrant(j);
+            double du = dv + g.getPoids(g.getArcEntrant(j));
+            if (marqueArriere[u] != numero || (du < distanceArriere[u] && tasArriere.contient(u))) {
+                marqueArriere[u] = numero;
+                distanceArriere[u] = du;
+                successeur[u] = v;
+                tasArriere.insererOuDiminuer(u, du);
+                if (marque[u] == numero && du + distance[u] < meilleure) {
+                    meilleure = du + distance[u];
+                    r = u;
+                }
+            }
+        }
+        return r;
+    }
+
+    private double rechercher(int source, int cible) {
+        commencer(source);
+        while (!tas.estVide()) {
+            int u = tas.extraireMinimum();
+            nbSommetsFixes++;
+            if (u == cible)
+                break;
+            relacher(u);
+        }
+        tas.vider();
+        return distance(cible);
+    }
+
+    /**
+     * Calcule les distances du sommet {@code source} à chacun des sommets {@code cibles} par une seule recherche
+     * de Dijkstra, qui s'arrête dès que toutes les cibles sont fixées.
+     *
+     * @param source indice du sommet de départ
+     * @param cibles indices des sommets d'arrivée
+     * @param distances tableau qui reçoit les distances, {@link Double#POSITIVE_INFINITY} pour une cible non
+     * atteignable
+     * @param decalage position dans {@code distances} de la distance à la première cible
+     */
+    public void versPlusieurs(int source, int[] cibles, double[] distances, int decalage) {
+        versPlusieurs(source, cibles, distances, decalage, null);
+    }
+
+    /**
+     * Calcule les distances du sommet {@code source} à chacun des sommets {@code cibles} par une seule recherche
+     * de Dijkstra, qui s'arrête dès que toutes les cibles atteignables sont fixées : les cibles que les composantes
+     * du graphe désignent comme inatteignables ne prolongent pas la recherche.
+     *
+     * @param source indice du sommet de départ
+     * @param cibles indices des sommets d'arrivée
+     * @param distances tableau qui reçoit les distances, {@link Double#POSITIVE_INFINITY} pour une cible non
+     * atteignable
+     * @param decalage position dans {@code distances} de la distance à la première cible
+     * @param composantes composantes du graphe, ou {@code null}
+     */
+    public void versPlusieurs(int source, int[] cibles, double[] distances, int decalage, Composantes composantes) {
+        ratio = 0.0;
+        reperes = null;
+        commencer(source);
+        int restantes = 0;
+        for (int c : cibles) {
+            if (composantes != null && composantes.estInatteignable(source, c))
+                continue;
+            if (marqueCible[c] != numero) {
+                marqueCible[c] = numero;
+                restantes++;
+            }
+        }
+        while (!tas.estVide() && restantes > 0) {
+            int u = tas.extraireMinimum();
+            nbSommetsFixes++;
+            if (marqueCible[u] == numero)
+                restantes--;
+            relacher(u);
+        }
+        tas.vider();
+        for (int j = 0; j < cibles.length; j++)
+            distances[decalage + j] = distance(cibles[j]);
+    }
+
+    /**
+     * Calcule l'ensemble des sommets à une distance inférieure ou égale à {@code budget} du sommet {@code source}
+     * par une recherche de Dijkstra qui s'arrête dès que la distance minimale de la file dépasse le budget : seuls
+     * les sommets de l'isochrone et leurs voisins immédiats sont visités.
+     * <p></p>
+     * {@link #distance(int)} et {@link #chemin(int)} restent ensuite utilisables pour les sommets de l'isochrone.
+     *
+     * @param source indice du sommet de départ
+     * @param budget distance maximale des sommets recherchés
+     * @return les identifiants des points atteints et leurs distances, par distance croissante
+     */
+    public Isochrone isochrone(int source, double budget) {
+        ratio = 0.0;
+        reperes = null;
+        commencer(source);
+        int[] ids = new int[16];
+        double[] distances = new double[16];
+        int nb = 0;
+        while (!tas.estVide() && tas.cleMinimale() <= budget) {
+            int u = tas.extraireMinimum();
+            nbSommetsFixes++;
+            if (nb == ids.length) {
+                ids = Arrays.copyOf(ids, nb * 2);
+                distances = Arrays.copyOf(distances, nb * 2);
+            }
+            ids[nb] = graphe.getId(u);
+            distances[nb++] = distance[u];
+            relacher(u);
+        }
+        tas.vider();
+        return new Isochrone(graphe.getId(source), budget, Arrays.copyOf(ids, nb), Arrays.copyOf(distances, nb));
+    }
+
+    /**
+     * Calcule les {@code k} plus courts chemins sans boucle du sommet {@code source} au sommet {@code cible}, par
+     * l'algorithme de Yen avec la modification de Lawler.
+     * <p></p>
+     * Chaque nouveau chemin s'écarte d'un chemin déjà retenu à partir de l'un de ses sommets (sommet de
+     * déviation) : le début du chemin retenu est conservé, et la suite est le plus court chemin qui évite ses
+     * sommets précédents et les arcs déjà empruntés par les chemins retenus de même début. Une seule recherche
+     * arrière depuis la cible donne la distance exacte de chaque sommet utile à la cible ; chaque recherche de
+     * déviation est ensuite une recherche A* guidée par ces distances, qui ne visite presque que les sommets de son
+     * chemin.
+     * <p></p>
+     * Seuls les chemins d'une longueur au plus égale à {@code allongementMax} fois celle du plus court chemin sont
+     * recherchés. La recherche arrière est elle-même une recherche A* vers la source (distance euclidienne) : elle
+     * ne fixe que les sommets par lesquels passe un chemin assez court, et les recherches de déviation ignorent les
+     * autres. Les pondérations doivent être positives ou nulles.
+     *
+     * @param source indice du sommet de départ
+     * @param cible indice du sommet d'arrivée
+     * @param k nombre maximal de chemins
+     * @param allongementMax rapport maximal entre la longueur d'un chemin et celle du plus court chemin,
+     *                       {@link Double#POSITIVE_INFINITY} pour ne pas limiter la longueur
+     * @return au plus {@code k} chemins par longueur croissante, aucun si la cible n'est pas atteignable
+     * @throws UnsupportedOperationException si le graphe n'est pas un {@code GrapheCSR}
+     */
+    public List<Chemin> kPlusCourtsChemins(int source, int cible, int k, double allongementMax) {
+        GrapheCSR g = grapheCSR();
+        allouerArriere();
+        if (interdit == null)
+            interdit = new int[graphe.getNbSommets()];
+        rencontre = -1;
+        nbSommetsFixes = 0;
+        double limite = arbreVersCible(g, source, cible, allongementMax);
+        int numeroArbre = numero;
+        List<Chemin> chemins = new ArrayList<>();
+        if (limite < 0.0)
+            return chemins;
+
+        // Le plus court chemin suit les successeurs de la recherche arrière.
+        int nb = 1;
+        for (int v = source; v != cible; v = successeur[v])
+            nb++;
+        int[] sommets = new int[nb];
+        sommets[0] = source;
+        for (int i = 1; i < nb; i++)
+            sommets[i] = successeur[sommets[i - 1]];
+        double[] cumul = new double[nb];
+        for (int i = 1; i < nb; i++)
+            cumul[i] = cumul[i - 1] + poidsMinimal(sommets[i - 1], sommets[i]);
+
+        List<Itineraire> retenus = new ArrayList<>();
+        // Seuls les meilleurs candidats peuvent encore être retenus : la file garde les k - retenus.size() plus
+        // courts, le plus long en tête, et sa longueur borne les recherches de déviation suivantes.
+        Comparator<Itineraire> parLongueur = Comparator.comparingDouble(Itineraire::longueur);
+        PriorityQueue<Itineraire> candidats = new PriorityQueue<>(parLongueur.reversed());
+        Set<Itineraire> vus = new HashSet<>();
+        Itineraire premier = new Itineraire(sommets, cumul, 0);
+        vus.add(premier);
+        Itineraire dernier = premier;
+        int[] suivantsInterdits = new int[4];
+        while (true) {
+            retenus.add(dernier);
+            chemins.add(dernier.chemin(graphe));
+            int restants = k - chemins.size();
+            if (restants <= 0)
+                break;
+            for (int i = dernier.deviation; i < dernier.sommets.length - 1; i++) {
+                // Arcs du sommet de déviation déjà empruntés par un chemin retenu de même début
+                int nbSuivants = 0;
+                for (Itineraire r : retenus) {
+                    if (r.sommets.length > i + 1 && r.commencePar(dernier, i)) {
+                        if (nbSuivants == suivantsInterdits.length)
+                            suivantsInterdits = Arrays.copyOf(suivantsInterdits, nbSuivants * 2);
+                        suivantsInterdits[nbSuivants++] = r.sommets[i + 1];
+                    }
+                }
+                double borne = candidats.size() >= restants ? candidats.peek().longueur() : limite;
+                Itineraire deviation = devier(dernier, i, source, cible, suivantsInterdits, nbSuivants,
+                        numeroArbre, limite, borne);
+                if (deviation != null && vus.add(deviation)) {
+                    candidats.add(deviation);
+                    if (candidats.size() > restants)
+                        candidats.poll();
+                }
+            }
+            // Les distances de la recherche arrière sont perdues si les numéros de recherche ont fait un tour complet.
+            if (candidats.isEmpty() || numero < numeroArbre)
+                break;
+            dernier = Collections.min(candidats, parLongueur);
+            candidats.remove(dernier);
+        }
+        return chemins;
+    }
+
+    /**
+     * Calcule par une recherche arrière la distance à la cible des sommets par lesquels passe un chemin de la source
+     * à la cible d'au plus {@code allongementMax} fois la longueur du plus court chemin. La recherche est guidée vers
+     * la source par la distance euclidienne : un sommet est fixé dès que sa distance à la cible plus l'estimation de
+     * sa distance depuis la source ne dépasse pas la longueur maximale.
+     *
+     * @return la longueur maximale des chemins recherchés, ou {@code -1} si la cible n'est pas atteignable
+     */
+    private double arbreVersCible(GrapheCSR g, int source, int cible, double allongementMax) {
+        nouveauNumero();
+        marqueArriere[cible] = numero;
+        distanceArriere[cible] = 0.0;
+        successeur[cible] = -1;
+        tasArriere.insererOuDiminuer(cible, estimationDepuis(cible, source));
+        double limite = Double.POSITIVE_INFINITY;
+        boolean atteinte = false;
+        while (!tasArriere.estVide() && tasArriere.cleMinimale() <= limite) {
+            int v = tasArriere.extraireMinimum();
+            nbSommetsFixes++;
+            if (v == source) {
+                atteinte = true;
+                limite = allongementMax * distanceArriere[source];
+            }
+            double dv = distanceArriere[v];
+            for (int j = g.getDebutEntrants(v); j < g.getFinEntrants(v); j++) {
+                int u = g.getSourceEntrant(j);
+                double du = dv + g.getPoids(g.getArcEntrant(j));
+                if (marqueArriere[u] != numero || (du < distanceArriere[u] && tasArriere.contient(u))) {
+                    marqueArriere[u] = numero;
+                    distanceArriere[u] = du;
+                    successeur[u] = v;
+                    tasArriere.insererOuDiminuer(u, du + estimationDepuis(u, source));
+                }
+            }
+        }
+        tasArriere.vider();
+        return atteinte ? limite : -1.0;
+    }
+
+    /**
+     * Minore la distance du sommet {@code source} au sommet {@code sommet} par la distance euclidienne.
+     */
+    private double estimationDepuis(int sommet, int source) {
+        double r = graphe.getRatioPoidsDistance();
+        return r > 0.0 ? r * graphe.distanceEuclidienne(source, sommet) : 0.0;
+    }
+
+    /**
+     * Renvoie la distance exacte du sommet à la cible calculée par {@link #arbreVersCible(int, int, double)}, ou
+     * l'infini si aucun chemin assez court ne passe par le sommet.
+     */
+    private double distanceVersCible(int sommet, int source, int numeroArbre, double limite) {
+        // Les sommets fixés par la recherche arrière sont exactement ceux dont la clé ne dépasse pas la limite.
+        if (marqueArriere[sommet] != numeroArbre
+                || !(distanceArriere[sommet] + estimationDepuis(sommet, source) <= limite))
+            return Double.POSITIVE_INFINITY;
+        return distanceArriere[sommet];
+    }
+
+    /**
+     * Cherche le plus court chemin qui suit {@code chemin} jusqu'à son sommet d'indice {@code i}, puis évite ses
+     * sommets précédents et les arcs vers les sommets {@code suivantsInterdits}.
+     *
+     * @return le chemin trouvé, ou {@code null} s'il n'en existe pas d'une longueur au plus égale à {@code borne}
+     */
+    private Itineraire devier(Itineraire chemin, int i, int source, int cible, int[] suivantsInterdits,
+                              int nbSuivants, int numeroArbre, double limite, double borne) {
+        int depart = chemin.sommets[i];
+        double budget = Math.min(limite, borne) - chemin.cumul[i];
+        nouveauNumero();
+        for (int j = 0; j < i; j++)
+            interdit[chemin.sommets[j]] = numero;
+        marque[depart] = numero;
+        distance[depart] = 0.0;
+        predecesseur[depart] = -1;
+        tas.insererOuDiminuer(depart, distanceVersCible(depart, source, numeroArbre, limite));
+        boolean trouve = false;
+        while (!tas.estVide() && tas.cleMinimale() <= budget) {
+            int u = tas.extraireMinimum();
+            nbSommetsFixes++;
+            if (u == cible) {
+                trouve = true;
+                break;
+            }
+            double du = distance[u];
+            aretes:
+            for (int k = graphe.getDebut(u); k < graphe.getFin(u); k++) {
+                int v = graphe.getCible(k);
+                if (interdit[v] == numero)
+                    continue;
+                if (u == depart)
+                    for (int j = 0; j < nbSuivants; j++)
+                        if (suivantsInterdits[j] == v)
+                            continue aretes;
+                double h = distanceVersCible(v, source, numeroArbre, limite);
+                if (h == Double.POSITIVE_INFINITY)
+                    continue;
+                double dv = du + graphe.getPoids(k);
+                if (marque[v] != numero || (dv < distance[v] && tas.contient(v))) {
+                    marque[v] = numero;
+                    distance[v] = dv;
+                    predecesseur[v] = u;
+                    tas.insererOuDiminuer(v, dv + h);
+                }
+            }
+        }
+        tas.vider();
+        if (!trouve)
+            return null;
+        int nb = 0;
+        for (int v = cible; v != depart; v = predecesseur[v])
+            nb++;
+        int[] sommets = Arrays.copyOf(chemin.sommets, i + 1 + nb);
+        double[] cumul = Arrays.copyOf(chemin.cumul, i + 1 + nb);
+        for (int v = cible, j = i + nb; v != depart; v = predecesseur[v], j--) {
+            sommets[j] = v;
+            cumul[j] = chemin.cumul[i] + distance[v];
+        }
+        return new Itineraire(sommets, cumul, i);
+    }
+
+    /**
+     * Renvoie la plus petite pondération des arcs du sommet {@code u} vers le sommet {@code v}.
+     */
+    private double poidsMinimal(int u, int v) {
+        double poids = Double.POSITIVE_INFINITY;
+        for (int k = graphe.getDebut(u); k < graphe.getFin(u); k++)
+            if (graphe.getCible(k) == v)
+                poids = Math.min(poids, graphe.getPoids(k));
+        return poids;
+    }
+
+    /**
+     * Renvoie la distance d'un sommet calculée par la dernière recherche.
+     *
+     * @param sommet indice du sommet
+     * @return la distance, ou {@link Double#POSITIVE_INFINITY} si le sommet n'a pas été atteint
+     */
+    public double distance(int sommet) {
+        return marque[sommet] == numero ? distance[sommet] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Reconstruit le chemin de la source de la dernière recherche jusqu'au sommet {@code cible}.
+     *
+     * @param cible indice du sommet d'arrivée
+     * @return le chemin, ou {@code null} si la cible n'a pas été atteinte
+     */
+    public Chemin chemin(int cible) {
+        if (rencontre >= 0 && cible == cibleRencontre)
+            return cheminBidirectionnel();
+        if (marque[cible] != numero)
+            return null;
+        int nb = 0;
+        for (int v = cible; v >= 0; v = predecesseur[v])
+            nb++;
+        int[] ids = new int[nb];
+        for (int v = cible; v >= 0; v = predecesseur[v])
+            ids[--nb] = graphe.getId(v);
+        return new Chemin(ids, distance[cible]);
+    }
+
+    /**
+     * Reconstruit le meilleur chemin de la dernière recherche bidirectionnelle : de la source au sommet de
+     * rencontre par les prédécesseurs, puis jusqu'à la cible par les successeurs.
+     */
+    private Chemin cheminBidirectionnel() {
+        int nb = 0;
+        for (int v = rencontre; v >= 0; v = predecesseur[v])
+            nb++;
+        int avant = nb;
+        for (int v = successeur[rencontre]; v >= 0; v = successeur[v])
+            nb++;
+        int[] ids = new int[nb];
+        int i = avant;
+        for (int v = rencontre; v >= 0; v = predecesseur[v])
+            ids[--i] = graphe.getId(v);
+        i = avant;
+        for (int v = successeur[rencontre]; v >= 0; v = successeur[v])
+            ids[i++] = graphe.getId(v);
+        return new Chemin(ids, meilleure);
+    }
+
+    /**
+     * Renvoie le nombre de sommets fixés lors de la dernière recherche.
+     *
+     * @return nombre de sommets fixés
+     */
+    public int getNbSommetsFixes() {
+        return nbSommetsFixes;
+    }
+
+    /**
+     * Prépare une nouvelle recherche depuis le sommet {@code source}.
+     */
+    private void commencer(int source) {
+        nouveauNumero();
+        nbSommetsFixes = 0;
+        rencontre = -1;
+        atteindre(source, 0.0, -1);
+        tas.insererOuDiminuer(source, estimation[source]);
+    }
+
+    /**
+     * Passe au numéro de recherche suivant.
+     */
+    private void nouveauNumero() {
+        if (++numero == 0) {
+            // Après un tour complet des numéros, les anciennes marques pourraient être confondues avec la nouvelle.
+            Arrays.fill(marque, 0);
+            Arrays.fill(marqueCible, 0);
+            if (marqueArriere != null)
+                Arrays.fill(marqueArriere, 0);
+            if (interdit != null)
+                Arrays.fill(interdit, 0);
+            numero = 1;
+        }
+    }
+
+    /**
+     * Alloue au besoin les tableaux de la recherche arrière.
+     */
+    private void allouerArriere() {
+        if (tasArriere == null) {
+            int n = graphe.getNbSommets();
+            distanceArriere = new double[n];
+            successeur = new int[n];
+            marqueArriere = new int[n];
+            tasArriere = new TasIndexe(n);
+        }
+    }
+
+    /**
+     * Relâche les arcs sortants du sommet {@code u}.
+     */
+    private void relacher(int u) {
+        double du = distance[u];
+        for (int k = graphe.getDebut(u); k < graphe.getFin(u); k++) {
+            int v = graphe.getCible(k);
+            double dv = du + graphe.getPoids(k);
+            if (marque[v] != numero) {
+                atteindre(v, dv, u);
+                // Une estimation infinie signifie que la cible n'est pas atteignable depuis v.
+                if (estimation[v] < Double.POSITIVE_INFINITY)
+                    tas.insererOuDiminuer(v, dv + estimation[v]);
+            } else if (dv < distance[v] && tas.contient(v)) {
+                // Un sommet déjà fixé n'est jamais remis dans le tas : avec des pondérations positives, il ne peut
+                // pas être amélioré, et avec des pondérations négatives la recherche ne se terminerait pas.
+                distance[v] = dv;
+                predecesseur[v] = u;
+                if (estimation[v] < Double.POSITIVE_INFINITY)
+                    tas.insererOuDiminuer(v, dv + estimation[v]);
+            }
+        }
+    }
+
+    private void atteindre(int sommet, double d, int pred) {
+        marque[sommet] = numero;
+        distance[sommet] = d;
+        predecesseur[sommet] = pred;
+        double e = ratio > 0.0 ? ratio * graphe.distanceEuclidienne(sommet, cibleEstimation) : 0.0;
+        if (reperes != null)
+            e = Math.max(e, reperes.minorant(sommet, cibleEstimation));
+        estimation[sommet] = e;
+    }
+
+    /**
+     * Chemin retenu ou candidat de la recherche de chemins alternatifs : indices des sommets, distance depuis la source
+     * de chacun et indice du sommet où il s'écarte du chemin dont il est issu. Deux itinéraires sont égaux s'ils
+     * passent par les mêmes sommets.
+     */
+    private static final class Itineraire {
+        private final int[] sommets;
+        private final double[] cumul;
+        private final int deviation;
+
+        Itineraire(int[] sommets, double[] cumul, int deviation) {
+            this.sommets = sommets;
+            this.cumul = cumul;
+            this.deviation = deviation;
+        }
+
+        double longueur() {
+            return cumul[cumul.length - 1];
+        }
+
+        /**
+         * Indique si cet itinéraire passe par les mêmes sommets que {@code autre} jusqu'à l'indice {@code i} inclus.
+         */
+        boolean commencePar(Itineraire autre, int i) {
+            return Arrays.equals(sommets, 0, i + 1, autre.sommets, 0, i + 1);
+        }
+
+        Chemin chemin(Graphe graphe) {
+            int[] ids = new int[sommets.length];
+            for (int i = 0; i < ids.length; i++)
+                ids[i] = graphe.getId(sommets[i]);
+            return new Chemin(ids, longueur());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Itineraire && Arrays.equals(sommets, ((Itineraire) o).sommets);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(sommets);
+        }
+    }
+}
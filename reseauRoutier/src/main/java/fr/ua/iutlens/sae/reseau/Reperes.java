@@ -0,0 +1,414 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * La classe {@code Reperes} implémente les repères de l'algorithme ALT (A*, <i>Landmarks</i>, inégalité
+ * Triangulaire) sur un {@code GrapheCSR}.
+ * <p></p>
+ * Quelques sommets sont choisis comme repères et les distances de chaque repère {@code L} à tous les sommets, et de
+ * tous les sommets à {@code L}, sont précalculées. Par l'inégalité triangulaire, pour tout sommet {@code v} et toute
+ * cible {@code t} :
+ * <pre>
+ * <code>
+ *     d(v,t) &gt;= d(L,t) - d(L,v)      et      d(v,t) &gt;= d(v,L) - d(t,L)
+ * </code>
+ * </pre>
+ * Le plus grand de ces minorants sert d'estimation à la recherche A* ({@link RechercheChemin#alt(int, int, Reperes)}).
+ * Contrairement à l'estimation euclidienne, il ne suppose aucun lien entre les pondérations et les coordonnées.
+ * <p></p>
+ * Les tables peuvent être enregistrées par {@link #ecrire(Path)} et relues par {@link #lire(Path, GrapheCSR)}.
+ */
+public final class Reperes {
+
+    /**
+     * Méthodes de choix des repères
+     */
+    public enum Selection {
+        /**
+         * Chaque repère est le sommet le plus éloigné des repères déjà choisis
+         */
+        ELOIGNES,
+        /**
+         * Chaque repère est choisi dans la partie d'un arbre de plus courts chemins où les repères déjà choisis
+         * minorent le plus mal les distances (méthode <i>avoid</i>)
+         */
+        EVITEMENT
+    }
+
+    /**
+     * Signature au début de chaque fichier ("RRAL")
+     */
+    private static final int SIGNATURE = 0x5252414C;
+
+    /**
+     * Version du format
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * Graine du tirage des racines lors du choix des repères
+     */
+    private static final long GRAINE = 0x5EED;
+
+    /**
+     * Graphe à partir duquel les repères ont été calculés
+     */
+    private final GrapheCSR graphe;
+
+    /**
+     * Indices des repères
+     */
+    private final int[] reperes;
+
+    /**
+     * Distance du i-ème repère au sommet {@code v}, à la position {@code v * nbReperes + i}
+     */
+    private final double[] depuis;
+
+    /**
+     * Distance du sommet {@code v} au i-ème repère, à la position {@code v * nbReperes + i}
+     */
+    private final double[] vers;
+
+    private Reperes(GrapheCSR graphe, int[] reperes, double[] depuis, double[] vers) {
+        this.graphe = graphe;
+        this.reperes = reperes;
+        this.depuis = depuis;
+        this.vers = vers;
+    }
+
+    /**
+     * Choisit {@code nbReperes} repères dans un graphe dont les pondérations sont positives et calcule leurs tables
+     * de distances.
+     *
+     * @param graphe graphe à prétraiter
+     * @param nbReperes nombre de repères (au plus le nombre de sommets)
+     * @param selection méthode de choix des repères
+     * @return les repères
+     */
+    public static Reperes construire(GrapheCSR graphe, int nbReperes, Selection selection) {
+        int n = graphe.getNbSommets();
+        int k = Math.max(0, Math.min(nbReperes, n));
+        int[] reperes = new int[k];
+        double[][] tablesDepuis = new double[k][];
+        double[][] tablesVers = new double[k][];
+        Arbre arbre = new Arbre(graphe);
+        Random aleatoire = new Random(GRAINE);
+        // Plus petite distance d'un repère déjà choisi à chaque sommet (méthode ELOIGNES)
+        double[] eloignement = new double[n];
+        Arrays.fill(eloignement, Double.POSITIVE_INFINITY);
+        boolean[] estRepere = new boolean[n];
+        int nb = 0;
+        while (nb < k) {
+            int repere = -1;
+            if (selection == Selection.EVITEMENT && nb > 0)
+                repere = eviter(graphe, arbre, aleatoire.nextInt(n), tablesDepuis, tablesVers, nb, estRepere);
+            if (repere < 0) {
+                if (nb == 0) {
+                    // Premier repère : le sommet le plus éloigné d'une racine tirée au hasard
+                    arbre.calculer(aleatoire.nextInt(n), false);
+                    repere = plusEloigne(arbre.distance, estRepere);
+                } else {
+                    repere = plusEloigne(eloignement, estRepere);
+                }
+            }
+            if (repere < 0)
+                break;
+            reperes[nb] = repere;
+            estRepere[repere] = true;
+            arbre.calculer(repere, false);
+            tablesDepuis[nb] = arbre.distance.clone();
+            arbre.calculer(repere, true);
+            tablesVers[nb] = arbre.distance.clone();
+            for (int v = 0; v < n; v++)
+                eloignement[v] = Math.min(eloignement[v], tablesDepuis[nb][v]);
+            nb++;
+        }
+
+        double[] depuis = new double[Math.multiplyExact(n, nb)];
+        double[] vers = new double[depuis.length];
+        for (int i = 0; i < nb; i++) {
+            for (int v = 0; v < n; v++) {
+                depuis[v * nb + i] = tablesDepuis[i][v];
+                vers[v * nb + i] = tablesVers[i][v];
+            }
+        }
+        return new Reperes(graphe, Arrays.copyOf(reperes, nb), depuis, vers);
+    }
+
+    /**
+     * Renvoie le sommet de plus grande valeur (les valeurs infinies d'abord) qui n'est pas déjà un repère,
+     * {@code -1} s'il n'y en a pas.
+     */
+    private static int plusEloigne(double[] valeurs, boolean[] estRepere) {
+        int meilleur = -1;
+        for (int v = 0; v < valeurs.length; v++)
+            if (!estRepere[v] && (meilleur < 0 || valeurs[v] > valeurs[meilleur]))
+                meilleur = v;
+        return meilleur;
+    }
+
+    /**
+     * Choisit un repère par la méthode <i>avoid</i> : dans l'arbre des plus courts chemins depuis {@code racine},
+     * chaque sommet pèse l'écart entre sa distance à la racine et le minorant donné par les repères déjà choisis.
+     * Le repère est la feuille atteinte en partant du sommet dont le sous-arbre, sans aucun repère, pèse le plus,
+     * et en descendant toujours vers l'enfant le plus lourd.
+     *
+     * @return le repère, ou {@code -1} si tous les sous-arbres contiennent un repère ou sont bien minorés
+     */
+    private static int eviter(GrapheCSR graphe, Arbre arbre, int racine, double[][] tablesDepuis,
+                              double[][] tablesVers, int nb, boolean[] estRepere) {
+        int n = graphe.getNbSommets();
+        arbre.calculer(racine, false);
+        double[] poids = new double[n];
+        boolean[] couvert = new boolean[n];
+        int[] enfantLourd = new int[n];
+        Arrays.fill(enfantLourd, -1);
+        for (int p = arbre.nbFixes - 1; p >= 0; p--) {
+            int v = arbre.ordre[p];
+            double minorant = 0.0;
+            for (int i = 0; i < nb; i++) {
+                double a = tablesDepuis[i][v] - tablesDepuis[i][racine];
+                double b = tablesVers[i][racine] - tablesVers[i][v];
+                if (a > minorant)
+                    minorant = a;
+                if (b > minorant)
+                    minorant = b;
+            }
+            if (estRepere[v])
+                couvert[v] = true;
+            if (couvert[v]) {
+                poids[v] = 0.0;
+            } else {
+                poids[v] += Math.max(0.0, arbre.distance[v] - minorant);
+            }
+            int parent = arbre.predecesseur[v];
+            if (parent >= 0) {
+                if (couvert[v])
+                    couvert[parent] = true;
+                else
+                    poids[parent] += poids[v];
+                if (enfantLourd[parent] < 0 || poids[v] > poids[enfantLourd[parent]])
+                    enfantLourd[parent] = v;
+            }
+        }
+        int v = -1;
+        for (int p = 0; p < arbre.nbFixes; p++) {
+            int u = arbre.ordre[p];
+            if (!couvert[u] && poids[u] > 0.0 && (v < 0 || poids[u] > poids[v]))
+                v = u;
+        }
+        if (v < 0)
+            return -1;
+        while (enfantLourd[v] >= 0 && !couvert[enfantLourd[v]])
+            v = enfantLourd[v];
+        return v;
+    }
+
+    /**
+     * Renvoie le graphe à partir duquel les repères ont été calculés.
+     *
+     * @return le graphe
+     */
+    public GrapheCSR getGraphe() {
+        return graphe;
+    }
+
+    /**
+     * Renvoie les mêmes repères, rattachés au graphe {@code autre} de même topologie.
+     * <p></p>
+     * Les tables restent des minorants valables tant que les pondérations n'ont fait qu'augmenter : pour tout arc
+     * {@code u -> v}, {@code d(L,v) - d(L,u)} ne dépasse pas l'ancienne pondération, donc pas la nouvelle.
+     *
+     * @param autre graphe obtenu à partir de celui des repères en augmentant des pondérations
+     * @return les repères pour {@code autre}
+     */
+    Reperes pour(GrapheCSR autre) {
+        return new Reperes(autre, reperes, depuis, vers);
+    }
+
+    /**
+     * Renvoie le nombre de repères.
+     *
+     * @return nombre de repères
+     */
+    public int getNbReperes() {
+        return reperes.length;
+    }
+
+    /**
+     * Renvoie l'indice du i-ème repère.
+     *
+     * @param i numéro du repère
+     * @return indice du sommet
+     */
+    public int getRepere(int i) {
+        return reperes[i];
+    }
+
+    /**
+     * Renvoie un minorant de la distance du sommet {@code sommet} au sommet {@code cible}.
+     *
+     * @param sommet indice du sommet de départ
+     * @param cible indice du sommet d'arrivée
+     * @return le minorant, {@link Double#POSITIVE_INFINITY} si les tables montrent que la cible n'est pas atteignable
+     */
+    public double minorant(int sommet, int cible) {
+        int k = reperes.length;
+        int s = sommet * k;
+        int t = cible * k;
+        double minorant = 0.0;
+        for (int i = 0; i < k; i++) {
+            // Une différence de deux distances infinies (NaN) n'apporte aucune information et est ignorée.
+            double a = depuis[t + i] - depuis[s + i];
+            double b = vers[s + i] - vers[t + i];
+            if (a > minorant)
+                minorant = a;
+            if (b > minorant)
+                minorant = b;
+        }
+        // Légère minoration pour que les erreurs d'arrondi ne rendent pas l'estimation trop optimiste.
+        return minorant * (1.0 - 1e-9);
+    }
+
+    /**
+     * Enregistre les repères et leurs tables dans le fichier {@code fichier}, qui est remplacé s'il existe.
+     *
+     * @param fichier chemin du fichier
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void ecrire(Path fichier) throws IOException {
+        try (DataOutputStream sortie = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(fichier),
+                1 << 16))) {
+            sortie.writeInt(SIGNATURE);
+            sortie.writeInt(VERSION);
+            sortie.writeInt(graphe.getNbSommets());
+            sortie.writeInt(graphe.getNbArcs());
+            sortie.writeLong(graphe.getEmpreinte());
+            sortie.writeInt(reperes.length);
+            for (int repere : reperes)
+                sortie.writeInt(repere);
+            for (double d : depuis)
+                sortie.writeDouble(d);
+            for (double d : vers)
+                sortie.writeDouble(d);
+        }
+    }
+
+    /**
+     * Relit des repères enregistrés par {@link #ecrire(Path)} pour le graphe {@code graphe}.
+     *
+     * @param fichier chemin du fichier
+     * @param graphe graphe à partir duquel les repères ont été calculés
+     * @return les repères
+     * @throws IOException en cas d'erreur de lecture, si le fichier n'est pas au bon format
+     *                     ou s'il ne correspond pas au graphe (autres routes, autres pondérations ou sommets
+     *                     numérotés dans un autre ordre, voir {@link GrapheCSR#getEmpreinte()})
+     */
+    public static Reperes lire(Path fichier, GrapheCSR graphe) throws IOException {
+        try (DataInputStream entree = new DataInputStream(new BufferedInputStream(Files.newInputStream(fichier),
+                1 << 16))) {
+            if (entree.readInt() != SIGNATURE || entree.readInt() != VERSION)
+                throw new IOException("Format de fichier inconnu : " + fichier);
+            int n = entree.readInt();
+            int m = entree.readInt();
+            long empreinte = entree.readLong();
+            if (n != graphe.getNbSommets() || m != graphe.getNbArcs()
+                    || empreinte != graphe.getEmpreinte())
+                throw new IOException("Les repères ne correspondent pas au réseau : " + fichier);
+            int k = entree.readInt();
+            if (k < 0 || k > n)
+                throw new IOException("Format de fichier inconnu : " + fichier);
+            int[] reperes = new int[k];
+            for (int i = 0; i < k; i++) {
+                reperes[i] = entree.readInt();
+                if (reperes[i] < 0 || reperes[i] >= n)
+                    throw new IOException("Indice de repère invalide : " + fichier);
+            }
+            double[] depuis = new double[Math.multiplyExact(n, k)];
+            for (int i = 0; i < depuis.length; i++)
+                depuis[i] = entree.readDouble();
+            double[] vers = new double[depuis.length];
+            for (int i = 0; i < vers.length; i++)
+                vers[i] = entree.readDouble();
+            return new Reperes(graphe, reperes, depuis, vers);
+        }
+    }
+
+    /**
+     * Arbre des plus courts chemins depuis (ou vers) un sommet, calculé par une recherche de Dijkstra complète.
+     */
+    private static final class Arbre {
+
+        private final GrapheCSR graphe;
+
+        /**
+         * Distance de chaque sommet depuis la racine (vers la racine pour un arbre arrière)
+         */
+        private final double[] distance;
+
+        /**
+         * Parent de chaque sommet dans l'arbre, {@code -1} pour la racine et les sommets non atteints
+         */
+        private final int[] predecesseur;
+
+        /**
+         * Sommets dans l'ordre où ils ont été fixés
+         */
+        private final int[] ordre;
+
+        private int nbFixes;
+
+        private final TasIndexe tas;
+
+        Arbre(GrapheCSR graphe) {
+            this.graphe = graphe;
+            int n = graphe.getNbSommets();
+            distance = new double[n];
+            predecesseur = new int[n];
+            ordre = new int[n];
+            tas = new TasIndexe(n);
+        }
+
+        /**
+         * Calcule l'arbre depuis {@code racine} en suivant les arcs sortants, ou vers {@code racine} en remontant
+         * les arcs entrants si {@code arriere} est vrai.
+         */
+        void calculer(int racine, boolean arriere) {
+            Arrays.fill(distance, Double.POSITIVE_INFINITY);
+            Arrays.fill(predecesseur, -1);
+            nbFixes = 0;
+            distance[racine] = 0.0;
+            tas.insererOuDiminuer(racine, 0.0);
+            while (!tas.estVide()) {
+                int u = tas.extraireMinimum();
+                ordre[nbFixes++] = u;
+                double du = distance[u];
+                if (arriere) {
+                    for (int j = graphe.getDebutEntrants(u); j < graphe.getFinEntrants(u); j++)
+                        atteindre(graphe.getSourceEntrant(j), du + graphe.getPoids(graphe.getArcEntrant(j)), u);
+                } else {
+                    for (int k = graphe.getDebut(u); k < graphe.getFin(u); k++)
+                        atteindre(graphe.getCible(k), du + graphe.getPoids(k), u);
+                }
+            }
+        }
+
+        private void atteindre(int v, double d, int u) {
+            if (d < distance[v]) {
+                distance[v] = d;
+                predecesseur[v] = u;
+                tas.insererOuDiminuer(v, d);
+            }
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package fr.ua.iutlens.sae.reseau;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  * La classe implémente un graphe de points {@code Point} qui sont reliés par des arêtes {@code Arete}.
@@ -11,14 +14,64 @@ import java.util.*;
  */
 public class ReseauRoutier {
     /**
-     * Structure de données qui stocke le réseau routier
+     * Taille maximale d'un tableau alloué par la machine virtuelle
      */
-    private List<Arete> routes = new ArrayList<>();
+    private static final int TAILLE_MAX_TABLEAU = Integer.MAX_VALUE - 8;
 
     /**
-     * Structure de données dictionnaire qui permet de retrouver facilement le point à partir de son identifiant.
+     * Structure de données qui stocke le réseau routier : un {@link GrapheCSR}, ou un {@link GrapheCompresse} relu
+     * par {@link #lireInstantaneCompresse(String, double)}.
+     * <p></p>
+     * Le graphe n'est jamais modifié : une modification du réseau le remplace par un nouveau graphe, et une requête
+     * en cours continue sur celui qu'elle a lu au départ.
      */
-    private Map<Integer, Point> mapPoints = new HashMap<>();
+    private volatile Graphe graphe = GrapheCSR.vide();
+
+    /**
+     * Numéro de version du graphe, augmenté à chaque remplacement
+     */
+    private volatile long version;
+
+    /**
+     * Indique si les sommets des graphes lus sont renumérotés le long d'une courbe de Hilbert
+     */
+    private volatile boolean ordreSpatial;
+
+    /**
+     * Bilan de la vérification du graphe courant (composantes connexes, pondérations invalides), établi à chaque
+     * lecture de carte
+     */
+    private volatile ValidationReseau validation = ValidationReseau.valider(graphe);
+
+    /**
+     * Structures à prévenir des modifications de pondérations
+     */
+    private final List<EcouteurPoids> ecouteurs = new CopyOnWriteArrayList<>();
+
+    /**
+     * Espace de recherche de plus courts chemins propre à chaque thread, réutilisé d'une requête à l'autre.
+     */
+    private final ThreadLocal<RechercheChemin> recherches = new ThreadLocal<>();
+
+    /**
+     * Index spatial des points, construit à la première recherche de proximité
+     */
+    private volatile IndexSpatial indexSpatial;
+
+    /**
+     * Hiérarchie de contraction du réseau, {@code null} tant qu'elle n'a pas été préparée ou relue
+     */
+    private volatile HierarchieContractee hierarchie;
+
+    /**
+     * Espace de requête dans la hiérarchie propre à chaque thread
+     */
+    private final ThreadLocal<HierarchieContractee.Requete> requetesHierarchie = new ThreadLocal<>();
+
+    /**
+     * Repères de l'algorithme ALT, {@code null} tant qu'ils n'ont pas été préparés ou relus
+     */
+    private volatile Reperes reperes;
 
     /**
      * Lecture d'un fichier texte {@code filename} qui permet de récupérer les points et les arêtes du réseau.
@@ -42,59 +95,841 @@ public class ReseauRoutier {
      *
      * </ul>
      *
+     * Le fichier est analysé en parallèle par morceaux ({@link LecteurCarte}). Si deux points ont le même identifiant,
+     * seul le dernier du fichier est conservé ; une arête qui fait référence à un identifiant absent du fichier
+     * provoque une {@code IllegalArgumentException}.
+     * <p></p>
+     * Pour relire une carte modifiée sans interrompre les requêtes en cours, voir {@link RechargementCarte}.
+     *
      * @param filename
      */
-    public void lireCarte(String filename) {
-        Scanner sc = null;
+    public synchronized void lireCarte(String filename) {
+        GrapheCSR.Constructeur constructeur = new GrapheCSR.Constructeur(graphe);
+        try {
+            constructeur.ajouter(LecteurCarte.lire(Paths.get(filename)));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        remplacerGraphe(constructeur.construire());
+    }
+
+    /**
+     * Enregistre le réseau dans un fichier binaire, qui pourra être relu par {@link #lireInstantane(String)}
+     * bien plus rapidement que le fichier texte par {@link #lireCarte(String)}.
+     *
+     * @param filename chemin du fichier binaire
+     */
+    public void ecrireInstantane(String filename) {
+        try {
+            InstantaneReseau.ecrire(graphe, Paths.get(filename));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Remplace le réseau par celui enregistré dans un fichier binaire par {@link #ecrireInstantane(String)}.
+     *
+     * @param filename chemin du fichier binaire
+     */
+    public synchronized void lireInstantane(String filename) {
         try {
-            sc = new Scanner(new File(filename));
-        } catch (FileNotFoundException e) {
+            remplacerGraphe(InstantaneReseau.lire(Paths.get(filename)));
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        while(sc.hasNext()) {
-            String type = sc.next();
-            if ("v".equals(type)) {
-                int id = Integer.parseInt(sc.next());
-                int x = Integer.parseInt(sc.next());
-                int y = Integer.parseInt(sc.next());
-                // Si on a 2 identifiants identiques, on ne garde que le dernier.
-                mapPoints.put(id, new Point(id,x,y));
-            } else if ("e".equals(type)) {
-                int id1 = Integer.parseInt(sc.next());
-                int id2 = Integer.parseInt(sc.next());
-                double poids = Double.parseDouble(sc.next());
-                if(mapPoints.get(id1) == null || mapPoints.get(id2) == null) {
-                    throw new IllegalArgumentException("Identifiant d'un point inconnu");
+    }
+
+    /**
+     * Remplace le réseau par celui enregistré dans un fichier binaire par {@link #ecrireInstantane(String)}, compressé
+     * au fil de la lecture ({@link GrapheCompresse}) : il occupe plusieurs fois moins de mémoire, au prix de
+     * parcours un peu plus lents.
+     * <p></p>
+     * Les recherches depuis un point (algorithme de Dijkstra, A*, isochrones, matrices de distances, affectation
+     * des entrepôts) fonctionnent comme sur un réseau non compressé ; celles qui remontent les routes depuis le
+     * point d'arrivée ({@link #cheminsAlternatifs(int, int, int, double)}), les modifications de pondérations, la
+     * hiérarchie de contraction et les repères demandent de relire le réseau sans compression. Les sommets gardent
+     * l'ordre de l'instantané, qui peut avoir été enregistré après une renumérotation spatiale.
+     *
+     * @param filename chemin du fichier binaire
+     * @param erreurMax écart maximal entre une pondération compressée et la pondération enregistrée, {@code 0} pour
+     *                  conserver les pondérations exactes
+     */
+    public synchronized void lireInstantaneCompresse(String filename, double erreurMax) {
+        try {
+            remplacerGraphe(GrapheCompresse.lire(Paths.get(filename), erreurMax));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Remplace le graphe du réseau ; la hiérarchie de contraction et les repères, qui ne lui correspondent plus,
+     * sont abandonnés, et le nouveau graphe est vérifié ({@link #getValidation()}).
+     */
+    private void remplacerGraphe(Graphe nouveau) {
+        if (ordreSpatial && nouveau instanceof GrapheCSR)
+            nouveau = ((GrapheCSR) nouveau).renumeroterHilbert();
+        hierarchie = null;
+        reperes = null;
+        validation = ValidationReseau.valider(nouveau);
+        graphe = nouveau;
+        version++;
+    }
+
+    /**
+     * Remplace le graphe du réseau par celui de {@code source}, construit et préparé à part, en reprenant sa
+     * hiérarchie de contraction et ses repères. Les écouteurs et les caches inscrits sur ce réseau restent en place ;
+     * une requête en cours se termine sur l'ancien graphe.
+     * <p></p>
+     * Utilisé par {@link RechargementCarte}, pour que les requêtes n'attendent ni la lecture ni la préparation du
+     * nouveau graphe.
+     *
+     * @param source réseau qui n'est plus utilisé ensuite
+     */
+    synchronized void reprendre(ReseauRoutier source) {
+        synchronized (source) {
+            hierarchie = source.hierarchie;
+            reperes = source.reperes;
+            validation = source.validation;
+            graphe = source.graphe;
+            version++;
+        }
+    }
+
+    /**
+     * Active ou désactive la renumérotation spatiale des points lors des prochaines lectures de carte
+     * ({@link #lireCarte(String)}, {@link #lireInstantane(String)}).
+     * <p></p>
+     * Les sommets du graphe sont alors rangés le long d'une courbe de Hilbert
+     * ({@link GrapheCSR#renumeroterHilbert()}) : des points proches sur la carte sont proches en mémoire, ce qui
+     * accélère les parcours d'un grand réseau. Les identifiants des points ne changent pas. Une hiérarchie de
+     * contraction ou des repères enregistrés dépendent de la numérotation : ils doivent être relus avec le même
+     * réglage qu'au moment de leur enregistrement.
+     *
+     * @param ordreSpatial {@code true} pour renuméroter les sommets
+     */
+    public void setOrdreSpatial(boolean ordreSpatial) {
+        this.ordreSpatial = ordreSpatial;
+    }
+
+    /**
+     * Indique si les sommets des graphes lus sont renumérotés le long d'une courbe de Hilbert.
+     *
+     * @return {@code true} si la renumérotation spatiale est active
+     */
+    public boolean isOrdreSpatial() {
+        return ordreSpatial;
+    }
+
+    /**
+     * Renvoie le numéro de version du réseau, augmenté à chaque lecture de carte et à chaque lot de modifications
+     * de pondérations.
+     *
+     * @return numéro de version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Renvoie le bilan de la vérification du réseau courant : composantes fortement et faiblement connexes, arcs de
+     * pondération négative ou {@code NaN}. Il est établi à chaque lecture de carte, en temps linéaire, et tenu à jour
+     * lors des modifications de pondérations.
+     *
+     * @return le bilan de la vérification
+     */
+    public ValidationReseau getValidation() {
+        return validation;
+    }
+
+    /**
+     * Applique un lot de modifications de pondérations de routes, de façon atomique.
+     * <p></p>
+     * Les pondérations sont copiées une seule fois par lot, et les requêtes déjà en cours se terminent sur le
+     * réseau tel qu'il était à leur début : aucune ne voit un lot à moitié appliqué. Le lot est entièrement
+     * vérifié avant d'être appliqué ; en cas d'erreur le réseau n'est pas modifié.
+     * <p></p>
+     * Seules les structures touchées sont invalidées :
+     * <ul>
+     *     <li>la hiérarchie de contraction, dont les raccourcis dépendent de toutes les pondérations, est abandonnée
+     *     et doit être préparée à nouveau ;</li>
+     *     <li>les repères sont conservés si aucune pondération n'a diminué (leurs minorants restent valables),
+     *     abandonnés sinon ;</li>
+     *     <li>l'index spatial, les composantes connexes et les espaces de recherche de chaque thread sont
+     *     conservés, seules les pondérations modifiées sont vérifiées à nouveau ;</li>
+     *     <li>les écouteurs ({@link #ajouterEcouteur(EcouteurPoids)}) reçoivent les arcs modifiés.</li>
+     * </ul>
+     *
+     * @param lot modifications à appliquer
+     * @throws IllegalArgumentException si un identifiant est inconnu ou si deux points ne sont reliés par aucune
+     * route
+     * @throws UnsupportedOperationException si le réseau a été relu compressé
+     */
+    public synchronized void modifierPoids(MiseAJourPoids lot) {
+        GrapheCSR ancien = grapheCSR();
+        int[] arcs = new int[lot.getNbModifications()];
+        double[] poids = new double[arcs.length];
+        int nb = 0;
+        for (int i = 0; i < lot.getNbModifications(); i++) {
+            int u = indexPoint(ancien, lot.getIdDepart(i));
+            int v = indexPoint(ancien, lot.getIdArrivee(i));
+            int avant = nb;
+            for (int k = ancien.getDebut(u); k < ancien.getFin(u); k++) {
+                if (ancien.getCible(k) == v) {
+                    if (nb == arcs.length) {
+                        arcs = Arrays.copyOf(arcs, nb * 2 + 1);
+                        poids = Arrays.copyOf(poids, arcs.length);
+                    }
+                    arcs[nb] = k;
+                    poids[nb++] = lot.getPoids(i);
                 }
-                routes.add(new Arete(id1, id2, poids));
-            } else
-                continue;
+            }
+            if (nb == avant)
+                throw new IllegalArgumentException("Aucune route de " + lot.getIdDepart(i) + " à "
+                        + lot.getIdArrivee(i));
         }
-        sc.close();
+        arcs = Arrays.copyOf(arcs, nb);
+        GrapheCSR nouveau = ancien.avecPoids(arcs, Arrays.copyOf(poids, nb));
+
+        int[] modifies = Arrays.stream(arcs).sorted().distinct().toArray();
+        boolean diminution = false;
+        for (int k : modifies)
+            diminution |= !(nouveau.getPoids(k) >= ancien.getPoids(k));
+        Reperes r = reperes;
+        reperes = r == null || diminution ? null : r.pour(nouveau);
+        hierarchie = null;
+        IndexSpatial index = indexSpatial;
+        if (index != null && index.getGraphe() == ancien)
+            indexSpatial = index.pour(nouveau);
+        validation = validation.pour(nouveau, modifies);
+        graphe = nouveau;
+        version++;
+        for (EcouteurPoids ecouteur : ecouteurs)
+            ecouteur.poidsModifies(ancien, nouveau, modifies);
     }
 
+    /**
+     * Ajoute une structure à prévenir après chaque lot de modifications de pondérations.
+     *
+     * @param ecouteur écouteur à ajouter
+     */
+    public void ajouterEcouteur(EcouteurPoids ecouteur) {
+        ecouteurs.add(ecouteur);
+    }
+
+    /**
+     * Retire un écouteur ajouté par {@link #ajouterEcouteur(EcouteurPoids)}.
+     *
+     * @param ecouteur écouteur à retirer
+     */
+    public void retirerEcouteur(EcouteurPoids ecouteur) {
+        ecouteurs.remove(ecouteur);
+    }
+
+    /**
+     * Crée le point du sommet d'indice {@code i} de {@code g}. Les points ne sont pas conservés : identifiants et
+     * coordonnées sont lus dans les tableaux du graphe, sans objet par sommet.
+     */
+    private static Point point(Graphe g, int i) {
+        return new Point(g.getId(i), g.getX(i), g.getY(i));
+    }
+
+    /**
+     * Renvoie la représentation compacte du réseau routier.
+     *
+     * @return le graphe du réseau
+     */
+    public Graphe getGraphe() {
+        return graphe;
+    }
+
+    /**
+     * Renvoie le graphe du réseau pour une opération qui demande les arcs entrants ou de nouvelles pondérations.
+     */
+    private GrapheCSR grapheCSR() {
+        Graphe g = graphe;
+        if (!(g instanceof GrapheCSR))
+            throw new UnsupportedOperationException("Opération impossible sur un réseau compressé");
+        return (GrapheCSR) g;
+    }
+
+    /**
+     * Renvoie une liste des arêtes du réseau, créée à partir du graphe à chaque appel.
+     *
+     * @return la liste des arêtes.
+     */
     public List<Arete> getRoutes() {
+        List<Arete> routes = new ArrayList<>(graphe.getNbArcs());
+        for (int u = 0; u < graphe.getNbSommets(); u++)
+            for (int k = graphe.getDebut(u); k < graphe.getFin(u); k++)
+                routes.add(new Arete(graphe.getId(u), graphe.getId(graphe.getCible(k)), graphe.getPoids(k)));
         return routes;
     }
 
     /**
-     * Renvoie une liste des points connus dans le réseau.
+     * Renvoie une liste des points connus dans le réseau, créée à partir du graphe à chaque appel.
      *
      * @return la liste des points.
      */
     public List<Point> getPoints() {
-        return new ArrayList<>(mapPoints.values());
+        Graphe g = graphe;
+        List<Point> points = new ArrayList<>(g.getNbSommets());
+        for (int i = 0; i < g.getNbSommets(); i++)
+            points.add(point(g, i));
+        return points;
     }
 
 
     /**
      * Renvoie le point du réseau à partir de son identifiant
+     * <p></p>
+     * Le point est créé à chaque appel à partir du graphe : deux appels renvoient des points égaux
+     * ({@link Point#equals(Object)}) mais distincts, et modifier le point renvoyé ne modifie pas le réseau.
      *
      * @param id identifiant du point recherché
      * @return un point {@code Point} du réseau ou {@code null}  si l'identifiant n'est pas trouvé.
      */
     public Point getPointById(int id) {
-        return mapPoints.get(id);
+        Graphe g = graphe;
+        int i = g.indexDe(id);
+        return i < 0 ? null : point(g, i);
+    }
+
+    /**
+     * Renvoie le point du réseau le plus proche de la position {@code (x,y)}.
+     *
+     * @param x abscisse de la position
+     * @param y ordonnée de la position
+     * @return le point le plus proche ou {@code null} si le réseau n'a aucun point
+     */
+    public Point getPointLePlusProche(int x, int y) {
+        IndexSpatial index = getIndexSpatial();
+        int i = index.plusProche(x, y);
+        return i < 0 ? null : point(index.getGraphe(), i);
+    }
+
+    /**
+     * Renvoie les {@code k} points du réseau les plus proches de la position {@code (x,y)}, du plus proche au plus
+     * éloigné.
+     *
+     * @param x abscisse de la position
+     * @param y ordonnée de la position
+     * @param k nombre de points recherchés
+     * @return la liste des points, de taille {@code k} au plus
+     */
+    public List<Point> getKPointsLesPlusProches(int x, int y, int k) {
+        IndexSpatial index = getIndexSpatial();
+        return points(index.getGraphe(), index.kPlusProches(x, y, k));
+    }
+
+    /**
+     * Calcule en parallèle les identifiants des {@code k} points les plus proches de chacune des positions
+     * {@code (xs[i], ys[i])}, par exemple pour rattacher un lot d'adresses au réseau.
+     *
+     * @param xs abscisses des positions
+     * @param ys ordonnées des positions
+     * @param k nombre de points recherchés par position
+     * @return un tableau de taille {@code xs.length * k} : les identifiants pour la i-ème position sont aux positions
+     * {@code i * k} à {@code i * k + k - 1}, du plus proche au plus éloigné
+     * @throws IllegalArgumentException si le réseau a moins de {@code k} points
+     */
+    public int[] kPointsLesPlusProches(int[] xs, int[] ys, int k) {
+        IndexSpatial index = getIndexSpatial();
+        Graphe g = index.getGraphe();
+        if (k > g.getNbSommets())
+            throw new IllegalArgumentException("Le réseau a moins de " + k + " points");
+        int[] resultat = index.kPlusProches(xs, ys, k);
+        for (int i = 0; i < resultat.length; i++)
+            resultat[i] = g.getId(resultat[i]);
+        return resultat;
     }
 
+    /**
+     * Renvoie les points du réseau situés à une distance inférieure ou égale à {@code rayon} de la position
+     * {@code (x,y)}.
+     *
+     * @param x abscisse de la position
+     * @param y ordonnée de la position
+     * @param rayon rayon de recherche
+     * @return la liste des points, sans ordre particulier
+     */
+    public List<Point> getPointsDansRayon(int x, int y, double rayon) {
+        IndexSpatial index = getIndexSpatial();
+        return points(index.getGraphe(), index.dansRayon(x, y, rayon));
+    }
+
+    /**
+     * Renvoie l'index spatial du graphe courant, construit au besoin.
+     */
+    private IndexSpatial getIndexSpatial() {
+        IndexSpatial index = indexSpatial;
+        Graphe g = graphe;
+        if (index == null || !GrapheCSR.memeTopologie(index.getGraphe(), g)) {
+            index = new IndexSpatial(g);
+            indexSpatial = index;
+        } else if (index.getGraphe() != g) {
+            index = index.pour(g);
+            indexSpatial = index;
+        }
+        return index;
+    }
+
+    private List<Point> points(Graphe g, int[] indices) {
+        List<Point> points = new ArrayList<>(indices.length);
+        for (int i : indices)
+            points.add(point(g, i));
+        return points;
+    }
+
+    /**
+     * Calcule un plus court chemin entre deux points du réseau par l'algorithme de Dijkstra.
+     *
+     * @param idSource identifiant du point de départ
+     * @param idCible identifiant du point d'arrivée
+     * @return le chemin {@code Chemin} ou {@code null} si le point d'arrivée n'est pas atteignable
+     * @throws IllegalArgumentException si l'un des identifiants est inconnu
+     * @throws IllegalStateException si le réseau a des routes de pondération négative ou invalide
+     */
+    public Chemin plusCourtChemin(int idSource, int idCible) {
+        verifierPoids();
+        RechercheChemin recherche = getRecherche();
+        int source = indexPoint(recherche.getGraphe(), idSource);
+        int cible = indexPoint(recherche.getGraphe(), idCible);
+        if (estInatteignable(recherche.getGraphe(), source, cible))
+            return null;
+        recherche.dijkstra(source, cible);
+        return recherche.chemin(cible);
+    }
+
+    /**
+     * Calcule un plus court chemin entre deux points du réseau par l'algorithme A*.
+     * <p></p>
+     * La recherche est guidée par la distance euclidienne entre les coordonnées des points : elle donne le même
+     * résultat que {@link #plusCourtChemin(int, int)} en explorant en général beaucoup moins de points.
+     *
+     * @param idSource identifiant du point de départ
+     * @param idCible identifiant du point d'arrivée
+     * @return le chemin {@code Chemin} ou {@code null} si le point d'arrivée n'est pas atteignable
+     * @throws IllegalArgumentException si l'un des identifiants est inconnu
+     * @throws IllegalStateException si le réseau a des routes de pondération négative ou invalide
+     */
+    public Chemin plusCourtCheminAEtoile(int idSource, int idCible) {
+        verifierPoids();
+        RechercheChemin recherche = getRecherche();
+        int source = indexPoint(recherche.getGraphe(), idSource);
+        int cible = indexPoint(recherche.getGraphe(), idCible);
+        if (estInatteignable(recherche.getGraphe(), source, cible))
+            return null;
+        recherche.aEtoile(source, cible);
+        return recherche.chemin(cible);
+    }
+
+    /**
+     * Calcule un plus court chemin entre deux points du réseau par l'algorithme de Dijkstra bidirectionnel.
+     * <p></p>
+     * Deux recherches partent l'une du point de départ, l'autre du point d'arrivée en remontant les routes, et
+     * s'arrêtent lorsqu'elles se rejoignent : le résultat est le même qu'avec {@link #plusCourtChemin(int, int)},
+     * sans aucun prétraitement, en explorant environ deux fois moins de points.
+     * <p></p>
+     * Un réseau compressé ne range pas les routes par point d'arrivée : la recherche se fait alors depuis le point
+     * de départ seulement, par l'algorithme de Dijkstra.
+     *
+     * @param idSource identifiant du point de départ
+     * @param idCible identifiant du point d'arrivée
+     * @return le chemin {@code Chemin} ou {@code null} si le point d'arrivée n'est pas atteignable
+     * @throws IllegalArgumentException si l'un des identifiants est inconnu
+     * @throws IllegalStateException si le réseau a des routes de pondération négative ou invalide
+     */
+    public Chemin plusCourtCheminBidirectionnel(int idSource, int idCible) {
+        verifierPoids();
+        RechercheChemin recherche = getRecherche();
+        int source = indexPoint(recherche.getGraphe(), idSource);
+        int cible = indexPoint(recherche.getGraphe(), idCible);
+        if (estInatteignable(recherche.getGraphe(), source, cible))
+            return null;
+        if (recherche.getGraphe() instanceof GrapheCSR)
+            recherche.bidirectionnelle(source, cible);
+        else
+            recherche.dijkstra(source, cible);
+        return recherche.chemin(cible);
+    }
+
+    /**
+     * Calcule jusqu'à {@code k} itinéraires entre deux points du réseau : le plus court chemin puis les meilleurs
+     * chemins alternatifs sans boucle, par longueur croissante (algorithme de Yen).
+     * <p></p>
+     * Une seule recherche arrière depuis le point d'arrivée est partagée par toutes les déviations, qui sont ensuite
+     * guidées par les distances exactes au point d'arrivée : trois itinéraires coûtent à peine plus qu'un seul.
+     * Les chemins plus longs que {@code allongementMax} fois le plus court chemin ne sont pas recherchés, ce qui
+     * limite la recherche arrière et écarte les détours peu utiles.
+     *
+     * @param idSource identifiant du point de départ
+     * @param idCible identifiant du point d'arrivée
+     * @param k nombre maximal d'itinéraires
+     * @param allongementMax rapport maximal entre la longueur d'un itinéraire et celle du plus court chemin, au moins
+     *                       {@code 1}, {@link Double#POSITIVE_INFINITY} pour ne pas limiter la longueur
+     * @return au plus {@code k} chemins par longueur croissante, aucun si le point d'arrivée n'est pas atteignable
+     * @throws IllegalArgumentException si l'un des identifiants est inconnu, si {@code k < 1} ou si
+     * {@code allongementMax < 1}
+     * @throws IllegalStateException si le réseau a des routes de pondération négative ou invalide
+     * @throws UnsupportedOperationException si le réseau a été relu compressé
+     */
+    public List<Chemin> cheminsAlternatifs(int idSource, int idCible, int k, double allongementMax) {
+        if (k < 1)
+            throw new IllegalArgumentException("Nombre d'itinéraires invalide : " + k);
+        if (!(allongementMax >= 1.0))
+            throw new IllegalArgumentException("Allongement maximal invalide : " + allongementMax);
+        verifierPoids();
+        RechercheChemin recherche = getRecherche();
+        int source = indexPoint(recherche.getGraphe(), idSource);
+        int cible = indexPoint(recherche.getGraphe(), idCible);
+        if (estInatteignable(recherche.getGraphe(), source, cible))
+            return new ArrayList<>();
+        return recherche.kPlusCourtsChemins(source, cible, k, allongementMax);
+    }
+
+    /**
+     * Calcule la matrice des distances de chaque point de départ à chaque point d'arrivée.
+     * <p></p>
+     * Une recherche de Dijkstra vers toutes les arrivées est lancée par point de départ ; les recherches sont réparties
+     * sur le {@link ForkJoinPool} commun et chaque thread réutilise son propre espace de recherche.
+     *
+     * @param idsDepart identifiants des points de départ
+     * @param idsArrivee identifiants des points d'arrivée
+     * @return un tableau de taille {@code idsDepart.length * idsArrivee.length} : la distance du i-ème départ à la
+     * j-ème arrivée est à la position {@code i * idsArrivee.length + j}, {@link Double#POSITIVE_INFINITY} si
+     * l'arrivée n'est pas atteignable
+     * @throws IllegalArgumentException si l'un des identifiants est inconnu, ou si la matrice a plus de
+     * {@code Integer.MAX_VALUE - 8} cases
+     * @throws IllegalStateException si le réseau a des routes de pondération négative ou invalide
+     */
+    public double[] matriceDistances(int[] idsDepart, int[] idsArrivee) {
+        long taille = (long) idsDepart.length * idsArrivee.length;
+        if (taille > TAILLE_MAX_TABLEAU)
+            throw new IllegalArgumentException("Matrice de distances trop grande : " + idsDepart.length + " x "
+                    + idsArrivee.length);
+        verifierPoids();
+        Graphe g = graphe;
+        int[] departs = new int[idsDepart.length];
+        for (int i = 0; i < departs.length; i++)
+            departs[i] = indexPoint(g, idsDepart[i]);
+        int[] arrivees = new int[idsArrivee.length];
+        for (int j = 0; j < arrivees.length; j++)
+            arrivees[j] = indexPoint(g, idsArrivee[j]);
+        // La taille a été vérifiée : ni elle ni les décalages i * arrivees.length ne dépassent la capacité d'un int.
+        double[] distances = new double[(int) taille];
+        Composantes composantes = getComposantes(g);
+        IntStream.range(0, departs.length).parallel().forEach(i -> getRecherche(g).versPlusieurs(departs[i],
+                arrivees, distances, i * arrivees.length, composantes));
+        return distances;
+    }
+
+    /**
+     * Calcule l'ensemble des points atteignables depuis un dépôt pour un budget donné (zone de livraison).
+     * <p></p>
+     * La recherche de Dijkstra s'arrête dès que le budget est dépassé : seuls les points de la zone et leurs
+     * voisins immédiats sont visités.
+     *
+     * @param idDepot identifiant du point de départ
+     * @param budget distance maximale des points recherchés
+     * @return les identifiants des points atteints et leurs distances, par distance croissante
+     * @throws IllegalArgumentException si l'identifiant est inconnu
+     * @throws IllegalStateException si le réseau a des routes de pondération négative ou invalide
+     */
+    public Isochrone isochrone(int idDepot, double budget) {
+        verifierPoids();
+        RechercheChemin recherche = getRecherche();
+        return recherche.isochrone(indexPoint(recherche.getGraphe(), idDepot), budget);
+    }
+
+    /**
+     * Calcule l'isochrone de chacun des dépôts pour un même budget.
+     * <p></p>
+     * Les recherches sont réparties sur le {@link ForkJoinPool} commun et chaque thread réutilise son propre espace
+     * de recherche.
+     *
+     * @param idsDepots identifiants des points de départ
+     * @param budget distance maximale des points recherchés
+     * @return l'isochrone de chaque dépôt, dans l'ordre de {@code idsDepots}
+     * @throws IllegalArgumentException si l'un des identifiants est inconnu
+     * @throws IllegalStateException si le réseau a des routes de pondération négative ou invalide
+     */
+    public Isochrone[] isochrones(int[] idsDepots, double budget) {
+        verifierPoids();
+        Graphe g = graphe;
+        int[] depots = new int[idsDepots.length];
+        for (int i = 0; i < depots.length; i++)
+            depots[i] = indexPoint(g, idsDepots[i]);
+        Isochrone[] resultat = new Isochrone[depots.length];
+        IntStream.range(0, depots.length).parallel().forEach(i ->
+                resultat[i] = getRecherche(g).isochrone(depots[i], budget));
+        return resultat;
+    }
+
+    /**
+     * Associe à chaque point du réseau l'entrepôt le plus proche par la route, et sa distance.
+     * <p></p>
+     * Une seule recherche de Dijkstra part de tous les entrepôts à la fois : le coût est celui d'un parcours complet
+     * du réseau, quel que soit le nombre d'entrepôts.
+     *
+     * @param idsEntrepots identifiants des points entrepôts
+     * @return l'affectation, indexée par les indices des sommets du graphe ({@link Graphe#indexDe(int)})
+     * @throws IllegalArgumentException si l'un des identifiants est inconnu
+     * @throws IllegalStateException si le réseau a des routes de pondération négative ou invalide
+     */
+    public AffectationDepots affecterEntrepots(int[] idsEntrepots) {
+        verifierPoids();
+        Graphe g = graphe;
+        int[] depots = new int[idsEntrepots.length];
+        for (int i = 0; i < depots.length; i++)
+            depots[i] = indexPoint(g, idsEntrepots[i]);
+        return AffectationDepots.calculer(g, depots);
+    }
+
+    /**
+     * Associe à chaque point du réseau l'entrepôt le plus proche, comme {@link #affecterEntrepots(int[])}, en
+     * répartissant le parcours sur tous les cœurs par l'algorithme {@link DeltaStepping}.
+     *
+     * @param idsEntrepots identifiants des points entrepôts
+     * @return l'affectation, indexée par les indices des sommets du graphe ({@link Graphe#indexDe(int)})
+     * @throws IllegalArgumentException si l'un des identifiants est inconnu
+     * @throws IllegalStateException si le réseau a des routes de pondération négative ou invalide
+     */
+    public AffectationDepots affecterEntrepotsEnParallele(int[] idsEntrepots) {
+        verifierPoids();
+        Graphe g = graphe;
+        int[] depots = new int[idsEntrepots.length];
+        for (int i = 0; i < depots.length; i++)
+            depots[i] = indexPoint(g, idsEntrepots[i]);
+        return new DeltaStepping(g).affecter(depots);
+    }
+
+    /**
+     * Calcule la distance d'un point à tous les points du réseau, en répartissant le parcours sur tous les cœurs par
+     * l'algorithme {@link DeltaStepping}. Les distances sont les mêmes qu'avec l'algorithme de Dijkstra.
+     *
+     * @param idSource identifiant du point de départ
+     * @return la distance de chaque point, indexée par les indices des sommets du graphe
+     * ({@link Graphe#indexDe(int)}), {@link Double#POSITIVE_INFINITY} si le point n'est pas atteignable
+     * @throws IllegalArgumentException si l'identifiant est inconnu
+     * @throws IllegalStateException si le réseau a des routes de pondération négative ou invalide
+     */
+    public double[] distancesDepuis(int idSource) {
+        verifierPoids();
+        Graphe g = graphe;
+        return new DeltaStepping(g).distances(indexPoint(g, idSource));
+    }
+
+    /**
+     * Construit la hiérarchie de contraction du réseau, utilisée par {@link #plusCourtCheminHierarchique(int, int)}.
+     * <p></p>
+     * Ce prétraitement est long sur un grand réseau : la hiérarchie peut être enregistrée à côté de la carte par
+     * {@link #ecrireHierarchie(String)} puis relue par {@link #lireHierarchie(String)}.
+     */
+    public synchronized void preparerHierarchie() {
+        hierarchie = HierarchieContractee.construire(grapheCSR());
+    }
+
+    /**
+     * Enregistre la hiérarchie de contraction dans un fichier.
+     *
+     * @param filename chemin du fichier
+     * @throws IllegalStateException si la hiérarchie n'a pas été préparée
+     */
+    public void ecrireHierarchie(String filename) {
+        try {
+            getHierarchie().ecrire(Paths.get(filename));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Relit la hiérarchie de contraction du réseau enregistrée par {@link #ecrireHierarchie(String)}.
+     *
+     * @param filename chemin du fichier
+     * @throws RuntimeException si le fichier ne peut être lu ou s'il a été enregistré pour un autre graphe que le
+     * graphe courant
+     */
+    public synchronized void lireHierarchie(String filename) {
+        try {
+            hierarchie = HierarchieContractee.lire(Paths.get(filename), grapheCSR());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Calcule un plus court chemin entre deux points du réseau à l'aide de la hiérarchie de contraction.
+     *
+     * @param idSource identifiant du point de départ
+     * @param idCible identifiant du point d'arrivée
+     * @return le chemin {@code Chemin} ou {@code null} si le point d'arrivée n'est pas atteignable
+     * @throws IllegalArgumentException si l'un des identifiants est inconnu
+     * @throws IllegalStateException si la hiérarchie n'a pas été préparée pour le réseau courant, ou si le réseau a
+     * des routes de pondération négative ou invalide
+     */
+    public Chemin plusCourtCheminHierarchique(int idSource, int idCible) {
+        verifierPoids();
+        HierarchieContractee h = getHierarchie();
+        HierarchieContractee.Requete requete = requetesHierarchie.get();
+        if (requete == null || requete.getHierarchie() != h) {
+            requete = h.nouvelleRequete();
+            requetesHierarchie.set(requete);
+        }
+        int source = indexPoint(h.getGraphe(), idSource);
+        int cible = indexPoint(h.getGraphe(), idCible);
+        if (estInatteignable(h.getGraphe(), source, cible))
+            return null;
+        requete.distance(source, cible);
+        return requete.chemin();
+    }
+
+    /**
+     * Choisit les repères utilisés par {@link #plusCourtCheminReperes(int, int)} et calcule leurs tables de
+     * distances (deux recherches complètes par repère).
+     * <p></p>
+     * Les tables occupent {@code 16 * nbReperes} octets par point ; elles peuvent être enregistrées à côté de la
+     * carte par {@link #ecrireReperes(String)} puis relues par {@link #lireReperes(String)}.
+     *
+     * @param nbReperes nombre de repères, typiquement de 8 à 16
+     * @param selection méthode de choix des repères
+     */
+    public synchronized void preparerReperes(int nbReperes, Reperes.Selection selection) {
+        reperes = Reperes.construire(grapheCSR(), nbReperes, selection);
+    }
+
+    /**
+     * Enregistre les repères du réseau dans le fichier {@code filename}.
+     *
+     * @param filename chemin du fichier
+     * @throws IllegalStateException si les repères n'ont pas été préparés pour le réseau courant
+     */
+    public void ecrireReperes(String filename) {
+        try {
+            getReperes().ecrire(Paths.get(filename));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Relit les repères du réseau enregistrés par {@link #ecrireReperes(String)}.
+     *
+     * @param filename chemin du fichier
+     * @throws RuntimeException si le fichier ne peut être lu ou s'il a été enregistré pour un autre graphe que le
+     * graphe courant
+     */
+    public synchronized void lireReperes(String filename) {
+        try {
+            reperes = Reperes.lire(Paths.get(filename), grapheCSR());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Calcule un plus court chemin entre deux points du réseau par l'algorithme ALT (A* guidé par les repères).
+     * <p></p>
+     * Le résultat est le même qu'avec {@link #plusCourtChemin(int, int)}. Contrairement à
+     * {@link #plusCourtCheminAEtoile(int, int)}, l'estimation reste bonne lorsque les pondérations des routes ne
+     * suivent pas les distances entre les points (temps de parcours, péages...).
+     *
+     * @param idSource identifiant du point de départ
+     * @param idCible identifiant du point d'arrivée
+     * @return le chemin {@code Chemin} ou {@code null} si le point d'arrivée n'est pas atteignable
+     * @throws IllegalArgumentException si l'un des identifiants est inconnu
+     * @throws IllegalStateException si les repères n'ont pas été préparés pour le réseau courant, ou si le réseau a
+     * des routes de pondération négative ou invalide
+     */
+    public Chemin plusCourtCheminReperes(int idSource, int idCible) {
+        verifierPoids();
+        Reperes r = getReperes();
+        RechercheChemin recherche = getRecherche(r.getGraphe());
+        int source = indexPoint(r.getGraphe(), idSource);
+        int cible = indexPoint(r.getGraphe(), idCible);
+        if (estInatteignable(r.getGraphe(), source, cible))
+            return null;
+        recherche.alt(source, cible, r);
+        return recherche.chemin(cible);
+    }
+
+    /**
+     * Vérifie que les recherches de plus courts chemins peuvent se terminer : aucune route n'a une pondération
+     * négative ou {@code NaN} ({@link #getValidation()}).
+     */
+    private void verifierPoids() {
+        if (validation.getNbArcsInvalides() > 0)
+            throw new IllegalStateException("Le réseau a des routes de pondération négative ou invalide");
+    }
+
+    /**
+     * Renvoie les repères, qui sont abandonnés dès qu'ils ne correspondent plus au graphe courant.
+     */
+    private Reperes getReperes() {
+        Reperes r = reperes;
+        if (r == null)
+            throw new IllegalStateException("Les repères n'ont pas été préparés pour ce réseau");
+        return r;
+    }
+
+    /**
+     * Renvoie la hiérarchie de contraction, qui est abandonnée dès qu'elle ne correspond plus au graphe courant.
+     */
+    private HierarchieContractee getHierarchie() {
+        HierarchieContractee h = hierarchie;
+        if (h == null)
+            throw new IllegalStateException("La hiérarchie de contraction n'a pas été préparée pour ce réseau");
+        return h;
+    }
+
+    /**
+     * Renvoie l'espace de recherche du thread courant, recréé si la topologie du graphe a changé depuis sa création.
+     */
+    private RechercheChemin getRecherche() {
+        return getRecherche(graphe);
+    }
+
+    /**
+     * Renvoie l'espace de recherche du thread courant pour le graphe {@code g}.
+     */
+    private RechercheChemin getRecherche(Graphe g) {
+        RechercheChemin recherche = recherches.get();
+        if (recherche == null || !GrapheCSR.memeTopologie(recherche.getGraphe(), g)) {
+            recherche = new RechercheChemin(g);
+            recherches.set(recherche);
+        } else if (recherche.getGraphe() != g) {
+            recherche.setGraphe(g);
+        }
+        return recherche;
+    }
+
+    /**
+     * Renvoie les composantes du graphe {@code g}, ou {@code null} si le réseau a été relu depuis que {@code g} a été
+     * obtenu.
+     */
+    private Composantes getComposantes(Graphe g) {
+        ValidationReseau v = validation;
+        return GrapheCSR.memeTopologie(v.getGraphe(), g) ? v.getComposantes() : null;
+    }
+
+    /**
+     * Indique, en temps constant, si aucun chemin ne mène de {@code source} à {@code cible} dans le graphe {@code g}.
+     * Une réponse {@code false} ne garantit pas l'existence d'un chemin.
+     */
+    private boolean estInatteignable(Graphe g, int source, int cible) {
+        Composantes composantes = getComposantes(g);
+        return composantes != null && composantes.estInatteignable(source, cible);
+    }
+
+    /**
+     * Renvoie l'indice dans {@code g} du point d'identifiant {@code id}.
+     */
+    private static int indexPoint(Graphe g, int id) {
+        int index = g.indexDe(id);
+        if (index < 0)
+            throw new IllegalArgumentException("Identifiant d'un point inconnu");
+        return index;
+    }
 }
@@ -0,0 +1,131 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+
+/**
+ * La classe {@code TableauCompact} est un tableau d'entiers immuable dont les valeurs sont stockées sur le plus petit
+ * nombre de bits possible.
+ * <p></p>
+ * Les valeurs sont découpées en blocs de 64 ; chaque bloc mémorise sa plus petite valeur et le nombre de bits
+ * nécessaire à l'écart de chacune à ce minimum, puis les écarts sont rangés côte à côte dans des mots de 64 bits.
+ * Un bloc dont les écarts tiennent sur {@code b} bits occupe donc exactement {@code b} mots. L'accès à une valeur se
+ * fait en temps constant, sans décoder les valeurs précédentes.
+ */
+final class TableauCompact {
+
+    /**
+     * Nombre de valeurs par bloc (puissance de 2)
+     */
+    private static final int TAILLE_BLOC = 64;
+
+    /**
+     * Nombre de valeurs
+     */
+    private final int taille;
+
+    /**
+     * Plus petite valeur de chaque bloc
+     */
+    private final long[] minimums;
+
+    /**
+     * Nombre de bits des écarts de chaque bloc
+     */
+    private final byte[] largeurs;
+
+    /**
+     * Position dans {@code mots} du premier mot de chaque bloc
+     */
+    private final int[] positions;
+
+    /**
+     * Écarts rangés bloc par bloc
+     */
+    private final long[] mots;
+
+    /**
+     * Construit le tableau des valeurs {@code valeurs.applyAsLong(i)} pour {@code i} de {@code 0} à
+     * {@code taille-1}. La fonction est appelée une seule fois par valeur, par indice croissant : elle peut lire
+     * les valeurs au fil d'un fichier.
+     *
+     * @param taille nombre de valeurs
+     * @param valeurs valeur de chaque indice
+     */
+    TableauCompact(int taille, IntToLongFunction valeurs) {
+        this.taille = taille;
+        int nbBlocs = (taille + TAILLE_BLOC - 1) / TAILLE_BLOC;
+        minimums = new long[nbBlocs];
+        largeurs = new byte[nbBlocs];
+        positions = new int[nbBlocs];
+        long[] resultat = new long[Math.max(1, nbBlocs)];
+        int nbMots = 0;
+        long[] bloc = new long[TAILLE_BLOC];
+        for (int b = 0; b < nbBlocs; b++) {
+            int nb = Math.min(TAILLE_BLOC, taille - b * TAILLE_BLOC);
+            long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+            for (int i = 0; i < nb; i++) {
+                bloc[i] = valeurs.applyAsLong(b * TAILLE_BLOC + i);
+                min = Math.min(min, bloc[i]);
+                max = Math.max(max, bloc[i]);
+            }
+            int largeur = 64 - Long.numberOfLeadingZeros(max - min);
+            minimums[b] = min;
+            largeurs[b] = (byte) largeur;
+            positions[b] = nbMots;
+            if (nbMots + largeur > resultat.length)
+                resultat = Arrays.copyOf(resultat, Math.max(nbMots + largeur, resultat.length * 3 / 2));
+            for (int i = 0; i < nb && largeur > 0; i++) {
+                long ecart = bloc[i] - min;
+                long bit = (long) i * largeur;
+                int mot = nbMots + (int) (bit >>> 6);
+                int decalage = (int) (bit & 63);
+                resultat[mot] |= ecart << decalage;
+                if (decalage + largeur > 64)
+                    resultat[mot + 1] |= ecart >>> (64 - decalage);
+            }
+            nbMots += largeur;
+        }
+        mots = Arrays.copyOf(resultat, nbMots);
+    }
+
+    /**
+     * Renvoie le nombre de valeurs.
+     *
+     * @return nombre de valeurs
+     */
+    int getTaille() {
+        return taille;
+    }
+
+    /**
+     * Renvoie la valeur d'indice {@code i}.
+     *
+     * @param i indice de la valeur
+     * @return la valeur
+     */
+    long get(int i) {
+        int b = i / TAILLE_BLOC;
+        int largeur = largeurs[b];
+        if (largeur == 0)
+            return minimums[b];
+        long bit = (long) (i % TAILLE_BLOC) * largeur;
+        int mot = positions[b] + (int) (bit >>> 6);
+        int decalage = (int) (bit & 63);
+        long ecart = mots[mot] >>> decalage;
+        if (decalage + largeur > 64)
+            ecart |= mots[mot + 1] << (64 - decalage);
+        if (largeur < 64)
+            ecart &= (1L << largeur) - 1;
+        return minimums[b] + ecart;
+    }
+
+    /**
+     * Renvoie la place occupée par les tableaux, en octets.
+     *
+     * @return taille en mémoire
+     */
+    long getTailleOctets() {
+        return 8L * mots.length + 13L * minimums.length;
+    }
+}
@@ -0,0 +1,159 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code TasIndexe} est une file de priorité de sommets (indices {@code 0..n-1}) ordonnée par une clé réelle.
+ * <p></p>
+ * Il s'agit d'un tas 4-aire stocké dans des tableaux de types primitifs : la position de chaque sommet dans le tas
+ * est mémorisée, ce qui permet de diminuer sa clé sans créer d'objet.
+ */
+final class TasIndexe {
+
+    /**
+     * Nombre de fils de chaque nœud du tas
+     */
+    private static final int ARITE = 4;
+
+    /**
+     * Sommets rangés dans l'ordre du tas
+     */
+    private final int[] tas;
+
+    /**
+     * Position de chaque sommet dans {@code tas}, ou {@code -1} s'il n'est pas dans le tas
+     */
+    private final int[] position;
+
+    /**
+     * Clé de chaque sommet présent dans le tas
+     */
+    private final double[] cles;
+
+    /**
+     * Nombre de sommets dans le tas
+     */
+    private int taille;
+
+    /**
+     * Constructeur d'un tas vide pouvant contenir les sommets {@code 0..n-1}.
+     *
+     * @param n nombre de sommets
+     */
+    TasIndexe(int n) {
+        tas = new int[n];
+        position = new int[n];
+        cles = new double[n];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Indique si le tas est vide.
+     *
+     * @return {@code true} si le tas ne contient aucun sommet
+     */
+    boolean estVide() {
+        return taille == 0;
+    }
+
+    /**
+     * Indique si le sommet est dans le tas.
+     *
+     * @param sommet indice du sommet
+     * @return {@code true} si le sommet est dans le tas
+     */
+    boolean contient(int sommet) {
+        return position[sommet] >= 0;
+    }
+
+    /**
+     * Renvoie la plus petite clé du tas, qui ne doit pas être vide.
+     *
+     * @return la clé minimale
+     */
+    double cleMinimale() {
+        return cles[tas[0]];
+    }
+
+    /**
+     * Insère un sommet ou diminue sa clé s'il est déjà présent avec une clé plus grande.
+     *
+     * @param sommet indice du sommet
+     * @param cle nouvelle clé
+     */
+    void insererOuDiminuer(int sommet, double cle) {
+        int p = position[sommet];
+        if (p < 0) {
+            p = taille++;
+        } else if (cle >= cles[sommet]) {
+            return;
+        }
+        cles[sommet] = cle;
+        remonter(sommet, p);
+    }
+
+    /**
+     * Retire et renvoie le sommet de plus petite clé, le tas ne doit pas être vide.
+     *
+     * @return indice du sommet retiré
+     */
+    int extraireMinimum() {
+        int min = tas[0];
+        position[min] = -1;
+        int dernier = tas[--taille];
+        if (taille > 0)
+            descendre(dernier, 0);
+        return min;
+    }
+
+    /**
+     * Vide le tas en un temps proportionnel au nombre de sommets qu'il contient.
+     */
+    void vider() {
+        for (int i = 0; i < taille; i++)
+            position[tas[i]] = -1;
+        taille = 0;
+    }
+
+    private void remonter(int sommet, int p) {
+        double cle = cles[sommet];
+        while (p > 0) {
+            int parent = (p - 1) / ARITE;
+            int s = tas[parent];
+            if (cles[s] <= cle)
+                break;
+            tas[p] = s;
+            position[s] = p;
+            p = parent;
+        }
+        tas[p] = sommet;
+        position[sommet] = p;
+    }
+
+    private void descendre(int sommet, int p) {
+        double cle = cles[sommet];
+        while (true) {
+            int premier = p * ARITE + 1;
+            if (premier >= taille)
+                break;
+            int fin = Math.min(premier + ARITE, taille);
+            int meilleur = premier;
+            double cleMeilleur = cles[tas[premier]];
+            for (int f = premier + 1; f < fin; f++) {
+                double c = cles[tas[f]];
+                if (c < cleMeilleur) {
+                    meilleur = f;
+                    cleMeilleur = c;
+                }
+            }
+            if (cleMeilleur >= cle)
+                break;
+            int s = tas[meilleur];
+            tas[p] = s;
+            position[s] = p;
+            p = meilleur;
+        }
+        tas[p] = sommet;
+        position[sommet] = p;
+    }
+}
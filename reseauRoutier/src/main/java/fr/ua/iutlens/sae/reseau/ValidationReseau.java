@@ -0,0 +1,138 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code ValidationReseau} est le bilan de la vérification d'un {@code Graphe} à son chargement :
+ * composantes connexes ({@link Composantes}) et arcs dont la pondération n'est pas utilisable par les recherches de
+ * plus courts chemins (négative ou {@code NaN}).
+ * <p></p>
+ * Un réseau exporté avec des îlots inatteignables ou des pondérations invalides ne provoque pas d'erreur au
+ * chargement, mais des recherches lentes ou fausses : ce bilan permet de le détecter tout de suite. Les composantes
+ * ne dépendent que de la topologie du graphe, elles sont conservées lorsque seules les pondérations changent
+ * ({@link #pour(Graphe, int[])}).
+ */
+public final class ValidationReseau {
+
+    /**
+     * Graphe vérifié
+     */
+    private final Graphe graphe;
+
+    /**
+     * Composantes du graphe
+     */
+    private final Composantes composantes;
+
+    /**
+     * Positions, par ordre croissant, des arcs de pondération négative ou {@code NaN}
+     */
+    private final int[] arcsInvalides;
+
+    private ValidationReseau(Graphe graphe, Composantes composantes, int[] arcsInvalides) {
+        this.graphe = graphe;
+        this.composantes = composantes;
+        this.arcsInvalides = arcsInvalides;
+    }
+
+    /**
+     * Vérifie le graphe, en temps linéaire.
+     *
+     * @param graphe graphe à vérifier
+     * @return le bilan de la vérification
+     */
+    public static ValidationReseau valider(Graphe graphe) {
+        int[] invalides = new int[0];
+        int nb = 0;
+        for (int k = 0; k < graphe.getNbArcs(); k++) {
+            if (estInvalide(graphe.getPoids(k))) {
+                if (nb == invalides.length)
+                    invalides = Arrays.copyOf(invalides, nb * 2 + 1);
+                invalides[nb++] = k;
+            }
+        }
+        return new ValidationReseau(graphe, Composantes.calculer(graphe), Arrays.copyOf(invalides, nb));
+    }
+
+    /**
+     * Renvoie le bilan du graphe {@code nouveau}, obtenu de ce graphe en modifiant les pondérations des arcs
+     * {@code arcs} : les composantes sont conservées et seuls ces arcs sont vérifiés à nouveau.
+     *
+     * @param nouveau graphe de même topologie
+     * @param arcs positions des arcs modifiés, par ordre croissant et sans doublon
+     * @return le bilan du nouveau graphe
+     */
+    ValidationReseau pour(Graphe nouveau, int[] arcs) {
+        int[] invalides = new int[arcsInvalides.length + arcs.length];
+        int nb = 0;
+        int i = 0, j = 0;
+        while (i < arcsInvalides.length || j < arcs.length) {
+            if (j == arcs.length || (i < arcsInvalides.length && arcsInvalides[i] < arcs[j])) {
+                invalides[nb++] = arcsInvalides[i++];
+            } else {
+                if (i < arcsInvalides.length && arcsInvalides[i] == arcs[j])
+                    i++;
+                if (estInvalide(nouveau.getPoids(arcs[j])))
+                    invalides[nb++] = arcs[j];
+                j++;
+            }
+        }
+        return new ValidationReseau(nouveau, composantes, Arrays.copyOf(invalides, nb));
+    }
+
+    private static boolean estInvalide(double poids) {
+        return !(poids >= 0.0);
+    }
+
+    /**
+     * Renvoie le graphe vérifié.
+     *
+     * @return le graphe
+     */
+    public Graphe getGraphe() {
+        return graphe;
+    }
+
+    /**
+     * Renvoie les composantes connexes du graphe.
+     *
+     * @return les composantes
+     */
+    public Composantes getComposantes() {
+        return composantes;
+    }
+
+    /**
+     * Renvoie le nombre d'arcs de pondération négative ou {@code NaN}.
+     *
+     * @return nombre d'arcs invalides
+     */
+    public int getNbArcsInvalides() {
+        return arcsInvalides.length;
+    }
+
+    /**
+     * Renvoie une copie des positions des arcs de pondération négative ou {@code NaN}.
+     *
+     * @return positions des arcs invalides, par ordre croissant
+     */
+    public int[] getArcsInvalides() {
+        return arcsInvalides.clone();
+    }
+
+    /**
+     * Indique si le réseau peut être utilisé sans réserve : toutes les pondérations sont positives ou nulles et chaque
+     * point peut atteindre tous les autres.
+     *
+     * @return {@code true} si le réseau est valide
+     */
+    public boolean estValide() {
+        return arcsInvalides.length == 0 && composantes.estFortementConnexe();
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationReseau{sommets=" + graphe.getNbSommets() + ", arcs=" + graphe.getNbArcs()
+                + ", arcs invalides=" + arcsInvalides.length + ", " + composantes + "}";
+    }
+}
@@ -1,11 +1,8 @@
 package fr.ua.iutlens.sae.reseau.graph;
 
-import fr.ua.iutlens.sae.reseau.Arete;
 import fr.ua.iutlens.sae.reseau.Point;
 import fr.ua.iutlens.sae.reseau.ReseauRoutier;
 import org.jgrapht.Graph;
-import org.jgrapht.Graphs;
-import org.jgrapht.graph.*;
 import org.jgrapht.traverse.DepthFirstIterator;
 
 
@@ -17,6 +14,7 @@ import java.util.Iterator;
  * <p>
  * </p>
  * Les classes {@code Point}, {@code Arete}, {@code RéseauRoutier} sont utilisées pour alimenter la librairie <a href="https://jgrapht.org/">{@link JGraphT}</a>.
+ * Le réseau est présenté à la librairie par une vue {@link VueJGraphT}, sans recopie des points ni des arêtes.
  */
 public class DessineGraph {
     public static void main(String[] args) {
@@ -25,16 +23,9 @@ public class DessineGraph {
         // Lecture du fichier contenant la description du réseau routier
         reseau.lireCarte("reseau.txt");
 
-        // Création d'une représentation du réseau routier sous la forme d'une classe de la librairie JGraphT
-        Graph<Point, DefaultWeightedEdge> g = new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
-
-        // Stockage des points et des arêtes du réseau routier dans le graphe de la librairie JGraphT.
-        for (Point p : reseau.getPoints())
-            g.addVertex(p);
-        for (Arete a : reseau.getRoutes()) {
-            // Ajout d'une arête : 2 points et une pondération
-            Graphs.addEdge(g,reseau.getPointById(a.getIdP1()), reseau.getPointById(a.getIdP2()), a.getPoids()) ;
-        }
+        // Représentation du réseau routier sous la forme d'un graphe de la librairie JGraphT :
+        // la vue s'appuie directement sur le stockage du réseau, une arête y est désignée par sa position.
+        Graph<Point, Integer> g = new VueJGraphT(reseau);
 
         // Parcours du graphe et affichage pour chaque point des points reliés par une arête
         Iterator<Point> iter = new DepthFirstIterator<>(g);
@@ -42,7 +33,7 @@ public class DessineGraph {
             Point vertex = iter.next();
             StringBuilder sb = new StringBuilder();
             sb.append(String.format("Vertex %d is connected to %d neighbour(ors) : %n",vertex.getId(), g.outgoingEdgesOf(vertex).size()));
-            for (DefaultWeightedEdge e : g.outgoingEdgesOf(vertex)) {
+            for (Integer e : g.outgoingEdgesOf(vertex)) {
                 sb.append(String.format("%d : %5.2f%n", g.getEdgeTarget(e).getId(), g.getEdgeWeight(e)));
             }
             System.out.println(sb.toString());
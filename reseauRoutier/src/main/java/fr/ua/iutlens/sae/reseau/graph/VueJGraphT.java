@@ -0,0 +1,364 @@
+package fr.ua.iutlens.sae.reseau.graph;
+
+import fr.ua.iutlens.sae.reseau.Graphe;
+import fr.ua.iutlens.sae.reseau.GrapheCSR;
+import fr.ua.iutlens.sae.reseau.GrapheCompresse;
+import fr.ua.iutlens.sae.reseau.Point;
+import fr.ua.iutlens.sae.reseau.ReseauRoutier;
+import org.jgrapht.GraphType;
+import org.jgrapht.graph.AbstractGraph;
+import org.jgrapht.graph.DefaultGraphType;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * La classe {@code VueJGraphT} présente un {@code ReseauRoutier} comme un graphe de la librairie
+ * <a href="https://jgrapht.org/">JGraphT</a>, sans recopier ses points ni ses arêtes.
+ * <p></p>
+ * Les sommets sont les {@code Point} du réseau et chaque arête est désignée par sa position dans le {@code GrapheCSR}
+ * du réseau. Les ensembles renvoyés ({@link #outgoingEdgesOf(Point)}, {@link #edgeSet()}...) sont des vues calculées
+ * à la demande sur les tableaux du graphe. La vue est en lecture seule et porte sur le réseau tel qu'il est à sa
+ * création : elle n'est pas affectée par une nouvelle lecture de carte. Un réseau relu compressé est décompressé
+ * pour la vue, qui a besoin des arcs entrants de chaque point.
+ */
+public class VueJGraphT extends AbstractGraph<Point, Integer> {
+
+    /**
+     * Type de graphe : orienté, pondéré, non modifiable, avec arêtes multiples et boucles
+     */
+    private static final GraphType TYPE = new DefaultGraphType.Builder()
+            .directed()
+            .allowMultipleEdges(true)
+            .allowSelfLoops(true)
+            .allowCycles(true)
+            .weighted(true)
+            .modifiable(false)
+            .build();
+
+    /**
+     * Graphe du réseau au moment de la création de la vue
+     */
+    private final GrapheCSR graphe;
+
+    /**
+     * Constructeur de la vue sur le réseau {@code reseau}.
+     *
+     * @param reseau réseau routier à présenter
+     */
+    public VueJGraphT(ReseauRoutier reseau) {
+        Graphe g = reseau.getGraphe();
+        this.graphe = g instanceof GrapheCompresse ? ((GrapheCompresse) g).decompresser() : (GrapheCSR) g;
+    }
+
+    /**
+     * Renvoie l'indice du point dans le graphe, ou {@code -1} s'il n'en fait pas partie.
+     */
+    private int index(Object o) {
+        return o instanceof Point ? graphe.indexDe(((Point) o).getId()) : -1;
+    }
+
+    /**
+     * Renvoie l'indice d'un point du graphe.
+     *
+     * @throws IllegalArgumentException si le point ne fait pas partie du graphe
+     * @throws NullPointerException si le point est {@code null}
+     */
+    private int indexExistant(Point p) {
+        assertVertexExist(p);
+        return graphe.indexDe(p.getId());
+    }
+
+    /**
+     * Renvoie le point d'indice {@code index}, construit à partir du graphe de la vue et non du réseau, qui a pu
+     * être relu depuis.
+     */
+    private Point point(int index) {
+        return new Point(graphe.getId(index), graphe.getX(index), graphe.getY(index));
+    }
+
+    private boolean estArc(Object o) {
+        if (!(o instanceof Integer))
+            return false;
+        int arc = (Integer) o;
+        return arc >= 0 && arc < graphe.getNbArcs();
+    }
+
+    @Override
+    public Set<Integer> getAllEdges(Point sourceVertex, Point targetVertex) {
+        int u = index(sourceVertex);
+        int v = index(targetVertex);
+        if (u < 0 || v < 0)
+            return null;
+        Set<Integer> arcs = new LinkedHashSet<>();
+        for (int k = graphe.getDebut(u); k < graphe.getFin(u); k++)
+            if (graphe.getCible(k) == v)
+                arcs.add(k);
+        return arcs;
+    }
+
+    @Override
+    public Integer getEdge(Point sourceVertex, Point targetVertex) {
+        int u = index(sourceVertex);
+        int v = index(targetVertex);
+        if (u < 0 || v < 0)
+            return null;
+        for (int k = graphe.getDebut(u); k < graphe.getFin(u); k++)
+            if (graphe.getCible(k) == v)
+                return k;
+        return null;
+    }
+
+    @Override
+    public Supplier<Point> getVertexSupplier() {
+        return null;
+    }
+
+    @Override
+    public Supplier<Integer> getEdgeSupplier() {
+        return null;
+    }
+
+    @Override
+    public Integer addEdge(Point sourceVertex, Point targetVertex) {
+        throw new UnsupportedOperationException("Vue en lecture seule");
+    }
+
+    @Override
+    public boolean addEdge(Point sourceVertex, Point targetVertex, Integer e) {
+        throw new UnsupportedOperationException("Vue en lecture seule");
+    }
+
+    @Override
+    public Point addVertex() {
+        throw new UnsupportedOperationException("Vue en lecture seule");
+    }
+
+    @Override
+    public boolean addVertex(Point v) {
+        throw new UnsupportedOperationException("Vue en lecture seule");
+    }
+
+    @Override
+    public boolean containsEdge(Integer e) {
+        return estArc(e);
+    }
+
+    @Override
+    public boolean containsVertex(Point v) {
+        return index(v) >= 0;
+    }
+
+    @Override
+    public Set<Integer> edgeSet() {
+        return new Positions(0, graphe.getNbArcs());
+    }
+
+    @Override
+    public int degreeOf(Point vertex) {
+        return inDegreeOf(vertex) + outDegreeOf(vertex);
+    }
+
+    @Override
+    public Set<Integer> edgesOf(Point vertex) {
+        Set<Integer> arcs = new LinkedHashSet<>(outgoingEdgesOf(vertex));
+        arcs.addAll(incomingEdgesOf(vertex));
+        return arcs;
+    }
+
+    @Override
+    public int inDegreeOf(Point vertex) {
+        int v = indexExistant(vertex);
+        return graphe.getFinEntrants(v) - graphe.getDebutEntrants(v);
+    }
+
+    @Override
+    public Set<Integer> incomingEdgesOf(Point vertex) {
+        int v = indexExistant(vertex);
+        return new Entrants(graphe.getDebutEntrants(v), graphe.getFinEntrants(v));
+    }
+
+    @Override
+    public int outDegreeOf(Point vertex) {
+        int u = indexExistant(vertex);
+        return graphe.getFin(u) - graphe.getDebut(u);
+    }
+
+    @Override
+    public Set<Integer> outgoingEdgesOf(Point vertex) {
+        int u = indexExistant(vertex);
+        return new Positions(graphe.getDebut(u), graphe.getFin(u));
+    }
+
+    @Override
+    public Integer removeEdge(Point sourceVertex, Point targetVertex) {
+        throw new UnsupportedOperationException("Vue en lecture seule");
+    }
+
+    @Override
+    public boolean removeEdge(Integer e) {
+        throw new UnsupportedOperationException("Vue en lecture seule");
+    }
+
+    @Override
+    public boolean removeVertex(Point v) {
+        throw new UnsupportedOperationException("Vue en lecture seule");
+    }
+
+    @Override
+    public Set<Point> vertexSet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Point> iterator() {
+                return new Iterator<>() {
+                    private int i;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < graphe.getNbSommets();
+                    }
+
+                    @Override
+                    public Point next() {
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+                        return point(i++);
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return index(o) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return graphe.getNbSommets();
+            }
+        };
+    }
+
+    @Override
+    public Point getEdgeSource(Integer e) {
+        return point(graphe.getSource(e));
+    }
+
+    @Override
+    public Point getEdgeTarget(Integer e) {
+        return point(graphe.getCible(e));
+    }
+
+    @Override
+    public GraphType getType() {
+        return TYPE;
+    }
+
+    @Override
+    public double getEdgeWeight(Integer e) {
+        return graphe.getPoids(e);
+    }
+
+    @Override
+    public void setEdgeWeight(Integer e, double weight) {
+        throw new UnsupportedOperationException("Vue en lecture seule");
+    }
+
+    /**
+     * Ensemble des positions d'arcs comprises entre {@code debut} (inclus) et {@code fin} (exclu)
+     */
+    private final class Positions extends AbstractSet<Integer> {
+        private final int debut;
+        private final int fin;
+
+        Positions(int debut, int fin) {
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            return new Iterator<>() {
+                private int k = debut;
+
+                @Override
+                public boolean hasNext() {
+                    return k < fin;
+                }
+
+                @Override
+                public Integer next() {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    return k++;
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!estArc(o))
+                return false;
+            int arc = (Integer) o;
+            return arc >= debut && arc < fin;
+        }
+
+        @Override
+        public int size() {
+            return fin - debut;
+        }
+    }
+
+    /**
+     * Ensemble des arcs entrants d'un sommet, rangés entre {@code debut} (inclus) et {@code fin} (exclu)
+     * dans l'index des arcs entrants
+     */
+    private final class Entrants extends AbstractSet<Integer> {
+        private final int debut;
+        private final int fin;
+
+        Entrants(int debut, int fin) {
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            return new Iterator<>() {
+                private int j = debut;
+
+                @Override
+                public boolean hasNext() {
+                    return j < fin;
+                }
+
+                @Override
+                public Integer next() {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    return graphe.getArcEntrant(j++);
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!estArc(o))
+                return false;
+            int arc = (Integer) o;
+            for (int j = debut; j < fin; j++)
+                if (graphe.getArcEntrant(j) == arc)
+                    return true;
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return fin - debut;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package fr.ua.iutlens.sae.reseau.tournee;
+
+/**
+ * La classe {@code Livraison} représente un colis à livrer en un point du réseau routier : l'identifiant du point
+ * client, le poids et le volume du colis.
+ * <p></p>
+ * Le poids et les dimensions sont ceux que l'interface {@code Livrable} de la gestion des ventes donne pour chaque
+ * article livrable ({@code getPoidsKgColis()}, {@code getHauteurColis()}...) : une ligne de commande de {@code q}
+ * articles livrables correspond à une livraison de {@code q} fois leur poids et leur volume, ou à {@code q}
+ * livraisons au même point.
+ */
+public final class Livraison {
+
+    /**
+     * Identifiant du point de livraison
+     */
+    private final int idPoint;
+
+    /**
+     * Poids du colis en kg
+     */
+    private final double poidsKg;
+
+    /**
+     * Volume du colis en m3
+     */
+    private final double volumeM3;
+
+    /**
+     * Constructeur de la classe {@code Livraison}.
+     *
+     * @param idPoint identifiant du point de livraison
+     * @param poidsKg poids du colis en kg
+     * @param volumeM3 volume du colis en m3
+     * @throws IllegalArgumentException si le poids ou le volume est négatif
+     */
+    public Livraison(int idPoint, double poidsKg, double volumeM3) {
+        if (!(poidsKg >= 0.0) || !(volumeM3 >= 0.0))
+            throw new IllegalArgumentException("Poids ou volume de colis invalide");
+        this.idPoint = idPoint;
+        this.poidsKg = poidsKg;
+        this.volumeM3 = volumeM3;
+    }
+
+    /**
+     * Crée la livraison d'un colis dont les dimensions sont données en cm, comme par l'interface {@code Livrable}.
+     *
+     * @param idPoint identifiant du point de livraison
+     * @param poidsKg poids du colis en kg
+     * @param hauteurCm hauteur du colis en cm
+     * @param largeurCm largeur du colis en cm
+     * @param profondeurCm profondeur du colis en cm
+     * @return la livraison
+     */
+    public static Livraison colis(int idPoint, double poidsKg, int hauteurCm, int largeurCm, int profondeurCm) {
+        return new Livraison(idPoint, poidsKg, (double) hauteurCm * largeurCm * profondeurCm / 1000000.0);
+    }
+
+    /**
+     * Renvoie l'identifiant du point de livraison.
+     *
+     * @return identifiant du point
+     */
+    public int getIdPoint() {
+        return idPoint;
+    }
+
+    /**
+     * Renvoie le poids du colis.
+     *
+     * @return poids en kg
+     */
+    public double getPoidsKg() {
+        return poidsKg;
+    }
+
+    /**
+     * Renvoie le volume du colis.
+     *
+     * @return volume en m3
+     */
+    public double getVolumeM3() {
+        return volumeM3;
+    }
+
+    @Override
+    public String toString() {
+        return "Livraison{" +
+                "idPoint=" + idPoint +
+                ", poidsKg=" + poidsKg +
+                ", volumeM3=" + volumeM3 +
+                '}';
+    }
+}
@@ -0,0 +1,506 @@
+package fr.ua.iutlens.sae.reseau.tournee;
+
+import fr.ua.iutlens.sae.reseau.ReseauRoutier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * La classe {@code PlanificateurTournees} répartit des livraisons entre des tournées partant d'un même dépôt, sans
+ * dépasser la capacité en poids ni en volume d'un véhicule, en cherchant à minimiser la longueur totale parcourue.
+ * <p></p>
+ * Les tournées sont construites par l'algorithme des économies de Clarke et Wright, dans sa version orientée : la fin
+ * d'une tournée est reliée au début d'une autre lorsque la distance économisée est la plus grande et que les
+ * capacités le permettent. Elles sont ensuite améliorées par recherche locale jusqu'à ce qu'aucun mouvement ne fasse
+ * gagner de distance :
+ * <ul>
+ *     <li>2-opt : inversion d'une portion d'une tournée ;</li>
+ *     <li>Or-opt : déplacement d'une suite de une à trois livraisons, éventuellement inversée, ailleurs dans la même
+ *     tournée ou dans une autre tournée qui a la capacité de la recevoir.</li>
+ * </ul>
+ * La recherche locale s'arrête sur un optimum local qui dépend de la construction : elle est relancée plusieurs fois
+ * ({@link #setNbRedemarrages(int)}), en bruitant aléatoirement les économies, et la meilleure solution est retenue.
+ * Les relances sont réparties sur le {@link ForkJoinPool} commun. Le premier essai n'est pas bruité et chaque essai
+ * a sa propre graine ({@link #setGraine(long)}) : le résultat ne dépend pas de l'ordre d'exécution des threads.
+ * <p></p>
+ * Toutes les distances sont lues dans une matrice calculée à l'avance, par exemple par
+ * {@link ReseauRoutier#matriceDistances(int[], int[])} : aucune recherche de chemin n'est faite pendant
+ * l'optimisation. Les distances peuvent être dissymétriques (sens uniques). Pour quelques centaines de livraisons,
+ * la planification prend de l'ordre de la seconde.
+ */
+public final class PlanificateurTournees {
+
+    /**
+     * Gain minimal pour qu'un mouvement soit appliqué, pour ne pas boucler sur des erreurs d'arrondi
+     */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Amplitude relative du bruit appliqué aux économies lors des relances
+     */
+    private static final double BRUIT = 0.2;
+
+    /**
+     * Nombre maximal de livraisons déplacées ensemble par un mouvement Or-opt
+     */
+    private static final int LONGUEUR_SEGMENT_MAX = 3;
+
+    /**
+     * Capacité d'un véhicule en kg
+     */
+    private final double capacitePoidsKg;
+
+    /**
+     * Capacité d'un véhicule en m3
+     */
+    private final double capaciteVolumeM3;
+
+    /**
+     * Nombre d'essais de construction et de recherche locale
+     */
+    private int nbRedemarrages = 4 * Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Graine des tirages aléatoires des relances
+     */
+    private long graine = 0;
+
+    /**
+     * Constructeur de la classe {@code PlanificateurTournees}.
+     *
+     * @param capacitePoidsKg capacité d'un véhicule en kg
+     * @param capaciteVolumeM3 capacité d'un véhicule en m3
+     * @throws IllegalArgumentException si l'une des capacités n'est pas strictement positive
+     */
+    public PlanificateurTournees(double capacitePoidsKg, double capaciteVolumeM3) {
+        if (!(capacitePoidsKg > 0.0) || !(capaciteVolumeM3 > 0.0))
+            throw new IllegalArgumentException("Capacité de véhicule invalide");
+        this.capacitePoidsKg = capacitePoidsKg;
+        this.capaciteVolumeM3 = capaciteVolumeM3;
+    }
+
+    /**
+     * Renvoie la capacité d'un véhicule en poids.
+     *
+     * @return capacité en kg
+     */
+    public double getCapacitePoidsKg() {
+        return capacitePoidsKg;
+    }
+
+    /**
+     * Renvoie la capacité d'un véhicule en volume.
+     *
+     * @return capacité en m3
+     */
+    public double getCapaciteVolumeM3() {
+        return capaciteVolumeM3;
+    }
+
+    /**
+     * Renvoie le nombre d'essais de construction et de recherche locale.
+     *
+     * @return nombre d'essais
+     */
+    public int getNbRedemarrages() {
+        return nbRedemarrages;
+    }
+
+    /**
+     * Modifie le nombre d'essais de construction et de recherche locale. Par défaut, quatre par processeur.
+     *
+     * @param nbRedemarrages nombre d'essais, au moins {@code 1}
+     * @throws IllegalArgumentException si le nombre d'essais est inférieur à {@code 1}
+     */
+    public void setNbRedemarrages(int nbRedemarrages) {
+        if (nbRedemarrages < 1)
+            throw new IllegalArgumentException("Nombre d'essais invalide");
+        this.nbRedemarrages = nbRedemarrages;
+    }
+
+    /**
+     * Renvoie la graine des tirages aléatoires.
+     *
+     * @return graine
+     */
+    public long getGraine() {
+        return graine;
+    }
+
+    /**
+     * Modifie la graine des tirages aléatoires : avec la même graine, les mêmes données donnent les mêmes tournées.
+     *
+     * @param graine graine
+     */
+    public void setGraine(long graine) {
+        this.graine = graine;
+    }
+
+    /**
+     * Planifie les tournées sur un réseau routier. La matrice des distances entre le dépôt et les points de livraison
+     * est calculée par {@link ReseauRoutier#matriceDistances(int[], int[])}.
+     *
+     * @param reseau réseau routier
+     * @param idDepot identifiant du point de dépôt
+     * @param livraisons livraisons à effectuer
+     * @return les tournées
+     * @throws IllegalArgumentException si l'un des identifiants est inconnu, si une livraison dépasse la capacité
+     * d'un véhicule ou si un point de livraison n'est pas atteignable depuis le dépôt, ou le dépôt depuis lui
+     */
+    public List<Tournee> planifier(ReseauRoutier reseau, int idDepot, List<Livraison> livraisons) {
+        int[] ids = new int[livraisons.size() + 1];
+        ids[0] = idDepot;
+        for (int i = 0; i < livraisons.size(); i++)
+            ids[i + 1] = livraisons.get(i).getIdPoint();
+        return planifier(idDepot, livraisons, reseau.matriceDistances(ids, ids));
+    }
+
+    /**
+     * Planifie les tournées à partir d'une matrice de distances. L'indice {@code 0} de la matrice désigne le dépôt et
+     * l'indice {@code i+1} le point de la i-ème livraison.
+     *
+     * @param idDepot identifiant du point de dépôt
+     * @param livraisons livraisons à effectuer
+     * @param distances matrice de taille {@code (n+1)*(n+1)} pour {@code n} livraisons : la distance de l'indice
+     * {@code a} à l'indice {@code b} est à la position {@code a * (n+1) + b}, {@link Double#POSITIVE_INFINITY} s'il
+     * n'y a pas de chemin
+     * @return les tournées
+     * @throws IllegalArgumentException si la taille de la matrice ne correspond pas au nombre de livraisons, si une
+     * livraison dépasse la capacité d'un véhicule ou si un point de livraison n'est pas atteignable depuis le dépôt,
+     * ou le dépôt depuis lui
+     */
+    public List<Tournee> planifier(int idDepot, List<Livraison> livraisons, double[] distances) {
+        int dim = livraisons.size() + 1;
+        if (distances.length != (long) dim * dim)
+            throw new IllegalArgumentException("Taille de la matrice des distances invalide");
+        double[] poids = new double[dim];
+        double[] volumes = new double[dim];
+        for (int i = 1; i < dim; i++) {
+            Livraison livraison = livraisons.get(i - 1);
+            if (livraison.getPoidsKg() > capacitePoidsKg || livraison.getVolumeM3() > capaciteVolumeM3)
+                throw new IllegalArgumentException("Livraison dépassant la capacité d'un véhicule");
+            if (!(distances[i] < Double.POSITIVE_INFINITY) || !(distances[i * dim] < Double.POSITIVE_INFINITY))
+                throw new IllegalArgumentException("Point de livraison inatteignable depuis le dépôt");
+            poids[i] = livraison.getPoidsKg();
+            volumes[i] = livraison.getVolumeM3();
+        }
+        List<Tournee> resultat = new ArrayList<>();
+        if (dim == 1)
+            return resultat;
+        Solution meilleure = IntStream.range(0, nbRedemarrages).parallel()
+                .mapToObj(r -> {
+                    Solution solution = new Solution(r, distances, dim, poids, volumes);
+                    solution.construire(new SplittableRandom(graine + r), r > 0);
+                    solution.ameliorer();
+                    return solution;
+                })
+                .min(Comparator.comparingDouble(Solution::getLongueur).thenComparingInt(s -> s.essai))
+                .orElseThrow();
+        for (Trajet trajet : meilleure.trajets) {
+            List<Livraison> ordre = new ArrayList<>(trajet.arrets.length);
+            for (int arret : trajet.arrets)
+                ordre.add(livraisons.get(arret - 1));
+            resultat.add(new Tournee(idDepot, ordre, meilleure.longueur(trajet.arrets)));
+        }
+        return resultat;
+    }
+
+    /**
+     * Suite des arrêts d'une tournée, indices dans la matrice des distances, et chargement du véhicule
+     */
+    private static final class Trajet {
+        private int[] arrets;
+        private double poids;
+        private double volume;
+
+        Trajet(int[] arrets, double poids, double volume) {
+            this.arrets = arrets;
+            this.poids = poids;
+            this.volume = volume;
+        }
+    }
+
+    /**
+     * Solution d'un essai : construction puis recherche locale
+     */
+    private final class Solution {
+
+        /**
+         * Numéro de l'essai
+         */
+        private final int essai;
+
+        /**
+         * Matrice des distances et sa dimension
+         */
+        private final double[] distances;
+        private final int dim;
+
+        /**
+         * Poids et volume de chaque livraison, par indice dans la matrice
+         */
+        private final double[] poids;
+        private final double[] volumes;
+
+        /**
+         * Tournées de la solution
+         */
+        private final List<Trajet> trajets = new ArrayList<>();
+
+        Solution(int essai, double[] distances, int dim, double[] poids, double[] volumes) {
+            this.essai = essai;
+            this.distances = distances;
+            this.dim = dim;
+            this.poids = poids;
+            this.volumes = volumes;
+        }
+
+        private double distance(int a, int b) {
+            return distances[a * dim + b];
+        }
+
+        /**
+         * Renvoie la longueur d'une tournée, aller et retour au dépôt compris.
+         */
+        double longueur(int[] arrets) {
+            double resultat = distance(0, arrets[0]) + distance(arrets[arrets.length - 1], 0);
+            for (int k = 1; k < arrets.length; k++)
+                resultat += distance(arrets[k - 1], arrets[k]);
+            return resultat;
+        }
+
+        double getLongueur() {
+            double resultat = 0.0;
+            for (Trajet trajet : trajets)
+                resultat += longueur(trajet.arrets);
+            return resultat;
+        }
+
+        /**
+         * Construit les tournées par l'algorithme des économies. Les tournées sont des listes chaînées d'arrêts,
+         * désignées par leur arrêt initial, et l'économie de chaque couple d'arrêts est triée avec le couple dans
+         * un même {@code long} : le poids fort est l'économie en {@code float}, positive donc ordonnée comme ses
+         * bits, et le poids faible la position du couple dans la matrice.
+         */
+        void construire(SplittableRandom aleatoire, boolean bruit) {
+            int[] suivant = new int[dim];
+            int[] tournee = new int[dim];
+            int[] debut = new int[dim];
+            int[] fin = new int[dim];
+            double[] charge = new double[dim];
+            double[] encombrement = new double[dim];
+            for (int i = 1; i < dim; i++) {
+                tournee[i] = debut[i] = fin[i] = i;
+                charge[i] = poids[i];
+                encombrement[i] = volumes[i];
+            }
+            long[] economies = new long[(dim - 1) * (dim - 2)];
+            int nb = 0;
+            for (int i = 1; i < dim; i++) {
+                for (int j = 1; j < dim; j++) {
+                    double economie = distance(i, 0) + distance(0, j) - distance(i, j);
+                    if (i == j || !(economie > EPSILON))
+                        continue;
+                    if (bruit)
+                        economie *= 1.0 + BRUIT * (2.0 * aleatoire.nextDouble() - 1.0);
+                    economies[nb++] = (long) Float.floatToIntBits((float) economie) << 32 | (i * dim + j);
+                }
+            }
+            Arrays.sort(economies, 0, nb);
+            for (int k = nb - 1; k >= 0; k--) {
+                int couple = (int) economies[k];
+                int i = couple / dim;
+                int j = couple % dim;
+                int a = tournee[i];
+                int b = tournee[j];
+                if (a == b || fin[a] != i || debut[b] != j || charge[a] + charge[b] > capacitePoidsKg
+                        || encombrement[a] + encombrement[b] > capaciteVolumeM3)
+                    continue;
+                suivant[i] = j;
+                fin[a] = fin[b];
+                charge[a] += charge[b];
+                encombrement[a] += encombrement[b];
+                for (int v = j; v != 0; v = suivant[v])
+                    tournee[v] = a;
+            }
+            for (int a = 1; a < dim; a++) {
+                if (tournee[a] != a)
+                    continue;
+                int nbArrets = 0;
+                for (int v = debut[a]; v != 0; v = suivant[v])
+                    nbArrets++;
+                int[] arrets = new int[nbArrets];
+                nbArrets = 0;
+                for (int v = debut[a]; v != 0; v = suivant[v])
+                    arrets[nbArrets++] = v;
+                trajets.add(new Trajet(arrets, charge[a], encombrement[a]));
+            }
+        }
+
+        /**
+         * Applique le premier mouvement améliorant trouvé, jusqu'à ce qu'il n'y en ait plus.
+         */
+        void ameliorer() {
+            boolean ameliore = true;
+            while (ameliore) {
+                ameliore = false;
+                for (Trajet trajet : trajets)
+                    while (deuxOpt(trajet.arrets))
+                        ameliore = true;
+                while (orOpt())
+                    ameliore = true;
+            }
+        }
+
+        /**
+         * Cherche une portion de la tournée dont l'inversion la raccourcit, et l'inverse. Les distances étant
+         * dissymétriques, la longueur de la portion est cumulée dans les deux sens.
+         *
+         * @return {@code true} si la tournée a été modifiée
+         */
+        private boolean deuxOpt(int[] arrets) {
+            int m = arrets.length;
+            for (int i = 0; i < m - 1; i++) {
+                int avant = i == 0 ? 0 : arrets[i - 1];
+                double direct = 0.0;
+                double inverse = 0.0;
+                for (int j = i + 1; j < m; j++) {
+                    direct += distance(arrets[j - 1], arrets[j]);
+                    inverse += distance(arrets[j], arrets[j - 1]);
+                    if (!(inverse < Double.POSITIVE_INFINITY))
+                        break;
+                    int apres = j == m - 1 ? 0 : arrets[j + 1];
+                    double delta = distance(avant, arrets[j]) + inverse + distance(arrets[i], apres)
+                            - distance(avant, arrets[i]) - direct - distance(arrets[j], apres);
+                    if (delta < -EPSILON) {
+                        for (int g = i, d = j; g < d; g++, d--) {
+                            int arret = arrets[g];
+                            arrets[g] = arrets[d];
+                            arrets[d] = arret;
+                        }
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Cherche une suite de livraisons dont le déplacement raccourcit la solution, et la déplace.
+         *
+         * @return {@code true} si la solution a été modifiée
+         */
+        private boolean orOpt() {
+            for (int a = 0; a < trajets.size(); a++) {
+                int m = trajets.get(a).arrets.length;
+                for (int longueur = 1; longueur <= Math.min(LONGUEUR_SEGMENT_MAX, m); longueur++)
+                    for (int i = 0; i + longueur <= m; i++)
+                        if (deplacer(a, i, longueur))
+                            return true;
+            }
+            return false;
+        }
+
+        /**
+         * Cherche la première position où insérer la suite de {@code longueur} arrêts commençant en {@code i} dans la
+         * tournée {@code a} qui raccourcit la solution, et l'y déplace.
+         */
+        private boolean deplacer(int a, int i, int longueur) {
+            int[] origine = trajets.get(a).arrets;
+            int premier = origine[i];
+            int dernier = origine[i + longueur - 1];
+            int avant = i == 0 ? 0 : origine[i - 1];
+            int apres = i + longueur == origine.length ? 0 : origine[i + longueur];
+            double direct = 0.0;
+            double inverse = 0.0;
+            double charge = 0.0;
+            double encombrement = 0.0;
+            for (int k = i; k < i + longueur; k++) {
+                charge += poids[origine[k]];
+                encombrement += volumes[origine[k]];
+                if (k > i) {
+                    direct += distance(origine[k - 1], origine[k]);
+                    inverse += distance(origine[k], origine[k - 1]);
+                }
+            }
+            double retrait = distance(avant, premier) + direct + distance(dernier, apres) - distance(avant, apres);
+            for (int b = 0; b < trajets.size(); b++) {
+                Trajet destination = trajets.get(b);
+                if (b != a && (destination.poids + charge > capacitePoidsKg
+                        || destination.volume + encombrement > capaciteVolumeM3))
+                    continue;
+                // Dans la même tournée, la suite est insérée dans la tournée privée de la suite.
+                int m = b == a ? origine.length - longueur : destination.arrets.length;
+                for (int q = 0; q <= m; q++) {
+                    int p0 = q == 0 ? 0 : arret(destination.arrets, b == a, i, longueur, q - 1);
+                    int p1 = q == m ? 0 : arret(destination.arrets, b == a, i, longueur, q);
+                    boolean memePlace = b == a && q == i;
+                    double base = distance(p0, p1) + retrait;
+                    if (!memePlace && distance(p0, premier) + direct + distance(dernier, p1) - base < -EPSILON) {
+                        inserer(a, i, longueur, b, q, false);
+                        return true;
+                    }
+                    if ((!memePlace || longueur > 1)
+                            && distance(p0, dernier) + inverse + distance(premier, p1) - base < -EPSILON) {
+                        inserer(a, i, longueur, b, q, true);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Renvoie le q-ième arrêt de la tournée, privée de la suite de {@code longueur} arrêts commençant en
+         * {@code i} si {@code retire} est vrai.
+         */
+        private int arret(int[] arrets, boolean retire, int i, int longueur, int q) {
+            return retire && q >= i ? arrets[q + longueur] : arrets[q];
+        }
+
+        /**
+         * Déplace la suite de {@code longueur} arrêts commençant en {@code i} dans la tournée {@code a} à la position
+         * {@code q} de la tournée {@code b}, privée de la suite si {@code b == a}.
+         */
+        private void inserer(int a, int i, int longueur, int b, int q, boolean inverser) {
+            Trajet origine = trajets.get(a);
+            Trajet destination = trajets.get(b);
+            int[] suite = Arrays.copyOfRange(origine.arrets, i, i + longueur);
+            if (inverser)
+                for (int g = 0, d = longueur - 1; g < d; g++, d--) {
+                    int arret = suite[g];
+                    suite[g] = suite[d];
+                    suite[d] = arret;
+                }
+            int[] reste = new int[origine.arrets.length - longueur];
+            System.arraycopy(origine.arrets, 0, reste, 0, i);
+            System.arraycopy(origine.arrets, i + longueur, reste, i, reste.length - i);
+            int[] cible = b == a ? reste : destination.arrets;
+            int[] arrets = new int[cible.length + longueur];
+            System.arraycopy(cible, 0, arrets, 0, q);
+            System.arraycopy(suite, 0, arrets, q, longueur);
+            System.arraycopy(cible, q, arrets, q + longueur, cible.length - q);
+            destination.arrets = arrets;
+            if (b == a)
+                return;
+            double charge = 0.0;
+            double encombrement = 0.0;
+            for (int arret : suite) {
+                charge += poids[arret];
+                encombrement += volumes[arret];
+            }
+            destination.poids += charge;
+            destination.volume += encombrement;
+            origine.arrets = reste;
+            origine.poids -= charge;
+            origine.volume -= encombrement;
+            if (reste.length == 0)
+                trajets.remove(a);
+        }
+    }
+}
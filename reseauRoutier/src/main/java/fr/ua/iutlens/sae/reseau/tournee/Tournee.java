@@ -0,0 +1,135 @@
+package fr.ua.iutlens.sae.reseau.tournee;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * La classe {@code Tournee} représente la tournée d'un véhicule : elle part du dépôt, dessert des livraisons dans
+ * l'ordre, puis revient au dépôt.
+ */
+public final class Tournee {
+
+    /**
+     * Identifiant du point de dépôt
+     */
+    private final int idDepot;
+
+    /**
+     * Livraisons dans l'ordre de passage
+     */
+    private final List<Livraison> livraisons;
+
+    /**
+     * Longueur de la tournée, retour au dépôt compris
+     */
+    private final double longueur;
+
+    /**
+     * Constructeur de la classe {@code Tournee}.
+     *
+     * @param idDepot identifiant du point de dépôt
+     * @param livraisons livraisons dans l'ordre de passage
+     * @param longueur longueur de la tournée, retour au dépôt compris
+     */
+    public Tournee(int idDepot, List<Livraison> livraisons, double longueur) {
+        this.idDepot = idDepot;
+        this.livraisons = Collections.unmodifiableList(new ArrayList<>(livraisons));
+        this.longueur = longueur;
+    }
+
+    /**
+     * Renvoie l'identifiant du point de dépôt.
+     *
+     * @return identifiant du dépôt
+     */
+    public int getIdDepot() {
+        return idDepot;
+    }
+
+    /**
+     * Renvoie le nombre de livraisons de la tournée.
+     *
+     * @return nombre de livraisons
+     */
+    public int getNbLivraisons() {
+        return livraisons.size();
+    }
+
+    /**
+     * Renvoie la i-ème livraison de la tournée.
+     *
+     * @param i position de la livraison dans la tournée
+     * @return la livraison
+     */
+    public Livraison getLivraison(int i) {
+        return livraisons.get(i);
+    }
+
+    /**
+     * Renvoie les livraisons dans l'ordre de passage.
+     *
+     * @return liste non modifiable des livraisons
+     */
+    public List<Livraison> getLivraisons() {
+        return livraisons;
+    }
+
+    /**
+     * Renvoie les identifiants des points visités : le dépôt, les points de livraison dans l'ordre, puis le dépôt.
+     *
+     * @return identifiants des points
+     */
+    public int[] getIdsPoints() {
+        int[] ids = new int[livraisons.size() + 2];
+        ids[0] = idDepot;
+        for (int i = 0; i < livraisons.size(); i++)
+            ids[i + 1] = livraisons.get(i).getIdPoint();
+        ids[ids.length - 1] = idDepot;
+        return ids;
+    }
+
+    /**
+     * Renvoie la longueur de la tournée, retour au dépôt compris.
+     *
+     * @return longueur de la tournée
+     */
+    public double getLongueur() {
+        return longueur;
+    }
+
+    /**
+     * Renvoie le poids total des colis de la tournée.
+     *
+     * @return poids en kg
+     */
+    public double getPoidsKg() {
+        double poids = 0.0;
+        for (Livraison l : livraisons)
+            poids += l.getPoidsKg();
+        return poids;
+    }
+
+    /**
+     * Renvoie le volume total des colis de la tournée.
+     *
+     * @return volume en m3
+     */
+    public double getVolumeM3() {
+        double volume = 0.0;
+        for (Livraison l : livraisons)
+            volume += l.getVolumeM3();
+        return volume;
+    }
+
+    @Override
+    public String toString() {
+        return "Tournee{" +
+                "idDepot=" + idDepot +
+                ", nbLivraisons=" + livraisons.size() +
+                ", longueur=" + longueur +
+                ", poidsKg=" + getPoidsKg() +
+                ", volumeM3=" + getVolumeM3() +
+                '}';
+    }
+}
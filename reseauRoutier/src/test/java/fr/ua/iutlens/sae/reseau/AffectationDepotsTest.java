@@ -0,0 +1,130 @@
+package fr.ua.iutlens.sae.reseau;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AffectationDepotsTest {
+
+    @TempDir
+    Path dossier;
+
+    /**
+     * Grille de {@code cote * cote} sommets reliés dans les deux sens par des routes de longueur {@code 1} : les
+     * distances sont entières et beaucoup de sommets sont à égale distance de plusieurs dépôts.
+     */
+    static GrapheCSR grille(int cote) {
+        GrapheCSR.Constructeur constructeur = new GrapheCSR.Constructeur();
+        for (int i = 0; i < cote * cote; i++)
+            constructeur.ajouterSommet(i, i % cote, i / cote);
+        for (int i = 0; i < cote * cote; i++) {
+            if (i % cote + 1 < cote) {
+                constructeur.ajouterArc(i, i + 1, 1.0);
+                constructeur.ajouterArc(i + 1, i, 1.0);
+            }
+            if (i + cote < cote * cote) {
+                constructeur.ajouterArc(i, i + cote, 1.0);
+                constructeur.ajouterArc(i + cote, i, 1.0);
+            }
+        }
+        return constructeur.construire();
+    }
+
+    /**
+     * Graphe {@code 1 -> 2 (-1), 2 -> 1 (-1), 2 -> 3 (1)}, qui a un cycle de longueur négative.
+     */
+    static GrapheCSR cycleNegatif() {
+        GrapheCSR.Constructeur constructeur = new GrapheCSR.Constructeur();
+        for (int i = 1; i <= 3; i++)
+            constructeur.ajouterSommet(i, i - 1, 0);
+        constructeur.ajouterArc(1, 2, -1.0);
+        constructeur.ajouterArc(2, 1, -1.0);
+        constructeur.ajouterArc(2, 3, 1.0);
+        return constructeur.construire();
+    }
+
+    /**
+     * Vérifie que chaque sommet est affecté au dépôt le plus proche selon l'algorithme de Dijkstra de référence, et
+     * qu'en cas d'égalité exacte le dépôt de plus petite position est retenu.
+     */
+    static void verifier(Graphe g, int[] depots, AffectationDepots affectation, boolean egalitesExactes) {
+        double[][] depuis = new double[depots.length][];
+        for (int i = 0; i < depots.length; i++)
+            depuis[i] = Reference.distances(g, depots[i]);
+        for (int v = 0; v < g.getNbSommets(); v++) {
+            int attendu = -1;
+            for (int i = 0; i < depots.length; i++)
+                if (depuis[i][v] < Double.POSITIVE_INFINITY && (attendu < 0 || depuis[i][v] < depuis[attendu][v]))
+                    attendu = i;
+            if (attendu < 0) {
+                assertEquals(-1, affectation.getPlusProche(v));
+                assertEquals(Double.POSITIVE_INFINITY, affectation.getDistance(v));
+                continue;
+            }
+            double minimum = depuis[attendu][v];
+            assertEquals(minimum, affectation.getDistance(v), 1e-9 * Math.max(1.0, minimum));
+            if (egalitesExactes)
+                assertEquals(attendu, affectation.getPlusProche(v));
+            else
+                assertEquals(minimum, depuis[affectation.getPlusProche(v)][v], 1e-9 * Math.max(1.0, minimum));
+        }
+    }
+
+    @Test
+    void depotLePlusProcheSelonDijkstra() throws IOException {
+        for (GenerateurReseau.Modele modele : GenerateurReseau.Modele.values()) {
+            Path carte = dossier.resolve(modele + ".txt");
+            new GenerateurReseau(modele, 500, 9).ecrireCarte(carte);
+            ReseauRoutier reseau = new ReseauRoutier();
+            reseau.lireCarte(carte.toString());
+            Graphe g = reseau.getGraphe();
+            int[] depots = {g.indexDe(5), g.indexDe(250), g.indexDe(480)};
+            verifier(g, depots, AffectationDepots.calculer(g, depots), false);
+        }
+    }
+
+    @Test
+    void egalitesAuDepotDePlusPetitePosition() {
+        GrapheCSR g = grille(12);
+        int[] depots = {143, 0, 11, 132, 66};
+        AffectationDepots affectation = AffectationDepots.calculer(g, depots);
+        verifier(g, depots, affectation, true);
+        // Le sommet 5 est à 5 du dépôt 0 et à 6 du dépôt 11 ; le sommet 6 est à 5 du dépôt 11 comme du dépôt 66,
+        // donné après lui ; le sommet 66 est lui-même un dépôt.
+        assertEquals(1, affectation.getPlusProche(5));
+        assertEquals(2, affectation.getPlusProche(6));
+        assertEquals(4, affectation.getPlusProche(66));
+        assertEquals(0.0, affectation.getDistance(66));
+    }
+
+    @Test
+    void depotDonneDeuxFoisGardeSaPremierePosition() {
+        GrapheCSR g = grille(5);
+        AffectationDepots affectation = AffectationDepots.calculer(g, new int[]{7, 3, 7});
+        assertEquals(0, affectation.getPlusProche(7));
+        assertEquals(1, affectation.getPlusProche(3));
+        assertEquals(3, affectation.getNbDepots());
+        assertEquals(7, affectation.getIdDepotPlusProche(12));
+    }
+
+    @Test
+    void parcoursSeTermineSurUnCycleNegatif() {
+        GrapheCSR g = cycleNegatif();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> AffectationDepots.calculer(g, new int[]{g.indexDe(1)}));
+    }
+
+    @Test
+    void affectationRefuseeSurUnCycleNegatif() throws IOException {
+        Path carte = dossier.resolve("negatif.txt");
+        Files.writeString(carte, "v 1 0 0\nv 2 1 0\nv 3 2 0\ne 1 2 -1\ne 2 1 -1\ne 2 3 1\n");
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte.toString());
+        assertThrows(IllegalStateException.class, () -> reseau.affecterEntrepots(new int[]{1}));
+    }
+}
@@ -0,0 +1,64 @@
+package fr.ua.iutlens.sae.reseau;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheCheminsTest {
+
+    @TempDir
+    Path dossier;
+
+    private ReseauRoutier lire() throws IOException {
+        Path carte = dossier.resolve("carte.txt");
+        new GenerateurReseau(GenerateurReseau.Modele.GRILLE, 400, 2).ecrireCarte(carte);
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte.toString());
+        return reseau;
+    }
+
+    @Test
+    void capaciteJamaisDepassee() throws IOException {
+        ReseauRoutier reseau = lire();
+        for (int capacite : new int[]{1, 2, 3, 5, 16, 17, 40}) {
+            CacheChemins cache = new CacheChemins(reseau, capacite, false);
+            for (int id = 0; id < 400; id++)
+                cache.distance(0, id);
+            assertTrue(cache.getTaille() <= capacite, "capacité " + capacite + " : " + cache.getTaille());
+            cache.fermer();
+        }
+    }
+
+    @Test
+    void capaciteUneEntree() throws IOException {
+        ReseauRoutier reseau = lire();
+        CacheChemins cache = new CacheChemins(reseau, 1, true);
+        cache.chemin(0, 1);
+        cache.chemin(0, 2);
+        assertEquals(1, cache.getTaille());
+        cache.chemin(0, 2);
+        assertEquals(1, cache.getNbSucces());
+    }
+
+    @Test
+    void resultatsEgauxAuReseauApresModification() throws IOException {
+        ReseauRoutier reseau = lire();
+        CacheChemins cache = new CacheChemins(reseau, 200, true);
+        for (int id = 0; id < 400; id += 7)
+            cache.distance(3, id);
+        MiseAJourPoids lot = new MiseAJourPoids();
+        for (Arete route : reseau.getRoutes())
+            if (route.getIdP1() % 5 == 0)
+                lot.modifier(route.getIdP1(), route.getIdP2(), route.getPoids() * (route.getIdP1() % 2 == 0 ? 3 : 0.5));
+        reseau.modifierPoids(lot);
+        for (int id = 0; id < 400; id += 7) {
+            Chemin attendu = reseau.plusCourtChemin(3, id);
+            assertEquals(attendu == null ? Double.POSITIVE_INFINITY : attendu.getLongueur(), cache.distance(3, id),
+                    1e-9);
+        }
+    }
+}
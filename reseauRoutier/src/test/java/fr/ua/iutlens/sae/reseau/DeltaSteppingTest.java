@@ -0,0 +1,95 @@
+package fr.ua.iutlens.sae.reseau;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaSteppingTest {
+
+    @TempDir
+    Path dossier;
+
+    private Graphe graphe(GenerateurReseau.Modele modele) throws IOException {
+        Path carte = dossier.resolve(modele + ".txt");
+        new GenerateurReseau(modele, 2000, 13).ecrireCarte(carte);
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte.toString());
+        return reseau.getGraphe();
+    }
+
+    @Test
+    void distancesEgalesADijkstra() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (GenerateurReseau.Modele modele : GenerateurReseau.Modele.values()) {
+                Graphe g = graphe(modele);
+                double largeur = DeltaStepping.largeurParDefaut(g);
+                for (double delta : new double[]{largeur / 8, largeur, largeur * 50}) {
+                    double[] distances = new DeltaStepping(g, delta, pool).distances(17);
+                    double[] reference = Reference.distances(g, 17);
+                    for (int v = 0; v < g.getNbSommets(); v++)
+                        assertEquals(reference[v], distances[v], 1e-9 * Math.max(1.0, reference[v]));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void affectationIdentiqueAuParcoursSequentiel() throws IOException {
+        Graphe g = graphe(GenerateurReseau.Modele.PLANAIRE);
+        int[] depots = {3, 700, 1500, 1999, 700};
+        AffectationDepots attendue = AffectationDepots.calculer(g, depots);
+        AffectationDepots affectation = new DeltaStepping(g).affecter(depots);
+        assertArrayEquals(attendue.getPlusProches(), affectation.getPlusProches());
+        assertArrayEquals(attendue.getDistances(), affectation.getDistances());
+    }
+
+    @Test
+    void egalitesAuDepotDePlusPetitePosition() {
+        GrapheCSR g = AffectationDepotsTest.grille(30);
+        int[] depots = {899, 0, 29, 870, 465, 464};
+        for (double delta : new double[]{0.5, 1.0, 3.0, 40.0}) {
+            AffectationDepots affectation = new DeltaStepping(g, delta, ForkJoinPool.commonPool()).affecter(depots);
+            AffectationDepotsTest.verifier(g, depots, affectation, true);
+            assertArrayEquals(AffectationDepots.calculer(g, depots).getPlusProches(), affectation.getPlusProches());
+        }
+    }
+
+    @Test
+    void largeurInvalideRefusee() {
+        GrapheCSR g = AffectationDepotsTest.grille(3);
+        for (double delta : new double[]{0.0, -1.0, Double.NaN, Double.POSITIVE_INFINITY})
+            assertThrows(IllegalArgumentException.class, () -> new DeltaStepping(g, delta, ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    void parcoursSeTermineSurUnCycleNegatif() {
+        GrapheCSR g = AffectationDepotsTest.cycleNegatif();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (double delta : new double[]{0.5, 1.0, 10.0}) {
+                DeltaStepping parcours = new DeltaStepping(g, delta, ForkJoinPool.commonPool());
+                parcours.distances(g.indexDe(1));
+                parcours.affecter(new int[]{g.indexDe(1), g.indexDe(3)});
+            }
+        });
+    }
+
+    @Test
+    void parcoursRefusesSurUnCycleNegatif() throws IOException {
+        Path carte = dossier.resolve("negatif.txt");
+        Files.writeString(carte, "v 1 0 0\nv 2 1 0\nv 3 2 0\ne 1 2 -1\ne 2 1 -1\ne 2 3 1\n");
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte.toString());
+        assertThrows(IllegalStateException.class, () -> reseau.affecterEntrepotsEnParallele(new int[]{1}));
+        assertThrows(IllegalStateException.class, () -> reseau.distancesDepuis(1));
+    }
+}
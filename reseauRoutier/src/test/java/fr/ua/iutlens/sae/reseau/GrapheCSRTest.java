@@ -0,0 +1,104 @@
+package fr.ua.iutlens.sae.reseau;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrapheCSRTest {
+
+    private static final int NB_POINTS = 700;
+
+    @TempDir
+    Path dossier;
+
+    private GrapheCSR graphe(GenerateurReseau.Modele modele) throws IOException {
+        Path carte = dossier.resolve(modele + ".txt");
+        new GenerateurReseau(modele, NB_POINTS, 6).ecrireCarte(carte);
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte.toString());
+        return (GrapheCSR) reseau.getGraphe();
+    }
+
+    /**
+     * Arcs sortants du sommet {@code u}, décrits par les identifiants et non les indices : {@code "id1 id2 poids"},
+     * triés.
+     */
+    private static List<String> arcs(GrapheCSR g, int u) {
+        List<String> arcs = new ArrayList<>();
+        for (int k = g.getDebut(u); k < g.getFin(u); k++)
+            arcs.add(g.getId(u) + " " + g.getId(g.getCible(k)) + " " + g.getPoids(k));
+        arcs.sort(null);
+        return arcs;
+    }
+
+    @Test
+    void renumerotationConserveLeReseau() throws IOException {
+        for (GenerateurReseau.Modele modele : GenerateurReseau.Modele.values()) {
+            GrapheCSR g = graphe(modele);
+            GrapheCSR h = g.renumeroterHilbert();
+            assertEquals(g.getNbSommets(), h.getNbSommets());
+            assertEquals(g.getNbArcs(), h.getNbArcs());
+            assertEquals(g.getRatioPoidsDistance(), h.getRatioPoidsDistance());
+            for (int u = 0; u < g.getNbSommets(); u++) {
+                int v = h.indexDe(g.getId(u));
+                assertEquals(g.getId(u), h.getId(v));
+                assertEquals(g.getX(u), h.getX(v));
+                assertEquals(g.getY(u), h.getY(v));
+                assertEquals(arcs(g, u), arcs(h, v));
+            }
+        }
+    }
+
+    @Test
+    void arcsEntrantsCoherentsApresRenumerotation() throws IOException {
+        GrapheCSR h = graphe(GenerateurReseau.Modele.PLANAIRE).renumeroterHilbert();
+        int nb = 0;
+        for (int v = 0; v < h.getNbSommets(); v++) {
+            for (int e = h.getDebutEntrants(v); e < h.getFinEntrants(v); e++) {
+                int k = h.getArcEntrant(e);
+                assertEquals(v, h.getCible(k));
+                assertEquals(h.getSourceEntrant(e), h.getSource(k));
+                assertTrue(h.getDebut(h.getSourceEntrant(e)) <= k && k < h.getFin(h.getSourceEntrant(e)));
+                nb++;
+            }
+        }
+        assertEquals(h.getNbArcs(), nb);
+    }
+
+    @Test
+    void distancesConserveesApresRenumerotation() throws IOException {
+        GrapheCSR g = graphe(GenerateurReseau.Modele.GEOMETRIQUE);
+        GrapheCSR h = g.renumeroterHilbert();
+        Random aleatoire = new Random(8);
+        for (int i = 0; i < 20; i++) {
+            int s = aleatoire.nextInt(NB_POINTS);
+            double[] avant = Reference.distances(g, s);
+            double[] apres = Reference.distances(h, h.indexDe(g.getId(s)));
+            for (int u = 0; u < g.getNbSommets(); u++)
+                assertEquals(avant[u], apres[h.indexDe(g.getId(u))], 1e-9 * Math.max(1.0, avant[u]));
+        }
+    }
+
+    @Test
+    void pointsProchesRangesPresLesUnsDesAutres() throws IOException {
+        GrapheCSR h = graphe(GenerateurReseau.Modele.GEOMETRIQUE).renumeroterHilbert();
+        // Le long de la courbe, deux sommets consécutifs sont bien plus proches que deux sommets pris au hasard.
+        double consecutifs = 0.0;
+        for (int u = 1; u < h.getNbSommets(); u++)
+            consecutifs += h.distanceEuclidienne(u - 1, u);
+        consecutifs /= h.getNbSommets() - 1;
+        double quelconques = 0.0;
+        Random aleatoire = new Random(2);
+        for (int i = 0; i < 10_000; i++)
+            quelconques += h.distanceEuclidienne(aleatoire.nextInt(NB_POINTS), aleatoire.nextInt(NB_POINTS));
+        quelconques /= 10_000;
+        assertTrue(consecutifs * 4 < quelconques, consecutifs + " / " + quelconques);
+    }
+}
@@ -0,0 +1,139 @@
+package fr.ua.iutlens.sae.reseau;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrapheCompresseTest {
+
+    @TempDir
+    Path dossier;
+
+    private static GrapheCSR graphe(boolean ordreSpatial) throws IOException {
+        GenerateurReseau generateur = new GenerateurReseau(GenerateurReseau.Modele.PLANAIRE, 2000, 13);
+        Path carte = Files.createTempFile("carte", ".txt");
+        try {
+            generateur.ecrireCarte(carte);
+            ReseauRoutier reseau = new ReseauRoutier();
+            reseau.setOrdreSpatial(ordreSpatial);
+            reseau.lireCarte(carte.toString());
+            return (GrapheCSR) reseau.getGraphe();
+        } finally {
+            Files.delete(carte);
+        }
+    }
+
+    /**
+     * Vérifie que les deux graphes ont les mêmes sommets et les mêmes arcs, à {@code erreurMax} près sur les
+     * pondérations.
+     */
+    private static void verifierIdentiques(GrapheCSR attendu, Graphe g, double erreurMax) {
+        assertEquals(attendu.getNbSommets(), g.getNbSommets());
+        assertEquals(attendu.getNbArcs(), g.getNbArcs());
+        for (int v = 0; v < g.getNbSommets(); v++) {
+            assertEquals(attendu.getId(v), g.getId(v));
+            assertEquals(v, g.indexDe(attendu.getId(v)));
+            assertEquals(attendu.getX(v), g.getX(v));
+            assertEquals(attendu.getY(v), g.getY(v));
+            assertEquals(attendu.getDebut(v), g.getDebut(v));
+            assertEquals(attendu.getFin(v), g.getFin(v));
+        }
+        for (int k = 0; k < g.getNbArcs(); k++) {
+            assertEquals(attendu.getCible(k), g.getCible(k));
+            assertEquals(attendu.getPoids(k), g.getPoids(k), erreurMax + 1e-9);
+        }
+        assertEquals(-1, g.indexDe(-5));
+    }
+
+    @Test
+    void compressionExacteConserveLeGraphe() throws IOException {
+        for (boolean ordreSpatial : new boolean[]{false, true}) {
+            GrapheCSR g = graphe(ordreSpatial);
+            GrapheCompresse compresse = GrapheCompresse.compresser(g, 0.0);
+            verifierIdentiques(g, compresse, 0.0);
+            verifierIdentiques(g, compresse.decompresser(), 0.0);
+            assertTrue(compresse.getTailleOctets() > 0);
+        }
+    }
+
+    @Test
+    void distancesApprocheesABorneConnue() throws IOException {
+        GrapheCSR g = graphe(true);
+        double erreurMax = 0.5;
+        GrapheCompresse compresse = GrapheCompresse.compresser(g, erreurMax);
+        verifierIdentiques(g, compresse, erreurMax);
+        double[] exactes = Reference.distances(g, 0);
+        double[] approchees = new DeltaStepping(compresse).distances(0);
+        double[] reference = Reference.distances(compresse, 0);
+        for (int v = 0; v < g.getNbSommets(); v++) {
+            assertEquals(reference[v], approchees[v], 1e-9);
+            // Un plus court chemin a au plus n-1 arcs, chacun arrondi d'au plus erreurMax.
+            assertEquals(exactes[v], approchees[v], erreurMax * (g.getNbSommets() - 1));
+        }
+        AffectationDepots affectation = AffectationDepots.calculer(compresse, new int[]{0, 1000});
+        double[] depuisAutre = Reference.distances(compresse, 1000);
+        for (int v = 0; v < g.getNbSommets(); v++)
+            assertEquals(Math.min(reference[v], depuisAutre[v]), affectation.getDistance(v), 1e-9);
+    }
+
+    @Test
+    void lectureCompresseeDUnInstantane() throws IOException {
+        GrapheCSR g = graphe(false);
+        Path fichier = dossier.resolve("reseau.bin");
+        InstantaneReseau.ecrire(g, fichier);
+        verifierIdentiques(g, GrapheCompresse.lire(fichier, 0.0), 0.0);
+        verifierIdentiques(g, GrapheCompresse.lire(fichier, 0.25), 0.25);
+    }
+
+    @Test
+    void reseauRecherchesSurUnInstantaneCompresse() throws IOException {
+        Path carte = dossier.resolve("carte.txt");
+        new GenerateurReseau(GenerateurReseau.Modele.GEOMETRIQUE, 800, 3).ecrireCarte(carte);
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.setOrdreSpatial(true);
+        reseau.lireCarte(carte.toString());
+        Path fichier = dossier.resolve("reseau.bin");
+        reseau.ecrireInstantane(fichier.toString());
+        ReseauRoutier compresse = new ReseauRoutier();
+        compresse.lireInstantaneCompresse(fichier.toString(), 0.0);
+        assertTrue(compresse.getGraphe() instanceof GrapheCompresse);
+        assertEquals(reseau.getValidation().getComposantes().getNbComposantesFortes(),
+                compresse.getValidation().getComposantes().getNbComposantesFortes());
+
+        Random aleatoire = new Random(6);
+        int[] ids = new int[6];
+        for (int i = 0; i < 40; i++) {
+            int s = reseau.getGraphe().getId(aleatoire.nextInt(800));
+            int t = reseau.getGraphe().getId(aleatoire.nextInt(800));
+            Chemin attendu = reseau.plusCourtChemin(s, t);
+            Chemin[] chemins = {
+                    compresse.plusCourtChemin(s, t),
+                    compresse.plusCourtCheminAEtoile(s, t),
+                    compresse.plusCourtCheminBidirectionnel(s, t)
+            };
+            for (Chemin chemin : chemins) {
+                if (attendu == null)
+                    assertNull(chemin);
+                else
+                    assertEquals(attendu.getLongueur(), Reference.verifierChemin(compresse.getGraphe(), chemin, s, t),
+                            1e-9 * attendu.getLongueur());
+            }
+            ids[i % ids.length] = s;
+        }
+        assertArrayEquals(reseau.matriceDistances(ids, ids), compresse.matriceDistances(ids, ids));
+        assertEquals(reseau.isochrone(ids[0], 500.0).getNbPoints(), compresse.isochrone(ids[0], 500.0).getNbPoints());
+        assertEquals(reseau.getPointLePlusProche(100, 100), compresse.getPointLePlusProche(100, 100));
+
+        assertThrows(UnsupportedOperationException.class, () -> compresse.cheminsAlternatifs(ids[0], ids[1], 2, 1.5));
+        assertThrows(UnsupportedOperationException.class, () -> compresse.modifierPoids(new MiseAJourPoids()));
+        assertThrows(UnsupportedOperationException.class, compresse::preparerHierarchie);
+        assertThrows(UnsupportedOperationException.class,
+                () -> compresse.preparerReperes(4, Reperes.Selection.EVITEMENT));
+    }
+}
@@ -0,0 +1,86 @@
+package fr.ua.iutlens.sae.reseau;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchieContracteeTest {
+
+    @TempDir
+    Path dossier;
+
+    private ReseauRoutier lire(Path carte, boolean ordreSpatial) {
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.setOrdreSpatial(ordreSpatial);
+        reseau.lireCarte(carte.toString());
+        return reseau;
+    }
+
+    private Path carte() throws IOException {
+        Path carte = dossier.resolve("carte.txt");
+        new GenerateurReseau(GenerateurReseau.Modele.PLANAIRE, 400, 7).ecrireCarte(carte);
+        return carte;
+    }
+
+    @Test
+    void hierarchieRelueDonneLesMemesLongueursQueDijkstra() throws IOException {
+        Path carte = carte();
+        Path fichier = dossier.resolve("carte.ch");
+        ReseauRoutier original = lire(carte, false);
+        original.preparerHierarchie();
+        original.ecrireHierarchie(fichier.toString());
+
+        ReseauRoutier reseau = lire(carte, false);
+        reseau.lireHierarchie(fichier.toString());
+        Random aleatoire = new Random(1);
+        for (int i = 0; i < 200; i++) {
+            int s = aleatoire.nextInt(400);
+            int t = aleatoire.nextInt(400);
+            Chemin attendu = reseau.plusCourtChemin(s, t);
+            Chemin chemin = reseau.plusCourtCheminHierarchique(s, t);
+            assertEquals(attendu == null, chemin == null);
+            if (attendu != null)
+                assertEquals(attendu.getLongueur(), chemin.getLongueur(), 1e-9);
+        }
+    }
+
+    @Test
+    void hierarchieRefuseeSiLesPonderationsOntChange() throws IOException {
+        Path carte = carte();
+        Path fichier = dossier.resolve("carte.ch");
+        ReseauRoutier original = lire(carte, false);
+        original.preparerHierarchie();
+        original.ecrireHierarchie(fichier.toString());
+
+        ReseauRoutier modifie = lire(carte, false);
+        MiseAJourPoids lot = new MiseAJourPoids();
+        for (Arete route : modifie.getRoutes())
+            if (route.getIdP1() % 2 == 0)
+                lot.modifier(route.getIdP1(), route.getIdP2(), route.getPoids() * 3);
+        modifie.modifierPoids(lot);
+        assertEquals(original.getGraphe().getNbArcs(), modifie.getGraphe().getNbArcs());
+
+        RuntimeException erreur = assertThrows(RuntimeException.class,
+                () -> modifie.lireHierarchie(fichier.toString()));
+        assertInstanceOf(IOException.class, erreur.getCause());
+    }
+
+    @Test
+    void hierarchieRefuseeSiLOrdreDesSommetsAChange() throws IOException {
+        Path carte = carte();
+        Path fichier = dossier.resolve("carte.ch");
+        ReseauRoutier original = lire(carte, false);
+        original.preparerHierarchie();
+        original.ecrireHierarchie(fichier.toString());
+
+        ReseauRoutier renumerote = lire(carte, true);
+        RuntimeException erreur = assertThrows(RuntimeException.class,
+                () -> renumerote.lireHierarchie(fichier.toString()));
+        assertInstanceOf(IOException.class, erreur.getCause());
+    }
+}
@@ -0,0 +1,83 @@
+package fr.ua.iutlens.sae.reseau;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexIdentifiantsTest {
+
+    /**
+     * Compare l'index à une table de hachage : chaque identifiant donne son premier sommet, et les identifiants
+     * {@code inconnus} qui ne figurent pas dans {@code ids} donnent {@code -1}.
+     */
+    private static void verifier(int[] ids, int... inconnus) {
+        IndexIdentifiants index = new IndexIdentifiants(ids);
+        Map<Integer, Integer> attendu = new HashMap<>();
+        for (int i = 0; i < ids.length; i++)
+            attendu.putIfAbsent(ids[i], i);
+        for (int id : ids)
+            assertEquals(attendu.get(id), index.indexDe(id));
+        for (int id : inconnus)
+            assertEquals(attendu.getOrDefault(id, -1), index.indexDe(id));
+    }
+
+    @Test
+    void identifiantsConsecutifs() {
+        verifier(new int[0], 0, 1, -1);
+        verifier(new int[]{42}, 41, 43, 0);
+        verifier(new int[]{1, 2, 3, 4, 5}, 0, 6, -1, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        verifier(new int[]{-3, -2, -1, 0, 1}, -4, 2, Integer.MIN_VALUE);
+        // Aux bornes du type int, l'écart à la première valeur ne doit pas déborder.
+        verifier(new int[]{Integer.MAX_VALUE - 2, Integer.MAX_VALUE - 1, Integer.MAX_VALUE}, Integer.MIN_VALUE, 0,
+                Integer.MAX_VALUE - 3);
+        verifier(new int[]{Integer.MIN_VALUE, Integer.MIN_VALUE + 1}, Integer.MAX_VALUE, -1, Integer.MIN_VALUE + 2);
+    }
+
+    @Test
+    void identifiantsQuelconques() {
+        verifier(new int[]{5, 3, 9, 1}, 0, 2, 4, 10, -5);
+        verifier(new int[]{Integer.MAX_VALUE, Integer.MIN_VALUE}, 0, -1, Integer.MAX_VALUE - 1);
+        // Les multiples d'une grande puissance de deux ne diffèrent que par leurs bits de poids fort.
+        int[] multiples = new int[1000];
+        for (int i = 0; i < multiples.length; i++)
+            multiples[i] = i << 20;
+        verifier(multiples, 1, 1 << 19, 1000 << 20, -(1 << 20));
+        Random aleatoire = new Random(6);
+        for (int essai = 0; essai < 20; essai++) {
+            int[] ids = new int[1 + aleatoire.nextInt(5000)];
+            for (int i = 0; i < ids.length; i++)
+                ids[i] = essai % 2 == 0 ? aleatoire.nextInt() : aleatoire.nextInt(3 * ids.length);
+            int[] inconnus = new int[200];
+            for (int i = 0; i < inconnus.length; i++)
+                inconnus[i] = aleatoire.nextInt();
+            verifier(ids, inconnus);
+        }
+    }
+
+    @Test
+    void identifiantEnDoubleDonneLePremierSommet() {
+        IndexIdentifiants index = new IndexIdentifiants(new int[]{7, 4, 7, 4, 9});
+        assertEquals(0, index.indexDe(7));
+        assertEquals(1, index.indexDe(4));
+        assertEquals(4, index.indexDe(9));
+        assertEquals(-1, index.indexDe(8));
+    }
+
+    @Test
+    void graphesLusRetrouventLeursPoints() {
+        for (boolean consecutifs : new boolean[]{true, false}) {
+            GrapheCSR.Constructeur constructeur = new GrapheCSR.Constructeur();
+            for (int i = 0; i < 100; i++)
+                constructeur.ajouterSommet(consecutifs ? 1000 + i : 1000 + 7 * i, i, 0);
+            GrapheCSR g = constructeur.construire();
+            for (int u = 0; u < g.getNbSommets(); u++)
+                assertEquals(u, g.indexDe(g.getId(u)));
+            assertEquals(-1, g.indexDe(999));
+            assertEquals(-1, g.indexDe(2000));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package fr.ua.iutlens.sae.reseau;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexSpatialTest {
+
+    private static final int NB_POINTS = 800;
+
+    @TempDir
+    Path dossier;
+
+    private Graphe graphe(GenerateurReseau.Modele modele) throws IOException {
+        Path carte = dossier.resolve(modele + ".txt");
+        new GenerateurReseau(modele, NB_POINTS, 4).ecrireCarte(carte);
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte.toString());
+        return reseau.getGraphe();
+    }
+
+    private static double distance(Graphe g, int sommet, int x, int y) {
+        return Math.hypot(g.getX(sommet) - x, g.getY(sommet) - y);
+    }
+
+    /**
+     * Distances de la position {@code (x,y)} à tous les sommets, par ordre croissant.
+     */
+    private static double[] distancesTriees(Graphe g, int x, int y) {
+        double[] distances = new double[g.getNbSommets()];
+        for (int v = 0; v < distances.length; v++)
+            distances[v] = distance(g, v, x, y);
+        Arrays.sort(distances);
+        return distances;
+    }
+
+    /**
+     * Positions tirées au hasard, y compris en dehors de l'emprise de la carte.
+     */
+    private static int[][] positions(int nb, long graine) {
+        Random aleatoire = new Random(graine);
+        int[][] positions = new int[nb][];
+        for (int i = 0; i < nb; i++)
+            positions[i] = new int[]{aleatoire.nextInt(5000) - 1000, aleatoire.nextInt(5000) - 1000};
+        return positions;
+    }
+
+    @Test
+    void plusProchesEgauxAuParcoursExhaustif() throws IOException {
+        for (GenerateurReseau.Modele modele : GenerateurReseau.Modele.values()) {
+            Graphe g = graphe(modele);
+            IndexSpatial index = new IndexSpatial(g);
+            for (int[] p : positions(150, modele.ordinal())) {
+                double[] attendues = distancesTriees(g, p[0], p[1]);
+                assertEquals(attendues[0], distance(g, index.plusProche(p[0], p[1]), p[0], p[1]), 1e-9);
+                int[] proches = index.kPlusProches(p[0], p[1], 12);
+                assertEquals(12, proches.length);
+                assertEquals(12, Arrays.stream(proches).distinct().count());
+                for (int i = 0; i < proches.length; i++)
+                    assertEquals(attendues[i], distance(g, proches[i], p[0], p[1]), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void plusProchesEnParalleleEgauxAuxRequetesIsolees() throws IOException {
+        Graphe g = graphe(GenerateurReseau.Modele.GEOMETRIQUE);
+        IndexSpatial index = new IndexSpatial(g);
+        int[][] positions = positions(200, 5);
+        int[] xs = new int[positions.length];
+        int[] ys = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            xs[i] = positions[i][0];
+            ys[i] = positions[i][1];
+        }
+        int[] resultat = index.kPlusProches(xs, ys, 3);
+        for (int i = 0; i < positions.length; i++)
+            assertArrayEquals(index.kPlusProches(xs[i], ys[i], 3), Arrays.copyOfRange(resultat, 3 * i, 3 * i + 3));
+    }
+
+    @Test
+    void kSuperieurAuNombreDeSommets() throws IOException {
+        Graphe g = graphe(GenerateurReseau.Modele.GRILLE);
+        IndexSpatial index = new IndexSpatial(g);
+        int[] tous = index.kPlusProches(10, 10, NB_POINTS + 50);
+        assertEquals(NB_POINTS, tous.length);
+        double[] attendues = distancesTriees(g, 10, 10);
+        for (int i = 0; i < tous.length; i++)
+            assertEquals(attendues[i], distance(g, tous[i], 10, 10), 1e-9);
+    }
+
+    @Test
+    void dansRayonEgalAuParcoursExhaustif() throws IOException {
+        Graphe g = graphe(GenerateurReseau.Modele.PLANAIRE);
+        IndexSpatial index = new IndexSpatial(g);
+        Random aleatoire = new Random(11);
+        for (int[] p : positions(100, 7)) {
+            double rayon = aleatoire.nextInt(600);
+            int[] trouves = index.dansRayon(p[0], p[1], rayon);
+            Arrays.sort(trouves);
+            int[] attendus = IntStream.range(0, g.getNbSommets())
+                    .filter(v -> {
+                        double dx = g.getX(v) - p[0];
+                        double dy = g.getY(v) - p[1];
+                        return dx * dx + dy * dy <= rayon * rayon;
+                    })
+                    .toArray();
+            assertArrayEquals(attendus, trouves);
+        }
+        assertEquals(0, index.dansRayon(0, 0, -1).length);
+    }
+}
@@ -0,0 +1,209 @@
+package fr.ua.iutlens.sae.reseau;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstantaneReseauTest {
+
+    private static final int NB_POINTS = 300;
+
+    /**
+     * Positions des tableaux dans le fichier (voir {@link InstantaneReseau})
+     */
+    private static final long RATIO = 16;
+    private static final long IDS = 24;
+    private static final long DEBUT = IDS + 12L * NB_POINTS;
+    private static final long CIBLES = IDS + 16L * NB_POINTS + 4;
+
+    @TempDir
+    Path dossier;
+
+    private GrapheCSR graphe() throws IOException {
+        Path carte = dossier.resolve("carte.txt");
+        new GenerateurReseau(GenerateurReseau.Modele.GEOMETRIQUE, NB_POINTS, 8).ecrireCarte(carte);
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte.toString());
+        return (GrapheCSR) reseau.getGraphe();
+    }
+
+    private Path ecrire(GrapheCSR g) throws IOException {
+        Path fichier = dossier.resolve("carte.bin");
+        InstantaneReseau.ecrire(g, fichier);
+        return fichier;
+    }
+
+    /**
+     * Remplace l'entier petit-boutiste à la position {@code position} du fichier.
+     */
+    private static void ecrireEntier(Path fichier, long position, int valeur) throws IOException {
+        try (RandomAccessFile f = new RandomAccessFile(fichier.toFile(), "rw")) {
+            f.seek(position);
+            f.writeInt(Integer.reverseBytes(valeur));
+        }
+    }
+
+    private static void verifierRefus(Path fichier) {
+        assertThrows(IOException.class, () -> InstantaneReseau.lire(fichier));
+        assertThrows(IOException.class, () -> InstantaneReseau.lireCompresse(fichier, 0.0));
+    }
+
+    @Test
+    void grapheRelu() throws IOException {
+        GrapheCSR g = graphe();
+        GrapheCSR relu = InstantaneReseau.lire(ecrire(g));
+        assertEquals(g.getEmpreinte(), relu.getEmpreinte());
+        assertEquals(g.getRatioPoidsDistance(), relu.getRatioPoidsDistance());
+    }
+
+    @Test
+    void cibleHorsDuGrapheRefusee() throws IOException {
+        GrapheCSR g = graphe();
+        Path fichier = ecrire(g);
+        ecrireEntier(fichier, CIBLES + 4L * (g.getNbArcs() / 2), NB_POINTS);
+        verifierRefus(fichier);
+        ecrireEntier(fichier, CIBLES + 4L * (g.getNbArcs() / 2), -1);
+        verifierRefus(fichier);
+    }
+
+    @Test
+    void positionsDesArcsDecroissantesRefusees() throws IOException {
+        GrapheCSR g = graphe();
+        Path fichier = ecrire(g);
+        ecrireEntier(fichier, DEBUT + 4L * 10, g.getDebut(12) + 1);
+        verifierRefus(fichier);
+    }
+
+    @Test
+    void premiereEtDernierePositionsVerifiees() throws IOException {
+        GrapheCSR g = graphe();
+        Path fichier = ecrire(g);
+        ecrireEntier(fichier, DEBUT, 1);
+        verifierRefus(fichier);
+        fichier = ecrire(g);
+        ecrireEntier(fichier, DEBUT + 4L * NB_POINTS, g.getNbArcs() - 1);
+        verifierRefus(fichier);
+    }
+
+    @Test
+    void identifiantsEnDoubleRefuses() throws IOException {
+        GrapheCSR g = graphe();
+        Path fichier = ecrire(g);
+        ecrireEntier(fichier, IDS + 4L * 7, g.getId(150));
+        verifierRefus(fichier);
+    }
+
+    @Test
+    void rapportPoidsDistanceRecalcule() throws IOException {
+        GrapheCSR g = graphe();
+        Path fichier = ecrire(g);
+        try (RandomAccessFile f = new RandomAccessFile(fichier.toFile(), "rw")) {
+            f.seek(RATIO);
+            f.writeLong(Long.reverseBytes(Double.doubleToLongBits(1e6)));
+        }
+        assertEquals(g.getRatioPoidsDistance(), InstantaneReseau.lire(fichier).getRatioPoidsDistance());
+        assertEquals(g.getRatioPoidsDistance(), InstantaneReseau.lireCompresse(fichier, 0.0).getRatioPoidsDistance());
+    }
+
+    @Test
+    void reseauRelu() throws IOException {
+        Path carte = dossier.resolve("carte.txt");
+        new GenerateurReseau(GenerateurReseau.Modele.PLANAIRE, NB_POINTS, 5).ecrireCarte(carte);
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte.toString());
+        Path fichier = dossier.resolve("reseau.bin");
+        reseau.ecrireInstantane(fichier.toString());
+        ReseauRoutier relu = new ReseauRoutier();
+        relu.lireInstantane(fichier.toString());
+        GrapheCSR a = (GrapheCSR) reseau.getGraphe();
+        GrapheCSR b = (GrapheCSR) relu.getGraphe();
+        assertEquals(a.getEmpreinte(), b.getEmpreinte());
+        for (int v = 0; v < a.getNbSommets(); v++) {
+            assertEquals(a.getX(v), b.getX(v));
+            assertEquals(a.getY(v), b.getY(v));
+        }
+        assertEquals(reseau.plusCourtChemin(1, 255).getLongueur(), relu.plusCourtChemin(1, 255).getLongueur());
+    }
+
+    /**
+     * Noms des fichiers du dossier de test, triés.
+     */
+    private List<String> fichiers() throws IOException {
+        try (Stream<Path> fichiers = Files.list(dossier)) {
+            return fichiers.map(f -> f.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void ecritureInterrompueSansEffet() throws IOException {
+        GrapheCSR g = graphe();
+        Path fichier = ecrire(g);
+        byte[] avant = Files.readAllBytes(fichier);
+        InstantaneReseau.Source incomplet = new InstantaneReseau.Source() {
+            @Override
+            public int getNbSommets() {
+                return g.getNbSommets();
+            }
+
+            @Override
+            public int getNbArcs() {
+                return g.getNbArcs() + 1;
+            }
+
+            @Override
+            public double getRatioPoidsDistance() {
+                return g.getRatioPoidsDistance();
+            }
+
+            @Override
+            public int getId(int sommet) {
+                return g.getId(sommet);
+            }
+
+            @Override
+            public int getX(int sommet) {
+                return g.getX(sommet);
+            }
+
+            @Override
+            public int getY(int sommet) {
+                return g.getY(sommet);
+            }
+
+            @Override
+            public void parcourirArcs(int sommet, InstantaneReseau.Arcs arcs) throws IOException {
+                for (int k = g.getDebut(sommet); k < g.getFin(sommet); k++)
+                    arcs.arc(g.getCible(k), g.getPoids(k));
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> InstantaneReseau.ecrire(incomplet, fichier));
+        assertArrayEquals(avant, Files.readAllBytes(fichier));
+        assertEquals(List.of("carte.bin", "carte.txt"), fichiers());
+    }
+
+    @Test
+    void lecteurOuvertGardeLAncienFichier() throws IOException {
+        GrapheCSR g = graphe();
+        Path fichier = ecrire(g);
+        try (FileChannel lecteur = FileChannel.open(fichier)) {
+            InstantaneReseau.ecrire(GrapheCSR.vide(), fichier);
+            ByteBuffer enTete = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+            lecteur.read(enTete, 0);
+            assertEquals(NB_POINTS, enTete.getInt(8));
+        }
+        assertEquals(0, InstantaneReseau.lire(fichier).getNbSommets());
+        assertEquals(List.of("carte.bin", "carte.txt"), fichiers());
+    }
+}
@@ -0,0 +1,101 @@
+package fr.ua.iutlens.sae.reseau;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RechargementCarteTest {
+
+    @TempDir
+    Path dossier;
+
+    private static String carte(double poids) {
+        return "v 1 0 0\nv 2 10 0\nv 3 20 0\ne 1 2 " + poids + "\ne 2 3 " + poids + "\ne 1 3 100\n";
+    }
+
+    private Path ecrire(String contenu) throws IOException {
+        Path fichier = dossier.resolve("carte.txt");
+        Path temporaire = dossier.resolve("carte.tmp");
+        Files.writeString(temporaire, contenu);
+        Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return fichier;
+    }
+
+    @Test
+    void rechargementDansLeMemeReseau() throws IOException {
+        RechargementCarte carte = new RechargementCarte(ecrire(carte(10)).toString());
+        // Les fichiers sont relus par recharger() seulement, pas par le thread de surveillance.
+        carte.fermer();
+        ReseauRoutier reseau = carte.getReseau();
+        CacheChemins cache = new CacheChemins(reseau, 100, true);
+        assertEquals(20.0, cache.distance(1, 3));
+
+        ecrire(carte(30));
+        assertTrue(carte.recharger());
+        assertSame(reseau, carte.getReseau());
+        assertEquals(2, carte.getVersion());
+        assertEquals(60.0, reseau.plusCourtChemin(1, 3).getLongueur());
+        assertEquals(60.0, cache.distance(1, 3));
+        assertEquals(0, carte.getNbEchecs());
+    }
+
+    @Test
+    void hierarchiePrepareeAvantLaPublication() throws IOException {
+        RechargementCarte carte = new RechargementCarte(ecrire(carte(10)).toString(), true,
+                ReseauRoutier::preparerHierarchie);
+        carte.fermer();
+        assertEquals(20.0, carte.getReseau().plusCourtCheminHierarchique(1, 3).getLongueur());
+        ecrire(carte(70));
+        assertTrue(carte.recharger());
+        assertEquals(100.0, carte.getReseau().plusCourtCheminHierarchique(1, 3).getLongueur());
+    }
+
+    @Test
+    void echecConserveLAncienGraphe() throws IOException {
+        RechargementCarte carte = new RechargementCarte(ecrire(carte(10)).toString());
+        carte.fermer();
+        Graphe avant = carte.getReseau().getGraphe();
+        ecrire("v 1 0 0\ne 1 9 4\n");
+        assertFalse(carte.recharger());
+        assertEquals(1, carte.getNbEchecs());
+        assertNotNull(carte.getDerniereErreur());
+        assertEquals(1, carte.getVersion());
+        assertSame(avant, carte.getReseau().getGraphe());
+    }
+
+    @Test
+    void erreurGraveComptee() throws IOException {
+        AtomicInteger nbPreparations = new AtomicInteger();
+        RechargementCarte carte = new RechargementCarte(ecrire(carte(10)).toString(), false, reseau -> {
+            if (nbPreparations.incrementAndGet() > 1)
+                throw new StackOverflowError();
+        });
+        carte.fermer();
+        assertThrows(StackOverflowError.class, carte::recharger);
+        assertEquals(1, carte.getNbEchecs());
+        assertInstanceOf(StackOverflowError.class, carte.getDerniereErreur());
+        assertEquals(20.0, carte.getReseau().plusCourtChemin(1, 3).getLongueur());
+    }
+
+    @Test
+    void fichierModifieRelu() throws IOException, InterruptedException {
+        RechargementCarte carte = new RechargementCarte(ecrire(carte(10)).toString());
+        try {
+            ecrire(carte(20));
+            long limite = System.currentTimeMillis() + 20_000;
+            while (carte.getVersion() < 2 && System.currentTimeMillis() < limite)
+                Thread.sleep(50);
+            assertEquals(2, carte.getVersion());
+            assertEquals(40.0, carte.getReseau().plusCourtChemin(1, 3).getLongueur());
+        } finally {
+            carte.fermer();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package fr.ua.iutlens.sae.reseau;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RechercheCheminTest {
+
+    private static final int NB_POINTS = 600;
+
+    @TempDir
+    Path dossier;
+
+    private GrapheCSR graphe(GenerateurReseau.Modele modele) throws IOException {
+        Path carte = dossier.resolve(modele + ".txt");
+        new GenerateurReseau(modele, NB_POINTS, 5).ecrireCarte(carte);
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte.toString());
+        // Routes plus longues dans un seul sens : la recherche arrière ne peut pas supposer des distances symétriques.
+        MiseAJourPoids lot = new MiseAJourPoids();
+        for (Arete route : reseau.getRoutes())
+            if (route.getIdP1() < route.getIdP2() && route.getIdP1() % 3 == 0)
+                lot.modifier(route.getIdP1(), route.getIdP2(), route.getPoids() * 4);
+        reseau.modifierPoids(lot);
+        return (GrapheCSR) reseau.getGraphe();
+    }
+
+    private ReseauRoutier cycleNegatif() throws IOException {
+        Path carte = dossier.resolve("negatif.txt");
+        Files.writeString(carte, "v 1 0 0\nv 2 1 0\nv 3 2 0\ne 1 2 -1\ne 2 1 -1\ne 2 3 1\n");
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte.toString());
+        return reseau;
+    }
+
+    @Test
+    void bidirectionnelleEgaleADijkstra() throws IOException {
+        for (GenerateurReseau.Modele modele : GenerateurReseau.Modele.values()) {
+            GrapheCSR g = graphe(modele);
+            RechercheChemin recherche = new RechercheChemin(g);
+            Random aleatoire = new Random(modele.ordinal());
+            for (int i = 0; i < 40; i++) {
+                int s = aleatoire.nextInt(NB_POINTS);
+                double[] reference = Reference.distances(g, s);
+                for (int j = 0; j < 5; j++) {
+                    int t = aleatoire.nextInt(NB_POINTS);
+                    double distance = recherche.bidirectionnelle(s, t);
+                    assertEquals(reference[t], distance, 1e-9 * Math.max(1.0, reference[t]));
+                    Chemin chemin = recherche.chemin(t);
+                    if (distance == Double.POSITIVE_INFINITY)
+                        assertNull(chemin);
+                    else
+                        assertEquals(distance, Reference.verifierChemin(g, chemin, g.getId(s), g.getId(t)),
+                                1e-9 * Math.max(1.0, distance));
+                }
+            }
+        }
+    }
+
+    @Test
+    void bidirectionnelleDUnSommetALuiMeme() throws IOException {
+        GrapheCSR g = graphe(GenerateurReseau.Modele.GRILLE);
+        RechercheChemin recherche = new RechercheChemin(g);
+        assertEquals(0.0, recherche.bidirectionnelle(7, 7));
+        assertArrayEquals(new int[]{g.getId(7)}, recherche.chemin(7).getIds());
+    }
+
+    @Test
+    void requetesRefuseesSurUnCycleNegatif() throws IOException {
+        ReseauRoutier reseau = cycleNegatif();
+        assertEquals(2, reseau.getValidation().getNbArcsInvalides());
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThrows(IllegalStateException.class, () -> reseau.plusCourtChemin(1, 3));
+            assertThrows(IllegalStateException.class, () -> reseau.plusCourtCheminAEtoile(1, 3));
+            assertThrows(IllegalStateException.class, () -> reseau.plusCourtCheminBidirectionnel(1, 3));
+            assertThrows(IllegalStateException.class, () -> reseau.cheminsAlternatifs(1, 3, 2, 2.0));
+            assertThrows(IllegalStateException.class, () -> reseau.matriceDistances(new int[]{1}, new int[]{3}));
+            assertThrows(IllegalStateException.class, () -> reseau.isochrone(1, 10.0));
+            assertThrows(IllegalStateException.class, () -> reseau.isochrones(new int[]{1, 2}, 10.0));
+        });
+    }
+
+    @Test
+    void rechercheSeTermineSurUnCycleNegatif() throws IOException {
+        GrapheCSR g = (GrapheCSR) cycleNegatif().getGraphe();
+        RechercheChemin recherche = new RechercheChemin(g);
+        int source = g.indexDe(1);
+        int cible = g.indexDe(3);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            recherche.dijkstra(source, cible);
+            recherche.aEtoile(source, cible);
+            recherche.bidirectionnelle(source, cible);
+            recherche.kPlusCourtsChemins(source, cible, 3, Double.POSITIVE_INFINITY);
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package fr.ua.iutlens.sae.reseau;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Calculs de référence des tests : algorithme de Dijkstra écrit le plus simplement possible, indépendant des espaces
+ * de recherche du réseau, et vérification des chemins renvoyés.
+ */
+final class Reference {
+
+    private Reference() {
+    }
+
+    /**
+     * Renvoie la distance de {@code source} à chaque sommet de {@code g}.
+     */
+    static double[] distances(Graphe g, int source) {
+        double[] distance = new double[g.getNbSommets()];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        distance[source] = 0.0;
+        PriorityQueue<double[]> file = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        file.add(new double[]{0.0, source});
+        while (!file.isEmpty()) {
+            double[] e = file.poll();
+            int u = (int) e[1];
+            if (e[0] > distance[u])
+                continue;
+            for (int k = g.getDebut(u); k < g.getFin(u); k++) {
+                double d = e[0] + g.getPoids(k);
+                if (d < distance[g.getCible(k)]) {
+                    distance[g.getCible(k)] = d;
+                    file.add(new double[]{d, g.getCible(k)});
+                }
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Vérifie que le chemin relie les deux points par des arcs de {@code g} et que sa longueur est la somme des
+     * pondérations de ces arcs, puis renvoie cette longueur.
+     */
+    static double verifierChemin(Graphe g, Chemin chemin, int idSource, int idCible) {
+        assertEquals(idSource, chemin.getIdPoint(0));
+        assertEquals(idCible, chemin.getIdPoint(chemin.getNbPoints() - 1));
+        double longueur = 0.0;
+        for (int i = 1; i < chemin.getNbPoints(); i++) {
+            int u = g.indexDe(chemin.getIdPoint(i - 1));
+            int v = g.indexDe(chemin.getIdPoint(i));
+            double poids = Double.POSITIVE_INFINITY;
+            for (int k = g.getDebut(u); k < g.getFin(u); k++)
+                if (g.getCible(k) == v)
+                    poids = Math.min(poids, g.getPoids(k));
+            assertTrue(poids < Double.POSITIVE_INFINITY, "aucune route de " + chemin.getIdPoint(i - 1) + " à "
+                    + chemin.getIdPoint(i));
+            longueur += poids;
+        }
+        assertEquals(longueur, chemin.getLongueur(), 1e-9 * Math.max(1.0, longueur));
+        return longueur;
+    }
+}
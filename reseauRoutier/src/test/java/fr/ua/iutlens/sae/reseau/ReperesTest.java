@@ -0,0 +1,86 @@
+package fr.ua.iutlens.sae.reseau;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReperesTest {
+
+    @TempDir
+    Path dossier;
+
+    private ReseauRoutier lire(Path carte) {
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte.toString());
+        return reseau;
+    }
+
+    private Path carte() throws IOException {
+        Path carte = dossier.resolve("carte.txt");
+        new GenerateurReseau(GenerateurReseau.Modele.GEOMETRIQUE, 400, 11).ecrireCarte(carte);
+        return carte;
+    }
+
+    @Test
+    void reperesRelusDonnentLesMemesLongueursQueDijkstra() throws IOException {
+        Path carte = carte();
+        Path fichier = dossier.resolve("carte.alt");
+        ReseauRoutier original = lire(carte);
+        original.preparerReperes(8, Reperes.Selection.EVITEMENT);
+        original.ecrireReperes(fichier.toString());
+
+        ReseauRoutier reseau = lire(carte);
+        reseau.lireReperes(fichier.toString());
+        Random aleatoire = new Random(2);
+        for (int i = 0; i < 200; i++) {
+            int s = aleatoire.nextInt(400);
+            int t = aleatoire.nextInt(400);
+            Chemin attendu = reseau.plusCourtChemin(s, t);
+            Chemin chemin = reseau.plusCourtCheminReperes(s, t);
+            assertEquals(attendu == null, chemin == null);
+            if (attendu != null)
+                assertEquals(attendu.getLongueur(), chemin.getLongueur(), 1e-9);
+        }
+    }
+
+    @Test
+    void reperesRefusesSiDesPonderationsOntDiminue() throws IOException {
+        Path carte = carte();
+        Path fichier = dossier.resolve("carte.alt");
+        ReseauRoutier original = lire(carte);
+        original.preparerReperes(8, Reperes.Selection.ELOIGNES);
+        original.ecrireReperes(fichier.toString());
+
+        ReseauRoutier modifie = lire(carte);
+        MiseAJourPoids lot = new MiseAJourPoids();
+        for (Arete route : modifie.getRoutes())
+            if (route.getIdP1() % 3 == 0)
+                lot.modifier(route.getIdP1(), route.getIdP2(), route.getPoids() / 4);
+        modifie.modifierPoids(lot);
+
+        RuntimeException erreur = assertThrows(RuntimeException.class,
+                () -> modifie.lireReperes(fichier.toString()));
+        assertInstanceOf(IOException.class, erreur.getCause());
+    }
+
+    @Test
+    void indiceDeRepereHorsDuGrapheRefuse() throws IOException {
+        Path carte = carte();
+        Path fichier = dossier.resolve("carte.alt");
+        ReseauRoutier reseau = lire(carte);
+        reseau.preparerReperes(4, Reperes.Selection.ELOIGNES);
+        reseau.ecrireReperes(fichier.toString());
+        // Signature, version, n, m, empreinte et nombre de repères précèdent le premier indice de repère.
+        try (RandomAccessFile acces = new RandomAccessFile(fichier.toFile(), "rw")) {
+            acces.seek(4 * 4 + 8 + 4);
+            acces.writeInt(reseau.getGraphe().getNbSommets());
+        }
+        assertThrows(IOException.class, () -> Reperes.lire(fichier, (GrapheCSR) reseau.getGraphe()));
+    }
+}
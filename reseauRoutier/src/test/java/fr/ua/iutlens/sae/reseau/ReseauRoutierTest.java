@@ -0,0 +1,335 @@
+package fr.ua.iutlens.sae.reseau;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReseauRoutierTest {
+
+    private static final int NB_POINTS = 600;
+
+    @TempDir
+    Path dossier;
+
+    private ReseauRoutier lire(GenerateurReseau.Modele modele, boolean ordreSpatial) throws IOException {
+        Path carte = dossier.resolve(modele + ".txt");
+        new GenerateurReseau(modele, NB_POINTS, 5).ecrireCarte(carte);
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.setOrdreSpatial(ordreSpatial);
+        reseau.lireCarte(carte.toString());
+        return reseau;
+    }
+
+    /**
+     * Rend une partie des routes plus longues dans un seul sens, et d'autres plus courtes, pour que les distances ne
+     * soient plus symétriques.
+     */
+    private static void rendreDissymetrique(ReseauRoutier reseau) {
+        MiseAJourPoids lot = new MiseAJourPoids();
+        for (Arete route : reseau.getRoutes()) {
+            if (route.getIdP1() < route.getIdP2() && route.getIdP1() % 3 == 0)
+                lot.modifier(route.getIdP1(), route.getIdP2(), route.getPoids() * 4);
+            else if (route.getIdP1() % 7 == 0)
+                lot.modifier(route.getIdP1(), route.getIdP2(), route.getPoids() * 0.8);
+        }
+        reseau.modifierPoids(lot);
+    }
+
+    /**
+     * Compare chaque mode de recherche à l'algorithme de Dijkstra de référence sur des couples tirés au hasard.
+     */
+    private static void verifierModes(ReseauRoutier reseau, long graine) {
+        Graphe g = reseau.getGraphe();
+        reseau.preparerHierarchie();
+        reseau.preparerReperes(6, Reperes.Selection.EVITEMENT);
+        Random aleatoire = new Random(graine);
+        for (int i = 0; i < 60; i++) {
+            int s = g.getId(aleatoire.nextInt(g.getNbSommets()));
+            double[] reference = Reference.distances(g, g.indexDe(s));
+            for (int j = 0; j < 5; j++) {
+                int t = g.getId(aleatoire.nextInt(g.getNbSommets()));
+                double attendu = reference[g.indexDe(t)];
+                Chemin[] chemins = {
+                        reseau.plusCourtChemin(s, t),
+                        reseau.plusCourtCheminAEtoile(s, t),
+                        reseau.plusCourtCheminBidirectionnel(s, t),
+                        reseau.plusCourtCheminHierarchique(s, t),
+                        reseau.plusCourtCheminReperes(s, t)
+                };
+                List<Chemin> alternatifs = reseau.cheminsAlternatifs(s, t, 3, 1.5);
+                if (attendu == Double.POSITIVE_INFINITY) {
+                    for (Chemin chemin : chemins)
+                        assertNull(chemin);
+                    assertTrue(alternatifs.isEmpty());
+                    continue;
+                }
+                for (Chemin chemin : chemins)
+                    assertEquals(attendu, Reference.verifierChemin(g, chemin, s, t), 1e-9 * attendu);
+                assertEquals(attendu, Reference.verifierChemin(g, alternatifs.get(0), s, t), 1e-9 * attendu);
+            }
+        }
+    }
+
+    /**
+     * Vérifie les recherches par repères et par l'algorithme de Dijkstra sur des couples tirés au hasard.
+     */
+    private static void verifierReperes(ReseauRoutier reseau, long graine) {
+        Graphe g = reseau.getGraphe();
+        Random aleatoire = new Random(graine);
+        for (int i = 0; i < 30; i++) {
+            int s = g.getId(aleatoire.nextInt(g.getNbSommets()));
+            double[] reference = Reference.distances(g, g.indexDe(s));
+            for (int j = 0; j < 5; j++) {
+                int t = g.getId(aleatoire.nextInt(g.getNbSommets()));
+                double attendu = reference[g.indexDe(t)];
+                for (Chemin chemin : new Chemin[]{reseau.plusCourtChemin(s, t), reseau.plusCourtCheminReperes(s, t)}) {
+                    if (attendu == Double.POSITIVE_INFINITY)
+                        assertNull(chemin);
+                    else
+                        assertEquals(attendu, Reference.verifierChemin(g, chemin, s, t), 1e-9 * attendu);
+                }
+            }
+        }
+    }
+
+    @Test
+    void reperesConservesSiAucunePonderationNeDiminue() throws IOException {
+        ReseauRoutier reseau = lire(GenerateurReseau.Modele.PLANAIRE, false);
+        reseau.preparerHierarchie();
+        reseau.preparerReperes(6, Reperes.Selection.EVITEMENT);
+        MiseAJourPoids lot = new MiseAJourPoids();
+        for (Arete route : reseau.getRoutes())
+            if (route.getIdP1() % 4 == 0)
+                lot.modifier(route.getIdP1(), route.getIdP2(), route.getPoids() * 3);
+        long version = reseau.getVersion();
+        reseau.modifierPoids(lot);
+        assertEquals(version + 1, reseau.getVersion());
+        assertThrows(IllegalStateException.class, () -> reseau.plusCourtCheminHierarchique(1, 2));
+        verifierReperes(reseau, 1);
+    }
+
+    @Test
+    void reperesAbandonnesSiUnePonderationDiminue() throws IOException {
+        ReseauRoutier reseau = lire(GenerateurReseau.Modele.PLANAIRE, false);
+        reseau.preparerReperes(6, Reperes.Selection.EVITEMENT);
+        Arete plusLongue = reseau.getRoutes().get(10);
+        Arete plusCourte = reseau.getRoutes().get(20);
+        MiseAJourPoids lot = new MiseAJourPoids()
+                .modifier(plusLongue.getIdP1(), plusLongue.getIdP2(), plusLongue.getPoids() * 5)
+                .modifier(plusCourte.getIdP1(), plusCourte.getIdP2(), plusCourte.getPoids() * 0.5);
+        reseau.modifierPoids(lot);
+        assertThrows(IllegalStateException.class, () -> reseau.plusCourtCheminReperes(1, 2));
+        reseau.preparerReperes(6, Reperes.Selection.EVITEMENT);
+        verifierReperes(reseau, 2);
+    }
+
+    @Test
+    void lotInvalideSansEffet() throws IOException {
+        ReseauRoutier reseau = lire(GenerateurReseau.Modele.GRILLE, false);
+        Arete route = reseau.getRoutes().get(0);
+        Graphe avant = reseau.getGraphe();
+        long version = reseau.getVersion();
+        MiseAJourPoids inconnu = new MiseAJourPoids()
+                .modifier(route.getIdP1(), route.getIdP2(), 1.0)
+                .modifier(route.getIdP1(), -5, 1.0);
+        assertThrows(IllegalArgumentException.class, () -> reseau.modifierPoids(inconnu));
+        assertSame(avant, reseau.getGraphe());
+        assertEquals(version, reseau.getVersion());
+    }
+
+    @Test
+    void ecouteursPrevenusDesArcsModifies() throws IOException {
+        ReseauRoutier reseau = lire(GenerateurReseau.Modele.GEOMETRIQUE, false);
+        List<int[]> recus = new ArrayList<>();
+        reseau.ajouterEcouteur((ancien, nouveau, arcs) -> recus.add(arcs));
+        Arete route = reseau.getRoutes().get(5);
+        reseau.modifierPoids(new MiseAJourPoids().modifier(route.getIdP1(), route.getIdP2(), 123.0));
+        assertEquals(1, recus.size());
+        assertTrue(recus.get(0).length >= 1);
+        Graphe g = reseau.getGraphe();
+        for (int k : recus.get(0)) {
+            assertEquals(123.0, g.getPoids(k));
+            assertEquals(route.getIdP2(), g.getId(g.getCible(k)));
+        }
+    }
+
+    @Test
+    void distancesEgalesADijkstraApresPlusieursLots() throws IOException {
+        ReseauRoutier reseau = lire(GenerateurReseau.Modele.GEOMETRIQUE, true);
+        List<Arete> routes = reseau.getRoutes();
+        Random aleatoire = new Random(4);
+        for (int i = 0; i < 5; i++) {
+            MiseAJourPoids lot = new MiseAJourPoids();
+            for (int j = 0; j < 50; j++) {
+                Arete route = routes.get(aleatoire.nextInt(routes.size()));
+                lot.modifier(route.getIdP1(), route.getIdP2(), route.getPoids() * (0.5 + 2 * aleatoire.nextDouble()));
+            }
+            reseau.modifierPoids(lot);
+            reseau.preparerReperes(4, Reperes.Selection.EVITEMENT);
+            verifierReperes(reseau, 10 + i);
+        }
+    }
+
+    @Test
+    void modesDeRechercheEgauxADijkstra() throws IOException {
+        for (GenerateurReseau.Modele modele : GenerateurReseau.Modele.values())
+            verifierModes(lire(modele, false), modele.ordinal());
+    }
+
+    @Test
+    void modesDeRechercheEgauxADijkstraSurUnReseauDissymetrique() throws IOException {
+        ReseauRoutier reseau = lire(GenerateurReseau.Modele.PLANAIRE, false);
+        rendreDissymetrique(reseau);
+        verifierModes(reseau, 17);
+    }
+
+    @Test
+    void modesDeRechercheEgauxADijkstraApresRenumerotation() throws IOException {
+        ReseauRoutier reseau = lire(GenerateurReseau.Modele.GEOMETRIQUE, true);
+        assertTrue(reseau.isOrdreSpatial());
+        verifierModes(reseau, 23);
+    }
+
+    @Test
+    void matriceEgaleADijkstra() throws IOException {
+        ReseauRoutier reseau = lire(GenerateurReseau.Modele.GEOMETRIQUE, false);
+        rendreDissymetrique(reseau);
+        Graphe g = reseau.getGraphe();
+        int[] departs = {0, 17, 250, 599};
+        int[] arrivees = {3, 99, 400, 512, 17};
+        double[] matrice = reseau.matriceDistances(departs, arrivees);
+        assertEquals(departs.length * arrivees.length, matrice.length);
+        for (int i = 0; i < departs.length; i++) {
+            double[] reference = Reference.distances(g, g.indexDe(departs[i]));
+            for (int j = 0; j < arrivees.length; j++)
+                assertEquals(reference[g.indexDe(arrivees[j])], matrice[i * arrivees.length + j], 1e-9);
+        }
+    }
+
+    @Test
+    void matriceTropGrandeRefusee() throws IOException {
+        ReseauRoutier reseau = lire(GenerateurReseau.Modele.GRILLE, false);
+        int[] ids = new int[50_000];
+        assertThrows(IllegalArgumentException.class, () -> reseau.matriceDistances(ids, ids));
+    }
+
+    @Test
+    void isochronesEgalesADijkstra() throws IOException {
+        ReseauRoutier reseau = lire(GenerateurReseau.Modele.GEOMETRIQUE, false);
+        rendreDissymetrique(reseau);
+        Graphe g = reseau.getGraphe();
+        int[] depots = {0, 17, 250, 599};
+        double budget = 800.0;
+        Isochrone[] isochrones = reseau.isochrones(depots, budget);
+        for (int i = 0; i < depots.length; i++) {
+            double[] reference = Reference.distances(g, g.indexDe(depots[i]));
+            for (Isochrone isochrone : new Isochrone[]{reseau.isochrone(depots[i], budget), isochrones[i]}) {
+                assertEquals(depots[i], isochrone.getIdDepart());
+                int nb = 0;
+                for (int v = 0; v < g.getNbSommets(); v++) {
+                    if (reference[v] <= budget) {
+                        nb++;
+                        assertEquals(reference[v], isochrone.getDistanceVers(g.getId(v)), 1e-9);
+                    }
+                }
+                assertEquals(nb, isochrone.getNbPoints());
+                for (int j = 1; j < isochrone.getNbPoints(); j++)
+                    assertTrue(isochrone.getDistance(j - 1) <= isochrone.getDistance(j));
+            }
+        }
+    }
+
+    @Test
+    void affectationEgaleADijkstra() throws IOException {
+        ReseauRoutier reseau = lire(GenerateurReseau.Modele.PLANAIRE, true);
+        rendreDissymetrique(reseau);
+        Graphe g = reseau.getGraphe();
+        int[] entrepots = {5, 300, 480};
+        AffectationDepots affectation = reseau.affecterEntrepots(entrepots);
+        int[] depots = new int[entrepots.length];
+        for (int i = 0; i < entrepots.length; i++) {
+            depots[i] = g.indexDe(entrepots[i]);
+            assertEquals(depots[i], affectation.getDepot(i));
+        }
+        AffectationDepotsTest.verifier(g, depots, affectation, false);
+    }
+
+    @Test
+    void cheminsAlternatifsDistinctsEtOrdonnes() throws IOException {
+        ReseauRoutier reseau = lire(GenerateurReseau.Modele.GRILLE, false);
+        Graphe g = reseau.getGraphe();
+        Random aleatoire = new Random(3);
+        for (int i = 0; i < 40; i++) {
+            int s = g.getId(aleatoire.nextInt(NB_POINTS));
+            int t = g.getId(aleatoire.nextInt(NB_POINTS));
+            List<Chemin> chemins = reseau.cheminsAlternatifs(s, t, 4, 1.3);
+            Chemin plusCourt = reseau.plusCourtChemin(s, t);
+            if (plusCourt == null) {
+                assertTrue(chemins.isEmpty());
+                continue;
+            }
+            assertTrue(chemins.size() >= 1 && chemins.size() <= 4);
+            assertEquals(plusCourt.getLongueur(), chemins.get(0).getLongueur(), 1e-9 * plusCourt.getLongueur());
+            Set<List<Integer>> vus = new HashSet<>();
+            double precedente = 0.0;
+            for (Chemin chemin : chemins) {
+                double longueur = Reference.verifierChemin(g, chemin, s, t);
+                assertTrue(longueur >= precedente - 1e-9);
+                assertTrue(longueur <= 1.3 * plusCourt.getLongueur() + 1e-9);
+                List<Integer> ids = new ArrayList<>();
+                for (int id : chemin.getIds())
+                    ids.add(id);
+                assertEquals(ids.size(), new HashSet<>(ids).size(), "chemin avec une boucle");
+                assertTrue(vus.add(ids), "chemin en double");
+                precedente = longueur;
+            }
+        }
+    }
+
+    @Test
+    void cheminsAlternatifsDUnePetiteGrille() throws IOException {
+        // Grille de 3 x 3 points reliés dans les deux sens par des routes de longueur 1 : six chemins de longueur 4
+        // vont d'un coin au coin opposé, les suivants sans boucle sont de longueur 6.
+        StringBuilder texte = new StringBuilder();
+        for (int i = 0; i < 9; i++)
+            texte.append("v ").append(i).append(' ').append(i % 3).append(' ').append(i / 3).append('\n');
+        for (int i = 0; i < 9; i++) {
+            if (i % 3 < 2)
+                texte.append("e ").append(i).append(' ').append(i + 1).append(" 1\ne ").append(i + 1).append(' ')
+                        .append(i).append(" 1\n");
+            if (i < 6)
+                texte.append("e ").append(i).append(' ').append(i + 3).append(" 1\ne ").append(i + 3).append(' ')
+                        .append(i).append(" 1\n");
+        }
+        Path carte = dossier.resolve("grille.txt");
+        Files.writeString(carte, texte);
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte.toString());
+
+        assertEquals(4, reseau.cheminsAlternatifs(0, 8, 4, 1.0).size());
+        List<Chemin> chemins = reseau.cheminsAlternatifs(0, 8, 10, 1.0);
+        assertEquals(6, chemins.size());
+        for (Chemin chemin : chemins)
+            assertEquals(4.0, chemin.getLongueur());
+        chemins = reseau.cheminsAlternatifs(0, 8, 10, 1.5);
+        assertEquals(10, chemins.size());
+        for (int i = 6; i < chemins.size(); i++)
+            assertEquals(6.0, chemins.get(i).getLongueur());
+        assertEquals(1, reseau.cheminsAlternatifs(4, 4, 3, 2.0).size());
+
+        assertThrows(IllegalArgumentException.class, () -> reseau.cheminsAlternatifs(0, 8, 0, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> reseau.cheminsAlternatifs(0, 8, 3, 0.9));
+        assertThrows(IllegalArgumentException.class, () -> reseau.cheminsAlternatifs(0, 8, 3, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> reseau.cheminsAlternatifs(0, 99, 3, 1.5));
+    }
+}
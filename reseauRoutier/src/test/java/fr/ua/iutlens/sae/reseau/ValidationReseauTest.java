@@ -0,0 +1,138 @@
+package fr.ua.iutlens.sae.reseau;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidationReseauTest {
+
+    @TempDir
+    Path dossier;
+
+    private ReseauRoutier lire(GenerateurReseau.Modele modele, int nbPoints) throws IOException {
+        Path carte = dossier.resolve(modele + ".txt");
+        new GenerateurReseau(modele, nbPoints, 12).ecrireCarte(carte);
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte.toString());
+        return reseau;
+    }
+
+    /**
+     * Composante faiblement connexe de chaque sommet, par un union-find sur les arcs pris dans les deux sens.
+     */
+    private static int[] racines(Graphe g) {
+        int[] parent = IntStream.range(0, g.getNbSommets()).toArray();
+        for (int u = 0; u < g.getNbSommets(); u++) {
+            for (int k = g.getDebut(u); k < g.getFin(u); k++) {
+                int a = racine(parent, u);
+                int b = racine(parent, g.getCible(k));
+                parent[a] = b;
+            }
+        }
+        for (int u = 0; u < parent.length; u++)
+            parent[u] = racine(parent, u);
+        return parent;
+    }
+
+    private static int racine(int[] parent, int u) {
+        while (parent[u] != u)
+            u = parent[u] = parent[parent[u]];
+        return u;
+    }
+
+    @Test
+    void composantesEgalesAuxParcoursExhaustifs() throws IOException {
+        for (GenerateurReseau.Modele modele : GenerateurReseau.Modele.values()) {
+            ReseauRoutier reseau = lire(modele, 250);
+            // Une route sur huit est retirée : il reste des sens uniques, qui séparent des composantes fortement
+            // connexes, et parfois des îlots.
+            GrapheCSR.Constructeur constructeur = new GrapheCSR.Constructeur();
+            for (Point p : reseau.getPoints())
+                constructeur.ajouterSommet(p.getId(), p.getX(), p.getY());
+            Random aleatoire = new Random(modele.ordinal());
+            for (Arete route : reseau.getRoutes())
+                if (aleatoire.nextInt(8) != 0)
+                    constructeur.ajouterArc(route.getIdP1(), route.getIdP2(), route.getPoids());
+            GrapheCSR g = constructeur.construire();
+            Composantes composantes = ValidationReseau.valider(g).getComposantes();
+            int[] racines = racines(g);
+            double[][] distances = new double[g.getNbSommets()][];
+            for (int s = 0; s < g.getNbSommets(); s++)
+                distances[s] = Reference.distances(g, s);
+            for (int s = 0; s < g.getNbSommets(); s++) {
+                for (int t = 0; t < g.getNbSommets(); t++) {
+                    boolean aller = distances[s][t] < Double.POSITIVE_INFINITY;
+                    boolean retour = distances[t][s] < Double.POSITIVE_INFINITY;
+                    assertEquals(aller && retour,
+                            composantes.getComposanteForte(s) == composantes.getComposanteForte(t));
+                    assertEquals(racines[s] == racines[t],
+                            composantes.getComposanteFaible(s) == composantes.getComposanteFaible(t));
+                    if (composantes.estInatteignable(s, t))
+                        assertFalse(aller);
+                }
+            }
+        }
+    }
+
+    @Test
+    void longueChaineSansDebordementDePile() {
+        GrapheCSR.Constructeur constructeur = new GrapheCSR.Constructeur();
+        int n = 300_000;
+        for (int i = 0; i < n; i++)
+            constructeur.ajouterSommet(i, i, 0);
+        for (int i = 0; i + 1 < n; i++)
+            constructeur.ajouterArc(i, i + 1, 1.0);
+        ValidationReseau validation = ValidationReseau.valider(constructeur.construire());
+        assertEquals(n, validation.getComposantes().getNbComposantesFortes());
+        assertEquals(1, validation.getComposantes().getNbComposantesFaibles());
+        assertTrue(validation.getComposantes().estInatteignable(n - 1, 0));
+        assertFalse(validation.getComposantes().estInatteignable(0, n - 1));
+    }
+
+    @Test
+    void arcsInvalidesRecenses() {
+        GrapheCSR.Constructeur constructeur = new GrapheCSR.Constructeur();
+        for (int i = 1; i <= 4; i++)
+            constructeur.ajouterSommet(i, i, i);
+        constructeur.ajouterArc(1, 2, 1.0);
+        constructeur.ajouterArc(2, 3, -1.0);
+        constructeur.ajouterArc(3, 4, Double.NaN);
+        constructeur.ajouterArc(4, 1, 0.0);
+        GrapheCSR g = constructeur.construire();
+        ValidationReseau validation = ValidationReseau.valider(g);
+        assertEquals(2, validation.getNbArcsInvalides());
+        for (int k : validation.getArcsInvalides())
+            assertFalse(g.getPoids(k) >= 0.0);
+        assertFalse(validation.estValide());
+        assertTrue(validation.getComposantes().estFortementConnexe());
+    }
+
+    @Test
+    void bilanTenuAJourParLesModifications() throws IOException {
+        ReseauRoutier reseau = lire(GenerateurReseau.Modele.PLANAIRE, 400);
+        ValidationReseau initiale = reseau.getValidation();
+        assertEquals(0, initiale.getNbArcsInvalides());
+        List<Arete> routes = reseau.getRoutes();
+        Random aleatoire = new Random(3);
+        for (int i = 0; i < 6; i++) {
+            MiseAJourPoids lot = new MiseAJourPoids();
+            for (int j = 0; j < 30; j++) {
+                Arete route = routes.get(aleatoire.nextInt(routes.size()));
+                double[] poids = {-2.0, Double.NaN, route.getPoids(), 2 * route.getPoids()};
+                lot.modifier(route.getIdP1(), route.getIdP2(), poids[aleatoire.nextInt(poids.length)]);
+            }
+            reseau.modifierPoids(lot);
+            ValidationReseau tenue = reseau.getValidation();
+            assertSame(initiale.getComposantes(), tenue.getComposantes());
+            assertArrayEquals(ValidationReseau.valider(reseau.getGraphe()).getArcsInvalides(),
+                    tenue.getArcsInvalides());
+        }
+    }
+}
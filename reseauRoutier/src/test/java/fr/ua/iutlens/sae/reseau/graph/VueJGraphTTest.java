@@ -0,0 +1,64 @@
+package fr.ua.iutlens.sae.reseau.graph;
+
+import fr.ua.iutlens.sae.reseau.GenerateurReseau;
+import fr.ua.iutlens.sae.reseau.Point;
+import fr.ua.iutlens.sae.reseau.ReseauRoutier;
+import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VueJGraphTTest {
+
+    @TempDir
+    Path dossier;
+
+    private Path carte(GenerateurReseau.Modele modele, int nbSommets, long graine) throws IOException {
+        Path carte = dossier.resolve(modele + "-" + graine + ".txt");
+        new GenerateurReseau(modele, nbSommets, graine).ecrireCarte(carte);
+        return carte;
+    }
+
+    @Test
+    void cheminsEgauxAuReseau() throws IOException {
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte(GenerateurReseau.Modele.PLANAIRE, 300, 4).toString());
+        VueJGraphT vue = new VueJGraphT(reseau);
+        assertEquals(300, vue.vertexSet().size());
+        assertEquals(reseau.getGraphe().getNbArcs(), vue.edgeSet().size());
+        DijkstraShortestPath<Point, Integer> dijkstra = new DijkstraShortestPath<>(vue);
+        Point source = reseau.getPointById(0);
+        for (int id = 0; id < 300; id += 11) {
+            double attendu = reseau.distancesDepuis(0)[reseau.getGraphe().indexDe(id)];
+            assertEquals(attendu, dijkstra.getPathWeight(source, reseau.getPointById(id)), 1e-9);
+        }
+    }
+
+    @Test
+    void pointsDeLaVueInchangesApresUneNouvelleLecture() throws IOException {
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte(GenerateurReseau.Modele.GEOMETRIQUE, 200, 1).toString());
+        Map<Integer, Point> avant = new HashMap<>();
+        for (Point p : reseau.getPoints())
+            avant.put(p.getId(), p);
+        VueJGraphT vue = new VueJGraphT(reseau);
+
+        reseau.lireCarte(carte(GenerateurReseau.Modele.GEOMETRIQUE, 100, 2).toString());
+        assertEquals(200, vue.vertexSet().size());
+        for (Point p : vue.vertexSet()) {
+            Point attendu = avant.get(p.getId());
+            assertEquals(attendu.getX(), p.getX());
+            assertEquals(attendu.getY(), p.getY());
+        }
+        for (Integer arc : vue.edgeSet()) {
+            assertNotNull(vue.getEdgeSource(arc));
+            assertNotNull(vue.getEdgeTarget(arc));
+        }
+    }
+}
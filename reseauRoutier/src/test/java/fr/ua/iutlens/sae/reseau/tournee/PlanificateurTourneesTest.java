@@ -0,0 +1,131 @@
+package fr.ua.iutlens.sae.reseau.tournee;
+
+import fr.ua.iutlens.sae.reseau.GenerateurReseau;
+import fr.ua.iutlens.sae.reseau.ReseauRoutier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlanificateurTourneesTest {
+
+    private static final double CAPACITE_POIDS = 100.0;
+    private static final double CAPACITE_VOLUME = 0.5;
+
+    @TempDir
+    Path dossier;
+
+    /**
+     * Vérifie que chaque livraison est faite une fois, que les capacités sont respectées et que les longueurs sont
+     * celles de la matrice, puis renvoie la longueur totale.
+     */
+    private static double verifier(List<Tournee> tournees, List<Livraison> livraisons, double[] distances) {
+        int dim = livraisons.size() + 1;
+        Map<Livraison, Integer> indices = new IdentityHashMap<>();
+        for (int i = 0; i < livraisons.size(); i++)
+            indices.put(livraisons.get(i), i + 1);
+        Set<Livraison> faites = Collections.newSetFromMap(new IdentityHashMap<>());
+        double total = 0.0;
+        for (Tournee tournee : tournees) {
+            assertTrue(tournee.getNbLivraisons() > 0);
+            assertTrue(tournee.getPoidsKg() <= CAPACITE_POIDS + 1e-9);
+            assertTrue(tournee.getVolumeM3() <= CAPACITE_VOLUME + 1e-9);
+            int precedent = 0;
+            double longueur = 0.0;
+            for (Livraison livraison : tournee.getLivraisons()) {
+                assertTrue(faites.add(livraison), "livraison faite deux fois");
+                int i = indices.get(livraison);
+                longueur += distances[precedent * dim + i];
+                precedent = i;
+            }
+            longueur += distances[precedent * dim];
+            assertEquals(longueur, tournee.getLongueur(), 1e-6 * Math.max(1.0, longueur));
+            total += longueur;
+        }
+        assertEquals(livraisons.size(), faites.size());
+        return total;
+    }
+
+    @Test
+    void tourneesValidesDeterministesEtAmeliorees() {
+        Random aleatoire = new Random(1);
+        for (int essai = 0; essai < 100; essai++) {
+            int n = 1 + aleatoire.nextInt(60);
+            int dim = n + 1;
+            double[] x = new double[dim];
+            double[] y = new double[dim];
+            for (int i = 0; i < dim; i++) {
+                x[i] = aleatoire.nextDouble() * 100;
+                y[i] = aleatoire.nextDouble() * 100;
+            }
+            // Distances dissymétriques, et quelques couples de livraisons sans chemin direct
+            double[] distances = new double[dim * dim];
+            for (int i = 0; i < dim; i++)
+                for (int j = 0; j < dim; j++)
+                    distances[i * dim + j] = i == j ? 0.0 : i > 0 && j > 0 && aleatoire.nextInt(20) == 0
+                            ? Double.POSITIVE_INFINITY
+                            : Math.hypot(x[i] - x[j], y[i] - y[j]) * (1 + 0.3 * aleatoire.nextDouble());
+            List<Livraison> livraisons = new ArrayList<>();
+            for (int i = 0; i < n; i++)
+                livraisons.add(Livraison.colis(i, 1 + aleatoire.nextInt(30), 10 + aleatoire.nextInt(50),
+                        10 + aleatoire.nextInt(50), 10 + aleatoire.nextInt(50)));
+
+            PlanificateurTournees planificateur = new PlanificateurTournees(CAPACITE_POIDS, CAPACITE_VOLUME);
+            planificateur.setGraine(essai);
+            double longueur = verifier(planificateur.planifier(-1, livraisons, distances), livraisons, distances);
+            assertTrue(longueur < Double.POSITIVE_INFINITY);
+            assertEquals(longueur, verifier(planificateur.planifier(-1, livraisons, distances), livraisons,
+                    distances));
+            planificateur.setNbRedemarrages(1);
+            assertTrue(longueur <= verifier(planificateur.planifier(-1, livraisons, distances), livraisons,
+                    distances) + 1e-9);
+        }
+    }
+
+    @Test
+    void livraisonsImpossiblesRefusees() {
+        PlanificateurTournees planificateur = new PlanificateurTournees(CAPACITE_POIDS, CAPACITE_VOLUME);
+        List<Livraison> tropLourde = List.of(new Livraison(1, CAPACITE_POIDS + 1, 0.1));
+        assertThrows(IllegalArgumentException.class,
+                () -> planificateur.planifier(0, tropLourde, new double[]{0, 1, 1, 0}));
+        List<Livraison> livraison = List.of(new Livraison(1, 1, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> planificateur.planifier(0, livraison,
+                new double[]{0, Double.POSITIVE_INFINITY, 1, 0}));
+        assertThrows(IllegalArgumentException.class, () -> planificateur.planifier(0, livraison, new double[3]));
+        assertTrue(planificateur.planifier(0, List.of(), new double[1]).isEmpty());
+    }
+
+    @Test
+    void tourneesSurUnReseau() throws IOException {
+        Path carte = dossier.resolve("carte.txt");
+        new GenerateurReseau(GenerateurReseau.Modele.GRILLE, 900, 4).ecrireCarte(carte);
+        ReseauRoutier reseau = new ReseauRoutier();
+        reseau.lireCarte(carte.toString());
+        Random aleatoire = new Random(8);
+        List<Livraison> livraisons = new ArrayList<>();
+        for (int i = 0; i < 80; i++)
+            livraisons.add(new Livraison(1 + aleatoire.nextInt(899), 1 + aleatoire.nextInt(20),
+                    0.01 * (1 + aleatoire.nextInt(10))));
+        List<Tournee> tournees = new PlanificateurTournees(CAPACITE_POIDS, CAPACITE_VOLUME)
+                .planifier(reseau, 0, livraisons);
+        int[] ids = new int[livraisons.size() + 1];
+        for (int i = 0; i < livraisons.size(); i++)
+            ids[i + 1] = livraisons.get(i).getIdPoint();
+        verifier(tournees, livraisons, reseau.matriceDistances(ids, ids));
+        for (Tournee tournee : tournees) {
+            int[] points = tournee.getIdsPoints();
+            assertEquals(0, points[0]);
+            assertEquals(0, points[points.length - 1]);
+        }
+    }
+}